@@ -24,13 +24,18 @@ import com.google.inject.Injector;
 import com.walmartlabs.concord.agent.Worker.CompletionCallback;
 import com.walmartlabs.concord.agent.cfg.AgentConfiguration;
 import com.walmartlabs.concord.agent.cfg.DockerConfiguration;
+import com.walmartlabs.concord.agent.cfg.ServerConfiguration;
 import com.walmartlabs.concord.agent.docker.OrphanSweeper;
 import com.walmartlabs.concord.agent.guice.WorkerModule;
+import com.walmartlabs.concord.agent.logging.ProcessLogReplayer;
 import com.walmartlabs.concord.agent.mmode.MaintenanceModeListener;
 import com.walmartlabs.concord.agent.mmode.MaintenanceModeNotifier;
+import com.walmartlabs.concord.agent.remote.ProcessStatusUpdater;
 import com.walmartlabs.concord.client.ProcessEntry.StatusEnum;
 import com.walmartlabs.concord.common.IOUtils;
 import com.walmartlabs.concord.server.queueclient.QueueClient;
+import com.walmartlabs.concord.server.queueclient.message.Message;
+import com.walmartlabs.concord.server.queueclient.message.ProcessBatchResponse;
 import com.walmartlabs.concord.server.queueclient.message.ProcessRequest;
 import com.walmartlabs.concord.server.queueclient.message.ProcessResponse;
 import org.slf4j.Logger;
@@ -42,10 +47,13 @@ import javax.inject.Singleton;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Named
 @Singleton
@@ -56,8 +64,10 @@ public class Agent {
     private final Injector injector;
     private final AgentConfiguration agentCfg;
     private final DockerConfiguration dockerCfg;
+    private final ServerConfiguration serverCfg;
 
     private final QueueClient queueClient;
+    private final ProcessLogReplayer logReplayer;
     private final ExecutorService executor;
 
     private final Map<UUID, Worker> activeWorkers = new ConcurrentHashMap<>();
@@ -66,17 +76,25 @@ public class Agent {
     // make the reference volatile as we check if for != null in different threads
     private volatile Semaphore workersAvailable; // NOSONAR
 
+    // slots taken from the semaphore for the pending process request,
+    // they are not busy until the server responds with processes
+    private final AtomicInteger requestedSlots = new AtomicInteger();
+
     @Inject
     public Agent(Injector injector,
                  AgentConfiguration agentCfg,
                  DockerConfiguration dockerCfg,
-                 QueueClient queueClient) {
+                 ServerConfiguration serverCfg,
+                 QueueClient queueClient,
+                 ProcessLogReplayer logReplayer) {
 
         this.injector = injector;
 
         this.agentCfg = agentCfg;
         this.dockerCfg = dockerCfg;
+        this.serverCfg = serverCfg;
         this.queueClient = queueClient;
+        this.logReplayer = logReplayer;
 
         this.executor = Executors.newCachedThreadPool();
     }
@@ -110,27 +128,40 @@ public class Agent {
         CommandHandler commandHandler = new CommandHandler(agentCfg.getAgentId(), queueClient, agentCfg.getPollInterval(), this::cancel);
         executor.submit(commandHandler);
 
+        // send heartbeats of all running processes in a single request
+        if (serverCfg.isAgentHeartbeat()) {
+            HeartbeatHandler heartbeatHandler = new HeartbeatHandler(queueClient, serverCfg.getHeartbeatInterval(),
+                    serverCfg.getMaxNoHeartbeatInterval(), activeWorkers::keySet, this::cancel);
+            executor.submit(heartbeatHandler);
+        }
+
+        // send the logs left unsent by the previous run before taking any new jobs
+        if (!logReplayer.replay()) {
+            executor.submit(logReplayer::retry);
+        }
+
         // main loop
         while (!Thread.currentThread().isInterrupted()) {
             // check if the maintenance mode is enabled. If so, hang there indefinitely
             validateMaintenanceMode();
 
-            // TODO parallel acquire?
-            // wait for a free "slot"
+            // wait for a free "slot" and grab all other free slots
             workersAvailable.acquire();
-            log.info("run -> acquired a slot, {}/{} remains", workersAvailable.availablePermits(), workersCount);
+            int slots = 1 + workersAvailable.drainPermits();
+            requestedSlots.set(slots);
+            log.info("run -> acquired {} slot(s), {}/{} remains", slots, workersAvailable.availablePermits(), workersCount);
 
-            // fetch the next job
-            JobRequest jobRequest;
+            // fetch the next jobs
+            List<ProcessResponse> processes;
             try {
-                jobRequest = take(queueClient);
+                processes = take(queueClient, slots);
             } catch (InterruptedException e) {
                 log.info("run -> interrupted, exiting...");
                 return;
             } catch (Exception e) {
                 log.error("run -> error while fetching a job: {}", e.getMessage(), e);
 
-                workersAvailable.release();
+                releaseRequestedSlots(slots);
 
                 // wait before retrying
                 // the server is not reachable or unhealthy, no point retrying immediately
@@ -138,29 +169,70 @@ public class Agent {
                 continue;
             }
 
-            if (jobRequest == null) {
-                // can happen on switching to maintenance mode or reconnecting, etc
-                workersAvailable.release();
-                continue;
+            // return the unused slots
+            // the list can be empty on switching to maintenance mode or reconnecting, etc
+            releaseRequestedSlots(Math.max(0, slots - processes.size()));
+
+            // each process gets its own worker, a failure to start one of them
+            // doesn't affect the rest of the batch
+            for (ProcessResponse p : processes) {
+                startWorker(p);
             }
+        }
+    }
 
-            UUID instanceId = jobRequest.getInstanceId();
+    private void releaseRequestedSlots(int unused) {
+        if (unused > 0) {
+            workersAvailable.release(unused);
+        }
+        requestedSlots.set(0);
+    }
 
-            // worker will handle the process' lifecycle
-            try {
-                Worker w = injector.createChildInjector(new WorkerModule(agentCfg.getAgentId(), instanceId, jobRequest.getSessionToken()))
-                        .getInstance(WorkerFactory.class)
-                        .create(jobRequest, createStatusCallback(instanceId, workersAvailable));
+    private void startWorker(ProcessResponse p) {
+        UUID instanceId = p.getProcessId();
 
-                // register the worker so we can cancel it later
-                activeWorkers.put(instanceId, w);
+        Path workDir = null;
+        try {
+            workDir = IOUtils.createTempDir(agentCfg.getPayloadDir(), "workDir");
+            JobRequest jobRequest = JobRequest.from(p, workDir);
 
-                // start a new thread to process the job
-                executor.submit(w);
-            } catch (Exception e) {
-                log.error("run -> error while submitting worker: {}", e.getMessage());
-                workersAvailable.release();
+            // worker will handle the process' lifecycle
+            Worker w = injector.createChildInjector(new WorkerModule(agentCfg.getAgentId(), instanceId, jobRequest.getSessionToken()))
+                    .getInstance(WorkerFactory.class)
+                    .create(jobRequest, createStatusCallback(instanceId, workersAvailable));
+
+            // register the worker so we can cancel it later
+            activeWorkers.put(instanceId, w);
+
+            // start a new thread to process the job
+            executor.submit(w);
+        } catch (Exception e) {
+            log.error("startWorker ['{}'] -> error while starting the worker: {}", instanceId, e.getMessage(), e);
+
+            activeWorkers.remove(instanceId);
+            workersAvailable.release();
+
+            if (workDir != null) {
+                try {
+                    IOUtils.deleteRecursively(workDir);
+                } catch (IOException ee) {
+                    log.warn("startWorker ['{}'] -> can't remove the payload directory: {}", instanceId, ee.getMessage());
+                }
             }
+
+            // the process is already dequeued, don't leave it hanging until the heartbeat timeout
+            fail(p);
+        }
+    }
+
+    private void fail(ProcessResponse p) {
+        UUID instanceId = p.getProcessId();
+        try {
+            injector.createChildInjector(new WorkerModule(agentCfg.getAgentId(), instanceId, p.getSessionToken()))
+                    .getInstance(ProcessStatusUpdater.class)
+                    .update(instanceId, StatusEnum.FAILED);
+        } catch (Exception e) {
+            log.warn("fail ['{}'] -> can't update the process status: {}", instanceId, e.getMessage());
         }
     }
 
@@ -177,7 +249,7 @@ public class Agent {
                 @Override
                 public Status getMaintenanceModeStatus() {
                     long availableWorkers = (workersAvailable != null)
-                            ? workersAvailable.availablePermits()
+                            ? workersAvailable.availablePermits() + requestedSlots.get()
                             : 0L;
                     long cnt = agentCfg.getWorkersCount() - availableWorkers;
                     return new Status(maintenanceMode.get(), cnt);
@@ -223,17 +295,19 @@ public class Agent {
         };
     }
 
-    private JobRequest take(QueueClient queueClient) throws Exception {
-        Future<ProcessResponse> req = queueClient.request(new ProcessRequest(agentCfg.getCapabilities()));
+    private List<ProcessResponse> take(QueueClient queueClient, int slots) throws Exception {
+        Future<Message> req = queueClient.request(new ProcessRequest(agentCfg.getCapabilities(), slots));
 
-        ProcessResponse resp = req.get();
+        Message resp = req.get();
         if (resp == null) {
-            return null;
+            return Collections.emptyList();
         }
 
-        Path workDir = IOUtils.createTempDir(agentCfg.getPayloadDir(), "workDir");
-
-        return JobRequest.from(resp, workDir);
+        // older servers always respond with a single process
+        if (resp instanceof ProcessBatchResponse) {
+            return ((ProcessBatchResponse) resp).getProcesses();
+        }
+        return Collections.singletonList((ProcessResponse) resp);
     }
 
     private void cancel(UUID instanceId) {
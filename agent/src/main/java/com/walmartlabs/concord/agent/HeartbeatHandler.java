@@ -0,0 +1,131 @@
+package com.walmartlabs.concord.agent;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.queueclient.QueueClient;
+import com.walmartlabs.concord.server.queueclient.message.HeartbeatRequest;
+import com.walmartlabs.concord.server.queueclient.message.HeartbeatResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Sends a single heartbeat message with all processes currently running on the agent.
+ * Replaces the per-process heartbeat requests made by runners.
+ * <p>
+ * If the server is not reachable for more than {@code maxNoHeartbeatInterval}
+ * the running processes are cancelled, similarly to runners terminating
+ * themselves when their heartbeat requests fail. Processes the server doesn't know
+ * about (e.g. removed while running) are cancelled as well.
+ */
+public class HeartbeatHandler implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(HeartbeatHandler.class);
+
+    private final QueueClient queueClient;
+    private final long interval;
+    private final long maxNoHeartbeatInterval;
+    private final Supplier<Collection<UUID>> activeInstances;
+    private final CommandHandler.CancelHandler cancelHandler;
+
+    public HeartbeatHandler(QueueClient queueClient,
+                            long interval,
+                            long maxNoHeartbeatInterval,
+                            Supplier<Collection<UUID>> activeInstances,
+                            CommandHandler.CancelHandler cancelHandler) {
+
+        this.queueClient = queueClient;
+        this.interval = interval;
+        this.maxNoHeartbeatInterval = maxNoHeartbeatInterval;
+        this.activeInstances = activeInstances;
+        this.cancelHandler = cancelHandler;
+    }
+
+    @Override
+    public void run() {
+        log.info("run -> sending aggregated heartbeats every {}ms", interval);
+
+        long lastSuccess = System.currentTimeMillis();
+        while (!Thread.currentThread().isInterrupted()) {
+            lastSuccess = heartbeat(lastSuccess);
+            Utils.sleep(interval);
+        }
+    }
+
+    /**
+     * Sends a single heartbeat.
+     *
+     * @param lastSuccess time of the last successful heartbeat
+     * @return updated time of the last successful heartbeat
+     */
+    long heartbeat(long lastSuccess) {
+        List<UUID> instanceIds = new ArrayList<>(activeInstances.get());
+        if (instanceIds.isEmpty()) {
+            return System.currentTimeMillis();
+        }
+
+        if (ping(instanceIds)) {
+            return System.currentTimeMillis();
+        }
+
+        long noHeartbeat = System.currentTimeMillis() - lastSuccess;
+        log.warn("heartbeat -> error, last successful at {}", new Date(lastSuccess));
+
+        if (noHeartbeat > maxNoHeartbeatInterval) {
+            log.error("heartbeat -> no heartbeat for more than {}ms, cancelling {} process(es)...", noHeartbeat, instanceIds.size());
+            instanceIds.forEach(cancelHandler::cancel);
+            return System.currentTimeMillis();
+        }
+
+        return lastSuccess;
+    }
+
+    private boolean ping(List<UUID> instanceIds) {
+        try {
+            Future<HeartbeatResponse> f = queueClient.request(new HeartbeatRequest(instanceIds));
+            HeartbeatResponse resp = f.get(interval * 3, TimeUnit.MILLISECONDS);
+            if (resp == null) {
+                // disconnected or reconnecting
+                return false;
+            }
+
+            List<UUID> unknown = resp.getUnknownInstanceIds();
+            if (!unknown.isEmpty()) {
+                log.warn("ping -> unknown processes, cancelling: {}", unknown);
+                unknown.stream()
+                        .filter(instanceIds::contains)
+                        .forEach(cancelHandler::cancel);
+            }
+
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.warn("ping -> error: {}", e.getMessage());
+            return false;
+        }
+    }
+}
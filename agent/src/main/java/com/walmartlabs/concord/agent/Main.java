@@ -37,5 +37,9 @@ public class Main {
 
         Agent a = injector.getInstance(Agent.class);
         a.start();
+
+        // write the pending repository cache access records on shutdown
+        RepositoryManager repositoryManager = injector.getInstance(RepositoryManager.class);
+        Runtime.getRuntime().addShutdownHook(new Thread(repositoryManager::close, "repository-cache-shutdown"));
     }
 }
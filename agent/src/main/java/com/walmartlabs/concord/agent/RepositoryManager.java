@@ -29,11 +29,15 @@ import com.walmartlabs.concord.repository.*;
 import com.walmartlabs.concord.sdk.Secret;
 
 import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
 
+@Named
+@Singleton
 public class RepositoryManager {
 
     private final SecretClient secretClient;
@@ -67,7 +71,10 @@ public class RepositoryManager {
                 cacheCfg.getInfoDir(),
                 cacheCfg.getLockTimeout(),
                 cacheCfg.getMaxAge(),
+                cacheCfg.getMaxSize(),
+                cacheCfg.getMaxEntries(),
                 cacheCfg.getLockCount(),
+                cacheCfg.isSharedObjectStore(),
                 objectMapper);
     }
 
@@ -85,6 +92,7 @@ public class RepositoryManager {
                             .destination(cacheDir)
                             .shallow(gitCfg.isShallowClone())
                             .checkAlreadyFetched(gitCfg.isCheckAlreadyFetched())
+                            .sharedObjectStore(repositoryCache.getSharedObjectStorePath(repoUrl, secret))
                             .build(),
                     repoPath);
             repo.export(dest, ignorePatterns);
@@ -93,6 +101,10 @@ public class RepositoryManager {
         repositoryCache.cleanup();
     }
 
+    public void close() {
+        repositoryCache.close();
+    }
+
     private Secret getSecret(SecretDefinition secret) throws ExecutionException {
         if (secret == null) {
             return null;
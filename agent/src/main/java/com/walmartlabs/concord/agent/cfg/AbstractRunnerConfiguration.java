@@ -39,6 +39,7 @@ public abstract class AbstractRunnerConfiguration {
     private final String mainClass;
     private final boolean securityManagerEnabled;
     private final Path persistentWorkDir;
+    private final Path appCdsArchiveDir;
 
     public AbstractRunnerConfiguration(String prefix, Config cfg) {
         String path = getStringOrDefault(cfg, prefix + ".path", () -> {
@@ -58,6 +59,7 @@ public abstract class AbstractRunnerConfiguration {
         this.mainClass = cfg.getString(prefix + ".mainClass");
         this.securityManagerEnabled = cfg.getBoolean(prefix + ".securityManagerEnabled");
         this.persistentWorkDir = getOptionalAbsolutePath(cfg, prefix + ".persistentWorkDir");
+        this.appCdsArchiveDir = cfg.getBoolean(prefix + ".appCds") ? getOrCreatePath(cfg, prefix + ".appCdsArchiveDir") : null;
     }
 
     public Path getPath() {
@@ -90,6 +92,13 @@ public abstract class AbstractRunnerConfiguration {
         return persistentWorkDir;
     }
 
+    /**
+     * @return directory to store AppCDS archives or {@code null} if AppCDS is disabled
+     */
+    public Path getAppCdsArchiveDir() {
+        return appCdsArchiveDir;
+    }
+
     private static String getJavaCmd(Config cfg, String prefix) {
         String path = prefix + ".javaCmd";
 
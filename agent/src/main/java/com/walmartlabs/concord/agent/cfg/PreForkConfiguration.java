@@ -34,12 +34,14 @@ public class PreForkConfiguration {
     private final boolean enabled;
     private final long maxAge;
     private final int maxCount;
+    private final long warmupTime;
 
     @Inject
     public PreForkConfiguration(Config cfg) {
         this.enabled = cfg.getBoolean("prefork.enabled");
         this.maxAge = cfg.getDuration("prefork.maxAge", TimeUnit.MILLISECONDS);
         this.maxCount = cfg.getInt("prefork.maxCount");
+        this.warmupTime = cfg.getDuration("prefork.warmupTime", TimeUnit.MILLISECONDS);
     }
 
     public boolean isEnabled() {
@@ -53,4 +55,12 @@ public class PreForkConfiguration {
     public int getMaxCount() {
         return maxCount;
     }
+
+    /**
+     * Approximate time it takes for a new JVM to start and become ready.
+     * Used to calculate the number of preforks to keep.
+     */
+    public long getWarmupTime() {
+        return warmupTime;
+    }
 }
@@ -38,7 +38,10 @@ public class RepositoryCacheConfiguration {
     private final Duration lockTimeout;
     private final int lockCount;
     private final Duration maxAge;
+    private final long maxSize;
+    private final int maxEntries;
     private final Path infoDir;
+    private final boolean sharedObjectStore;
 
     @Inject
     public RepositoryCacheConfiguration(Config cfg) {
@@ -46,7 +49,10 @@ public class RepositoryCacheConfiguration {
         this.lockTimeout = cfg.getDuration("repositoryCache.lockTimeout");
         this.lockCount = cfg.getInt("repositoryCache.lockCount");
         this.maxAge = cfg.getDuration("repositoryCache.maxAge");
+        this.maxSize = cfg.getBytes("repositoryCache.maxSize");
+        this.maxEntries = cfg.getInt("repositoryCache.maxEntries");
         this.infoDir = getOrCreatePath(cfg, "repositoryCache.cacheInfoDir");
+        this.sharedObjectStore = cfg.getBoolean("repositoryCache.sharedObjectStore");
     }
 
     public Path getCacheDir() {
@@ -65,7 +71,19 @@ public class RepositoryCacheConfiguration {
         return maxAge;
     }
 
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
     public Path getInfoDir() {
         return infoDir;
     }
+
+    public boolean isSharedObjectStore() {
+        return sharedObjectStore;
+    }
 }
@@ -47,6 +47,8 @@ public class ServerConfiguration {
     private final long readTimeout;
     private final String userAgent;
     private final long maxNoHeartbeatInterval;
+    private final boolean agentHeartbeat;
+    private final long heartbeatInterval;
 
     @Inject
     public ServerConfiguration(Config cfg, AgentConfiguration agentCfg) {
@@ -71,6 +73,8 @@ public class ServerConfiguration {
         this.userAgent = getStringOrDefault(cfg, "server.userAgent", () -> "Concord-Agent: id=" + agentCfg.getAgentId());
 
         this.maxNoHeartbeatInterval = cfg.getDuration("server.maxNoHeartbeatInterval", TimeUnit.MILLISECONDS);
+        this.agentHeartbeat = cfg.getBoolean("server.agentHeartbeat");
+        this.heartbeatInterval = cfg.getDuration("server.heartbeatInterval", TimeUnit.MILLISECONDS);
     }
 
     public String getApiBaseUrl() {
@@ -113,6 +117,14 @@ public class ServerConfiguration {
         return maxNoHeartbeatInterval;
     }
 
+    public boolean isAgentHeartbeat() {
+        return agentHeartbeat;
+    }
+
+    public long getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
     private static String[] getWebsocketUrls(Config cfg) {
         // we had a silly typo ("websockeR") in our configs, so for backward compatibility we must check the old variant first
         String oldKey = "server.websockerUrl";
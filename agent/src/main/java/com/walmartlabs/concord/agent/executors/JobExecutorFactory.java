@@ -123,8 +123,10 @@ public class JobExecutorFactory {
                     .extraDockerVolumes(dockerCfg.getExtraVolumes())
                     .exposeDockerDaemon(dockerCfg.exposeDockerDaemon())
                     .maxHeartbeatInterval(serverCfg.getMaxNoHeartbeatInterval())
+                    .agentHeartbeat(serverCfg.isAgentHeartbeat())
                     .segmentedLogs(segmentedLogs)
                     .persistentWorkDir(runnerCfg.getPersistentWorkDir())
+                    .appCdsArchiveDir(runnerCfg.getAppCdsArchiveDir())
                     .preforkEnabled(preForkCfg.isEnabled())
                     .build();
 
@@ -36,7 +36,16 @@ import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps "pre-forked" JVMs grouped by their command line hash.
+ * <p/>
+ * The number of pre-forked JVMs for each command line follows the demand:
+ * the pool tries to keep enough JVMs to cover the requests expected to arrive
+ * while a new JVM warms up (see {@link PreForkConfiguration#getWarmupTime()}),
+ * but at least one and no more than the max total number of pool entries.
+ */
 @Named
 @Singleton
 public class ProcessPool {
@@ -45,15 +54,27 @@ public class ProcessPool {
 
     private static final long CLEANUP_PERIOD = 30000;
 
+    /**
+     * Weight of the latest inter-arrival interval in the moving average.
+     */
+    private static final double DEMAND_ALPHA = 0.3;
+
     private final long maxEntryAge;
     private final int maxEntryCount;
-    private final Map<HashCode, Queue<ProcessEntry>> pool = new HashMap<>();
+    private final long warmupTime;
+    private final Map<HashCode, Slot> pool = new HashMap<>();
     private final ExecutorService executor = Executors.newCachedThreadPool();
 
+    private final AtomicLong warmHits = new AtomicLong();
+    private final AtomicLong coldStarts = new AtomicLong();
+    private final AtomicLong preforks = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+
     @Inject
     public ProcessPool(PreForkConfiguration cfg) {
         this.maxEntryAge = cfg.getMaxAge();
         this.maxEntryCount = cfg.getMaxCount();
+        this.warmupTime = cfg.getWarmupTime();
         init();
     }
 
@@ -76,61 +97,90 @@ public class ProcessPool {
     }
 
     public ProcessEntry take(HashCode hc, ProcessLauncher launcher) throws ExecutionException {
+        ProcessEntry entry;
+        int toLaunch;
+
         synchronized (pool) {
-            Queue<ProcessEntry> q = pool.computeIfAbsent(hc, k -> new LinkedList<>());
+            Slot s = pool.computeIfAbsent(hc, k -> new Slot());
+            s.onArrival(System.currentTimeMillis());
 
-            ProcessEntry entry = q.poll();
-            if (entry == null) {
-                try {
-                    entry = launcher.start();
-                } catch (IOException e) {
-                    throw new ExecutionException("Error while starting a new process", e);
-                }
+            entry = s.queue.poll();
 
-                log.info("take -> started a new process: {}", entry.workDir);
-            } else {
-                log.info("take -> using a pre-forked instance: {}", entry.workDir);
-            }
+            // reserve the replacements, the processes are started outside of the lock
+            toLaunch = Math.max(0, s.target(warmupTime, maxEntryCount) - s.queue.size() - s.launching);
+            s.launching += toLaunch;
+        }
 
+        for (int i = 0; i < toLaunch; i++) {
             executor.submit(() -> populate(hc, launcher));
+        }
 
+        if (entry != null) {
+            warmHits.incrementAndGet();
+            log.info("take -> using a pre-forked instance: {}", entry.workDir);
             return entry;
         }
+
+        coldStarts.incrementAndGet();
+        try {
+            entry = launcher.start();
+        } catch (IOException e) {
+            throw new ExecutionException("Error while starting a new process", e);
+        }
+
+        log.info("take -> started a new process: {}", entry.workDir);
+        return entry;
+    }
+
+    /**
+     * @return the number of processes taken from the pool
+     */
+    public long getWarmHits() {
+        return warmHits.get();
+    }
+
+    /**
+     * @return the number of processes started on demand, i.e. when the pool had no suitable entries
+     */
+    public long getColdStarts() {
+        return coldStarts.get();
     }
 
     private void populate(HashCode hc, ProcessLauncher launcher) {
+        ProcessEntry entry = null;
+        try {
+            entry = launcher.start();
+            preforks.incrementAndGet();
+        } catch (IOException e) {
+            log.error("populate -> error while starting a new process", e);
+        }
+
+        List<ProcessEntry> processesToKill = new ArrayList<>();
+
         synchronized (pool) {
-            // calculate the total number of processes in the pool
-            int total = 0;
-            for (Map.Entry<HashCode, Queue<ProcessEntry>> e : pool.entrySet()) {
-                total += e.getValue().size();
+            Slot s = pool.get(hc);
+            if (s != null) {
+                s.launching--;
             }
 
-            if (total >= maxEntryCount) {
-                // mark the oldest entry for removal
-                ProcessEntry oldest = null;
-                for (Map.Entry<HashCode, Queue<ProcessEntry>> q : pool.entrySet()) {
-                    for (ProcessEntry e : q.getValue()) {
-                        if (oldest == null || oldest.timestamp > e.timestamp) {
-                            oldest = e;
+            if (entry != null) {
+                if (s == null) {
+                    // removed by the maintenance in the meantime
+                    processesToKill.add(entry);
+                } else {
+                    if (total() >= maxEntryCount) {
+                        ProcessEntry oldest = removeOldest();
+                        if (oldest != null) {
+                            processesToKill.add(oldest);
                         }
                     }
-                }
-
-                // it's never null
-                assert oldest != null;
 
-                oldest.remove = true;
-            }
-
-            // add a new pool entry
-            Queue<ProcessEntry> q = pool.computeIfAbsent(hc, k -> new LinkedList<>());
-            try {
-                q.add(launcher.start());
-            } catch (IOException e) {
-                log.error("populate -> error while starting a new process", e);
+                    s.queue.add(entry);
+                }
             }
         }
+
+        kill(processesToKill);
     }
 
     private void maintenance() {
@@ -140,16 +190,16 @@ public class ProcessPool {
         long t = System.currentTimeMillis();
 
         synchronized (pool) {
-            pool.forEach((hc, q) -> {
-                q.removeIf(e -> {
-                    if (e.remove || t - e.timestamp >= maxEntryAge) {
+            pool.forEach((hc, s) -> {
+                s.queue.removeIf(e -> {
+                    if (t - e.timestamp >= maxEntryAge) {
                         processesToKill.add(e);
                         return true;
                     }
                     return false;
                 });
 
-                if (q.isEmpty()) {
+                if (s.queue.isEmpty() && s.launching == 0 && t - s.lastArrival >= maxEntryAge) {
                     queuesToRemove.add(hc);
                 }
             });
@@ -161,11 +211,46 @@ public class ProcessPool {
 
         log.info("maintenance -> removed {} queues", queuesToRemove.size());
 
-        for (ProcessEntry p : processesToKill) {
+        expired.addAndGet(processesToKill.size());
+        kill(processesToKill);
+        log.info("maintenance -> killed {} processes", processesToKill.size());
+
+        log.info("maintenance -> warm hits: {}, cold starts: {}, preforks: {}, expired: {}",
+                warmHits.get(), coldStarts.get(), preforks.get(), expired.get());
+    }
+
+    private int total() {
+        int result = 0;
+        for (Slot s : pool.values()) {
+            result += s.queue.size();
+        }
+        return result;
+    }
+
+    private ProcessEntry removeOldest() {
+        Slot oldestSlot = null;
+        ProcessEntry oldest = null;
+        for (Slot s : pool.values()) {
+            for (ProcessEntry e : s.queue) {
+                if (oldest == null || oldest.timestamp > e.timestamp) {
+                    oldest = e;
+                    oldestSlot = s;
+                }
+            }
+        }
+
+        if (oldestSlot != null) {
+            oldestSlot.queue.remove(oldest);
+        }
+
+        return oldest;
+    }
+
+    private static void kill(List<ProcessEntry> processes) {
+        for (ProcessEntry p : processes) {
             Utils.kill(p.process);
             cleanup(p);
         }
-        log.info("maintenance -> killed {} processes", processesToKill.size());
     }
 
     private static void cleanup(ProcessEntry process) {
@@ -188,8 +273,6 @@ public class ProcessPool {
         private final Process process;
         private final Path workDir;
 
-        private boolean remove = false;
-
         public ProcessEntry(Process process, Path workDir) {
             this.timestamp = System.currentTimeMillis();
             this.process = process;
@@ -204,4 +287,41 @@ public class ProcessPool {
             return workDir;
         }
     }
+
+    /**
+     * Pre-forked processes and the demand statistics of a single command line.
+     */
+    static final class Slot {
+
+        private final Queue<ProcessEntry> queue = new LinkedList<>();
+
+        private int launching;
+        private long lastArrival;
+        private double avgInterval = -1;
+
+        void onArrival(long now) {
+            if (lastArrival > 0) {
+                long interval = Math.max(1, now - lastArrival);
+                if (avgInterval < 0) {
+                    avgInterval = interval;
+                } else {
+                    avgInterval = DEMAND_ALPHA * interval + (1 - DEMAND_ALPHA) * avgInterval;
+                }
+            }
+            lastArrival = now;
+        }
+
+        /**
+         * @return the number of processes expected to be requested while
+         * a new process warms up, at least 1 and no more than {@code max}
+         */
+        int target(long warmupTime, int max) {
+            if (avgInterval <= 0) {
+                return Math.min(1, max);
+            }
+
+            long expected = (long) Math.ceil(warmupTime / avgInterval);
+            return (int) Math.max(1, Math.min(max, expected));
+        }
+    }
 }
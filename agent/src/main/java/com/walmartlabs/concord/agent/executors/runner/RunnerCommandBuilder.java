@@ -36,6 +36,7 @@ public class RunnerCommandBuilder {
     private List<String> extraJvmParams;
     private String mainClass;
     private int majorJavaVersion;
+    private Path cdsArchive;
 
     public RunnerCommandBuilder() {
     }
@@ -90,6 +91,15 @@ public class RunnerCommandBuilder {
         return this;
     }
 
+    /**
+     * Path to the AppCDS archive. The archive is created automatically
+     * if missing or outdated. Requires Java 19+, ignored for older versions.
+     */
+    public RunnerCommandBuilder cdsArchive(Path cdsArchive) {
+        this.cdsArchive = cdsArchive;
+        return this;
+    }
+
     public String[] build() {
         List<String> l = new ArrayList<>();
 
@@ -138,6 +148,12 @@ public class RunnerCommandBuilder {
 
         l.add("-Dconcord.exposeDockerDaemon=" + exposeDockerDaemon);
 
+        // class data sharing archive for the runner's classpath
+        if (cdsArchive != null && majorJavaVersion >= 19) {
+            l.add("-XX:+AutoCreateSharedArchive");
+            l.add("-XX:SharedArchiveFile=" + cdsArchive);
+        }
+
         // Java 9+ requires additional add-opens for compatibility
         if (majorJavaVersion >= 9) {
             l.add("--add-opens");
@@ -62,7 +62,7 @@ public class RunnerJob {
         RunnerLog log;
         try {
             log = new RunnerLog(
-                    processLogFactory.createRedirectedLog(jobRequest.getInstanceId(), runnerExecutorCfg.segmentedLogs()),
+                    processLogFactory.createRedirectedLog(jobRequest.getInstanceId(), jobRequest.getSessionToken(), runnerExecutorCfg.segmentedLogs()),
                     processLogFactory.createRemoteLog(jobRequest.getInstanceId()));
         } catch (IOException e) {
             throw new ExecutionException("Error while creating the runner's log: " + e.getMessage(), e);
@@ -173,6 +173,7 @@ public class RunnerJob {
                 .api(ApiConfiguration.builder()
                         .baseUrl(execCfg.serverApiBaseUrl())
                         .maxNoHeartbeatInterval(execCfg.maxHeartbeatInterval())
+                        .agentHeartbeat(execCfg.agentHeartbeat())
                         .build())
                 .docker(DockerConfiguration.builder()
                         .extraVolumes(execCfg.extraDockerVolumes())
@@ -63,10 +63,12 @@ import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -79,6 +81,14 @@ public class RunnerJobExecutor implements JobExecutor {
 
     private static final Logger log = LoggerFactory.getLogger(RunnerJobExecutor.class);
 
+    /**
+     * Java versions by the java command. The executor is created for each job,
+     * the version is cached to avoid running {@code java -version} every time.
+     */
+    private static final Map<String, Integer> majorJavaVersions = new ConcurrentHashMap<>();
+
+    private static final AtomicBoolean appCdsWarningLogged = new AtomicBoolean(false);
+
     protected final DependencyManager dependencyManager;
 
     private final RunnerJobExecutorConfiguration cfg;
@@ -112,7 +122,7 @@ public class RunnerJobExecutor implements JobExecutor {
         this.objectMapper = new ObjectMapper()
                 .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
 
-        this.majorJavaVersion = getMajorJavaVersion(cfg.javaCmd());
+        this.majorJavaVersion = majorJavaVersions.computeIfAbsent(cfg.javaCmd(), RunnerJobExecutor::getMajorJavaVersion);
     }
 
     private static int getMajorJavaVersion(String javaCmd) {
@@ -454,9 +464,28 @@ public class RunnerJobExecutor implements JobExecutor {
                 .mainClass(cfg.runnerMainClass())
                 .jvmParams(jvmParams)
                 .majorJavaVersion(this.majorJavaVersion)
+                .cdsArchive(getCdsArchive())
                 .build();
     }
 
+    private Path getCdsArchive() {
+        Path dir = cfg.appCdsArchiveDir();
+        if (dir == null) {
+            return null;
+        }
+
+        if (majorJavaVersion < 19) {
+            if (appCdsWarningLogged.compareAndSet(false, true)) {
+                log.warn("getCdsArchive -> AppCDS requires Java 19+, current version: {}. AppCDS is disabled", majorJavaVersion);
+            }
+            return null;
+        }
+
+        // one archive per JVM and runner's classpath
+        HashCode hc = hash(new String[]{cfg.javaCmd(), cfg.runnerPath().toAbsolutePath().toString(), cfg.runnerMainClass()});
+        return dir.resolve(hc + ".jsa");
+    }
+
     private ProcessEntry fork(RunnerJob job, String[] cmd) throws ExecutionException, IOException {
         long t1 = System.currentTimeMillis();
 
@@ -756,9 +785,23 @@ public class RunnerJobExecutor implements JobExecutor {
 
         long maxHeartbeatInterval();
 
+        /**
+         * If {@code true} the agent sends heartbeats on behalf of the process.
+         */
+        @Value.Default
+        default boolean agentHeartbeat() {
+            return false;
+        }
+
         @Nullable
         Path persistentWorkDir();
 
+        /**
+         * Directory to store AppCDS archives, {@code null} if AppCDS is disabled.
+         */
+        @Nullable
+        Path appCdsArchiveDir();
+
         boolean preforkEnabled();
 
         static ImmutableRunnerJobExecutorConfiguration.Builder builder() {
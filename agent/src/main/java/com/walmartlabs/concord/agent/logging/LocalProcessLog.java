@@ -20,13 +20,13 @@ package com.walmartlabs.concord.agent.logging;
  * =====
  */
 
-import com.walmartlabs.concord.common.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
@@ -34,13 +34,23 @@ import java.nio.file.StandardOpenOption;
 /**
  * Local log file. Typically used as a temporary buffer to store process logs
  * before sending them to the server.
+ * <p>
+ * The file is append-only. Readers can use {@link #awaitData(long, long)}
+ * to get notified about new data instead of polling the file.
  */
 public class LocalProcessLog extends AbstractProcessLog {
 
     private static final Logger log = LoggerFactory.getLogger(LocalProcessLog.class);
 
+    public static final String LOG_FILE_NAME = "system.log";
+
+    private static final int BUFFER_SIZE = 8192;
+
     private final Path baseDir;
 
+    private final Object mutex = new Object();
+    private long size; // guarded by mutex
+
     public LocalProcessLog(Path baseDir) throws IOException {
         this.baseDir = baseDir;
         Files.createFile(logFile());
@@ -61,23 +71,58 @@ public class LocalProcessLog extends AbstractProcessLog {
     @Override
     public void log(InputStream src) throws IOException {
         Path f = logFile();
-        try (OutputStream dst = Files.newOutputStream(f, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
-             IOUtils.copy(src, dst);
+        try (FileChannel dst = FileChannel.open(f, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            byte[] ab = new byte[BUFFER_SIZE];
+
+            int read;
+            while ((read = src.read(ab)) > 0) {
+                write(dst, ByteBuffer.wrap(ab, 0, read));
+            }
         }
     }
 
     @Override
     protected void log(String message) {
         Path f = logFile();
-        try (OutputStream out = Files.newOutputStream(f, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
-            out.write(message.getBytes());
-            out.flush();
+        try (FileChannel dst = FileChannel.open(f, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            write(dst, ByteBuffer.wrap(message.getBytes()));
         } catch (IOException e) {
             throw new RuntimeException("Error writing to a log file: " + f, e);
         }
     }
 
+    /**
+     * Waits until the log grows beyond the specified position or the timeout expires.
+     *
+     * @return {@code true} if the log has data after the specified position
+     */
+    public boolean awaitData(long position, long timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        synchronized (mutex) {
+            while (size <= position) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                mutex.wait(remaining);
+            }
+            return true;
+        }
+    }
+
     public Path logFile() {
-        return baseDir.resolve("system" + ".log");
+        return baseDir.resolve(LOG_FILE_NAME);
+    }
+
+    private void write(FileChannel dst, ByteBuffer src) throws IOException {
+        int len = src.remaining();
+        while (src.hasRemaining()) {
+            dst.write(src);
+        }
+
+        synchronized (mutex) {
+            size += len;
+            mutex.notifyAll();
+        }
     }
 }
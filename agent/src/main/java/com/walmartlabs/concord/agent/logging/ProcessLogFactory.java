@@ -27,7 +27,6 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.UUID;
-import java.util.function.Consumer;
 
 public class ProcessLogFactory {
 
@@ -42,26 +41,35 @@ public class ProcessLogFactory {
         this.logAppender = logAppender;
     }
 
-    public RedirectedProcessLog createRedirectedLog(UUID instanceId, boolean segmented) throws IOException {
+    public RedirectedProcessLog createRedirectedLog(UUID instanceId, String sessionToken, boolean segmented) throws IOException {
         Path dst = logDir.resolve(instanceId.toString());
         if (Files.notExists(dst)) {
             Files.createDirectories(dst);
         }
 
-        Consumer<RedirectedProcessLog.Chunk> logConsumer;
-        if (segmented) {
-            logConsumer = new SegmentedLogsConsumer(instanceId, logAppender);
-        } else {
-            logConsumer = chunk -> {
-                byte[] ab = new byte[chunk.len()];
-                System.arraycopy(chunk.bytes(), 0, ab, 0, chunk.len());
-                logAppender.appendLog(instanceId, ab);
-            };
+        RedirectedProcessLog result = new RedirectedProcessLog(dst, logStreamMaxDelay, createConsumer(instanceId, logAppender, segmented));
+        try {
+            ProcessLogReplayer.writeMetadata(dst, sessionToken, segmented);
+        } catch (IOException e) {
+            result.delete();
+            throw e;
         }
-        return new RedirectedProcessLog(dst, logStreamMaxDelay, logConsumer);
+        return result;
     }
 
     public RemoteProcessLog createRemoteLog(UUID instanceId) {
         return new RemoteProcessLog(instanceId, logAppender);
     }
+
+    static RedirectedProcessLog.ChunkConsumer createConsumer(UUID instanceId, LogAppender logAppender, boolean segmented) {
+        if (segmented) {
+            return new SegmentedLogsConsumer(instanceId, logAppender);
+        }
+
+        return chunk -> {
+            byte[] ab = new byte[chunk.len()];
+            System.arraycopy(chunk.bytes(), 0, ab, 0, chunk.len());
+            logAppender.appendLog(instanceId, ab);
+        };
+    }
 }
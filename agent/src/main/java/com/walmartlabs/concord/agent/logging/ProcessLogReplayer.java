@@ -0,0 +1,209 @@
+package com.walmartlabs.concord.agent.logging;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.agent.cfg.AgentConfiguration;
+import com.walmartlabs.concord.agent.remote.ApiClientFactory;
+import com.walmartlabs.concord.common.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Sends the process logs that weren't completely sent by a previous run
+ * of the agent (e.g. because of a crash or a restart).
+ * <p>
+ * Works only if the log directory persists between the agent's runs,
+ * i.e. when {@code logDir} is an absolute path.
+ * <p>
+ * Logs that fail to replay are kept and retried with {@link #retry()}, until
+ * they are sent or weren't written to for longer than {@link #MAX_RETRY_AGE}.
+ */
+@Named
+@Singleton
+public class ProcessLogReplayer {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessLogReplayer.class);
+
+    public static final String METADATA_FILE_NAME = LocalProcessLog.LOG_FILE_NAME + ".properties";
+    private static final String SESSION_TOKEN_KEY = "sessionToken";
+    private static final String SEGMENTED_KEY = "segmented";
+
+    private static final long RETRY_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    private static final long MAX_RETRY_AGE = TimeUnit.HOURS.toMillis(24);
+
+    private final Path logDir;
+    private final AppenderFactory appenderFactory;
+
+    @Inject
+    public ProcessLogReplayer(AgentConfiguration cfg, ApiClientFactory apiClientFactory) {
+        this(cfg.getLogDir(), sessionToken -> new RemoteLogAppender(apiClientFactory.create(sessionToken)));
+    }
+
+    ProcessLogReplayer(Path logDir, AppenderFactory appenderFactory) {
+        this.logDir = logDir;
+        this.appenderFactory = appenderFactory;
+    }
+
+    /**
+     * Replays the logs until all of them are sent. Intended to run in a separate thread.
+     */
+    public void retry() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(RETRY_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (replay()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return {@code false} if some of the logs failed to replay and must be retried
+     */
+    public boolean replay() {
+        List<Path> dirs;
+        try (Stream<Path> s = Files.list(logDir)) {
+            dirs = s.filter(p -> Files.exists(p.resolve(METADATA_FILE_NAME)))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            log.warn("replay -> error while listing the log directory {}: {}", logDir, e.getMessage());
+            return false;
+        }
+
+        boolean result = true;
+        for (Path dir : dirs) {
+            result &= replay(dir);
+        }
+        return result;
+    }
+
+    /**
+     * @return {@code false} if the log failed to replay and was kept for the next attempt
+     */
+    private boolean replay(Path dir) {
+        UUID instanceId;
+        try {
+            instanceId = UUID.fromString(dir.getFileName().toString());
+        } catch (IllegalArgumentException e) {
+            log.warn("replay -> unexpected log directory, skipping: {}", dir);
+            return true;
+        }
+
+        try {
+            Properties metadata = readMetadata(dir);
+            LogAppender logAppender = appenderFactory.create(metadata.getProperty(SESSION_TOKEN_KEY));
+            boolean segmented = Boolean.parseBoolean(metadata.getProperty(SEGMENTED_KEY));
+
+            if (!RedirectedProcessLog.replay(dir, ProcessLogFactory.createConsumer(instanceId, logAppender, segmented))) {
+                log.info("replay ['{}'] -> the log is in use, skipping", instanceId);
+                return true;
+            }
+
+            log.info("replay ['{}'] -> done", instanceId);
+        } catch (Exception e) {
+            if (!isExpired(dir)) {
+                // the offset file keeps the position, the next attempt continues from there
+                log.warn("replay ['{}'] -> error while sending the log, will retry: {}", instanceId, e.getMessage());
+                return false;
+            }
+
+            log.warn("replay ['{}'] -> error while sending the log, giving up: {}", instanceId, e.getMessage());
+        }
+
+        try {
+            IOUtils.deleteRecursively(dir);
+        } catch (IOException e) {
+            log.warn("replay ['{}'] -> error while removing the log directory: {}", instanceId, dir);
+        }
+
+        return true;
+    }
+
+    private static boolean isExpired(Path dir) {
+        Path p = dir.resolve(LocalProcessLog.LOG_FILE_NAME);
+        try {
+            long lastModified = Files.getLastModifiedTime(Files.exists(p) ? p : dir).toMillis();
+            return System.currentTimeMillis() - lastModified > MAX_RETRY_AGE;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Saves the data required to replay the log.
+     */
+    static void writeMetadata(Path dir, String sessionToken, boolean segmented) throws IOException {
+        Properties props = new Properties();
+        if (sessionToken != null) {
+            props.setProperty(SESSION_TOKEN_KEY, sessionToken);
+        }
+        props.setProperty(SEGMENTED_KEY, String.valueOf(segmented));
+
+        // the file contains the session token, make it readable by the owner only.
+        // Create a new file, so the permissions are set before the token is written
+        Path f = dir.resolve(METADATA_FILE_NAME);
+        Files.deleteIfExists(f);
+        if (f.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(f, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createFile(f);
+        }
+
+        try (OutputStream out = Files.newOutputStream(f, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            props.store(out, null);
+        }
+    }
+
+    private static Properties readMetadata(Path dir) throws IOException {
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(dir.resolve(METADATA_FILE_NAME))) {
+            props.load(in);
+        }
+        return props;
+    }
+
+    interface AppenderFactory {
+
+        LogAppender create(String sessionToken) throws IOException;
+    }
+}
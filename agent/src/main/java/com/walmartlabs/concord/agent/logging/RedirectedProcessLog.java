@@ -20,8 +20,16 @@ package com.walmartlabs.concord.agent.logging;
  * =====
  */
 
+import com.walmartlabs.concord.common.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
@@ -31,26 +39,94 @@ import java.util.function.Supplier;
 /**
  * Log that uses a local file as a buffer before sending the data into the specified {@link LogAppender}.
  * Typically, {@link #run(Supplier)} method should be executed in a separate thread.
+ * <p>
+ * The position up to which the data was sent is stored in a separate file. The file is locked
+ * while the log is in use. If the agent stops before sending all data, the rest of the log
+ * can be sent with {@link #replay(Path, ChunkConsumer)}.
  */
 public class RedirectedProcessLog implements ProcessLog {
 
+    private static final Logger log = LoggerFactory.getLogger(RedirectedProcessLog.class);
+
+    public static final String OFFSET_FILE_NAME = LocalProcessLog.LOG_FILE_NAME + ".offset";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * How long to wait for more data after a write. Allows sending small writes in fewer requests.
+     */
+    private static final long BATCH_DELAY = 100;
+
     protected final long logSteamMaxDelay;
+    private final Path baseDir;
     private final LocalProcessLog localLog;
-    private final Consumer<Chunk> consumer;
+    private final ChunkConsumer consumer;
+    private final FileChannel offsetChannel;
 
-    public RedirectedProcessLog(Path baseDir, long logSteamMaxDelay, Consumer<Chunk> consumer) throws IOException {
+    public RedirectedProcessLog(Path baseDir, long logSteamMaxDelay, ChunkConsumer consumer) throws IOException {
+        this.baseDir = baseDir;
         this.localLog = new LocalProcessLog(baseDir);
         this.logSteamMaxDelay = logSteamMaxDelay;
         this.consumer = consumer;
+
+        this.offsetChannel = openOffset(baseDir);
+        if (this.offsetChannel == null) {
+            throw new IOException("The log is already in use: " + baseDir);
+        }
     }
 
     public void run(Supplier<Boolean> stopCondition) throws Exception {
-        streamLog(localLog.logFile(), stopCondition, logSteamMaxDelay, consumer);
+        Path p = localLog.logFile();
+        streamLog(p, offsetChannel, 0, consumer, position -> {
+            if (stopCondition.get() && position >= Files.size(p)) {
+                // the log and the job are finished
+                return false;
+            }
+
+            // job is still running, wait for more data
+            // and give the process a chance to write some more
+            if (localLog.awaitData(position, logSteamMaxDelay)) {
+                localLog.awaitData(position + BUFFER_SIZE - 1, BATCH_DELAY);
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Sends the data that wasn't sent by a previous instance of the log
+     * (e.g. before the agent's restart).
+     *
+     * @return {@code false} if the log is still in use
+     */
+    public static boolean replay(Path baseDir, ChunkConsumer consumer) throws IOException {
+        Path p = baseDir.resolve(LocalProcessLog.LOG_FILE_NAME);
+
+        try (FileChannel offsetChannel = openOffset(baseDir)) {
+            if (offsetChannel == null) {
+                return false;
+            }
+
+            if (Files.exists(p)) {
+                streamLog(p, offsetChannel, readOffset(offsetChannel), consumer, position -> position < Files.size(p));
+            }
+
+            return true;
+        }
     }
 
     @Override
     public void delete() {
-        this.localLog.delete();
+        try {
+            offsetChannel.close();
+        } catch (IOException e) {
+            log.warn("delete -> error while closing the offset file: {}", e.getMessage());
+        }
+
+        try {
+            IOUtils.deleteRecursively(baseDir);
+        } catch (IOException e) {
+            log.warn("delete -> error while removing the log directory: {}", baseDir);
+        }
     }
 
     @Override
@@ -73,28 +149,35 @@ public class RedirectedProcessLog implements ProcessLog {
         this.localLog.error(log, args);
     }
 
-    private static void streamLog(Path p, Supplier<Boolean> stopCondition, long maxDelay, Consumer<Chunk> sink) throws IOException {
-        long total = 0;
+    private static void streamLog(Path p, FileChannel offsetChannel, long offset, ChunkConsumer sink, DataWaiter waiter) throws IOException {
+        byte[] ab = new byte[BUFFER_SIZE];
+        ByteBuffer bb = ByteBuffer.wrap(ab);
+        ByteBuffer offsetBuffer = ByteBuffer.allocate(Long.BYTES);
 
-        byte[] ab = new byte[8192];
+        long position = offset;
+        long sent = offset;
 
-        try (InputStream in = Files.newInputStream(p, StandardOpenOption.READ)) {
+        try (FileChannel in = FileChannel.open(p, StandardOpenOption.READ)) {
             while (true) {
-                int read = in.read(ab, 0, ab.length);
+                bb.clear();
+                int read = in.read(bb, position);
                 if (read > 0) {
                     sink.accept(new Chunk(ab, read));
-                    total += read;
-                }
+                    position += read;
 
-                if (read < ab.length) {
-                    if (stopCondition.get() && total >= Files.size(p)) {
-                        // the log and the job are finished
-                        break;
+                    // the consumer might keep the end of the chunk until the next one
+                    long s = position - sink.pendingLength();
+                    if (s != sent) {
+                        writeOffset(offsetChannel, offsetBuffer, s);
+                        sent = s;
                     }
+                }
 
-                    // job is still running, wait for more data
+                if (read < ab.length) {
                     try {
-                        Thread.sleep(maxDelay);
+                        if (!waiter.await(position)) {
+                            break;
+                        }
                     } catch (InterruptedException e) {
                         Thread.currentThread().interrupt();
                         break;
@@ -104,6 +187,73 @@ public class RedirectedProcessLog implements ProcessLog {
         }
     }
 
+    /**
+     * Opens and locks the offset file.
+     *
+     * @return {@code null} if the file is locked by another log instance
+     */
+    private static FileChannel openOffset(Path baseDir) throws IOException {
+        Path p = baseDir.resolve(OFFSET_FILE_NAME);
+        FileChannel ch = FileChannel.open(p, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        FileLock lock;
+        try {
+            lock = ch.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+
+        if (lock == null) {
+            ch.close();
+            return null;
+        }
+
+        return ch;
+    }
+
+    private static long readOffset(FileChannel ch) throws IOException {
+        ByteBuffer bb = ByteBuffer.allocate(Long.BYTES);
+        while (bb.hasRemaining()) {
+            if (ch.read(bb, bb.position()) < 0) {
+                return 0;
+            }
+        }
+        bb.flip();
+        return bb.getLong();
+    }
+
+    private static void writeOffset(FileChannel ch, ByteBuffer bb, long offset) throws IOException {
+        bb.clear();
+        bb.putLong(offset);
+        bb.flip();
+        while (bb.hasRemaining()) {
+            ch.write(bb, bb.position());
+        }
+    }
+
+    /**
+     * Receives the log's data.
+     */
+    public interface ChunkConsumer extends Consumer<Chunk> {
+
+        /**
+         * @return number of bytes at the end of the received data that are kept
+         * by the consumer until the next chunk (e.g. an incomplete segment).
+         * The data is sent again if the log is replayed.
+         */
+        default long pendingLength() {
+            return 0;
+        }
+    }
+
+    private interface DataWaiter {
+
+        /**
+         * @return {@code true} if there might be more data after the specified position
+         */
+        boolean await(long position) throws IOException, InterruptedException;
+    }
+
     public static class Chunk {
 
         private final byte[] ab;
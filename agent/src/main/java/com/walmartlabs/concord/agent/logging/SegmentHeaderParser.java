@@ -29,17 +29,53 @@ public class SegmentHeaderParser {
 
     private static final int MAX_FIELD_BYTES = String.valueOf(Long.MAX_VALUE).getBytes().length;
 
+    private static final int FIELD_MSG_LENGTH = 0;
+    private static final int FIELD_SEGMENT_ID = 1;
+    private static final int FIELD_DONE = 2;
+    private static final int FIELD_WARNINGS = 3;
+    private static final int FIELD_ERRORS = 4;
+
     // msgLength|segmentId|DONE?|warnings|errors|msg
 
     public static int parse(byte[] ab, List<Segment> segments, List<Position> invalidSegments) {
-        Field field = Field.MSG_LENGTH;
-        StringBuilder fieldData = new StringBuilder();
+        return parse(ByteBuffer.wrap(ab), new Listener() {
+            @Override
+            public void onSegment(int msgStart, int length, long segmentId, boolean done, int warnCount, int errorCount) {
+                segments.add(Segment.of(Header.builder()
+                        .length(length)
+                        .segmentId(segmentId)
+                        .done(done)
+                        .warnCount(warnCount)
+                        .errorCount(errorCount)
+                        .build(), msgStart));
+            }
+
+            @Override
+            public void onInvalidSegment(int start, int end) {
+                invalidSegments.add(Position.of(start, end));
+            }
+        });
+    }
+
+    /**
+     * Parses the data between the buffer's position and limit without creating any objects.
+     * The reported positions are absolute indexes in the buffer.
+     *
+     * @return the position of the first byte that can't be parsed yet (e.g. an incomplete header)
+     */
+    public static int parse(ByteBuffer bb, Listener listener) {
+        int field = FIELD_MSG_LENGTH;
+        long fieldValue = 0;
+        int fieldDigits = 0;
         int mark = -1;
-        ImmutableHeader.Builder headerBuilder = Header.builder();
+
+        int length = 0;
+        long segmentId = 0;
+        boolean done = false;
+        int warnCount = 0;
 
         boolean continueParse = true;
         State state = State.FIND_HEADER;
-        ByteBuffer bb = ByteBuffer.wrap(ab);
         while (continueParse) {
             switch (state) {
                 case FIND_HEADER: {
@@ -48,10 +84,10 @@ public class SegmentHeaderParser {
                         break;
                     }
 
-                    char ch = (char) bb.get();
-                    if (ch == '|') {
+                    byte b = bb.get();
+                    if (b == '|') {
                         if (mark != -1) {
-                            invalidSegments.add(Position.of(mark, bb.position() - 1));
+                            listener.onInvalidSegment(mark, bb.position() - 1);
                         }
 
                         mark = bb.position() - 1;
@@ -69,53 +105,79 @@ public class SegmentHeaderParser {
                         break;
                     }
 
-                    char ch = (char)bb.get();
-                    if (ch == '|') {
+                    byte b = bb.get();
+                    if (b == '|') {
                         state = State.END_FIELD;
                         break;
                     }
 
-                    if (fieldData.length() > MAX_FIELD_BYTES || !Character.isDigit(ch)) {
+                    if (fieldDigits >= MAX_FIELD_BYTES || b < '0' || b > '9' || fieldValue > (Long.MAX_VALUE - (b - '0')) / 10) {
                         // reset
-                        fieldData.setLength(0);
-                        field = Field.MSG_LENGTH;
+                        fieldValue = 0;
+                        fieldDigits = 0;
+                        field = FIELD_MSG_LENGTH;
                         state = State.FIND_HEADER;
                         break;
                     }
 
-                    fieldData.append(ch);
+                    fieldValue = fieldValue * 10 + (b - '0');
+                    fieldDigits++;
                     break;
                 }
                 case END_FIELD: {
-                    String fieldValue = fieldData.toString();
-                    if (fieldData.length() == 0) {
+                    if (fieldDigits == 0) {
                         // reset
-                        field = Field.MSG_LENGTH;
+                        field = FIELD_MSG_LENGTH;
+                        state = State.FIND_HEADER;
+                        bb.position(bb.position() - 1);
+                        break;
+                    }
+
+                    if (field != FIELD_SEGMENT_ID && fieldValue > Integer.MAX_VALUE) {
+                        // not a valid header, reset
+                        fieldValue = 0;
+                        fieldDigits = 0;
+                        field = FIELD_MSG_LENGTH;
                         state = State.FIND_HEADER;
                         bb.position(bb.position() - 1);
                         break;
                     }
 
-                    field.process(fieldValue, headerBuilder);
+                    switch (field) {
+                        case FIELD_MSG_LENGTH:
+                            length = (int) fieldValue;
+                            break;
+                        case FIELD_SEGMENT_ID:
+                            segmentId = fieldValue;
+                            break;
+                        case FIELD_DONE:
+                            done = fieldDigits == 1 && fieldValue == 1;
+                            break;
+                        case FIELD_WARNINGS:
+                            warnCount = (int) fieldValue;
+                            break;
+                        default:
+                            break;
+                    }
 
-                    field = field.next();
-                    if (field == null) {
-                        Header h = headerBuilder.build();
-                        segments.add(Segment.of(h, bb.position()));
+                    if (field == FIELD_ERRORS) {
+                        listener.onSegment(bb.position(), length, segmentId, done, warnCount, (int) fieldValue);
 
-                        int actualLength = Math.min(h.length(), bb.remaining());
+                        int actualLength = Math.min(length, bb.remaining());
                         bb.position(bb.position() + actualLength);
 
                         // reset
-                        field = Field.MSG_LENGTH;
+                        field = FIELD_MSG_LENGTH;
                         mark = -1;
 
                         state = State.FIND_HEADER;
                     } else {
+                        field++;
                         state = State.FIELD_DATA;
                     }
 
-                    fieldData.setLength(0);
+                    fieldValue = 0;
+                    fieldDigits = 0;
 
                     break;
                 }
@@ -125,7 +187,7 @@ public class SegmentHeaderParser {
         int result;
         if (mark != -1) {
             if (state == State.FIND_HEADER) {
-                invalidSegments.add(Position.of(mark, bb.position()));
+                listener.onInvalidSegment(mark, bb.position());
                 result = bb.position();
             } else {
                 result = mark;
@@ -141,6 +203,20 @@ public class SegmentHeaderParser {
         return String.format("|%d|%d|%s|%d|%d|", header.length(), header.segmentId(), (header.done() ? '1' : '0'), header.warnCount(), header.errorCount()).getBytes();
     }
 
+    public interface Listener {
+
+        /**
+         * Called for each parsed segment header. The segment's data starts at {@code msgStart}
+         * and can be shorter than {@code length} if the data is incomplete.
+         */
+        void onSegment(int msgStart, int length, long segmentId, boolean done, int warnCount, int errorCount);
+
+        /**
+         * Called for each range of data without a valid segment header.
+         */
+        void onInvalidSegment(int start, int end);
+    }
+
     @Value.Immutable
     @Value.Style(jdkOnly = true)
     public interface Position {
@@ -195,70 +271,4 @@ public class SegmentHeaderParser {
         FIELD_DATA,
         END_FIELD
     }
-
-    enum Field {
-        MSG_LENGTH {
-            @Override
-            public Field next() {
-                return SEGMENT_ID;
-            }
-
-            @Override
-            public void process(String fieldValue, ImmutableHeader.Builder headerBuilder) {
-                headerBuilder.length(Integer.parseInt(fieldValue));
-            }
-        },
-
-        SEGMENT_ID {
-            @Override
-            public Field next() {
-                return DONE;
-            }
-
-            @Override
-            public void process(String fieldValue, ImmutableHeader.Builder headerBuilder) {
-                headerBuilder.segmentId(Long.parseLong(fieldValue));
-            }
-        },
-
-        DONE {
-            @Override
-            public Field next() {
-                return WARNINGS;
-            }
-
-            @Override
-            public void process(String fieldValue, ImmutableHeader.Builder headerBuilder) {
-                headerBuilder.done("1".equals(fieldValue));
-            }
-        },
-
-        WARNINGS {
-            @Override
-            public Field next() {
-                return ERRORS;
-            }
-
-            @Override
-            public void process(String fieldValue, ImmutableHeader.Builder headerBuilder) {
-                headerBuilder.warnCount(Integer.parseInt(fieldValue));
-            }
-        },
-
-        ERRORS {
-            @Override
-            public Field next() {
-                return null;
-            }
-
-            @Override
-            public void process(String fieldValue, ImmutableHeader.Builder headerBuilder) {
-                headerBuilder.errorCount(Integer.parseInt(fieldValue));
-            }
-        };
-
-        public abstract Field next();
-
-        public abstract void process(String fieldValue, ImmutableHeader.Builder headerBuilder);
-    }
 }
@@ -22,21 +22,49 @@ package com.walmartlabs.concord.agent.logging;
 
 import com.walmartlabs.concord.client.LogSegmentUpdateRequest;
 
-import java.util.*;
-import java.util.function.Consumer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.UUID;
 
-import static com.walmartlabs.concord.agent.logging.SegmentHeaderParser.Position;
-import static com.walmartlabs.concord.agent.logging.SegmentHeaderParser.Segment;
-import static com.walmartlabs.concord.agent.logging.SegmentHeaderParser.Header;
-
-public class SegmentedLogsConsumer implements Consumer<RedirectedProcessLog.Chunk> {
+/**
+ * Splits the runner's output into log segments.
+ * <p>
+ * The consumer keeps the unparsed data (e.g. an incomplete segment header)
+ * in a reusable buffer and records the parsed segments into reusable arrays.
+ * The only per-chunk allocations are the resulting segment data arrays.
+ * <p>
+ * The unparsed data and the incomplete segments are reported as pending,
+ * so the log can be replayed starting from a segment's header.
+ */
+public class SegmentedLogsConsumer implements RedirectedProcessLog.ChunkConsumer {
 
-    private static final byte[] EMPTY = new byte[0];
+    private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
 
     private final UUID instanceId;
     private final LogAppender logAppender;
+    private final Segments segments = new Segments();
+
+    /**
+     * Unparsed data from the previous chunk followed by the current chunk.
+     */
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private int unparsedLength;
+
+    /**
+     * The segment that continues into the next chunk.
+     */
+    private long partialSegmentId;
+    private int partialRemaining;
+    private boolean partialDone;
+    private int partialWarnCount;
+    private int partialErrorCount;
 
-    private byte[] unparsed = EMPTY;
+    /**
+     * Total number of bytes received and the position of the first byte
+     * that is not completely sent yet.
+     */
+    private long received;
+    private long resumePosition;
 
     public SegmentedLogsConsumer(UUID instanceId, LogAppender logAppender) {
         this.instanceId = instanceId;
@@ -45,125 +73,210 @@ public class SegmentedLogsConsumer implements Consumer<RedirectedProcessLog.Chun
 
     @Override
     public void accept(RedirectedProcessLog.Chunk chunk) {
-        byte[] ab = new byte[unparsed.length + chunk.len()];
-        if (unparsed.length > 0) {
-            System.arraycopy(unparsed, 0, ab, 0, unparsed.length);
-        }
-        System.arraycopy(chunk.bytes(), 0, ab, unparsed.length, chunk.len());
-        unparsed = EMPTY;
+        int limit = unparsedLength + chunk.len();
+        ensureCapacity(limit);
 
-        List<Segment> segments = new ArrayList<>();
-        List<Position> invalidSegments = new ArrayList<>();
-        int pos = SegmentHeaderParser.parse(ab, segments, invalidSegments);
+        System.arraycopy(chunk.bytes(), 0, buffer.array(), unparsedLength, chunk.len());
+        unparsedLength = 0;
 
-        invalidSegmentsToSystemSegments(invalidSegments, segments);
-        Map<Long, List<Segment>> segmentsById = byId(segments);
-        for (Map.Entry<Long, List<Segment>> e : segmentsById.entrySet()) {
-            int buffLength = e.getValue().stream().mapToInt(h -> actualLength(h, ab.length)).sum();
-            byte[] segmentBuffer = new byte[buffLength];
-            fillBuffer(e.getValue(), ab, segmentBuffer);
+        segments.reset(limit);
 
-            if (segmentBuffer.length > 0) {
-                // TODO: retry?
-                logAppender.appendLog(instanceId, e.getKey(), segmentBuffer);
-            }
+        int start = 0;
+        if (partialRemaining > 0) {
+            // the beginning of the chunk is the rest of the previous chunk's last segment
+            int remaining = partialRemaining;
+            partialRemaining = 0;
 
-            LogSegmentStats stats = findStats(e.getValue());
-            if (stats != null) {
-                logAppender.updateSegment(instanceId, e.getKey(), stats);
+            segments.onSegment(0, remaining, partialSegmentId, partialDone, partialWarnCount, partialErrorCount);
+            start = Math.min(remaining, limit);
+
+            if (partialRemaining > 0) {
+                // the segment continues into the next chunk, its header is in one of the previous chunks
+                segments.partialHeaderStart = -1;
             }
         }
 
-        Segment partialSegment = findPartialSegment(segments, ab.length);
-        if (partialSegment != null) {
-            unparsed = SegmentHeaderParser.serialize(Header.builder().from(partialSegment.header())
-                    .length(partialSegment.header().length() - actualLength(partialSegment, ab.length))
-                    .build());
-        }
+        buffer.limit(limit).position(start);
+        int pos = SegmentHeaderParser.parse(buffer, segments);
+
+        appendSegments();
 
-        if (pos < ab.length) {
-            if (unparsed != EMPTY) {
+        if (pos < limit) {
+            if (partialRemaining > 0) {
                 throw new RuntimeException("Unexpected partial segment and unparsed tail");
             }
 
-            unparsed = Arrays.copyOfRange(ab, pos, ab.length);
+            unparsedLength = limit - pos;
+            System.arraycopy(buffer.array(), pos, buffer.array(), 0, unparsedLength);
         }
-    }
 
-    private void invalidSegmentsToSystemSegments(List<Position> invalidSegments, List<Segment> segments) {
-        for (Position s : invalidSegments) {
-            Header header = Header.builder()
-                    .segmentId(0)
-                    .errorCount(0)
-                    .warnCount(0)
-                    .done(false)
-                    .length(s.end() - s.start())
-                    .build();
-            segments.add(Segment.of(header, s.start()));
+        received += chunk.len();
+
+        long bufferStart = received - limit;
+        if (partialRemaining > 0) {
+            if (segments.partialHeaderStart >= 0) {
+                resumePosition = bufferStart + segments.partialHeaderStart;
+            }
+        } else {
+            resumePosition = bufferStart + pos;
         }
     }
 
-    private static int actualLength(Segment segment, int chunkLength) {
-        return Math.min(chunkLength - segment.msgStart(), segment.header().length());
+    @Override
+    public long pendingLength() {
+        return received - resumePosition;
     }
 
-    private static Map<Long, List<Segment>> byId(List<Segment> segments) {
-        Map<Long, List<Segment>> result = new HashMap<>();
-        for (Segment s : segments) {
-            result.computeIfAbsent(s.header().segmentId(), id -> new ArrayList<>())
-                    .add(s);
+    private void ensureCapacity(int size) {
+        if (buffer.capacity() >= size) {
+            buffer.clear();
+            return;
         }
-        return result;
+
+        ByteBuffer b = ByteBuffer.allocate(Math.max(size, buffer.capacity() * 2));
+        System.arraycopy(buffer.array(), 0, b.array(), 0, unparsedLength);
+        buffer = b;
     }
 
-    private static void fillBuffer(List<Segment> segments, byte[] from, byte[] to) {
-        int i = 0;
-        for (Segment s : segments) {
-            int actualLength = actualLength(s, from.length);
-            for (int j = 0; j < actualLength; j++) {
-                to[i++] = from[j + s.msgStart()];
+    /**
+     * Sends the data of each segment as a single array, in order
+     * of the segment's first appearance in the chunk.
+     */
+    private void appendSegments() {
+        byte[] src = buffer.array();
+
+        for (int i = 0; i < segments.count; i++) {
+            if (segments.sent[i]) {
+                continue;
+            }
+
+            long segmentId = segments.ids[i];
+
+            int totalLength = 0;
+            for (int j = i; j < segments.count; j++) {
+                if (segments.ids[j] == segmentId) {
+                    totalLength += segments.lengths[j];
+                }
+            }
+
+            byte[] ab = new byte[totalLength];
+            boolean done = false;
+            int warnCount = 0;
+            int errorCount = 0;
+
+            int offset = 0;
+            for (int j = i; j < segments.count; j++) {
+                if (segments.ids[j] != segmentId) {
+                    continue;
+                }
+
+                System.arraycopy(src, segments.starts[j], ab, offset, segments.lengths[j]);
+                offset += segments.lengths[j];
+
+                // the most recent non-zero counters win
+                done |= segments.done[j];
+                if (segments.warnCounts[j] > 0) {
+                    warnCount = segments.warnCounts[j];
+                }
+                if (segments.errorCounts[j] > 0) {
+                    errorCount = segments.errorCounts[j];
+                }
+
+                segments.sent[j] = true;
+            }
+
+            if (ab.length > 0) {
+                // TODO: retry?
+                logAppender.appendLog(instanceId, segmentId, ab);
+            }
+
+            if (done || errorCount > 0 || warnCount > 0) {
+                logAppender.updateSegment(instanceId, segmentId, LogSegmentStats.builder()
+                        .status(done ? LogSegmentUpdateRequest.StatusEnum.OK : null)
+                        .errors(errorCount)
+                        .warnings(warnCount)
+                        .build());
             }
         }
     }
 
-    private static Segment findPartialSegment(List<Segment> segments, int chunkLength) {
-        Segment result = null;
-        for (Segment segment : segments) {
-            if (actualLength(segment, chunkLength) != segment.header().length()) {
-                if (result != null) {
+    /**
+     * Segments of the current chunk, in order of their appearance. Invalid segments
+     * (data without a valid header) are recorded as the "system" segment {@code 0}.
+     */
+    private class Segments implements SegmentHeaderParser.Listener {
+
+        private int limit;
+        private int count;
+
+        /**
+         * Segments and invalid segments are contiguous, i.e. each header
+         * starts at the end of the previous segment.
+         */
+        private int lastEnd;
+        private int partialHeaderStart;
+
+        private long[] ids = new long[64];
+        private int[] starts = new int[64];
+        private int[] lengths = new int[64];
+        private boolean[] done = new boolean[64];
+        private int[] warnCounts = new int[64];
+        private int[] errorCounts = new int[64];
+        private boolean[] sent = new boolean[64];
+
+        private void reset(int limit) {
+            this.limit = limit;
+            this.count = 0;
+            this.lastEnd = 0;
+            this.partialHeaderStart = -1;
+        }
+
+        @Override
+        public void onSegment(int msgStart, int length, long segmentId, boolean done, int warnCount, int errorCount) {
+            int actualLength = Math.min(limit - msgStart, length);
+            if (actualLength < length) {
+                if (partialRemaining > 0) {
                     throw new RuntimeException("Unexpected second partial segment");
                 }
-                result = segment;
+
+                partialSegmentId = segmentId;
+                partialRemaining = length - actualLength;
+                partialDone = done;
+                partialWarnCount = warnCount;
+                partialErrorCount = errorCount;
+                partialHeaderStart = lastEnd;
             }
+
+            add(segmentId, msgStart, actualLength, done, warnCount, errorCount);
         }
-        return result;
-    }
 
-    private static LogSegmentStats findStats(List<Segment> segments) {
-        boolean done = false;
-        int errorCount = 0;
-        int warnCount = 0;
-        ListIterator<Segment> it = segments.listIterator(segments.size());
-        while (it.hasPrevious()) {
-            Segment segment = it.previous();
-            if (segment.header().done()) {
-                done = segment.header().done();
-            }
-            if (warnCount == 0 && segment.header().warnCount() > 0) {
-                warnCount = segment.header().warnCount();
-            }
-            if (errorCount == 0 && segment.header().errorCount() > 0) {
-                errorCount = segment.header().errorCount();
-            }
+        @Override
+        public void onInvalidSegment(int start, int end) {
+            add(0, start, end - start, false, 0, 0);
         }
 
-        if (done || errorCount > 0 || warnCount > 0) {
-            return LogSegmentStats.builder()
-                    .status(done ? LogSegmentUpdateRequest.StatusEnum.OK : null)
-                    .errors(errorCount)
-                    .warnings(warnCount)
-                    .build();
+        private void add(long segmentId, int start, int length, boolean done, int warnCount, int errorCount) {
+            if (count == ids.length) {
+                int size = count * 2;
+                ids = Arrays.copyOf(ids, size);
+                starts = Arrays.copyOf(starts, size);
+                lengths = Arrays.copyOf(lengths, size);
+                this.done = Arrays.copyOf(this.done, size);
+                warnCounts = Arrays.copyOf(warnCounts, size);
+                errorCounts = Arrays.copyOf(errorCounts, size);
+                sent = Arrays.copyOf(sent, size);
+            }
+
+            ids[count] = segmentId;
+            starts[count] = start;
+            lengths[count] = length;
+            this.done[count] = done;
+            warnCounts[count] = warnCount;
+            errorCounts[count] = errorCount;
+            sent[count] = false;
+            count++;
+
+            lastEnd = start + length;
         }
-        return null;
     }
 }
@@ -0,0 +1,107 @@
+package com.walmartlabs.concord.agent;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.queueclient.QueueClient;
+import com.walmartlabs.concord.server.queueclient.message.HeartbeatRequest;
+import com.walmartlabs.concord.server.queueclient.message.HeartbeatResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class HeartbeatHandlerTest {
+
+    private static final long MAX_NO_HEARTBEAT_INTERVAL = 60000;
+
+    @Test
+    public void testUnknownProcessesAreCancelled() {
+        UUID known = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+
+        QueueClient queueClient = mock(QueueClient.class);
+        doReturn(CompletableFuture.completedFuture(new HeartbeatResponse(1, Collections.singletonList(unknown))))
+                .when(queueClient).request(any(HeartbeatRequest.class));
+
+        List<UUID> cancelled = new ArrayList<>();
+        HeartbeatHandler handler = new HeartbeatHandler(queueClient, 1000, MAX_NO_HEARTBEAT_INTERVAL,
+                () -> Arrays.asList(known, unknown), cancelled::add);
+
+        long lastSuccess = handler.heartbeat(0);
+
+        assertTrue(lastSuccess > 0);
+        assertEquals(Collections.singletonList(unknown), cancelled);
+    }
+
+    @Test
+    public void testNoCancellationOnSuccess() {
+        QueueClient queueClient = mock(QueueClient.class);
+        doReturn(CompletableFuture.completedFuture(new HeartbeatResponse(1, Collections.emptyList())))
+                .when(queueClient).request(any(HeartbeatRequest.class));
+
+        List<UUID> cancelled = new ArrayList<>();
+        HeartbeatHandler handler = new HeartbeatHandler(queueClient, 1000, MAX_NO_HEARTBEAT_INTERVAL,
+                () -> Collections.singletonList(UUID.randomUUID()), cancelled::add);
+
+        handler.heartbeat(System.currentTimeMillis());
+
+        assertTrue(cancelled.isEmpty());
+    }
+
+    @Test
+    public void testCancelAfterMaxNoHeartbeatInterval() {
+        UUID instanceId = UUID.randomUUID();
+
+        // disconnected
+        QueueClient queueClient = mock(QueueClient.class);
+        doReturn(CompletableFuture.completedFuture(null))
+                .when(queueClient).request(any(HeartbeatRequest.class));
+
+        List<UUID> cancelled = new ArrayList<>();
+        HeartbeatHandler handler = new HeartbeatHandler(queueClient, 1000, MAX_NO_HEARTBEAT_INTERVAL,
+                () -> Collections.singletonList(instanceId), cancelled::add);
+
+        // the failure is tolerated within the interval
+        long lastSuccess = System.currentTimeMillis();
+        assertEquals(lastSuccess, handler.heartbeat(lastSuccess));
+        assertTrue(cancelled.isEmpty());
+
+        // and the processes are cancelled after it
+        lastSuccess = System.currentTimeMillis() - MAX_NO_HEARTBEAT_INTERVAL - 1;
+        assertTrue(handler.heartbeat(lastSuccess) > lastSuccess);
+        assertEquals(Collections.singletonList(instanceId), cancelled);
+    }
+
+    @Test
+    public void testNoActiveProcesses() {
+        QueueClient queueClient = mock(QueueClient.class);
+
+        HeartbeatHandler handler = new HeartbeatHandler(queueClient, 1000, MAX_NO_HEARTBEAT_INTERVAL,
+                Collections::emptyList, id -> fail("unexpected cancel: " + id));
+
+        assertTrue(handler.heartbeat(0) > 0);
+        verifyNoInteractions(queueClient);
+    }
+}
@@ -0,0 +1,87 @@
+package com.walmartlabs.concord.agent.executors.runner;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.google.common.hash.HashCode;
+import com.typesafe.config.ConfigFactory;
+import com.walmartlabs.concord.agent.cfg.PreForkConfiguration;
+import com.walmartlabs.concord.agent.executors.runner.ProcessPool.ProcessEntry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ProcessPoolTest {
+
+    @Test
+    public void testTarget() {
+        ProcessPool.Slot s = new ProcessPool.Slot();
+        assertEquals(1, s.target(3000, 10));
+
+        // one request per second, 3s warmup
+        for (int i = 1; i <= 10; i++) {
+            s.onArrival(i * 1000L);
+        }
+        assertEquals(3, s.target(3000, 10));
+        assertEquals(2, s.target(3000, 2));
+
+        // rare requests
+        s.onArrival(60_000);
+        s.onArrival(120_000);
+        s.onArrival(180_000);
+        s.onArrival(240_000);
+        s.onArrival(300_000);
+        assertEquals(1, s.target(3000, 10));
+    }
+
+    @Test
+    public void testWarmHits() throws Exception {
+        Map<String, Object> m = new HashMap<>();
+        m.put("prefork.enabled", true);
+        m.put("prefork.maxAge", "1 minute");
+        m.put("prefork.maxCount", 3);
+        m.put("prefork.warmupTime", "3 seconds");
+
+        ProcessPool pool = new ProcessPool(new PreForkConfiguration(ConfigFactory.parseMap(m)));
+
+        AtomicInteger started = new AtomicInteger();
+        ProcessPool.ProcessLauncher launcher = () -> new ProcessEntry(null, Paths.get("/tmp/" + started.incrementAndGet()));
+
+        HashCode hc = HashCode.fromInt(1);
+
+        pool.take(hc, launcher);
+        assertEquals(1, pool.getColdStarts());
+
+        // wait for the replacement
+        for (int i = 0; i < 100 && started.get() < 2; i++) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+
+        pool.take(hc, launcher);
+        assertEquals(1, pool.getWarmHits());
+        assertEquals(1, pool.getColdStarts());
+    }
+}
@@ -0,0 +1,86 @@
+package com.walmartlabs.concord.agent.executors.runner;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+/**
+ * Compares the startup time of a JVM with and without an AppCDS archive.
+ * Requires Java 19+ to see any difference.
+ * <p>
+ * Not a part of the regular build, run with
+ * {@code ./mvnw -Pbenchmarks test -pl agent -Dtest=RunnerStartupBenchmark}
+ */
+public class RunnerStartupBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Test
+    public void test() throws Exception {
+        String javaCmd = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String spec = System.getProperty("java.specification.version");
+        int majorJavaVersion = spec.startsWith("1.") ? 8 : Integer.parseInt(spec);
+        Path cfgFile = Files.createTempFile("cfg", ".json");
+        Path archive = Files.createTempDirectory("cds").resolve("test.jsa");
+
+        RunnerCommandBuilder b = new RunnerCommandBuilder()
+                .javaCmd(javaCmd)
+                .jvmParams(Collections.emptyList())
+                .runnerPath(Paths.get(System.getProperty("java.class.path")))
+                .runnerCfgPath(cfgFile)
+                .mainClass(Main.class.getName())
+                .majorJavaVersion(majorJavaVersion);
+
+        long cold = run(b.build());
+        // the first run creates the archive
+        run(b.cdsArchive(archive).build());
+        long warm = run(b.cdsArchive(archive).build());
+
+        System.out.println("Java " + majorJavaVersion + ", average startup time: " + cold + "ms without AppCDS, " + warm + "ms with AppCDS");
+    }
+
+    private static long run(String[] cmd) throws Exception {
+        long total = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long t1 = System.nanoTime();
+            Process p = new ProcessBuilder(cmd)
+                    .inheritIO()
+                    .start();
+            p.waitFor();
+            total += System.nanoTime() - t1;
+        }
+        return total / ITERATIONS / 1_000_000;
+    }
+
+    public static class Main {
+
+        public static void main(String[] args) throws Exception {
+            // load some of the classes typically used by the runner
+            new ObjectMapper().writeValueAsString(Collections.singletonMap("k", "v"));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.walmartlabs.concord.agent.executors.runner;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.agent.logging.LogAppender;
+import com.walmartlabs.concord.agent.logging.LogSegmentStats;
+import com.walmartlabs.concord.agent.logging.SegmentHeaderParser;
+import com.walmartlabs.concord.agent.logging.SegmentedLogsConsumer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static com.walmartlabs.concord.agent.logging.RedirectedProcessLog.Chunk;
+
+/**
+ * Measures the throughput and the allocation rate of {@link SegmentedLogsConsumer}
+ * using a sample of the runner's output split into 8k chunks (same as the agent does).
+ * <p>
+ * Not a part of the regular build, run with
+ * {@code ./mvnw -Pbenchmarks test -pl agent -Dtest=SegmentedLogsConsumerBenchmark}
+ */
+public class SegmentedLogsConsumerBenchmark {
+
+    private static final int CHUNK_SIZE = 8192;
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int ITERATIONS = 50;
+
+    @Test
+    public void test() {
+        byte[] sample = sample(10 * 1024 * 1024);
+
+        Chunk[] chunks = new Chunk[(sample.length + CHUNK_SIZE - 1) / CHUNK_SIZE];
+        for (int i = 0; i < chunks.length; i++) {
+            byte[] ab = Arrays.copyOfRange(sample, i * CHUNK_SIZE, Math.min((i + 1) * CHUNK_SIZE, sample.length));
+            chunks[i] = new Chunk(ab, ab.length) {
+            };
+        }
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            run(chunks);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long bytes1 = threads.getThreadAllocatedBytes(threadId);
+        long t1 = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            run(chunks);
+        }
+        long time = System.nanoTime() - t1;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - bytes1;
+
+        double totalMb = (double) sample.length * ITERATIONS / (1024 * 1024);
+        System.out.printf("%.1f MB/s, %.0f bytes allocated per MB of input%n", totalMb / (time / 1_000_000_000.0), allocated / totalMb);
+    }
+
+    private static void run(Chunk[] chunks) {
+        SegmentedLogsConsumer consumer = new SegmentedLogsConsumer(UUID.randomUUID(), new NoopLogAppender());
+        for (Chunk c : chunks) {
+            consumer.accept(c);
+        }
+    }
+
+    /**
+     * Creates a sample similar to the runner's output: system log lines,
+     * task log lines with segment headers and some unstructured output.
+     */
+    private static byte[] sample(int size) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size + 1024);
+        int i = 0;
+        while (out.size() < size) {
+            long segmentId = i % 10 == 0 ? 0 : (i / 50) % 20 + 1;
+            String msg = "2020-01-01T00:00:00.000+0000 [INFO ] Processing item #" + i + ", payload: {\"k\": \"v\", \"n\": " + i + "}\n";
+            byte[] ab = msg.getBytes(StandardCharsets.UTF_8);
+
+            if (i % 37 == 0) {
+                // e.g. the JVM's output that bypasses the runner's logger
+                write(out, ("unstructured line #" + i + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+
+            write(out, SegmentHeaderParser.serialize(SegmentHeaderParser.Header.builder()
+                    .length(ab.length)
+                    .segmentId(segmentId)
+                    .done(i % 50 == 49)
+                    .warnCount(0)
+                    .errorCount(i % 100 == 99 ? 1 : 0)
+                    .build()));
+            write(out, ab);
+
+            i++;
+        }
+        return out.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream out, byte[] ab) {
+        out.write(ab, 0, ab.length);
+    }
+
+    private static class NoopLogAppender implements LogAppender {
+
+        @Override
+        public void appendLog(UUID instanceId, byte[] ab) {
+        }
+
+        @Override
+        public boolean appendLog(UUID instanceId, long segmentId, byte[] ab) {
+            return true;
+        }
+
+        @Override
+        public boolean updateSegment(UUID instanceId, long segmentId, LogSegmentStats stats) {
+            return true;
+        }
+    }
+}
@@ -28,10 +28,14 @@ import com.walmartlabs.concord.agent.logging.SegmentedLogsConsumer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 import static com.walmartlabs.concord.agent.logging.RedirectedProcessLog.Chunk;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
 public class SegmentedLogsConsumerTest {
@@ -144,6 +148,65 @@ public class SegmentedLogsConsumerTest {
         verifyNoMoreInteractions(logAppender);
     }
 
+    /**
+     * in: |5|1|1|0|0|hello|3|2|0|0|0|bye and some text|6|1|0|1|0|again!
+     * split into chunks of all possible sizes
+     */
+    @Test
+    public void test7() {
+        byte[] ab = Bytes.concat(bb(1, "hello", 0, 0), bb(2, "bye", 0, 0), " and some text".getBytes(), bb(1, "again!", 0, 1));
+
+        for (int chunkSize = 1; chunkSize <= ab.length; chunkSize++) {
+            Map<Long, ByteArrayOutputStream> result = new HashMap<>();
+            SegmentedLogsConsumer c = new SegmentedLogsConsumer(UUID.randomUUID(), new LogAppender() {
+                @Override
+                public void appendLog(UUID instanceId, byte[] ab) {
+                    throw new IllegalStateException("Unexpected call");
+                }
+
+                @Override
+                public boolean appendLog(UUID instanceId, long segmentId, byte[] ab) {
+                    result.computeIfAbsent(segmentId, k -> new ByteArrayOutputStream()).write(ab, 0, ab.length);
+                    return true;
+                }
+
+                @Override
+                public boolean updateSegment(UUID instanceId, long segmentId, LogSegmentStats stats) {
+                    return true;
+                }
+            });
+
+            for (int i = 0; i < ab.length; i += chunkSize) {
+                c.accept(toChunk(Arrays.copyOfRange(ab, i, Math.min(i + chunkSize, ab.length))));
+            }
+
+            assertEquals("helloagain!", result.get(1L).toString(), "chunk size: " + chunkSize);
+            assertEquals("bye", result.get(2L).toString(), "chunk size: " + chunkSize);
+            assertEquals(" and some text", result.get(0L).toString(), "chunk size: " + chunkSize);
+        }
+    }
+
+    /**
+     * in: |5|1|0|1|2|hello|3|2|0|1|2|bye|3|1|0|1|2|abc
+     */
+    @Test
+    public void test8() {
+        byte[] s1 = bb(1, "hello");
+        byte[] s2 = bb(2, "bye");
+        byte[] s3 = bb(1, "abc");
+
+        // complete segment and a part of the next one
+        consumer.accept(toChunk(Bytes.concat(s1, Arrays.copyOfRange(s2, 0, s2.length - 1))));
+        assertEquals(s2.length - 1, consumer.pendingLength());
+
+        // the rest of the segment and a part of the next header
+        consumer.accept(toChunk(Bytes.concat(Arrays.copyOfRange(s2, s2.length - 1, s2.length), Arrays.copyOfRange(s3, 0, 3))));
+        assertEquals(3, consumer.pendingLength());
+
+        consumer.accept(toChunk(Arrays.copyOfRange(s3, 3, s3.length)));
+        assertEquals(0, consumer.pendingLength());
+    }
+
     private static Chunk toChunk(byte[] ab) {
         return new Chunk(ab, ab.length) {
         };
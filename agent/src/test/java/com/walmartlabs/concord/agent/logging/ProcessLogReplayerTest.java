@@ -0,0 +1,127 @@
+package com.walmartlabs.concord.agent.logging;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ProcessLogReplayerTest {
+
+    @Test
+    public void testMetadataPermissions(@TempDir Path tempDir) throws Exception {
+        assumeTrue(tempDir.getFileSystem().supportedFileAttributeViews().contains("posix"));
+
+        Path f = tempDir.resolve(ProcessLogReplayer.METADATA_FILE_NAME);
+        Files.write(f, "old".getBytes());
+        Files.setPosixFilePermissions(f, PosixFilePermissions.fromString("rw-r--r--"));
+
+        ProcessLogReplayer.writeMetadata(tempDir, "token", true);
+
+        // the session token is readable by the owner only
+        assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(f)));
+    }
+
+    @Test
+    public void testRetryAfterFailure(@TempDir Path tempDir) throws Exception {
+        UUID instanceId = UUID.randomUUID();
+        Path dir = Files.createDirectories(tempDir.resolve(instanceId.toString()));
+        Files.write(dir.resolve(LocalProcessLog.LOG_FILE_NAME), new byte[20000]);
+        ProcessLogReplayer.writeMetadata(dir, "token", false);
+
+        // the server goes away after the first chunk
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        AtomicBoolean fail = new AtomicBoolean(true);
+        ProcessLogReplayer replayer = new ProcessLogReplayer(tempDir, sessionToken -> new TestAppender(sent, fail));
+
+        assertFalse(replayer.replay());
+        assertEquals(8192, sent.size());
+        assertTrue(Files.exists(dir));
+
+        // the next attempt continues from the last sent position
+        fail.set(false);
+        assertTrue(replayer.replay());
+        assertEquals(20000, sent.size());
+        assertFalse(Files.exists(dir));
+    }
+
+    @Test
+    public void testLogInUse(@TempDir Path tempDir) throws Exception {
+        UUID instanceId = UUID.randomUUID();
+        Path dir = Files.createDirectories(tempDir.resolve(instanceId.toString()));
+
+        RedirectedProcessLog processLog = new RedirectedProcessLog(dir, 10, chunk -> {});
+        ProcessLogReplayer.writeMetadata(dir, "token", false);
+        processLog.log(new ByteArrayInputStream("hello".getBytes()));
+
+        ProcessLogReplayer replayer = new ProcessLogReplayer(tempDir, sessionToken -> new TestAppender(new ByteArrayOutputStream(), new AtomicBoolean(true)) {
+            @Override
+            public void appendLog(UUID instanceId, byte[] ab) {
+                fail("unexpected data");
+            }
+        });
+
+        // logs of the running processes are skipped and aren't retried
+        assertTrue(replayer.replay());
+        assertTrue(Files.exists(dir));
+
+        processLog.delete();
+    }
+
+    private static class TestAppender implements LogAppender {
+
+        private final ByteArrayOutputStream sent;
+        private final AtomicBoolean fail;
+
+        private TestAppender(ByteArrayOutputStream sent, AtomicBoolean fail) {
+            this.sent = sent;
+            this.fail = fail;
+        }
+
+        @Override
+        public void appendLog(UUID instanceId, byte[] ab) {
+            if (fail.get() && sent.size() > 0) {
+                throw new RuntimeException("connection refused");
+            }
+            sent.write(ab, 0, ab.length);
+        }
+
+        @Override
+        public boolean appendLog(UUID instanceId, long segmentId, byte[] ab) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean updateSegment(UUID instanceId, long segmentId, LogSegmentStats stats) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.walmartlabs.concord.agent.logging;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RedirectedProcessLogTest {
+
+    @Test
+    public void testReplay(@TempDir Path tempDir) throws Exception {
+        Path logDir = Files.createDirectories(tempDir.resolve("log"));
+
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        RedirectedProcessLog log = new RedirectedProcessLog(logDir, 10, chunk -> sent.write(chunk.bytes(), 0, chunk.len()));
+
+        log.log(new ByteArrayInputStream("hello".getBytes()));
+        log.run(() -> true);
+        assertEquals("hello", sent.toString());
+
+        // the agent stops before sending the rest of the log
+        log.log(new ByteArrayInputStream(" world".getBytes()));
+
+        // can't replay the log while it is in use
+        assertFalse(RedirectedProcessLog.replay(logDir, chunk -> fail("unexpected data")));
+
+        // copy the files to simulate the agent's restart
+        Path copyDir = Files.createDirectories(tempDir.resolve("copy"));
+        Files.copy(logDir.resolve(LocalProcessLog.LOG_FILE_NAME), copyDir.resolve(LocalProcessLog.LOG_FILE_NAME));
+        Files.copy(logDir.resolve(RedirectedProcessLog.OFFSET_FILE_NAME), copyDir.resolve(RedirectedProcessLog.OFFSET_FILE_NAME));
+
+        ByteArrayOutputStream replayed = new ByteArrayOutputStream();
+        assertTrue(RedirectedProcessLog.replay(copyDir, chunk -> replayed.write(chunk.bytes(), 0, chunk.len())));
+        assertEquals(" world", replayed.toString());
+
+        log.delete();
+        assertFalse(Files.exists(logDir));
+    }
+}
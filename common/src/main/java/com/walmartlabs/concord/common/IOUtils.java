@@ -214,19 +214,36 @@ public final class IOUtils {
     }
 
     public static void copy(Path src, Path dst, String ignorePattern, CopyOption... options) throws IOException {
-        _copy(src, src, dst, toList(ignorePattern), null, options);
+        _copy(src, src, dst, toList(ignorePattern), null, false, options);
     }
 
     public static void copy(Path src, Path dst, String skipContents, FileVisitor visitor, CopyOption... options) throws IOException {
-        _copy(src, src, dst, toList(skipContents), visitor, options);
+        _copy(src, src, dst, toList(skipContents), visitor, false, options);
     }
 
     public static void copy(Path src, Path dst, List<String> skipContents, FileVisitor visitor, CopyOption... options) throws IOException {
-        _copy(src, src, dst, skipContents, visitor, options);
+        _copy(src, src, dst, skipContents, visitor, false, options);
     }
 
-    private static void _copy(Path root, Path src, Path dst, List<String> ignorePattern, FileVisitor visitor, CopyOption... options) throws IOException {
+    /**
+     * Same as {@link #copy(Path, Path, List, FileVisitor, CopyOption...)}, but creates
+     * hard links instead of copying the files. Falls back to copying if the file system
+     * doesn't support hard links (e.g. {@code src} and {@code dst} are on different devices).
+     * <p/>
+     * The linked files share the content with the source files. The callers must not
+     * modify the files in place, only replace them.
+     */
+    public static void link(Path src, Path dst, List<String> skipContents, FileVisitor visitor, CopyOption... options) throws IOException {
+        _copy(src, src, dst, skipContents, visitor, true, options);
+    }
+
+    private static void _copy(Path root, Path src, Path dst, List<String> ignorePattern, FileVisitor visitor, boolean link, CopyOption... options) throws IOException {
+        boolean replaceExisting = Arrays.asList(options).contains(StandardCopyOption.REPLACE_EXISTING);
+
         Files.walkFileTree(src, new SimpleFileVisitor<Path>() {
+
+            private boolean linksSupported = link;
+
             @Override
             public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
                 if (dir != src && anyMatch(src.relativize(dir).toString(), ignorePattern)) {
@@ -267,7 +284,10 @@ public final class IOUtils {
                     return FileVisitResult.CONTINUE;
                 }
 
-                Files.copy(a, b, options);
+                if (!linksSupported || !tryLink(a, b, replaceExisting)) {
+                    linksSupported = false;
+                    Files.copy(a, b, options);
+                }
 
                 if (visitor != null) {
                     visitor.visit(a, b);
@@ -278,6 +298,22 @@ public final class IOUtils {
         });
     }
 
+    private static boolean tryLink(Path src, Path dst, boolean replaceExisting) throws IOException {
+        if (replaceExisting) {
+            Files.deleteIfExists(dst);
+        }
+
+        try {
+            Files.createLink(dst, src);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            throw e;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            log.debug("tryLink ['{}', '{}'] -> hard links are not supported, copying instead: {}", src, dst, e.getMessage());
+            return false;
+        }
+    }
+
     public static List<String> grep(String pattern, byte[] ab) throws IOException {
         return grep(pattern, new ByteArrayInputStream(ab));
     }
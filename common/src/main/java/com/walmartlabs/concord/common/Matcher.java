@@ -20,13 +20,65 @@ package com.walmartlabs.concord.common;
  * =====
  */
 
-import java.util.Collection;
-import java.util.Map;
-import java.util.UUID;
+import java.util.*;
 import java.util.regex.Pattern;
 
 public final class Matcher {
 
+    private static final String REGEX_META_CHARS = "\\^$.|?*+()[]{}";
+
+    /**
+     * Compiles the conditions into a reusable {@link Condition}.
+     * {@code compile(conditions).matches(data)} is equivalent to
+     * {@code matches(data, conditions)}, but the patterns are compiled only once.
+     */
+    @SuppressWarnings("unchecked")
+    public static Condition compile(Object conditions) {
+        if (conditions == null) {
+            return NullCondition.INSTANCE;
+        } else if (conditions instanceof String) {
+            return new StringCondition((String) conditions);
+        } else if (conditions instanceof Map) {
+            return new MapCondition((Map<String, Object>) conditions);
+        } else if (conditions instanceof Collection) {
+            return new CollectionCondition((Collection<Object>) conditions);
+        } else {
+            return new ValueCondition(conditions);
+        }
+    }
+
+    /**
+     * Returns {@code true} if the value contains no regex meta characters and
+     * can be matched as a (case-insensitive) literal.
+     */
+    public static boolean isLiteral(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c > 127 || REGEX_META_CHARS.indexOf(c) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lowercases ASCII characters only, same as {@link Pattern#CASE_INSENSITIVE} without
+     * {@link Pattern#UNICODE_CASE}.
+     */
+    public static String toLowerCaseAscii(String value) {
+        char[] result = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                if (result == null) {
+                    result = value.toCharArray();
+                }
+                result[i] = (char) (c + ('a' - 'A'));
+            }
+        }
+        return result != null ? new String(result) : value;
+    }
+
     public static boolean matches(Object data, Object conditions) {
         return compareNodes(data, conditions);
     }
@@ -108,9 +160,38 @@ public final class Matcher {
     }
 
     private static boolean compareStringValues(String value, String condition) {
+        if (isLiteral(condition)) {
+            return equalsIgnoreCaseAscii(value, condition);
+        }
         return Pattern.compile(condition, Pattern.CASE_INSENSITIVE).matcher(value).matches();
     }
 
+    private static boolean equalsIgnoreCaseAscii(String a, String b) {
+        if (a.length() != b.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < a.length(); i++) {
+            char c1 = a.charAt(i);
+            char c2 = b.charAt(i);
+            if (c1 == c2) {
+                continue;
+            }
+
+            if (c1 >= 'A' && c1 <= 'Z') {
+                c1 = (char) (c1 + ('a' - 'A'));
+            }
+            if (c2 >= 'A' && c2 <= 'Z') {
+                c2 = (char) (c2 + ('a' - 'A'));
+            }
+            if (c1 != c2) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     private static boolean compareArrayNodes(Collection<Object> dataElements, Collection<Object> conditionElements) {
         if (conditionElements.size() > dataElements.size()) {
             return false;
@@ -136,4 +217,150 @@ public final class Matcher {
 
     private Matcher() {
     }
+
+    public interface Condition {
+
+        boolean matches(Object data);
+    }
+
+    private static boolean matchAnyElement(Condition c, Collection<?> data) {
+        for (Object n : data) {
+            if (c.matches(n)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class NullCondition implements Condition {
+
+        private static final NullCondition INSTANCE = new NullCondition();
+
+        @Override
+        public boolean matches(Object data) {
+            return data == null;
+        }
+    }
+
+    private static final class StringCondition implements Condition {
+
+        private final String condition;
+        private final Pattern pattern;
+
+        private StringCondition(String condition) {
+            this.condition = condition;
+            this.pattern = isLiteral(condition) ? null : Pattern.compile(condition, Pattern.CASE_INSENSITIVE);
+        }
+
+        @Override
+        public boolean matches(Object data) {
+            if (data == null) {
+                return matchesString("");
+            } else if (data instanceof String || data instanceof UUID) {
+                return matchesString(data.toString());
+            } else if (data instanceof Collection) {
+                return matchAnyElement(this, (Collection<?>) data);
+            }
+            return data.equals(condition);
+        }
+
+        private boolean matchesString(String value) {
+            if (pattern == null) {
+                return equalsIgnoreCaseAscii(value, condition);
+            }
+            return pattern.matcher(value).matches();
+        }
+    }
+
+    private static final class MapCondition implements Condition {
+
+        private final Map<String, Object> conditions;
+        private final Map<String, Condition> entries;
+
+        private MapCondition(Map<String, Object> conditions) {
+            this.conditions = conditions;
+            this.entries = new LinkedHashMap<>(conditions.size());
+            conditions.forEach((k, v) -> entries.put(k, compile(v)));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean matches(Object data) {
+            if (data == null) {
+                return false;
+            } else if (data instanceof Map) {
+                Map<String, Object> m = (Map<String, Object>) data;
+                if (entries.isEmpty() && !m.isEmpty()) {
+                    return false;
+                }
+
+                for (Map.Entry<String, Condition> e : entries.entrySet()) {
+                    if (!e.getValue().matches(m.get(e.getKey()))) {
+                        return false;
+                    }
+                }
+                return true;
+            } else if (data instanceof Collection) {
+                return matchAnyElement(this, (Collection<?>) data);
+            }
+            return data.equals(conditions);
+        }
+    }
+
+    private static final class CollectionCondition implements Condition {
+
+        private final List<Condition> items;
+
+        private CollectionCondition(Collection<Object> conditions) {
+            this.items = new ArrayList<>(conditions.size());
+            conditions.forEach(c -> items.add(compile(c)));
+        }
+
+        @Override
+        public boolean matches(Object data) {
+            if (data instanceof Collection) {
+                Collection<?> elements = (Collection<?>) data;
+                if (items.size() > elements.size()) {
+                    return false;
+                }
+
+                if (items.isEmpty() && !elements.isEmpty()) {
+                    return false;
+                }
+
+                for (Condition c : items) {
+                    if (!matchAnyElement(c, elements)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            for (Condition c : items) {
+                if (c.matches(data)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class ValueCondition implements Condition {
+
+        private final Object condition;
+
+        private ValueCondition(Object condition) {
+            this.condition = condition;
+        }
+
+        @Override
+        public boolean matches(Object data) {
+            if (data == null) {
+                return false;
+            } else if (data instanceof Collection) {
+                return matchAnyElement(this, (Collection<?>) data);
+            }
+            return data.equals(condition);
+        }
+    }
 }
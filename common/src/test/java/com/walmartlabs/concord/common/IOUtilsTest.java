@@ -27,10 +27,11 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.util.Collections;
 
-import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class IOUtilsTest {
 
@@ -76,6 +77,34 @@ public class IOUtilsTest {
         assertTrue(Files.exists(dst.resolve("a/b/c.txt")));
     }
 
+    @Test
+    public void testLink() throws Exception {
+        Path src = Files.createTempDirectory("test");
+        Path dst = Files.createTempDirectory("test");
+
+        // ---
+
+        Path nestedDir = src.resolve("a/b");
+        Files.createDirectories(nestedDir);
+
+        Path srcFile = nestedDir.resolve("c.txt");
+        Files.write(srcFile, "hello".getBytes());
+
+        Files.createDirectories(src.resolve(".git"));
+        Files.createFile(src.resolve(".git/HEAD"));
+
+        Files.createDirectories(dst.resolve("a/b"));
+        Files.write(dst.resolve("a/b/c.txt"), "old".getBytes());
+
+        // ---
+
+        IOUtils.link(src, dst, Collections.singletonList("^\\.git$"), null, StandardCopyOption.REPLACE_EXISTING);
+
+        assertTrue(Files.isSameFile(srcFile, dst.resolve("a/b/c.txt")));
+        assertEquals("hello", new String(Files.readAllBytes(dst.resolve("a/b/c.txt"))));
+        assertFalse(Files.exists(dst.resolve(".git")));
+    }
+
     @Test
     public void testSymlinks() throws Exception {
         Path src = Files.createTempDirectory("test");
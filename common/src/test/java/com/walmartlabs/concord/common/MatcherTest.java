@@ -27,6 +27,7 @@ import java.util.*;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -258,6 +259,28 @@ public class MatcherTest {
         assertFalse(Matcher.matches(data, "ono"));
     }
 
+    @Test
+    public void testCompiled() {
+        Map<String, Object> m = new HashMap<>();
+        m.put("a", "A-Value");
+        m.put("b", asList("x", "y"));
+        m.put("c", 123);
+
+        List<Object> values = asList(null, "", "abc", "ABC", "k\u212A", UUID.fromString("5e1bc8b4-1b0f-4b0c-9a9f-6c1e8f3b8a4e"),
+                123, true, emptyList(), emptyMap(), asList("one", "two"), asList(null, "abc"), m);
+
+        List<Object> conditions = asList(null, "", ".*", "abc", "k", "kk", "a.c", "5E1BC8B4-1B0F-4B0C-9A9F-6C1E8F3B8A4E",
+                123, true, emptyList(), emptyMap(), asList("on.*", "two"), asList(null, emptyList()),
+                Collections.singletonMap("a", "a-v.*"), Collections.singletonMap("b", asList("y")));
+
+        for (Object c : conditions) {
+            Matcher.Condition compiled = Matcher.compile(c);
+            for (Object v : values) {
+                assertEquals(Matcher.matches(v, c), compiled.matches(v), "data: " + v + ", condition: " + c);
+            }
+        }
+    }
+
     // null == null, "", ".*", [null]
     // []   == []
     // {}   == {}, [{}]
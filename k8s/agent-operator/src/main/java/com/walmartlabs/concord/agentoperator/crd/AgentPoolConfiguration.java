@@ -39,6 +39,8 @@ public class AgentPoolConfiguration implements Serializable {
     private static final String ENV_DECREMENT_PERCENTAGE = "DECREMENT_PERCENTAGE";
     private static final String ENV_INCREMENT_THRESHOLD_FACTOR = "INCREMENT_THRESHOLD_FACTOR";
     private static final String ENV_DECREMENT_THRESHOLD_FACTOR = "DECREMENT_THRESHOLD_FACTOR";
+    private static final String ENV_SCALING_POLICY = "SCALING_POLICY";
+    private static final String ENV_POD_STARTUP_DELAY_MS = "POD_STARTUP_DELAY_MS";
 
     private static final int DEFAULT_MAX_SIZE = 10;
     private static final int DEFAULT_MIN_SIZE = 1;
@@ -50,6 +52,10 @@ public class AgentPoolConfiguration implements Serializable {
 
     private static final int DEFAULT_QUEUE_QUERY_LIMIT = 300;
 
+    public static final String DEFAULT_SCALING_POLICY = "default";
+    public static final String PREDICTIVE_SCALING_POLICY = "predictive";
+    private static final long DEFAULT_POD_STARTUP_DELAY_MS = 60000;
+
     private boolean autoScale = true;
     private int maxSize = DEFAULT_MAX_SIZE;
     private int minSize = DEFAULT_MIN_SIZE;
@@ -88,6 +94,18 @@ public class AgentPoolConfiguration implements Serializable {
      */
     private double decrementThresholdFactor = getDoubleFromEnv(ENV_DECREMENT_THRESHOLD_FACTOR, DEFAULT_DECREMENT_THRESHOLD_FACTOR);
 
+    /**
+     * Scaling algorithm to use: {@code default} (reacts to the number of enqueued processes)
+     * or {@code predictive} (uses the queue rates and the upcoming cron triggers)
+     */
+    private String scalingPolicy = getStringFromEnv(ENV_SCALING_POLICY, DEFAULT_SCALING_POLICY);
+
+    /**
+     * Expected time it takes for a new agent pod to become available.
+     * Used by the predictive scaling policy as the look-ahead period
+     */
+    private long podStartupDelayMs = getLongFromEnv(ENV_POD_STARTUP_DELAY_MS, DEFAULT_POD_STARTUP_DELAY_MS);
+
     private Map<String, Object> queueSelector;
     private ConfigMap configMap;
 
@@ -182,6 +200,22 @@ public class AgentPoolConfiguration implements Serializable {
         this.decrementThresholdFactor = decrementThresholdFactor;
     }
 
+    public String getScalingPolicy() {
+        return scalingPolicy;
+    }
+
+    public void setScalingPolicy(String scalingPolicy) {
+        this.scalingPolicy = scalingPolicy;
+    }
+
+    public long getPodStartupDelayMs() {
+        return podStartupDelayMs;
+    }
+
+    public void setPodStartupDelayMs(long podStartupDelayMs) {
+        this.podStartupDelayMs = podStartupDelayMs;
+    }
+
     public int getQueueQueryLimit() {
         return queueQueryLimit;
     }
@@ -211,6 +245,11 @@ public class AgentPoolConfiguration implements Serializable {
         return envValue != null ? Long.parseLong(envValue) : defaultValue;
     }
 
+    private static String getStringFromEnv(String key, String defaultValue) {
+        String envValue = System.getenv(key);
+        return envValue != null ? envValue : defaultValue;
+    }
+
     private static double getDoubleFromEnv(String key, double defaultValue) {
         String envValue = System.getenv(key);
         return envValue != null ? Double.parseDouble(envValue) : defaultValue;
@@ -76,6 +76,72 @@ public class ProcessQueueClient {
         }
     }
 
+    /**
+     * Returns the number of processes in the specified status grouped by their requirements.
+     *
+     * @return the list of aggregated entries or {@code null} if the server doesn't support
+     * the aggregated queue depth endpoint.
+     */
+    public List<ProcessQueueEntry> queryDepth(String processStatus) throws IOException {
+        String queryUrl = baseUrl + "/api/v2/process/requirements/depth?status=" + processStatus;
+        Request req = new Request.Builder()
+                .url(queryUrl)
+                .header("Authorization", apiToken)
+                .addHeader("User-Agent", "k8s-agent-operator")
+                .build();
+
+        Call call = client.newCall(req);
+        try (Response resp = call.execute()) {
+            if (resp.code() == 404) {
+                return null;
+            }
+
+            if (!resp.isSuccessful()) {
+                throw new IOException("Error while fetching the process queue depth: " + resp.code());
+            }
+
+            ResponseBody body = resp.body();
+            if (body == null) {
+                throw new IOException("Error while fetching the process queue depth: empty response");
+            }
+
+            return objectMapper.readValue(body.byteStream(), LIST_OF_PROCESS_QUEUE_ENTRIES);
+        }
+    }
+
+    /**
+     * Returns the process queue rates calculated over the specified window
+     * and the number of cron triggers scheduled within the horizon.
+     *
+     * @return the queue stats or {@code null} if the server doesn't support the endpoint.
+     */
+    public ProcessQueueStats queryStats(int windowSec, int horizonSec) throws IOException {
+        String queryUrl = baseUrl + "/api/v2/process/requirements/stats?window=" + windowSec + "&horizon=" + horizonSec;
+        Request req = new Request.Builder()
+                .url(queryUrl)
+                .header("Authorization", apiToken)
+                .addHeader("User-Agent", "k8s-agent-operator")
+                .build();
+
+        Call call = client.newCall(req);
+        try (Response resp = call.execute()) {
+            if (resp.code() == 404) {
+                return null;
+            }
+
+            if (!resp.isSuccessful()) {
+                throw new IOException("Error while fetching the process queue stats: " + resp.code());
+            }
+
+            ResponseBody body = resp.body();
+            if (body == null) {
+                throw new IOException("Error while fetching the process queue stats: empty response");
+            }
+
+            return objectMapper.readValue(body.byteStream(), ProcessQueueStats.class);
+        }
+    }
+
     private static OkHttpClient initClient() {
         try {
             TrustManager[] trustAllCerts = new TrustManager[]{
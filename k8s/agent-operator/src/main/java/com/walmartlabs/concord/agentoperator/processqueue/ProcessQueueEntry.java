@@ -33,20 +33,36 @@ public class ProcessQueueEntry implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private final Map<String, Object> requirements;
+    private final int count;
 
+    public ProcessQueueEntry(Map<String, Object> requirements) {
+        this(requirements, null);
+    }
+
+    /**
+     * @param count number of processes with the same requirements. Only present in
+     *              the aggregated queue depth responses, defaults to 1.
+     */
     @JsonCreator
-    public ProcessQueueEntry(@JsonProperty("requirements") Map<String, Object> requirements) {
+    public ProcessQueueEntry(@JsonProperty("requirements") Map<String, Object> requirements,
+                             @JsonProperty("count") Integer count) {
         this.requirements = requirements;
+        this.count = count != null ? count : 1;
     }
 
     public Map<String, Object> getRequirements() {
         return requirements;
     }
 
+    public int getCount() {
+        return count;
+    }
+
     @Override
     public String toString() {
         return "ProcessQueueEntry{" +
                 "requirements=" + requirements +
+                ", count=" + count +
                 '}';
     }
 }
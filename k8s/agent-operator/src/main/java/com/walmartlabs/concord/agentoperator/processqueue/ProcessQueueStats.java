@@ -0,0 +1,138 @@
+package com.walmartlabs.concord.agentoperator.processqueue;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process queue rates grouped by requirements and the number of upcoming
+ * cron triggers. Returned by the {@code /api/v2/process/requirements/stats} endpoint.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProcessQueueStats implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int window;
+    private final int horizon;
+    private final int scheduledTriggers;
+    private final List<RateEntry> rates;
+
+    @JsonCreator
+    public ProcessQueueStats(@JsonProperty("window") int window,
+                             @JsonProperty("horizon") int horizon,
+                             @JsonProperty("scheduledTriggers") int scheduledTriggers,
+                             @JsonProperty("rates") List<RateEntry> rates) {
+
+        this.window = window;
+        this.horizon = horizon;
+        this.scheduledTriggers = scheduledTriggers;
+        this.rates = rates != null ? rates : Collections.emptyList();
+    }
+
+    /**
+     * @return size of the window used to calculate the rates, in seconds.
+     */
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * @return size of the look-ahead window for {@link #getScheduledTriggers()}, in seconds.
+     */
+    public int getHorizon() {
+        return horizon;
+    }
+
+    public int getScheduledTriggers() {
+        return scheduledTriggers;
+    }
+
+    public List<RateEntry> getRates() {
+        return rates;
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessQueueStats{" +
+                "window=" + window +
+                ", horizon=" + horizon +
+                ", scheduledTriggers=" + scheduledTriggers +
+                ", rates=" + rates +
+                '}';
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class RateEntry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Map<String, Object> requirements;
+        private final int enqueued;
+        private final int started;
+        private final Long avgDurationMs;
+
+        @JsonCreator
+        public RateEntry(@JsonProperty("requirements") Map<String, Object> requirements,
+                         @JsonProperty("enqueued") int enqueued,
+                         @JsonProperty("started") int started,
+                         @JsonProperty("avgDurationMs") Long avgDurationMs) {
+
+            this.requirements = requirements;
+            this.enqueued = enqueued;
+            this.started = started;
+            this.avgDurationMs = avgDurationMs;
+        }
+
+        public Map<String, Object> getRequirements() {
+            return requirements;
+        }
+
+        public int getEnqueued() {
+            return enqueued;
+        }
+
+        public int getStarted() {
+            return started;
+        }
+
+        public Long getAvgDurationMs() {
+            return avgDurationMs;
+        }
+
+        @Override
+        public String toString() {
+            return "RateEntry{" +
+                    "requirements=" + requirements +
+                    ", enqueued=" + enqueued +
+                    ", started=" + started +
+                    ", avgDurationMs=" + avgDurationMs +
+                    '}';
+        }
+    }
+}
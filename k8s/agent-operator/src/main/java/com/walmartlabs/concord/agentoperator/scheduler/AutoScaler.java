@@ -28,10 +28,9 @@ import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.function.Function;
 
-public class AutoScaler {
+public class AutoScaler implements ScalingPolicy {
 
     private static final Logger log = LoggerFactory.getLogger(AutoScaler.class);
 
@@ -60,6 +59,11 @@ public class AutoScaler {
         this.scaleDownTimeStamp = System.currentTimeMillis();
     }
 
+    @Override
+    public AgentPoolInstance apply(AgentPoolInstance i, QueueState state) {
+        return apply(i, state.getQueueEntries());
+    }
+
     /**
      * Scale up or Scale down the number of agent pods depending on various conditions
      * <p>
@@ -75,7 +79,8 @@ public class AutoScaler {
      * runningCount < podsCount)
      *
      * @param i            Agent pool on which the scaling activity is to be performed
-     * @param queueEntries List of process entries in ENQUEUED state
+     * @param queueEntries List of process entries in ENQUEUED state, either individual
+     *                     processes or aggregated by requirements
      */
     public AgentPoolInstance apply(AgentPoolInstance i, List<ProcessQueueEntry> queueEntries) {
 
@@ -210,12 +215,26 @@ public class AutoScaler {
         return poolSize;
     }
 
-    private static int getProcessCount(AgentPoolConfiguration cfg, List<ProcessQueueEntry> processQueueEntries) {
-        return (int) processQueueEntries.stream()
-                .map(ProcessQueueEntry::getRequirements)
-                .filter(Objects::nonNull)
-                .filter(a -> isEmpty(cfg.getQueueSelector()) || Matcher.matches(a, cfg.getQueueSelector()))
-                .count();
+    /**
+     * @return the number of matching processes, up to {@code queueQueryLimit}.
+     * The aggregated queue depth is not limited by the server, the limit is applied
+     * here to keep the same counts as with the individual queue entries.
+     */
+    static int getProcessCount(AgentPoolConfiguration cfg, List<ProcessQueueEntry> processQueueEntries) {
+        int count = processQueueEntries.stream()
+                .filter(e -> matches(cfg, e.getRequirements()))
+                .mapToInt(ProcessQueueEntry::getCount)
+                .sum();
+
+        int limit = cfg.getQueueQueryLimit();
+        return limit > 0 ? Math.min(count, limit) : count;
+    }
+
+    static boolean matches(AgentPoolConfiguration cfg, Map<String, Object> requirements) {
+        if (requirements == null) {
+            return false;
+        }
+        return isEmpty(cfg.getQueueSelector()) || Matcher.matches(requirements, cfg.getQueueSelector());
     }
 
     private static boolean isEmpty(Map<String, Object> m) {
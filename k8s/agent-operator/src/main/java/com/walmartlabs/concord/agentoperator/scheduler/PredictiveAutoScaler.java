@@ -0,0 +1,170 @@
+package com.walmartlabs.concord.agentoperator.scheduler;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.agentoperator.crd.AgentPoolConfiguration;
+import com.walmartlabs.concord.agentoperator.processqueue.ProcessQueueStats;
+import com.walmartlabs.concord.agentoperator.processqueue.ProcessQueueStats.RateEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Function;
+
+/**
+ * Sizes the pool based on the predicted demand rather than on the current
+ * number of enqueued processes.
+ * <p>
+ * The demand is estimated as:
+ * <pre>
+ * running + enqueued + max(0, enqueueRate - dispatchRate) * podStartupDelay + upcomingCronTriggers * poolShare
+ * </pre>
+ * where {@code running = dispatchRate * avgRunDuration} (Little's law) and {@code poolShare}
+ * is the pool's share of the recently enqueued processes. Scaling up happens as soon as
+ * the scale up delay allows it, using the predicted size directly instead of fixed increments.
+ * Scaling down is limited by the decrement percentage, same as in {@link AutoScaler}.
+ * <p>
+ * Falls back to {@link AutoScaler} if the server doesn't provide the queue rates.
+ */
+public class PredictiveAutoScaler implements ScalingPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(PredictiveAutoScaler.class);
+
+    private final Function<String, Integer> podCounter;
+    private final Function<AgentPoolInstance, Boolean> canBeScaledUp;
+    private final Function<AgentPoolInstance, Boolean> canBeScaledDown;
+    private final AutoScaler fallback;
+
+    public PredictiveAutoScaler(Function<String, Integer> podCounter) {
+        this(podCounter, i -> {
+            long t = System.currentTimeMillis();
+            return t - i.getLastScaleUpTimestamp() > i.getResource().getSpec().getScaleUpDelayMs();
+        }, i -> {
+            long t = System.currentTimeMillis();
+            return t - i.getLastScaleDownTimeStamp() > i.getResource().getSpec().getScaleDownDelayMs();
+        });
+    }
+
+    public PredictiveAutoScaler(Function<String, Integer> podCounter, Function<AgentPoolInstance, Boolean> canBeScaledUp,
+                                Function<AgentPoolInstance, Boolean> canBeScaledDown) {
+        this.podCounter = podCounter;
+        this.canBeScaledUp = canBeScaledUp;
+        this.canBeScaledDown = canBeScaledDown;
+        this.fallback = new AutoScaler(podCounter, canBeScaledUp, canBeScaledDown);
+    }
+
+    @Override
+    public AgentPoolInstance apply(AgentPoolInstance i, QueueState state) {
+        ProcessQueueStats stats = state.getStats();
+        if (stats == null || stats.getWindow() <= 0) {
+            return fallback.apply(i, state.getQueueEntries());
+        }
+
+        AgentPoolConfiguration cfg = i.getResource().getSpec();
+
+        long now = System.currentTimeMillis();
+        long scaleUpTimeStamp = i.getLastScaleUpTimestamp();
+        long scaleDownTimeStamp = i.getLastScaleDownTimeStamp();
+
+        int podsCount = podCounter.apply(i.getName());
+        if (podsCount < cfg.getMinSize()) {
+            return AgentPoolInstance.updateTargetSize(i, cfg.getMinSize(), now, now);
+        }
+
+        int required = requiredSize(i.getName(), cfg, state);
+        int targetSize = i.getTargetSize();
+
+        if (required > targetSize) {
+            if (canBeScaledUp.apply(i)) {
+                log.info("['{}']: Scaling up to {} (predicted)...", i.getName(), required);
+                targetSize = required;
+                scaleUpTimeStamp = now;
+            }
+        } else if (required < targetSize) {
+            if (canBeScaledDown.apply(i)) {
+                int step = (int) Math.floor(targetSize * (1 - cfg.getPercentDecrement() / 100));
+                targetSize = Math.max(required, Math.min(step, targetSize - 1));
+                log.info("['{}']: Scaling down to {} (predicted size {})...", i.getName(), targetSize, required);
+                scaleDownTimeStamp = now;
+            }
+        }
+
+        // scale down only after the predicted demand stays low for the whole scale down delay
+        if (required >= i.getTargetSize()) {
+            scaleDownTimeStamp = now;
+        }
+
+        return AgentPoolInstance.updateTargetSize(i, targetSize, scaleUpTimeStamp, scaleDownTimeStamp);
+    }
+
+    /**
+     * Returns the predicted pool size, limited by the pool's min and max sizes.
+     */
+    static int requiredSize(String poolName, AgentPoolConfiguration cfg, QueueState state) {
+        ProcessQueueStats stats = state.getStats();
+        double window = stats.getWindow();
+
+        int enqueuedCount = AutoScaler.getProcessCount(cfg, state.getQueueEntries());
+
+        long totalEnqueued = 0;
+        long poolEnqueued = 0;
+        long poolStarted = 0;
+        double durationSum = 0;
+        long durationCount = 0;
+
+        for (RateEntry e : stats.getRates()) {
+            totalEnqueued += e.getEnqueued();
+
+            if (!AutoScaler.matches(cfg, e.getRequirements())) {
+                continue;
+            }
+
+            poolEnqueued += e.getEnqueued();
+            poolStarted += e.getStarted();
+
+            if (e.getAvgDurationMs() != null && e.getStarted() > 0) {
+                durationSum += e.getAvgDurationMs() / 1000.0 * e.getStarted();
+                durationCount += e.getStarted();
+            }
+        }
+
+        double enqueueRate = poolEnqueued / window;
+        double dispatchRate = poolStarted / window;
+
+        // nothing finished recently, assume the processes run at least as long as the window
+        double avgDuration = durationCount > 0 ? durationSum / durationCount : window;
+
+        double running = dispatchRate * avgDuration;
+        double growth = Math.max(0, enqueueRate - dispatchRate) * (cfg.getPodStartupDelayMs() / 1000.0);
+
+        double prewarm = 0;
+        if (totalEnqueued > 0) {
+            prewarm = stats.getScheduledTriggers() * ((double) poolEnqueued / totalEnqueued);
+        }
+
+        double demand = running + enqueuedCount + growth + prewarm;
+        log.info("['{}']: Predicted demand: {} (running: {}, enqueued: {}, growth: {}, scheduled: {})",
+                poolName, String.format("%.2f", demand), String.format("%.2f", running), enqueuedCount,
+                String.format("%.2f", growth), String.format("%.2f", prewarm));
+
+        int size = (int) Math.ceil(demand);
+        return Math.max(cfg.getMinSize(), Math.min(cfg.getMaxSize(), size));
+    }
+}
@@ -0,0 +1,53 @@
+package com.walmartlabs.concord.agentoperator.scheduler;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.agentoperator.processqueue.ProcessQueueEntry;
+import com.walmartlabs.concord.agentoperator.processqueue.ProcessQueueStats;
+
+import java.util.List;
+
+/**
+ * Snapshot of the process queue used by {@link ScalingPolicy} implementations.
+ */
+public class QueueState {
+
+    private final List<ProcessQueueEntry> queueEntries;
+    private final ProcessQueueStats stats;
+
+    /**
+     * @param queueEntries processes in ENQUEUED state, either individual
+     *                     processes or aggregated by requirements
+     * @param stats        queue rates, {@code null} if not available
+     */
+    public QueueState(List<ProcessQueueEntry> queueEntries, ProcessQueueStats stats) {
+        this.queueEntries = queueEntries;
+        this.stats = stats;
+    }
+
+    public List<ProcessQueueEntry> getQueueEntries() {
+        return queueEntries;
+    }
+
+    public ProcessQueueStats getStats() {
+        return stats;
+    }
+}
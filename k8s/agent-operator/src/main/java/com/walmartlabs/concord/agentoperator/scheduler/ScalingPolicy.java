@@ -0,0 +1,34 @@
+package com.walmartlabs.concord.agentoperator.scheduler;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+/**
+ * Calculates the target size of an agent pool.
+ */
+public interface ScalingPolicy {
+
+    /**
+     * @param i     the agent pool to scale
+     * @param state current state of the process queue
+     * @return the agent pool with updated target size and scaling timestamps
+     */
+    AgentPoolInstance apply(AgentPoolInstance i, QueueState state);
+}
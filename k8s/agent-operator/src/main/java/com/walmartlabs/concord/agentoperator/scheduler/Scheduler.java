@@ -26,6 +26,7 @@ import com.walmartlabs.concord.agentoperator.planner.Change;
 import com.walmartlabs.concord.agentoperator.planner.Planner;
 import com.walmartlabs.concord.agentoperator.processqueue.ProcessQueueClient;
 import com.walmartlabs.concord.agentoperator.processqueue.ProcessQueueEntry;
+import com.walmartlabs.concord.agentoperator.processqueue.ProcessQueueStats;
 import com.walmartlabs.concord.agentoperator.resources.AgentPod;
 import com.walmartlabs.concord.common.ConfigurationUtils;
 import io.fabric8.kubernetes.api.model.Pod;
@@ -35,6 +36,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Function;
 
 public class Scheduler {
 
@@ -43,6 +45,11 @@ public class Scheduler {
     private static final long POLL_DELAY = 5000;
     private static final long ERROR_DELAY = 10000;
 
+    /**
+     * Window used to calculate the process queue rates for the predictive scaling policy.
+     */
+    private static final int STATS_WINDOW_SEC = 900;
+
     private final KubernetesClient k8sClient;
     private final ProcessQueueClient processQueueClient;
     private final Planner planner;
@@ -107,12 +114,41 @@ public class Scheduler {
         }
 
         // fetch the process queue status
+        // one aggregated request for all pools, null if the server doesn't support it
+        List<ProcessQueueEntry> queueDepth = null;
+        if (todo.stream().anyMatch(i -> i.getResource().getSpec().isAutoScale())) {
+            try {
+                queueDepth = processQueueClient.queryDepth("ENQUEUED");
+            } catch (IOException e) {
+                // each pool falls back to its own query
+                log.warn("doRun -> error while fetching the process queue depth: {}", e.getMessage());
+            }
+        }
+
+        // queue rates, only needed by the predictive scaling policy
+        ProcessQueueStats queueStats = null;
+        OptionalLong statsHorizonMs = todo.stream()
+                .map(i -> i.getResource().getSpec())
+                .filter(s -> s.isAutoScale() && AgentPoolConfiguration.PREDICTIVE_SCALING_POLICY.equals(s.getScalingPolicy()))
+                .mapToLong(AgentPoolConfiguration::getPodStartupDelayMs)
+                .max();
+        if (statsHorizonMs.isPresent()) {
+            int horizonSec = (int) ((statsHorizonMs.getAsLong() + POLL_DELAY) / 1000);
+            try {
+                queueStats = processQueueClient.queryStats(STATS_WINDOW_SEC, horizonSec);
+            } catch (IOException e) {
+                // the predictive policy falls back to the default one for this tick
+                log.warn("doRun -> error while fetching the process queue stats: {}", e.getMessage());
+            }
+        }
 
+        List<ProcessQueueEntry> finalQueueDepth = queueDepth;
+        ProcessQueueStats finalQueueStats = queueStats;
         todo.parallelStream().forEach(i -> {
             try {
                 switch (i.getStatus()) {
                     case ACTIVE: {
-                        updateTargetSize(i);
+                        updateTargetSize(i, finalQueueDepth, finalQueueStats);
                         processActive(i);
                         break;
                     }
@@ -149,27 +185,45 @@ public class Scheduler {
         }
     }
 
-    private void updateTargetSize(AgentPoolInstance i) throws IOException {
+    private void updateTargetSize(AgentPoolInstance i, List<ProcessQueueEntry> queueDepth, ProcessQueueStats queueStats) throws IOException {
         if (!i.getResource().getSpec().isAutoScale()) {
             return;
         }
 
-        int queueQueryLimit = i.getResource().getSpec().getQueueQueryLimit();
-        Map<String, Object> queueSelector = i.getResource().getSpec().getQueueSelector();
-        String flavor = (String) ConfigurationUtils.get(queueSelector, "agent", "flavor");
-        List<ProcessQueueEntry> queueEntries = processQueueClient.query("ENQUEUED", queueQueryLimit, flavor);
+        List<ProcessQueueEntry> queueEntries = queueDepth;
+        if (queueEntries == null) {
+            // older servers, fetch the individual queue entries
+            int queueQueryLimit = i.getResource().getSpec().getQueueQueryLimit();
+            Map<String, Object> queueSelector = i.getResource().getSpec().getQueueSelector();
+            String flavor = (String) ConfigurationUtils.get(queueSelector, "agent", "flavor");
+            queueEntries = processQueueClient.query("ENQUEUED", queueQueryLimit, flavor);
+        }
 
         AgentPoolConfiguration spec = i.getResource().getSpec();
         if (!spec.isAutoScale()) {
             return;
         }
 
-        AutoScaler autoScaler = new AutoScaler(n -> AgentPod.list(k8sClient, n).size());
+        ScalingPolicy scalingPolicy = createScalingPolicy(spec);
         synchronized (pools) {
-            pools.put(i.getName(), autoScaler.apply(i, queueEntries));
+            pools.put(i.getName(), scalingPolicy.apply(i, new QueueState(queueEntries, queueStats)));
         }
     }
 
+    private ScalingPolicy createScalingPolicy(AgentPoolConfiguration spec) {
+        Function<String, Integer> podCounter = n -> AgentPod.list(k8sClient, n).size();
+
+        String name = spec.getScalingPolicy();
+        if (name == null || AgentPoolConfiguration.DEFAULT_SCALING_POLICY.equals(name)) {
+            return new AutoScaler(podCounter);
+        } else if (AgentPoolConfiguration.PREDICTIVE_SCALING_POLICY.equals(name)) {
+            return new PredictiveAutoScaler(podCounter);
+        }
+
+        log.warn("createScalingPolicy -> unknown scaling policy '{}', using the default one", name);
+        return new AutoScaler(podCounter);
+    }
+
     private void processActive(AgentPoolInstance i) throws IOException {
         List<Change> changes = planner.plan(i);
         apply(changes);
@@ -151,4 +151,55 @@ public class AutoScalerTest {
         pool = as.apply(pool, queue);
         assertEquals(6, pool.getTargetSize());
     }
+
+    @Test
+    public void testAggregatedQueue() {
+        AtomicInteger podCount = new AtomicInteger(1);
+
+        AutoScaler as = new AutoScaler(n -> podCount.get(), i -> true, i -> true);
+
+        AgentPoolConfiguration spec = new AgentPoolConfiguration();
+        spec.setPercentIncrement(50);
+        spec.setDecrementThresholdFactor(1.0);
+        spec.setIncrementThresholdFactor(1.5);
+        spec.setPercentDecrement(10);
+        spec.setQueueSelector(Collections.singletonMap("test", 123));
+
+        AgentPool resource = new AgentPool();
+        resource.setSpec(spec);
+
+        AgentPoolInstance pool = new AgentPoolInstance("test", resource, AgentPoolInstance.Status.ACTIVE, 1, 0, 0, 0);
+
+        List<ProcessQueueEntry> queue = new ArrayList<>();
+        queue.add(new ProcessQueueEntry(Collections.singletonMap("test", 123), 10));
+        queue.add(new ProcessQueueEntry(Collections.singletonMap("test", 234), 100));
+
+        // ---
+
+        pool = as.apply(pool, queue);
+        assertEquals(2, pool.getTargetSize());
+
+        podCount.set(2);
+
+        pool = as.apply(pool, queue);
+        assertEquals(3, pool.getTargetSize());
+    }
+
+    @Test
+    public void testAggregatedQueueLimit() {
+        AgentPoolConfiguration spec = new AgentPoolConfiguration();
+        spec.setQueueSelector(Collections.singletonMap("test", 123));
+        spec.setQueueQueryLimit(50);
+
+        List<ProcessQueueEntry> queue = new ArrayList<>();
+        queue.add(new ProcessQueueEntry(Collections.singletonMap("test", 123), 40));
+        queue.add(new ProcessQueueEntry(Collections.singletonMap("test", 123), 30));
+        queue.add(new ProcessQueueEntry(Collections.singletonMap("test", 234), 100));
+
+        // same as the individual entries fetched with "limit=50"
+        assertEquals(50, AutoScaler.getProcessCount(spec, queue));
+
+        spec.setQueueQueryLimit(100);
+        assertEquals(70, AutoScaler.getProcessCount(spec, queue));
+    }
 }
@@ -0,0 +1,63 @@
+package com.walmartlabs.concord.agentoperator.scheduler;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.agentoperator.crd.AgentPoolConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PredictiveAutoScalerTest {
+
+    @Test
+    public void testCronBurst() throws Exception {
+        Map<String, Object> requirements = Collections.singletonMap("agent", Collections.singletonMap("flavor", "test"));
+
+        AgentPoolConfiguration spec = new AgentPoolConfiguration();
+        spec.setMinSize(1);
+        spec.setMaxSize(40);
+        spec.setScaleUpDelayMs(30000);
+        spec.setScaleDownDelayMs(180000);
+        spec.setPercentIncrement(50);
+        spec.setPercentDecrement(10);
+        spec.setIncrementThresholdFactor(1.5);
+        spec.setDecrementThresholdFactor(1.0);
+        spec.setPodStartupDelayMs(60000);
+        spec.setQueueSelector(requirements);
+
+        List<QueueSimulator.Arrival> history = QueueSimulator.load("/queue-history/cron-burst.csv");
+        QueueSimulator simulator = new QueueSimulator(history, spec, requirements);
+
+        QueueSimulator.Result reactive = simulator.run(AutoScaler::new);
+        QueueSimulator.Result predictive = simulator.run(PredictiveAutoScaler::new);
+
+        // processes started by the cron triggers shouldn't wait for a full scale up cycle
+        assertTrue(predictive.getTotalWaitSec() * 2 < reactive.getTotalWaitSec());
+        assertTrue(predictive.getMaxWaitSec() < reactive.getMaxWaitSec());
+
+        // ...without keeping the pool oversized
+        assertTrue(predictive.getPodSeconds() < reactive.getPodSeconds() * 2);
+    }
+}
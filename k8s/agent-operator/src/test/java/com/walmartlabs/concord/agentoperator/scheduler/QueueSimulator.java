@@ -0,0 +1,291 @@
+package com.walmartlabs.concord.agentoperator.scheduler;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.agentoperator.crd.AgentPool;
+import com.walmartlabs.concord.agentoperator.crd.AgentPoolConfiguration;
+import com.walmartlabs.concord.agentoperator.processqueue.ProcessQueueEntry;
+import com.walmartlabs.concord.agentoperator.processqueue.ProcessQueueStats;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Replays a recorded process queue history against a {@link ScalingPolicy}.
+ * Agents are simulated as pods that become available after
+ * {@link AgentPoolConfiguration#getPodStartupDelayMs()} and run one process at a time.
+ */
+public class QueueSimulator {
+
+    private static final long TICK_SEC = 5;
+    private static final int STATS_WINDOW_SEC = 900;
+
+    /**
+     * Loads a queue history from a classpath resource. Each line is
+     * {@code time (seconds),number of processes,run duration (seconds),started by a cron trigger}.
+     */
+    public static List<Arrival> load(String resource) throws IOException {
+        List<Arrival> result = new ArrayList<>();
+
+        try (InputStream in = QueueSimulator.class.getResourceAsStream(resource);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(Objects.requireNonNull(in, resource), StandardCharsets.UTF_8))) {
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] cols = line.split(",");
+                result.add(new Arrival(Long.parseLong(cols[0]), Integer.parseInt(cols[1]),
+                        Long.parseLong(cols[2]), Boolean.parseBoolean(cols[3])));
+            }
+        }
+
+        result.sort(Comparator.comparingLong(a -> a.time));
+        return result;
+    }
+
+    private final List<Arrival> history;
+    private final AgentPoolConfiguration spec;
+    private final Map<String, Object> requirements;
+
+    public QueueSimulator(List<Arrival> history, AgentPoolConfiguration spec, Map<String, Object> requirements) {
+        this.history = history;
+        this.spec = spec;
+        this.requirements = requirements;
+    }
+
+    public Result run(PolicyFactory policyFactory) {
+        List<Pod> pods = new ArrayList<>();
+        Deque<Process> queue = new ArrayDeque<>();
+        List<Process> processes = new ArrayList<>();
+
+        long[] clock = {0};
+        long[] lastScaleUp = {0};
+        long[] lastScaleDown = {0};
+
+        ScalingPolicy policy = policyFactory.create(n -> pods.size(),
+                i -> clock[0] - lastScaleUp[0] > spec.getScaleUpDelayMs() / 1000,
+                i -> clock[0] - lastScaleDown[0] > spec.getScaleDownDelayMs() / 1000);
+
+        AgentPool resource = new AgentPool();
+        resource.setSpec(spec);
+        AgentPoolInstance pool = new AgentPoolInstance("test", resource, AgentPoolInstance.Status.ACTIVE, spec.getMinSize(), 0, 0, 0);
+        for (int i = 0; i < spec.getMinSize(); i++) {
+            pods.add(new Pod(0));
+        }
+
+        long horizon = (spec.getPodStartupDelayMs() / 1000) + TICK_SEC;
+        long end = history.isEmpty() ? 0 : history.get(history.size() - 1).time + STATS_WINDOW_SEC;
+
+        Result result = new Result();
+        int next = 0;
+
+        for (long t = 0; t <= end; t += TICK_SEC) {
+            clock[0] = t;
+
+            // finished processes release their pods
+            for (Pod p : pods) {
+                if (p.current != null && p.current.finishedAt <= t) {
+                    p.current = null;
+                }
+            }
+
+            while (next < history.size() && history.get(next).time <= t) {
+                Arrival a = history.get(next++);
+                for (int i = 0; i < a.count; i++) {
+                    Process p = new Process(a.time, a.duration);
+                    queue.add(p);
+                    processes.add(p);
+                }
+            }
+
+            // dispatch
+            for (Pod p : pods) {
+                if (queue.isEmpty()) {
+                    break;
+                }
+
+                if (p.readyAt <= t && p.current == null) {
+                    Process proc = queue.poll();
+                    proc.startedAt = t;
+                    proc.finishedAt = t + proc.duration;
+                    p.current = proc;
+
+                    long wait = t - proc.createdAt;
+                    result.totalWaitSec += wait;
+                    result.maxWaitSec = Math.max(result.maxWaitSec, wait);
+                }
+            }
+
+            List<ProcessQueueEntry> queueEntries = queue.isEmpty()
+                    ? Collections.emptyList()
+                    : Collections.singletonList(new ProcessQueueEntry(requirements, queue.size()));
+
+            QueueState state = new QueueState(queueEntries, stats(t, horizon, processes));
+
+            long prevScaleUp = pool.getLastScaleUpTimestamp();
+            long prevScaleDown = pool.getLastScaleDownTimeStamp();
+            pool = policy.apply(pool, state);
+            if (pool.getLastScaleUpTimestamp() != prevScaleUp) {
+                lastScaleUp[0] = t;
+            }
+            if (pool.getLastScaleDownTimeStamp() != prevScaleDown) {
+                lastScaleDown[0] = t;
+            }
+
+            // reconcile the pods, same as the planner does
+            int targetSize = pool.getTargetSize();
+            while (pods.size() < targetSize) {
+                pods.add(new Pod(t + spec.getPodStartupDelayMs() / 1000));
+            }
+            for (Iterator<Pod> it = pods.iterator(); it.hasNext() && pods.size() > targetSize; ) {
+                if (it.next().current == null) {
+                    it.remove();
+                }
+            }
+
+            result.maxPods = Math.max(result.maxPods, pods.size());
+            result.podSeconds += pods.size() * TICK_SEC;
+        }
+
+        return result;
+    }
+
+    private ProcessQueueStats stats(long t, long horizon, List<Process> processes) {
+        long since = t - STATS_WINDOW_SEC;
+
+        int enqueued = 0;
+        int started = 0;
+        long durationSum = 0;
+        int finished = 0;
+
+        for (Process p : processes) {
+            if (p.createdAt > since) {
+                enqueued++;
+            }
+            if (p.startedAt != null && p.startedAt > since) {
+                started++;
+            }
+            if (p.finishedAt != null && p.finishedAt <= t && p.finishedAt > since) {
+                durationSum += p.duration * 1000;
+                finished++;
+            }
+        }
+
+        int scheduled = 0;
+        for (Arrival a : history) {
+            if (a.scheduled && a.time > t && a.time <= t + horizon) {
+                scheduled += a.count;
+            }
+        }
+
+        Long avgDurationMs = finished > 0 ? durationSum / finished : null;
+        ProcessQueueStats.RateEntry rate = new ProcessQueueStats.RateEntry(requirements, enqueued, started, avgDurationMs);
+        return new ProcessQueueStats(STATS_WINDOW_SEC, (int) horizon, scheduled, Collections.singletonList(rate));
+    }
+
+    public interface PolicyFactory {
+
+        ScalingPolicy create(Function<String, Integer> podCounter,
+                             Function<AgentPoolInstance, Boolean> canBeScaledUp,
+                             Function<AgentPoolInstance, Boolean> canBeScaledDown);
+    }
+
+    public static class Arrival {
+
+        private final long time;
+        private final int count;
+        private final long duration;
+        private final boolean scheduled;
+
+        public Arrival(long time, int count, long duration, boolean scheduled) {
+            this.time = time;
+            this.count = count;
+            this.duration = duration;
+            this.scheduled = scheduled;
+        }
+    }
+
+    public static class Result {
+
+        private long totalWaitSec;
+        private long maxWaitSec;
+        private long podSeconds;
+        private int maxPods;
+
+        public long getTotalWaitSec() {
+            return totalWaitSec;
+        }
+
+        public long getMaxWaitSec() {
+            return maxWaitSec;
+        }
+
+        public long getPodSeconds() {
+            return podSeconds;
+        }
+
+        public int getMaxPods() {
+            return maxPods;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{" +
+                    "totalWaitSec=" + totalWaitSec +
+                    ", maxWaitSec=" + maxWaitSec +
+                    ", podSeconds=" + podSeconds +
+                    ", maxPods=" + maxPods +
+                    '}';
+        }
+    }
+
+    private static class Process {
+
+        private final long createdAt;
+        private final long duration;
+        private Long startedAt;
+        private Long finishedAt;
+
+        private Process(long createdAt, long duration) {
+            this.createdAt = createdAt;
+            this.duration = duration;
+        }
+    }
+
+    private static class Pod {
+
+        private final long readyAt;
+        private Process current;
+
+        private Pod(long readyAt) {
+            this.readyAt = readyAt;
+        }
+    }
+}
@@ -50,7 +50,6 @@ public class ConcordTask extends AbstractConcordTask {
     private static final Logger log = LoggerFactory.getLogger(ConcordTask.class);
 
     private static final long DEFAULT_KILL_TIMEOUT = 10000;
-    private static final long DEFAULT_POLL_DELAY = 5000;
 
     /**
      * @deprecated use {@link #PAYLOAD_KEY}
@@ -187,45 +186,14 @@ public class ConcordTask extends AbstractConcordTask {
     }
 
     public <T> Map<String, T> waitForCompletion(@InjectVariable("context") Context ctx, List<String> ids, long timeout, Function<ProcessEntry, T> processor) {
-        Map<String, T> result = new ConcurrentHashMap<>();
-
-        ids.parallelStream().map(UUID::fromString).forEach(id -> {
-            log.info("Waiting for {}, URL: {}", id, getProcessUrl(ctx, id));
-
-            long t1 = System.currentTimeMillis();
-            while (true) {
-                try {
-                    ProcessEntry e = ClientUtils.withRetry(3, 1000, () -> withClient(ctx, client -> {
-                        ProcessApi api = new ProcessApi(client);
-                        return api.get(id);
-                    }));
-
-                    ProcessEntry.StatusEnum s = e.getStatus();
-
-                    if (isFinalStatus(s)) {
-                        T t = processor.apply(e);
-                        if (t != null) {
-                            result.put(id.toString(), t);
-                        }
-                        break;
-                    } else {
-                        long t2 = System.currentTimeMillis();
-                        if (timeout > 0) {
-                            long dt = t2 - t1;
-                            if (dt >= timeout) {
-                                throw new TimeoutException("Timeout waiting for " + id + ": " + dt);
-                            }
-                        }
-
-                        Thread.sleep(DEFAULT_POLL_DELAY);
-                    }
-                } catch (Exception e) {
-                    throw new RuntimeException(e);
-                }
-            }
-        });
+        List<UUID> instanceIds = ids.stream()
+                .map(UUID::fromString)
+                .collect(Collectors.toList());
 
-        return result;
+        instanceIds.forEach(id -> log.info("Waiting for {}, URL: {}", id, getProcessUrl(ctx, id)));
+
+        ProcessCompletionWaiter waiter = new ProcessCompletionWaiter(() -> withClient(ctx, client -> client));
+        return waiter.waitForCompletion(instanceIds, timeout, processor);
     }
 
     @SuppressWarnings("rawtypes")
@@ -49,7 +49,6 @@ public class ConcordTaskCommon {
     private static final Logger log = LoggerFactory.getLogger(ConcordTaskCommon.class);
 
     private static final long DEFAULT_KILL_TIMEOUT = 10000;
-    private static final long DEFAULT_POLL_DELAY = 5000;
 
     private static final int MAX_EXECUTOR_THREADS = 20;
 
@@ -70,12 +69,15 @@ public class ConcordTaskCommon {
     private final String currentOrgName;
     private final Path workDir;
 
+    private final ProcessCompletionWaiter completionWaiter;
+
     public ConcordTaskCommon(String sessionToken, ApiClientFactory apiClientFactory, UUID currentProcessId, String currentOrgName, Path workDir) {
         this.sessionToken = sessionToken;
         this.apiClientFactory = apiClientFactory;
         this.currentProcessId = currentProcessId;
         this.currentOrgName = currentOrgName;
         this.workDir = workDir;
+        this.completionWaiter = new ProcessCompletionWaiter(() -> withClient(client -> client));
     }
 
     public TaskResult execute(ConcordTaskParams in) throws Exception {
@@ -120,46 +122,8 @@ public class ConcordTaskCommon {
     }
 
     public <T> Map<String, T> waitForCompletion(List<UUID> ids, long timeout, Function<ProcessEntry, T> processor) {
-        Map<String, T> result = new ConcurrentHashMap<>();
-
-        ids.parallelStream().forEach(id -> {
-            log.info("Waiting for {}", LogTags.instanceId(id));
-
-            long t1 = System.currentTimeMillis();
-            while (true) {
-                try {
-                    ProcessEntry e = ClientUtils.withRetry(3, 1000,
-                            () -> withClient(client -> {
-                                ProcessV2Api api = new ProcessV2Api(client);
-                                return api.get(id, Collections.emptyList());
-                            }));
-
-                    ProcessEntry.StatusEnum s = e.getStatus();
-
-                    if (isFinalStatus(s)) {
-                        T t = processor.apply(e);
-                        if (t != null) {
-                            result.put(id.toString(), t);
-                        }
-                        break;
-                    } else {
-                        long t2 = System.currentTimeMillis();
-                        if (timeout > 0) {
-                            long dt = t2 - t1;
-                            if (dt >= timeout) {
-                                throw new TimeoutException("Timeout waiting for " + id + ": " + dt);
-                            }
-                        }
-
-                        Thread.sleep(DEFAULT_POLL_DELAY);
-                    }
-                } catch (Exception e) {
-                    throw new RuntimeException(e);
-                }
-            }
-        });
-
-        return result;
+        ids.forEach(id -> log.info("Waiting for {}", LogTags.instanceId(id)));
+        return completionWaiter.waitForCompletion(ids, timeout, processor);
     }
 
     public void kill(KillParams in) throws Exception {
@@ -0,0 +1,174 @@
+package com.walmartlabs.concord.client;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.ApiClient;
+import com.walmartlabs.concord.ApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Waits for processes to finish using the server's batch long-poll API
+ * instead of polling each process separately.
+ */
+class ProcessCompletionWaiter {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessCompletionWaiter.class);
+
+    private static final long WAIT_TIMEOUT = 30000;
+    private static final long FALLBACK_POLL_DELAY = 5000;
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private final ApiClientProvider clientProvider;
+
+    private volatile boolean batchApiSupported = true;
+
+    ProcessCompletionWaiter(ApiClientProvider clientProvider) {
+        this.clientProvider = clientProvider;
+    }
+
+    public <T> Map<String, T> waitForCompletion(List<UUID> ids, long timeout, Function<ProcessEntry, T> processor) {
+        Map<String, T> result = new HashMap<>();
+        Set<UUID> pending = new LinkedHashSet<>(ids);
+
+        long t1 = System.currentTimeMillis();
+        while (!pending.isEmpty()) {
+            try {
+                long waitTimeout = WAIT_TIMEOUT;
+                if (timeout > 0) {
+                    long remaining = timeout - (System.currentTimeMillis() - t1);
+                    waitTimeout = Math.max(0, Math.min(waitTimeout, remaining));
+                }
+
+                for (ProcessStatusEntry s : waitForBatch(pending, waitTimeout)) {
+                    if (!isFinalStatus(s.getStatus())) {
+                        continue;
+                    }
+
+                    UUID id = s.getInstanceId();
+                    ProcessEntry e = ClientUtils.withRetry(3, 1000, () -> {
+                        ProcessV2Api api = new ProcessV2Api(clientProvider.create());
+                        return api.get(id, Collections.emptyList());
+                    });
+
+                    T t = processor.apply(e);
+                    if (t != null) {
+                        result.put(id.toString(), t);
+                    }
+                    pending.remove(id);
+                }
+
+                if (!pending.isEmpty() && timeout > 0) {
+                    long dt = System.currentTimeMillis() - t1;
+                    if (dt >= timeout) {
+                        throw new TimeoutException("Timeout waiting for " + pending + ": " + dt);
+                    }
+                }
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Waits until all processes in the batch reach a final status or the timeout expires.
+     * Falls back to per-process polling if the server doesn't support the batch API.
+     */
+    private List<ProcessStatusEntry> waitForBatch(Set<UUID> ids, long timeout) throws Exception {
+        List<UUID> batch = ids.stream()
+                .limit(MAX_BATCH_SIZE)
+                .collect(Collectors.toList());
+
+        List<ProcessStatusEntry> result = null;
+        if (batchApiSupported) {
+            WaitForProcessesRequest req = new WaitForProcessesRequest()
+                    .setInstanceIds(batch)
+                    .setMode(WaitForProcessesRequest.ModeEnum.ALL)
+                    .setTimeout((int) TimeUnit.MILLISECONDS.toSeconds(timeout + 999));
+
+            try {
+                result = ClientUtils.withRetry(3, 1000, () -> {
+                    ProcessV2Api api = new ProcessV2Api(clientProvider.create());
+                    return api.waitFor(req);
+                });
+            } catch (ApiException e) {
+                if (e.getCode() != 404 && e.getCode() != 405) {
+                    throw e;
+                }
+
+                log.warn("waitForCompletion -> the batch API is not available, polling each process separately");
+                batchApiSupported = false;
+            }
+        }
+
+        if (result == null) {
+            result = pollEach(batch);
+        }
+
+        if (result.size() < batch.size()) {
+            Set<UUID> missing = new HashSet<>(batch);
+            result.forEach(s -> missing.remove(s.getInstanceId()));
+            throw new IllegalStateException("Process instance(s) not found: " + missing);
+        }
+
+        return result;
+    }
+
+    private List<ProcessStatusEntry> pollEach(List<UUID> ids) throws Exception {
+        Thread.sleep(FALLBACK_POLL_DELAY);
+
+        List<ProcessStatusEntry> result = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            ProcessEntry e = ClientUtils.withRetry(3, 1000, () -> {
+                ProcessV2Api api = new ProcessV2Api(clientProvider.create());
+                return api.get(id, Collections.emptyList());
+            });
+
+            result.add(new ProcessStatusEntry()
+                    .setInstanceId(id)
+                    .setStatus(ProcessStatusEntry.StatusEnum.fromValue(e.getStatus().getValue())));
+        }
+        return result;
+    }
+
+    private static boolean isFinalStatus(ProcessStatusEntry.StatusEnum s) {
+        return s == ProcessStatusEntry.StatusEnum.FAILED
+                || s == ProcessStatusEntry.StatusEnum.FINISHED
+                || s == ProcessStatusEntry.StatusEnum.CANCELLED
+                || s == ProcessStatusEntry.StatusEnum.TIMED_OUT;
+    }
+
+    @FunctionalInterface
+    interface ApiClientProvider {
+
+        ApiClient create() throws Exception;
+    }
+}
@@ -21,14 +21,9 @@ package com.walmartlabs.concord.policyengine;
  */
 
 import java.io.IOException;
-import java.nio.file.FileVisitResult;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
 import java.util.Objects;
 
 public class AttachmentsPolicy {
@@ -40,28 +35,41 @@ public class AttachmentsPolicy {
     }
 
     public CheckResult<AttachmentsRule, Long> check(Path p) throws IOException {
-        if (rule == null || !Files.exists(p) || !Files.isDirectory(p)) {
+        if (rule == null) {
             return CheckResult.success();
         }
 
-        List<CheckResult.Item<AttachmentsRule, Long>> deny = new ArrayList<>();
+        return new WorkspaceScanner()
+                .withAttachmentsPolicy(this)
+                .scan(p)
+                .getAttachmentsResult();
+    }
 
-        Long[] size = { 0L };
+    WorkspaceScanner.Check<AttachmentsRule, Long> newCheck() {
+        return new WorkspaceScanner.Check<AttachmentsRule, Long>() {
 
-        Files.walkFileTree(p, new SimpleFileVisitor<Path>() {
+            private boolean active;
+            private long size;
 
             @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                size[0] += Files.size(file);
+            public boolean begin(Path root, BasicFileAttributes rootAttrs) {
+                active = rule != null && rootAttrs != null && rootAttrs.isDirectory();
+                return active;
+            }
 
-                return FileVisitResult.CONTINUE;
+            @Override
+            public void visitFile(Path file, BasicFileAttributes attrs) {
+                size += attrs.size();
             }
-        });
 
-        if (size[0] > Objects.requireNonNull(rule.maxSizeInBytes())) {
-            deny.add(new CheckResult.Item<>(rule, size[0], null));
-        }
+            @Override
+            public CheckResult<AttachmentsRule, Long> end(Path root) {
+                if (!active || size <= Objects.requireNonNull(rule.maxSizeInBytes())) {
+                    return CheckResult.success();
+                }
 
-        return new CheckResult<>(Collections.emptyList(), deny);
+                return new CheckResult<>(Collections.emptyList(), Collections.singletonList(new CheckResult.Item<>(rule, size, null)));
+            }
+        };
     }
 }
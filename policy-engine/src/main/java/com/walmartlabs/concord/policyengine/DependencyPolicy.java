@@ -20,22 +20,32 @@ package com.walmartlabs.concord.policyengine;
  * =====
  */
 
+import com.walmartlabs.concord.common.Matcher;
 import com.walmartlabs.concord.dependencymanager.DependencyEntity;
 import org.apache.maven.artifact.versioning.ComparableVersion;
 
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-
-import static com.walmartlabs.concord.policyengine.Utils.matches;
+import java.util.stream.Collectors;
 
 public class DependencyPolicy {
 
     private final PolicyRules<DependencyRule> rules;
 
+    private final List<CompiledRule> allow;
+    private final List<CompiledRule> deny;
+    private final List<CompiledRule> warn;
+
     public DependencyPolicy(PolicyRules<DependencyRule> rules) {
         this.rules = rules;
+
+        boolean empty = rules == null || rules.isEmpty();
+        this.allow = compile(empty ? Collections.emptyList() : rules.getAllow());
+        this.deny = compile(empty ? Collections.emptyList() : rules.getDeny());
+        this.warn = compile(empty ? Collections.emptyList() : rules.getWarn());
     }
 
     public CheckResult<DependencyRule, DependencyEntity> check(Collection<DependencyEntity> dependencies) {
@@ -57,28 +67,28 @@ public class DependencyPolicy {
                        List<CheckResult.Item<DependencyRule, DependencyEntity>> warn,
                        List<CheckResult.Item<DependencyRule, DependencyEntity>> deny) {
 
-        for (DependencyRule r : rules.getAllow()) {
+        for (CompiledRule r : this.allow) {
             if (matchRule(r, d)) {
                 return;
             }
         }
 
-        for (DependencyRule r : rules.getDeny()) {
+        for (CompiledRule r : this.deny) {
             if (matchRule(r, d)) {
-                deny.add(new CheckResult.Item<>(r, d));
+                deny.add(new CheckResult.Item<>(r.rule, d));
                 return;
             }
         }
 
-        for (DependencyRule r : rules.getWarn()) {
+        for (CompiledRule r : this.warn) {
             if (matchRule(r, d)) {
-                warn.add(new CheckResult.Item<>(r, d));
+                warn.add(new CheckResult.Item<>(r.rule, d));
                 return;
             }
         }
     }
 
-    private static boolean matchRule(DependencyRule r, DependencyEntity d) {
+    private static boolean matchRule(CompiledRule r, DependencyEntity d) {
         if (d.getArtifact() != null) {
             return matchRule(r, d.getArtifact());
         } else {
@@ -86,42 +96,60 @@ public class DependencyPolicy {
         }
     }
 
-    private static boolean matchRule(DependencyRule r, DependencyEntity.Artifact a) {
-        if (r.scheme() != null && !matches(r.scheme(), "mvn")) {
+    private static boolean matchRule(CompiledRule r, DependencyEntity.Artifact a) {
+        if (r.scheme != null && !r.scheme.matches("mvn")) {
             return false;
         }
 
-        if (r.groupId() != null && !matches(r.groupId(), a.getGroupId())) {
+        if (r.groupId != null && !r.groupId.matches(a.getGroupId())) {
             return false;
         }
 
-        if (r.artifactId() != null && !matches(r.artifactId(), a.getArtifactId())) {
+        if (r.artifactId != null && !r.artifactId.matches(a.getArtifactId())) {
             return false;
         }
 
-        if (r.fromVersion() != null && compareVersions(r.fromVersion(), a.getVersion()) > 0) {
+        if (r.fromVersion != null && r.fromVersion.compareTo(new ComparableVersion(a.getVersion())) > 0) {
             return false;
         }
 
-        if (r.toVersion() != null && compareVersions(r.toVersion(), a.getVersion()) < 0) {
+        if (r.toVersion != null && r.toVersion.compareTo(new ComparableVersion(a.getVersion())) < 0) {
             return false;
         }
 
         return true;
     }
 
-    private static boolean matchRule(DependencyRule r, URI directLink) {
-        if (r.scheme() != null && matches(r.scheme(), directLink.getScheme())) {
+    private static boolean matchRule(CompiledRule r, URI directLink) {
+        if (r.scheme != null && r.scheme.matches(directLink.getScheme())) {
             return true;
         }
 
         return false;
     }
 
-    private static int compareVersions(String a, String b) {
-        ComparableVersion v1 = new ComparableVersion(a);
-        ComparableVersion v2 = new ComparableVersion(b);
-        return v1.compareTo(v2);
+    private static List<CompiledRule> compile(List<DependencyRule> rules) {
+        return rules.stream()
+                .map(CompiledRule::new)
+                .collect(Collectors.toList());
     }
 
+    private static final class CompiledRule {
+
+        private final DependencyRule rule;
+        private final Matcher.Condition scheme;
+        private final Matcher.Condition groupId;
+        private final Matcher.Condition artifactId;
+        private final ComparableVersion fromVersion;
+        private final ComparableVersion toVersion;
+
+        private CompiledRule(DependencyRule rule) {
+            this.rule = rule;
+            this.scheme = rule.scheme() != null ? Matcher.compile(rule.scheme()) : null;
+            this.groupId = rule.groupId() != null ? Matcher.compile(rule.groupId()) : null;
+            this.artifactId = rule.artifactId() != null ? Matcher.compile(rule.artifactId()) : null;
+            this.fromVersion = rule.fromVersion() != null ? new ComparableVersion(rule.fromVersion()) : null;
+            this.toVersion = rule.toVersion() != null ? new ComparableVersion(rule.toVersion()) : null;
+        }
+    }
 }
@@ -20,6 +20,7 @@ package com.walmartlabs.concord.policyengine;
  * =====
  */
 
+import com.walmartlabs.concord.common.Matcher;
 import org.apache.maven.artifact.versioning.ComparableVersion;
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.artifact.DefaultArtifact;
@@ -27,17 +28,22 @@ import org.eclipse.aether.artifact.DefaultArtifact;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static com.walmartlabs.concord.dependencymanager.DependencyManager.MAVEN_SCHEME;
-import static com.walmartlabs.concord.policyengine.Utils.matches;
 
 public class DependencyRewritePolicy {
 
     private final List<DependencyRewriteRule> rules;
+    private final List<CompiledRule> compiledRules;
 
     public DependencyRewritePolicy(List<DependencyRewriteRule> rules) {
         this.rules = rules;
+        this.compiledRules = rules == null ? Collections.emptyList() : rules.stream()
+                .map(CompiledRule::new)
+                .collect(Collectors.toList());
     }
 
     public Collection<URI> rewrite(Collection<URI> dependencies, RewriteListener listener) {
@@ -59,44 +65,55 @@ public class DependencyRewritePolicy {
         }
 
         Artifact artifact = new DefaultArtifact(value.getAuthority());
-        for (DependencyRewriteRule rule : rules) {
-            if (match(rule, artifact)) {
-                listener.onRewrite(rule.msg(), value, rule.value());
-                return rule.value();
+        for (CompiledRule r : compiledRules) {
+            if (match(r, artifact)) {
+                listener.onRewrite(r.rule.msg(), value, r.rule.value());
+                return r.rule.value();
             }
         }
 
         return value;
     }
 
-    private static boolean match(DependencyRewriteRule r, Artifact a) {
-        if (r.groupId() != null && !matches(r.groupId(), a.getGroupId())) {
+    private static boolean match(CompiledRule r, Artifact a) {
+        if (r.groupId != null && !r.groupId.matches(a.getGroupId())) {
             return false;
         }
 
-        if (r.artifactId() != null && !matches(r.artifactId(), a.getArtifactId())) {
+        if (r.artifactId != null && !r.artifactId.matches(a.getArtifactId())) {
             return false;
         }
 
-        if (r.fromVersion() != null && compareVersions(r.fromVersion(), a.getVersion()) > 0) {
+        if (r.fromVersion != null && r.fromVersion.compareTo(new ComparableVersion(a.getVersion())) > 0) {
             return false;
         }
 
-        if (r.toVersion() != null && compareVersions(r.toVersion(), a.getVersion()) < 0) {
+        if (r.toVersion != null && r.toVersion.compareTo(new ComparableVersion(a.getVersion())) < 0) {
             return false;
         }
 
         return true;
     }
 
-    private static int compareVersions(String a, String b) {
-        ComparableVersion v1 = new ComparableVersion(a);
-        ComparableVersion v2 = new ComparableVersion(b);
-        return v1.compareTo(v2);
-    }
-
     public interface RewriteListener {
 
         void onRewrite(String msg, URI from, URI to);
     }
+
+    private static final class CompiledRule {
+
+        private final DependencyRewriteRule rule;
+        private final Matcher.Condition groupId;
+        private final Matcher.Condition artifactId;
+        private final ComparableVersion fromVersion;
+        private final ComparableVersion toVersion;
+
+        private CompiledRule(DependencyRewriteRule rule) {
+            this.rule = rule;
+            this.groupId = rule.groupId() != null ? Matcher.compile(rule.groupId()) : null;
+            this.artifactId = rule.artifactId() != null ? Matcher.compile(rule.artifactId()) : null;
+            this.fromVersion = rule.fromVersion() != null ? new ComparableVersion(rule.fromVersion()) : null;
+            this.toVersion = rule.toVersion() != null ? new ComparableVersion(rule.toVersion()) : null;
+        }
+    }
 }
@@ -20,19 +20,27 @@ package com.walmartlabs.concord.policyengine;
  * =====
  */
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.function.Supplier;
+import com.walmartlabs.concord.common.Matcher;
 
-import static com.walmartlabs.concord.policyengine.Utils.matches;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 public class EntityPolicy {
 
     private final PolicyRules<EntityRule> rules;
 
+    private final List<CompiledRule> allow;
+    private final List<CompiledRule> deny;
+    private final List<CompiledRule> warn;
+
     public EntityPolicy(PolicyRules<EntityRule> rules) {
         this.rules = rules;
+
+        boolean empty = rules == null || rules.isEmpty();
+        this.allow = compile(empty ? Collections.emptyList() : rules.getAllow());
+        this.deny = compile(empty ? Collections.emptyList() : rules.getDeny());
+        this.warn = compile(empty ? Collections.emptyList() : rules.getWarn());
     }
 
     public CheckResult<EntityRule, Map<String, Object>> check(String entity, String action, Supplier<Map<String, Object>> attrs) {
@@ -52,40 +60,61 @@ public class EntityPolicy {
                        List<CheckResult.Item<EntityRule, Map<String, Object>>> warn,
                        List<CheckResult.Item<EntityRule, Map<String, Object>>> deny) {
 
-        for (EntityRule r : rules.getAllow()) {
-            if (matchRule(r, entity, action, attrs)) {
+        for (CompiledRule r : this.allow) {
+            if (r.matches(entity, action, attrs)) {
                 return;
             }
         }
 
-        for (EntityRule r : rules.getDeny()) {
-            if (matchRule(r, entity, action, attrs)) {
-                deny.add(new CheckResult.Item<>(r, attrs));
+        for (CompiledRule r : this.deny) {
+            if (r.matches(entity, action, attrs)) {
+                deny.add(new CheckResult.Item<>(r.rule, attrs));
                 return;
             }
         }
 
-        for (EntityRule r : rules.getWarn()) {
-            if (matchRule(r, entity, action, attrs)) {
-                warn.add(new CheckResult.Item<>(r, attrs));
+        for (CompiledRule r : this.warn) {
+            if (r.matches(entity, action, attrs)) {
+                warn.add(new CheckResult.Item<>(r.rule, attrs));
                 return;
             }
         }
     }
 
-    private boolean matchRule(EntityRule r, String entity, String action, Map<String, Object> attrs) {
-        if (r.entity() != null && !matches(r.entity(), entity)) {
-            return false;
-        }
+    private static List<CompiledRule> compile(List<EntityRule> rules) {
+        return rules.stream()
+                .map(CompiledRule::new)
+                .collect(Collectors.toList());
+    }
 
-        if (r.action() != null && !matches(r.action(), action)) {
-            return false;
-        }
+    private static final class CompiledRule {
+
+        private final EntityRule rule;
+        private final Matcher.Condition entity;
+        private final Matcher.Condition action;
+        private final Matcher.Condition conditions;
 
-        if (r.conditions() != null && !matches(r.conditions(), attrs)) {
-            return false;
+        private CompiledRule(EntityRule rule) {
+            this.rule = rule;
+            this.entity = rule.entity() != null ? Matcher.compile(rule.entity()) : null;
+            this.action = rule.action() != null ? Matcher.compile(rule.action()) : null;
+            this.conditions = rule.conditions() != null ? Matcher.compile(rule.conditions()) : null;
         }
 
-        return true;
+        private boolean matches(String entity, String action, Map<String, Object> attrs) {
+            if (this.entity != null && !this.entity.matches(entity)) {
+                return false;
+            }
+
+            if (this.action != null && !this.action.matches(action)) {
+                return false;
+            }
+
+            if (conditions != null && !conditions.matches(attrs)) {
+                return false;
+            }
+
+            return true;
+        }
     }
 }
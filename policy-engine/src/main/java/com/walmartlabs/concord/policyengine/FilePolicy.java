@@ -20,23 +20,32 @@ package com.walmartlabs.concord.policyengine;
  * =====
  */
 
+import com.walmartlabs.concord.common.Matcher;
+
 import java.io.IOException;
-import java.nio.file.FileVisitResult;
-import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-
-import static com.walmartlabs.concord.policyengine.Utils.matchAny;
+import java.util.stream.Collectors;
 
 public class FilePolicy {
 
     private final PolicyRules<FileRule> rules;
 
+    private final List<CompiledRule> allow;
+    private final List<CompiledRule> deny;
+    private final List<CompiledRule> warn;
+
     public FilePolicy(PolicyRules<FileRule> rules) {
         this.rules = rules;
+
+        boolean empty = rules == null || rules.isEmpty();
+        this.allow = compile(empty ? Collections.emptyList() : rules.getAllow());
+        this.deny = compile(empty ? Collections.emptyList() : rules.getDeny());
+        this.warn = compile(empty ? Collections.emptyList() : rules.getWarn());
     }
 
     public CheckResult<FileRule, Path> check(Path p) throws IOException {
@@ -44,64 +53,102 @@ public class FilePolicy {
             return new CheckResult<>();
         }
 
-        List<CheckResult.Item<FileRule, Path>> warn = new ArrayList<>();
-        List<CheckResult.Item<FileRule, Path>> deny = new ArrayList<>();
+        return new WorkspaceScanner()
+                .withFilePolicy(this)
+                .scan(p)
+                .getFileResult();
+    }
+
+    WorkspaceScanner.Check<FileRule, Path> newCheck() {
+        return new WorkspaceScanner.Check<FileRule, Path>() {
+
+            private final List<CheckResult.Item<FileRule, Path>> warn = new ArrayList<>();
+            private final List<CheckResult.Item<FileRule, Path>> deny = new ArrayList<>();
 
-        Files.walkFileTree(p, new SimpleFileVisitor<Path>() {
+            @Override
+            public boolean begin(Path root, BasicFileAttributes rootAttrs) throws IOException {
+                if (rules == null || rules.isEmpty()) {
+                    return false;
+                }
+
+                if (rootAttrs == null) {
+                    throw new NoSuchFileException(root.toString());
+                }
+
+                return true;
+            }
 
             @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                for(FileRule r : rules.getAllow()) {
-                    if (matchRule(dir, r, FileRule.Type.DIR)) {
-                        return FileVisitResult.SKIP_SUBTREE;
+            public boolean skipDirectory(Path dir, BasicFileAttributes attrs) {
+                for (CompiledRule r : allow) {
+                    if (r.matches(dir, attrs, FileRule.Type.DIR)) {
+                        return true;
                     }
                 }
 
-                return FileVisitResult.CONTINUE;
+                return false;
             }
 
             @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                for(FileRule r : rules.getAllow()) {
-                    if (matchRule(file, r, FileRule.Type.FILE)) {
-                        return FileVisitResult.CONTINUE;
+            public void visitFile(Path file, BasicFileAttributes attrs) {
+                for (CompiledRule r : allow) {
+                    if (r.matches(file, attrs, FileRule.Type.FILE)) {
+                        return;
                     }
                 }
 
-                for(FileRule r : rules.getDeny()) {
-                    if (matchRule(file, r, FileRule.Type.FILE)) {
-                        deny.add(new CheckResult.Item<>(r, file));
-                        return FileVisitResult.CONTINUE;
+                for (CompiledRule r : FilePolicy.this.deny) {
+                    if (r.matches(file, attrs, FileRule.Type.FILE)) {
+                        deny.add(new CheckResult.Item<>(r.rule, file));
+                        return;
                     }
                 }
 
-                for(FileRule r : rules.getWarn()) {
-                    if (matchRule(file, r, FileRule.Type.FILE)) {
-                        warn.add(new CheckResult.Item<>(r, file));
-                        return FileVisitResult.CONTINUE;
+                for (CompiledRule r : FilePolicy.this.warn) {
+                    if (r.matches(file, attrs, FileRule.Type.FILE)) {
+                        warn.add(new CheckResult.Item<>(r.rule, file));
+                        return;
                     }
                 }
+            }
 
-                return FileVisitResult.CONTINUE;
+            @Override
+            public CheckResult<FileRule, Path> end(Path root) {
+                return new CheckResult<>(warn, deny);
             }
-        });
+        };
+    }
 
-        return new CheckResult<>(warn, deny);
+    private static List<CompiledRule> compile(List<FileRule> rules) {
+        return rules.stream()
+                .map(CompiledRule::new)
+                .collect(Collectors.toList());
     }
 
-    private boolean matchRule(Path file, FileRule ri, FileRule.Type type) throws IOException {
-        if (ri.getType() != type) {
-            return false;
-        }
+    private static final class CompiledRule {
 
-        if (!ri.getNames().isEmpty() && !matchAny(ri.getNames(), file.getFileName().toString())) {
-            return false;
-        }
+        private final FileRule rule;
+        private final Matcher.Condition names;
 
-        if (ri.getMaxSizeInBytes() != null && Files.size(file) < ri.getMaxSizeInBytes()) {
-            return false;
+        private CompiledRule(FileRule rule) {
+            this.rule = rule;
+            this.names = rule.getNames().isEmpty() ? null : Matcher.compile(rule.getNames());
         }
 
-        return true;
+        private boolean matches(Path file, BasicFileAttributes attrs, FileRule.Type type) {
+            if (rule.getType() != type) {
+                return false;
+            }
+
+            if (names != null && !names.matches(file.getFileName().toString())) {
+                return false;
+            }
+
+            if (rule.getMaxSizeInBytes() != null && attrs.size() < rule.getMaxSizeInBytes()) {
+                return false;
+            }
+
+            return true;
+        }
     }
 }
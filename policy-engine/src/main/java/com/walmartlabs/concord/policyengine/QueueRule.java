@@ -53,6 +53,10 @@ public interface QueueRule extends Serializable {
     @JsonProperty("processTimeout")
     ProcessTimeoutRule processTimeoutRule();
 
+    @Nullable
+    @JsonProperty("startRequests")
+    StartRequestRule startRequestRule();
+
     static QueueRule of(ConcurrentProcessRule concurrentRule, ForkDepthRule forkDepthRule, ProcessTimeoutRule processTimeoutRule) {
         return ImmutableQueueRule.builder()
                 .concurrentRule(concurrentRule)
@@ -0,0 +1,63 @@
+package com.walmartlabs.concord.policyengine;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+
+/**
+ * Limits of the process start requests (e.g. {@code POST /api/v1/process}) per organization.
+ */
+@Value.Immutable
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonSerialize(as = ImmutableStartRequestRule.class)
+@JsonDeserialize(as = ImmutableStartRequestRule.class)
+public interface StartRequestRule extends Serializable {
+
+    long serialVersionUID = 1L;
+
+    /**
+     * Max number of start requests processed concurrently.
+     */
+    @Nullable
+    Integer maxConcurrent();
+
+    /**
+     * Max number of start requests per second.
+     */
+    @Nullable
+    Double maxPerSecond();
+
+    /**
+     * Relative share of the server's capacity when the start requests are queued.
+     */
+    @Nullable
+    Integer weight();
+
+    static ImmutableStartRequestRule.Builder builder() {
+        return ImmutableStartRequestRule.builder();
+    }
+}
@@ -20,10 +20,13 @@ package com.walmartlabs.concord.policyengine;
  * =====
  */
 
+import com.walmartlabs.concord.common.Matcher;
+
 import java.io.IOException;
-import java.nio.file.*;
+import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
@@ -52,8 +55,15 @@ public class StatePolicy {
 
     private final PolicyRules<StateRule> rules;
 
+    private final List<PatternRule> warnPatternRules;
+    private final List<PatternRule> denyPatternRules;
+
     public StatePolicy(PolicyRules<StateRule> rules) {
         this.rules = rules;
+
+        boolean empty = rules == null || rules.isEmpty();
+        this.warnPatternRules = compilePatterns(empty ? Collections.emptyList() : rules.getWarn());
+        this.denyPatternRules = compilePatterns(empty ? Collections.emptyList() : rules.getDeny());
     }
 
     public CheckResult<StateRule, StateStats> check(Supplier<StateStats> statsSupplier) {
@@ -83,38 +93,50 @@ public class StatePolicy {
             return CheckResult.success();
         }
 
-        if (Files.notExists(src)) {
-            return CheckResult.success();
-        }
+        return new WorkspaceScanner()
+                .withStatePolicy(this, filter)
+                .scan(src)
+                .getStateResult();
+    }
 
-        List<StateRule> warnRules = rules.getWarn().stream().filter(r -> !r.patterns().isEmpty()).collect(Collectors.toList());
-        List<StateRule> denyRules = rules.getDeny().stream().filter(r -> !r.patterns().isEmpty()).collect(Collectors.toList());
-        if (warnRules.isEmpty() && denyRules.isEmpty()) {
-            return CheckResult.success();
-        }
+    WorkspaceScanner.Check<StateRule, Path> newCheck(BiFunction<Path, BasicFileAttributes, Boolean> filter) {
+        return new WorkspaceScanner.Check<StateRule, Path>() {
 
-        List<CheckResult.Item<StateRule, Path>> warn = new ArrayList<>();
-        List<CheckResult.Item<StateRule, Path>> deny = new ArrayList<>();
+            private final List<CheckResult.Item<StateRule, Path>> warn = new ArrayList<>();
+            private final List<CheckResult.Item<StateRule, Path>> deny = new ArrayList<>();
 
-        Files.walkFileTree(src, new SimpleFileVisitor<Path>() {
             @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                if (!filter.apply(file, attrs)) {
-                    return FileVisitResult.CONTINUE;
+            public boolean begin(Path root, BasicFileAttributes rootAttrs) {
+                if (rootAttrs == null) {
+                    return false;
                 }
 
-                if (!Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
-                    return FileVisitResult.CONTINUE;
+                return !warnPatternRules.isEmpty() || !denyPatternRules.isEmpty();
+            }
+
+            @Override
+            public void visitFile(Path file, BasicFileAttributes attrs) {
+                if (filter != null && !filter.apply(file, attrs)) {
+                    return;
                 }
 
-                checkPatterns(warnRules, file, warn);
-                checkPatterns(denyRules, file, deny);
+                // the walk doesn't follow links, the attributes are of the file itself
+                if (!attrs.isRegularFile()) {
+                    return;
+                }
 
-                return FileVisitResult.CONTINUE;
+                checkPatterns(warnPatternRules, file, warn);
+                checkPatterns(denyPatternRules, file, deny);
             }
-        });
 
-        return new CheckResult<>(warn, deny);
+            @Override
+            public CheckResult<StateRule, Path> end(Path root) {
+                if (warn.isEmpty() && deny.isEmpty()) {
+                    return CheckResult.success();
+                }
+                return new CheckResult<>(warn, deny);
+            }
+        };
     }
 
     private static void checkStats(List<StateRule> rules, StateStats stats, List<CheckResult.Item<StateRule, StateStats>> result) {
@@ -129,19 +151,34 @@ public class StatePolicy {
         }
     }
 
-    private static void checkPatterns(List<StateRule> rules, Path file, List<CheckResult.Item<StateRule, Path>> result) {
-        for (StateRule r : rules) {
-            if (matchPattern(r.patterns(), file.toString())) {
-                result.add(new CheckResult.Item<>(r, file));
+    private static void checkPatterns(List<PatternRule> rules, Path file, List<CheckResult.Item<StateRule, Path>> result) {
+        String fileName = file.toString();
+        for (PatternRule r : rules) {
+            if (r.patterns.matches(fileName)) {
+                result.add(new CheckResult.Item<>(r.rule, file));
             }
         }
     }
 
+    private static List<PatternRule> compilePatterns(List<StateRule> rules) {
+        return rules.stream()
+                .filter(r -> !r.patterns().isEmpty())
+                .map(PatternRule::new)
+                .collect(Collectors.toList());
+    }
+
     private static boolean hasStats(StateRule rule) {
         return rule.maxFilesCount() != null || rule.maxSizeInBytes() != null;
     }
 
-    private static boolean matchPattern(List<String> patterns, String fileName) {
-        return Utils.matchAny(patterns, fileName);
+    private static final class PatternRule {
+
+        private final StateRule rule;
+        private final Matcher.Condition patterns;
+
+        private PatternRule(StateRule rule) {
+            this.rule = rule;
+            this.patterns = Matcher.compile(rule.patterns());
+        }
     }
 }
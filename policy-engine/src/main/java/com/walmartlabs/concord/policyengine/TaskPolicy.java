@@ -20,6 +20,7 @@ package com.walmartlabs.concord.policyengine;
  * =====
  */
 
+import com.walmartlabs.concord.common.Matcher;
 import com.walmartlabs.concord.runtime.v2.sdk.Variables;
 import com.walmartlabs.concord.sdk.Context;
 
@@ -27,14 +28,21 @@ import java.io.Serializable;
 import java.util.*;
 import java.util.stream.Collectors;
 
-import static com.walmartlabs.concord.policyengine.Utils.matches;
-
 public class TaskPolicy {
 
     private final PolicyRules<TaskRule> rules;
 
+    private final RuleIndex allow;
+    private final RuleIndex deny;
+    private final RuleIndex warn;
+
     public TaskPolicy(PolicyRules<TaskRule> rules) {
         this.rules = rules;
+
+        boolean empty = rules == null || rules.isEmpty();
+        this.allow = new RuleIndex(empty ? Collections.emptyList() : rules.getAllow());
+        this.deny = new RuleIndex(empty ? Collections.emptyList() : rules.getDeny());
+        this.warn = new RuleIndex(empty ? Collections.emptyList() : rules.getWarn());
     }
 
     public CheckResult<TaskRule, String> check(String taskName, String methodName, Object[] params, Map<String, List<Serializable>> taskResults) {
@@ -42,21 +50,21 @@ public class TaskPolicy {
             return CheckResult.success();
         }
 
-        for (TaskRule r : rules.getAllow()) {
-            if (matchRule(taskName, methodName, params, taskResults, r)) {
+        for (CompiledRule r : allow.candidates(taskName)) {
+            if (r.matches(taskName, methodName, params, taskResults)) {
                 return CheckResult.success();
             }
         }
 
-        for (TaskRule r : rules.getDeny()) {
-            if (matchRule(taskName, methodName, params, taskResults, r)) {
-                return CheckResult.error(new CheckResult.Item<>(r, methodName));
+        for (CompiledRule r : deny.candidates(taskName)) {
+            if (r.matches(taskName, methodName, params, taskResults)) {
+                return CheckResult.error(new CheckResult.Item<>(r.rule, methodName));
             }
         }
 
-        for (TaskRule r : rules.getWarn()) {
-            if (matchRule(taskName, methodName, params, taskResults, r)) {
-                return CheckResult.warn(new CheckResult.Item<>(r, methodName));
+        for (CompiledRule r : warn.candidates(taskName)) {
+            if (r.matches(taskName, methodName, params, taskResults)) {
+                return CheckResult.warn(new CheckResult.Item<>(r.rule, methodName));
             }
         }
 
@@ -81,52 +89,10 @@ public class TaskPolicy {
         }
     }
 
-    private boolean matchRule(String taskName, String methodName, Object[] params, Map<String, List<Serializable>> taskResults, TaskRule r) {
-        if (!matches(r.taskName(), taskName)) {
-            return false;
-        }
-
-        if (r.method() != null && !matches(r.method(), methodName)) {
-            return false;
-        }
-
-        if (paramsMatches(r.params(), params)) {
-            return true;
-        }
-
-        if (taskResultsMatches(r.taskResults(), taskResults)) {
-            return true;
-        }
-
-        return false;
-    }
-
-    private static boolean paramsMatches(List<TaskRule.Param> r, Object[] params) {
-        if (params == null) {
-            return r.isEmpty();
-        }
-
-        for (TaskRule.Param p : r) {
-            if (p.index() >= params.length) {
-                return false;
-            }
-
-            if (!paramMatches(
-                    Optional.ofNullable(p.name()).map(n -> n.split("\\.")).orElse(null),
-                    0,
-                    p.values(), params[p.index()],
-                    p.protectedVariable())) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
     @SuppressWarnings("unchecked")
-    private static boolean paramMatches(String[] names, int nameIndex, List<Object> values, Object param, boolean isProtected) {
+    private static boolean paramMatches(String[] names, int nameIndex, CompiledValues values, Object param, boolean isProtected) {
         if (param == null) {
-            return values.contains(null);
+            return values.values.contains(null);
         }
 
         if (param instanceof Map) {
@@ -159,9 +125,9 @@ public class TaskPolicy {
             Object v = ctx.variables().get(name);
             return paramMatches(names, nameIndex, values, v, isProtected);
         } else if (param instanceof String) {
-            return Utils.matchAny(values.stream().map(Object::toString).collect(Collectors.toList()), param.toString());
+            return values.patterns.matches(param.toString());
         } else {
-            for (Object v : values) {
+            for (Object v : values.values) {
                 if (v != null && v.equals(param)) {
                     return true;
                 }
@@ -171,25 +137,166 @@ public class TaskPolicy {
         return false;
     }
 
-    private static boolean taskResultsMatches(List<TaskRule.TaskResult> rule, Map<String, List<Serializable>> taskResults) {
-        if (rule.isEmpty() || taskResults == null) {
+    private static String[] splitName(String name) {
+        return Optional.ofNullable(name).map(n -> n.split("\\.")).orElse(null);
+    }
+
+    /**
+     * Rules of a single list (allow, deny or warn) indexed by the task name.
+     * Rules with a literal task name are looked up directly, the rest
+     * are checked for every task. The original order of the rules is preserved.
+     */
+    private static final class RuleIndex {
+
+        private final Map<String, List<CompiledRule>> byTaskName;
+        private final List<CompiledRule> other;
+
+        private RuleIndex(List<TaskRule> rules) {
+            List<CompiledRule> compiled = rules.stream()
+                    .map(CompiledRule::new)
+                    .collect(Collectors.toList());
+
+            this.other = compiled.stream()
+                    .filter(r -> r.literalTaskName == null)
+                    .collect(Collectors.toList());
+
+            this.byTaskName = new HashMap<>();
+            for (CompiledRule r : compiled) {
+                if (r.literalTaskName == null || byTaskName.containsKey(r.literalTaskName)) {
+                    continue;
+                }
+
+                String key = r.literalTaskName;
+                byTaskName.put(key, compiled.stream()
+                        .filter(c -> c.literalTaskName == null || c.literalTaskName.equals(key))
+                        .collect(Collectors.toList()));
+            }
+        }
+
+        private List<CompiledRule> candidates(String taskName) {
+            // a null task name matches the same string patterns as an empty one
+            String key = taskName != null ? Matcher.toLowerCaseAscii(taskName) : "";
+            return byTaskName.getOrDefault(key, other);
+        }
+    }
+
+    private static final class CompiledRule {
+
+        private final TaskRule rule;
+        private final String literalTaskName;
+        private final Matcher.Condition taskName;
+        private final Matcher.Condition method;
+        private final List<CompiledParam> params;
+        private final List<CompiledTaskResult> taskResults;
+
+        private CompiledRule(TaskRule rule) {
+            this.rule = rule;
+            this.literalTaskName = rule.taskName() != null && Matcher.isLiteral(rule.taskName()) ? Matcher.toLowerCaseAscii(rule.taskName()) : null;
+            this.taskName = Matcher.compile(rule.taskName());
+            this.method = rule.method() != null ? Matcher.compile(rule.method()) : null;
+            this.params = rule.params().stream().map(CompiledParam::new).collect(Collectors.toList());
+            this.taskResults = rule.taskResults().stream().map(CompiledTaskResult::new).collect(Collectors.toList());
+        }
+
+        private boolean matches(String taskName, String methodName, Object[] params, Map<String, List<Serializable>> taskResults) {
+            if (!this.taskName.matches(taskName)) {
+                return false;
+            }
+
+            if (method != null && !method.matches(methodName)) {
+                return false;
+            }
+
+            if (paramsMatches(params)) {
+                return true;
+            }
+
+            if (taskResultsMatches(taskResults)) {
+                return true;
+            }
+
             return false;
         }
 
-        for (TaskRule.TaskResult tr : rule) {
-            String taskName = tr.task();
-            List<Serializable> results = taskResults.getOrDefault(taskName, Collections.emptyList());
-            String resultName = tr.result();
+        private boolean paramsMatches(Object[] params) {
+            if (params == null) {
+                return this.params.isEmpty();
+            }
+
+            for (CompiledParam p : this.params) {
+                if (p.index >= params.length) {
+                    return false;
+                }
 
-            for (Object result : results) {
-                if (paramMatches(
-                        Optional.ofNullable(resultName).map(n -> n.split("\\.")).orElse(null),
-                        0, tr.values(), result, false)) {
-                    return true;
+                if (!paramMatches(p.names, 0, p.values, params[p.index], p.isProtected)) {
+                    return false;
                 }
             }
+
+            return true;
         }
 
-        return false;
+        private boolean taskResultsMatches(Map<String, List<Serializable>> taskResults) {
+            if (this.taskResults.isEmpty() || taskResults == null) {
+                return false;
+            }
+
+            for (CompiledTaskResult tr : this.taskResults) {
+                List<Serializable> results = taskResults.getOrDefault(tr.task, Collections.emptyList());
+                for (Object result : results) {
+                    if (paramMatches(tr.names, 0, tr.values, result, false)) {
+                        return true;
+                    }
+                }
+            }
+
+            return false;
+        }
+    }
+
+    private static final class CompiledParam {
+
+        private final int index;
+        private final String[] names;
+        private final CompiledValues values;
+        private final boolean isProtected;
+
+        private CompiledParam(TaskRule.Param p) {
+            this.index = p.index();
+            this.names = splitName(p.name());
+            this.values = new CompiledValues(p.values());
+            this.isProtected = p.protectedVariable();
+        }
+    }
+
+    private static final class CompiledTaskResult {
+
+        private final String task;
+        private final String[] names;
+        private final CompiledValues values;
+
+        private CompiledTaskResult(TaskRule.TaskResult tr) {
+            this.task = tr.task();
+            this.names = splitName(tr.result());
+            this.values = new CompiledValues(tr.values());
+        }
+    }
+
+    private static final class CompiledValues {
+
+        private final List<Object> values;
+
+        /**
+         * String representations of the values, used to match string parameters.
+         */
+        private final Matcher.Condition patterns;
+
+        private CompiledValues(List<Object> values) {
+            this.values = values;
+            this.patterns = Matcher.compile(values.stream()
+                    .filter(Objects::nonNull)
+                    .map(Object::toString)
+                    .collect(Collectors.toList()));
+        }
     }
 }
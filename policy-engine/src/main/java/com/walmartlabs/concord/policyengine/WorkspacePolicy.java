@@ -21,22 +21,23 @@ package com.walmartlabs.concord.policyengine;
  */
 
 import java.io.IOException;
-import java.nio.file.FileVisitResult;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 public class WorkspacePolicy {
 
     private final WorkspaceRule rule;
+    private final List<Pattern> ignoredFiles;
 
     public WorkspacePolicy(WorkspaceRule rule) {
         this.rule = rule;
+        this.ignoredFiles = compile(rule != null ? rule.ignoredFiles() : null);
     }
 
     public CheckResult<WorkspaceRule, Path> check(Path p) throws IOException {
@@ -44,44 +45,79 @@ public class WorkspacePolicy {
             return CheckResult.success();
         }
 
-        List<CheckResult.Item<WorkspaceRule, Path>> deny = new ArrayList<>();
+        return new WorkspaceScanner()
+                .withWorkspacePolicy(this)
+                .scan(p)
+                .getWorkspaceResult();
+    }
 
-        if (!Files.exists(p)) {
-            deny.add(new CheckResult.Item<>(rule, p, "File not found: " + p));
-        } else if (!Files.isDirectory(p)) {
-            deny.add(new CheckResult.Item<>(rule, p, "Not a directory: " + p));
-        } else if (rule.maxSizeInBytes() != null) {
-            Long[] size = { 0L };
+    WorkspaceScanner.Check<WorkspaceRule, Path> newCheck() {
+        return new WorkspaceScanner.Check<WorkspaceRule, Path>() {
 
-            Files.walkFileTree(p, new SimpleFileVisitor<Path>() {
+            private final List<CheckResult.Item<WorkspaceRule, Path>> deny = new ArrayList<>();
+            private long size;
 
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                    if (isIgnored(file, rule.ignoredFiles())) {
-                        return FileVisitResult.CONTINUE;
-                    }
+            @Override
+            public boolean begin(Path root, BasicFileAttributes rootAttrs) {
+                if (rule == null) {
+                    return false;
+                }
 
-                    size[0] += Files.size(file);
+                if (rootAttrs == null) {
+                    deny.add(new CheckResult.Item<>(rule, root, "File not found: " + root));
+                    return false;
+                }
+
+                if (!rootAttrs.isDirectory()) {
+                    deny.add(new CheckResult.Item<>(rule, root, "Not a directory: " + root));
+                    return false;
+                }
 
-                    return FileVisitResult.CONTINUE;
+                if (rule.maxSizeInBytes() == null) {
+                    return false;
                 }
-            });
 
-            if (size[0] > rule.maxSizeInBytes()) {
-                deny.add(new CheckResult.Item<>(rule, p, "Workspace too big: " + size[0] + " byte(s)"));
+                return true;
             }
-        }
 
-        return new CheckResult<>(Collections.emptyList(), deny);
+            @Override
+            public void visitFile(Path file, BasicFileAttributes attrs) {
+                if (isIgnored(file, ignoredFiles)) {
+                    return;
+                }
+
+                size += attrs.size();
+            }
+
+            @Override
+            public CheckResult<WorkspaceRule, Path> end(Path root) {
+                if (rule != null && rule.maxSizeInBytes() != null && size > rule.maxSizeInBytes()) {
+                    deny.add(new CheckResult.Item<>(rule, root, "Workspace too big: " + size + " byte(s)"));
+                }
+
+                return new CheckResult<>(Collections.emptyList(), deny);
+            }
+        };
     }
 
-    private static boolean isIgnored(Path p, Set<String> patterns) {
+    private static List<Pattern> compile(Set<String> patterns) {
         if (patterns == null) {
+            return Collections.emptyList();
+        }
+
+        return patterns.stream()
+                .map(Pattern::compile)
+                .collect(Collectors.toList());
+    }
+
+    private static boolean isIgnored(Path p, List<Pattern> patterns) {
+        if (patterns.isEmpty()) {
             return false;
         }
 
-        for (String s : patterns) {
-            if (p.toString().matches(s)) {
+        String s = p.toString();
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(s).matches()) {
                 return true;
             }
         }
@@ -0,0 +1,240 @@
+package com.walmartlabs.concord.policyengine;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * Evaluates file, workspace, state and attachment policies in a single
+ * directory walk. Each entry is stat'ed once (by the walk itself) and
+ * the attributes are shared by all checks.
+ */
+public class WorkspaceScanner {
+
+    private FilePolicy filePolicy;
+    private WorkspacePolicy workspacePolicy;
+    private StatePolicy statePolicy;
+    private BiFunction<Path, BasicFileAttributes, Boolean> stateFilter;
+    private AttachmentsPolicy attachmentsPolicy;
+    private BiConsumer<Path, BasicFileAttributes> visitor;
+
+    public WorkspaceScanner withFilePolicy(FilePolicy filePolicy) {
+        this.filePolicy = filePolicy;
+        return this;
+    }
+
+    public WorkspaceScanner withWorkspacePolicy(WorkspacePolicy workspacePolicy) {
+        this.workspacePolicy = workspacePolicy;
+        return this;
+    }
+
+    public WorkspaceScanner withStatePolicy(StatePolicy statePolicy, BiFunction<Path, BasicFileAttributes, Boolean> filter) {
+        this.statePolicy = statePolicy;
+        this.stateFilter = filter;
+        return this;
+    }
+
+    public WorkspaceScanner withAttachmentsPolicy(AttachmentsPolicy attachmentsPolicy) {
+        this.attachmentsPolicy = attachmentsPolicy;
+        return this;
+    }
+
+    /**
+     * Receives every visited file, regardless of the policies.
+     * If a visitor is specified, the tree is always walked.
+     */
+    public WorkspaceScanner withVisitor(BiConsumer<Path, BasicFileAttributes> visitor) {
+        this.visitor = visitor;
+        return this;
+    }
+
+    public Result scan(Path root) throws IOException {
+        BasicFileAttributes rootAttrs = readAttributes(root);
+
+        Check<FileRule, Path> fileCheck = filePolicy != null ? filePolicy.newCheck() : null;
+        Check<WorkspaceRule, Path> workspaceCheck = workspacePolicy != null ? workspacePolicy.newCheck() : null;
+        Check<StateRule, Path> stateCheck = statePolicy != null ? statePolicy.newCheck(stateFilter) : null;
+        Check<AttachmentsRule, Long> attachmentsCheck = attachmentsPolicy != null ? attachmentsPolicy.newCheck() : null;
+
+        List<Check<?, ?>> active = new ArrayList<>();
+        begin(fileCheck, root, rootAttrs, active);
+        begin(workspaceCheck, root, rootAttrs, active);
+        begin(stateCheck, root, rootAttrs, active);
+        begin(attachmentsCheck, root, rootAttrs, active);
+
+        if (!active.isEmpty() || visitor != null) {
+            Files.walkFileTree(root, new Walker(active, visitor));
+        }
+
+        return new Result(end(fileCheck, root), end(workspaceCheck, root), end(stateCheck, root), end(attachmentsCheck, root));
+    }
+
+    private static BasicFileAttributes readAttributes(Path p) throws IOException {
+        try {
+            return Files.readAttributes(p, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static void begin(Check<?, ?> check, Path root, BasicFileAttributes rootAttrs, List<Check<?, ?>> active) throws IOException {
+        if (check != null && check.begin(root, rootAttrs)) {
+            active.add(check);
+        }
+    }
+
+    private static <R, E> CheckResult<R, E> end(Check<R, E> check, Path root) {
+        if (check == null) {
+            return CheckResult.success();
+        }
+        return check.end(root);
+    }
+
+    public static class Result {
+
+        private final CheckResult<FileRule, Path> fileResult;
+        private final CheckResult<WorkspaceRule, Path> workspaceResult;
+        private final CheckResult<StateRule, Path> stateResult;
+        private final CheckResult<AttachmentsRule, Long> attachmentsResult;
+
+        private Result(CheckResult<FileRule, Path> fileResult,
+                       CheckResult<WorkspaceRule, Path> workspaceResult,
+                       CheckResult<StateRule, Path> stateResult,
+                       CheckResult<AttachmentsRule, Long> attachmentsResult) {
+
+            this.fileResult = fileResult;
+            this.workspaceResult = workspaceResult;
+            this.stateResult = stateResult;
+            this.attachmentsResult = attachmentsResult;
+        }
+
+        public CheckResult<FileRule, Path> getFileResult() {
+            return fileResult;
+        }
+
+        public CheckResult<WorkspaceRule, Path> getWorkspaceResult() {
+            return workspaceResult;
+        }
+
+        public CheckResult<StateRule, Path> getStateResult() {
+            return stateResult;
+        }
+
+        public CheckResult<AttachmentsRule, Long> getAttachmentsResult() {
+            return attachmentsResult;
+        }
+    }
+
+    /**
+     * A single policy check driven by the scanner. Instances are stateful
+     * and used for one scan only.
+     */
+    interface Check<R, E> {
+
+        /**
+         * @param rootAttrs attributes of the root, {@code null} if the root doesn't exist.
+         * @return {@code false} if the check doesn't need to visit the tree.
+         */
+        boolean begin(Path root, BasicFileAttributes rootAttrs) throws IOException;
+
+        /**
+         * @return {@code true} if the check should ignore the directory and its subtree.
+         */
+        default boolean skipDirectory(Path dir, BasicFileAttributes attrs) {
+            return false;
+        }
+
+        void visitFile(Path file, BasicFileAttributes attrs);
+
+        CheckResult<R, E> end(Path root);
+    }
+
+    private static class Walker extends SimpleFileVisitor<Path> {
+
+        private final Check<?, ?>[] checks;
+        private final Path[] skippedAt;
+        private final BiConsumer<Path, BasicFileAttributes> visitor;
+
+        private Walker(List<Check<?, ?>> checks, BiConsumer<Path, BasicFileAttributes> visitor) {
+            this.checks = checks.toArray(new Check<?, ?>[0]);
+            this.skippedAt = new Path[this.checks.length];
+            this.visitor = visitor;
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+            boolean allSkipped = true;
+            for (int i = 0; i < checks.length; i++) {
+                if (skippedAt[i] == null && checks[i].skipDirectory(dir, attrs)) {
+                    skippedAt[i] = dir;
+                }
+                allSkipped &= skippedAt[i] != null;
+            }
+
+            if (allSkipped && visitor == null) {
+                // postVisitDirectory is not called for skipped subtrees
+                resetSkipped(dir);
+                return FileVisitResult.SKIP_SUBTREE;
+            }
+
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            for (int i = 0; i < checks.length; i++) {
+                if (skippedAt[i] == null) {
+                    checks[i].visitFile(file, attrs);
+                }
+            }
+
+            if (visitor != null) {
+                visitor.accept(file, attrs);
+            }
+
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+            if (exc != null) {
+                throw exc;
+            }
+
+            resetSkipped(dir);
+            return FileVisitResult.CONTINUE;
+        }
+
+        private void resetSkipped(Path dir) {
+            for (int i = 0; i < skippedAt.length; i++) {
+                if (dir.equals(skippedAt[i])) {
+                    skippedAt[i] = null;
+                }
+            }
+        }
+    }
+}
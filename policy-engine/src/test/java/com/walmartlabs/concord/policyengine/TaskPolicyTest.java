@@ -25,6 +25,7 @@ import org.junit.jupiter.api.Test;
 import java.io.Serializable;
 import java.util.*;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -241,6 +242,31 @@ public class TaskPolicyTest {
         assertDenyByTaskResults(policy, "taskName-12", "foo", Collections.singletonMap("taskName-12", taskResults));
     }
 
+    @Test
+    public void testRuleOrder() {
+        TaskRule patternRule = TaskRule.builder()
+                .msg("pattern")
+                .taskName("http.*")
+                .method("get")
+                .build();
+
+        TaskRule literalRule = TaskRule.builder()
+                .msg("literal")
+                .taskName("http")
+                .build();
+
+        PolicyRules<TaskRule> rules = new PolicyRules<>(null, null, Arrays.asList(patternRule, literalRule));
+
+        TaskPolicy policy = new TaskPolicy(rules);
+
+        // ---
+        assertEquals("pattern", policy.check("HTTP", "get", null, null).getDeny().get(0).getRule().msg());
+        assertEquals("literal", policy.check("HTTP", "post", null, null).getDeny().get(0).getRule().msg());
+        assertEquals("pattern", policy.check("httpClient", "get", null, null).getDeny().get(0).getRule().msg());
+        assertAllow(policy, "httpClient", "post");
+        assertAllow(policy, "log", "get");
+    }
+
     private static void assertDeny(TaskPolicy policy, String taskName, String methodName, Object... params) {
         CheckResult<TaskRule, String> result = policy.check(taskName, methodName, params, null);
         assertFalse(result.getDeny().isEmpty());
@@ -0,0 +1,79 @@
+package com.walmartlabs.concord.policyengine;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+/**
+ * Compares separate policy checks with a single {@link WorkspaceScanner} pass
+ * on a synthetic tree of 100k files.
+ * <p>
+ * Not a part of the regular build, run with
+ * {@code ./mvnw -Pbenchmarks test -pl policy-engine -Dtest=WorkspaceScannerBenchmark}
+ */
+public class WorkspaceScannerBenchmark {
+
+    private static final int DIRS = 100;
+    private static final int FILES_PER_DIR = 1000;
+    private static final int ITERATIONS = 5;
+
+    @Test
+    public void test() throws Exception {
+        Path root = Files.createTempDirectory("bench");
+        for (int i = 0; i < DIRS; i++) {
+            Path dir = Files.createDirectory(root.resolve("dir" + i));
+            for (int j = 0; j < FILES_PER_DIR; j++) {
+                Files.write(dir.resolve("file" + j + ".txt"), new byte[j % 128]);
+            }
+        }
+
+        FilePolicy filePolicy = new FilePolicy(new PolicyRules<>(null,
+                Collections.singletonList(new FileRule(null, "1M", "file", Collections.singletonList(".*\\.txt"))),
+                Collections.singletonList(new FileRule(null, null, "file", Collections.singletonList(".*\\.jar")))));
+        WorkspacePolicy workspacePolicy = new WorkspacePolicy(WorkspaceRule.of(null, 1024L * 1024 * 1024, null));
+        StatePolicy statePolicy = new StatePolicy(new PolicyRules<>(null, null,
+                Collections.singletonList(StateRule.builder().addPatterns(".*\\.jar").build())));
+        AttachmentsPolicy attachmentsPolicy = new AttachmentsPolicy(AttachmentsRule.of(null, 1024L * 1024 * 1024));
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            long t1 = System.nanoTime();
+            filePolicy.check(root);
+            workspacePolicy.check(root);
+            statePolicy.check(root, (p, attrs) -> true);
+            attachmentsPolicy.check(root);
+            long t2 = System.nanoTime();
+
+            new WorkspaceScanner()
+                    .withFilePolicy(filePolicy)
+                    .withWorkspacePolicy(workspacePolicy)
+                    .withStatePolicy(statePolicy, (p, attrs) -> true)
+                    .withAttachmentsPolicy(attachmentsPolicy)
+                    .scan(root);
+            long t3 = System.nanoTime();
+
+            System.out.println("separate: " + (t2 - t1) / 1_000_000 + "ms, single pass: " + (t3 - t2) / 1_000_000 + "ms");
+        }
+    }
+}
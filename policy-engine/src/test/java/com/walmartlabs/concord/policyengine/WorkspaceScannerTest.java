@@ -0,0 +1,77 @@
+package com.walmartlabs.concord.policyengine;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WorkspaceScannerTest {
+
+    @Test
+    public void testSinglePass() throws Exception {
+        Path root = Files.createTempDirectory("test");
+        Files.write(root.resolve("a.jar"), new byte[10]);
+        Files.write(root.resolve("b.txt"), new byte[10]);
+        Path allowed = Files.createDirectory(root.resolve("lib"));
+        Files.write(allowed.resolve("c.jar"), new byte[10]);
+
+        FilePolicy filePolicy = new FilePolicy(new PolicyRules<>(
+                Collections.singletonList(new FileRule(null, null, "dir", Collections.singletonList("lib"))),
+                null,
+                Collections.singletonList(new FileRule("no jars", null, "file", Collections.singletonList(".*\\.jar")))));
+
+        WorkspacePolicy workspacePolicy = new WorkspacePolicy(WorkspaceRule.of("too big", 25L, null));
+
+        StatePolicy statePolicy = new StatePolicy(new PolicyRules<>(null,
+                Collections.singletonList(StateRule.builder().msg("no txt").addPatterns(".*\\.txt").build()),
+                null));
+
+        List<Path> visited = new ArrayList<>();
+
+        WorkspaceScanner.Result result = new WorkspaceScanner()
+                .withFilePolicy(filePolicy)
+                .withWorkspacePolicy(workspacePolicy)
+                .withStatePolicy(statePolicy, (p, attrs) -> true)
+                .withVisitor((p, attrs) -> visited.add(p))
+                .scan(root);
+
+        // the allowed directory is skipped only by the file policy
+        assertEquals(3, visited.size());
+
+        assertEquals(1, result.getFileResult().getDeny().size());
+        assertEquals(root.resolve("a.jar"), result.getFileResult().getDeny().get(0).getEntity());
+
+        assertEquals(1, result.getWorkspaceResult().getDeny().size());
+
+        assertEquals(1, result.getStateResult().getWarn().size());
+        assertTrue(result.getStateResult().getDeny().isEmpty());
+
+        assertTrue(result.getAttachmentsResult().getDeny().isEmpty());
+    }
+}
@@ -81,6 +81,13 @@ public interface FetchRequest {
         return false;
     }
 
+    /**
+     * Bare git repository used to store and share the fetched objects
+     * (via git alternates) with other repositories. Not used for shallow fetches.
+     */
+    @Nullable
+    Path sharedObjectStore();
+
     static ImmutableFetchRequest.Builder builder() {
         return ImmutableFetchRequest.builder();
     }
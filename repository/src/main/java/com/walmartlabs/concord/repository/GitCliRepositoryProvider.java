@@ -36,9 +36,21 @@ public class GitCliRepositoryProvider implements RepositoryProvider {
     private static final String GIT_FILES = "^(\\.git|\\.gitmodules|\\.gitignore)$";
 
     private final GitClient client;
+    private final boolean exportUsingHardLinks;
 
     public GitCliRepositoryProvider(GitClientConfiguration cfg) {
+        this(cfg, false);
+    }
+
+    /**
+     * @param exportUsingHardLinks if {@code true} the exported files are hard-linked
+     *                             to the repository files instead of copying (when
+     *                             supported by the file system). The exported files
+     *                             must be replaced, not modified in place.
+     */
+    public GitCliRepositoryProvider(GitClientConfiguration cfg, boolean exportUsingHardLinks) {
         this.client = new GitClient(cfg);
+        this.exportUsingHardLinks = exportUsingHardLinks;
     }
 
     @Override
@@ -79,7 +91,11 @@ public class GitCliRepositoryProvider implements RepositoryProvider {
         List<String> allIgnorePatterns = new ArrayList<>();
         allIgnorePatterns.add(GIT_FILES);
         allIgnorePatterns.addAll(ignorePatterns);
-        IOUtils.copy(src, dst, allIgnorePatterns, snapshot, StandardCopyOption.REPLACE_EXISTING);
+        if (exportUsingHardLinks) {
+            IOUtils.link(src, dst, allIgnorePatterns, snapshot, StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            IOUtils.copy(src, dst, allIgnorePatterns, snapshot, StandardCopyOption.REPLACE_EXISTING);
+        }
         return snapshot;
     }
 }
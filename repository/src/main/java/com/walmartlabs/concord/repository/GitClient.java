@@ -21,6 +21,7 @@ package com.walmartlabs.concord.repository;
  */
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hashing;
 import com.walmartlabs.concord.common.IOUtils;
 import com.walmartlabs.concord.common.secret.BinaryDataSecret;
 import com.walmartlabs.concord.common.secret.KeyPair;
@@ -33,6 +34,7 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nullable;
 import java.io.*;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
@@ -86,7 +88,11 @@ public class GitClient {
             boolean alreadyFetched = exists && req.checkAlreadyFetched() && alreadyFetched(req.destination(), ref, version);
             if (!alreadyFetched) {
                 boolean effectiveShallow = req.shallow() && version.commitId() == null;
-                fetch(req.destination(), effectiveShallow, req.secret());
+                if (req.sharedObjectStore() != null && !effectiveShallow) {
+                    fetchShared(req.destination(), req.sharedObjectStore(), req.url(), updateUrl(req.url(), req.secret()), ref, req.secret());
+                } else {
+                    fetch(req.destination(), effectiveShallow, req.secret());
+                }
 
                 checkout(req.destination(), req.version().value());
                 if (version.commitId() == null) {
@@ -193,6 +199,92 @@ public class GitClient {
                 .build(), secret);
     }
 
+    /**
+     * Fetches the objects into the shared store first and then updates
+     * the repository's refs using the store. The store is configured as
+     * the repository's alternate object database, so the objects are
+     * downloaded and stored only once.
+     */
+    private void fetchShared(Path workDir, Path store, String url, String effectiveUrl, Ref ref, Secret secret) throws IOException {
+        initSharedObjectStore(store);
+
+        // the same repository can be fetched using different credentials, i.e. into different stores
+        Path alternates = alternatesFile(workDir);
+        String storeObjects = store.resolve("objects").toAbsolutePath().toString();
+        List<String> alternateStores = Files.exists(alternates) ? new ArrayList<>(Files.readAllLines(alternates)) : new ArrayList<>();
+        if (!alternateStores.contains(storeObjects)) {
+            alternateStores.add(storeObjects);
+            Files.createDirectories(alternates.getParent());
+            Files.write(alternates, alternateStores);
+        }
+
+        // each repository URL gets its own namespace in the store
+        String namespace = "refs/remotes/" + Hashing.sha256().hashString(url, StandardCharsets.UTF_8).toString().substring(0, 16) + "/";
+
+        String refSpec = getRefSpec(ref);
+        String dst = refSpec.substring(refSpec.indexOf(':') + 1);
+        String storeRef = dst.replace("refs/remotes/origin/", namespace);
+        String storeRefSpec = refSpec.substring(0, refSpec.indexOf(':') + 1) + storeRef;
+
+        execWithCredentials(Command.builder()
+                .workDir(store)
+                .timeout(cfg.fetchTimeout())
+                .addArgs("fetch", "--no-tags", effectiveUrl, storeRefSpec)
+                .build(), secret);
+
+        List<String> args = new ArrayList<>();
+        args.add("fetch");
+        args.add("--no-tags");
+        if (isShallowRepo(workDir)) {
+            args.add("--unshallow");
+        }
+        args.add(store.toAbsolutePath().toString());
+        args.add("+" + storeRef + ":" + dst);
+        if (ref != null && ref.tag()) {
+            // tags are not fetched automatically, but can be used as "version"
+            args.add("+" + storeRef + ":refs/tags/" + ref.name());
+        }
+
+        exec(Command.builder()
+                .workDir(workDir)
+                .timeout(cfg.fetchTimeout())
+                .addAllArgs(args)
+                .build());
+    }
+
+    /**
+     * Returns the path to the file with the repository's alternate object databases.
+     */
+    static Path alternatesFile(Path workDir) {
+        return workDir.resolve(".git").resolve("objects").resolve("info").resolve("alternates");
+    }
+
+    private void initSharedObjectStore(Path store) throws IOException {
+        if (Files.exists(store.resolve("objects"))) {
+            return;
+        }
+
+        Files.createDirectories(store);
+
+        exec(Command.builder()
+                .workDir(store)
+                .timeout(cfg.defaultOperationTimeout())
+                .addArgs("init", "--bare")
+                .build());
+
+        // the objects are referenced by other repositories, never prune them automatically
+        exec(Command.builder()
+                .workDir(store)
+                .timeout(cfg.defaultOperationTimeout())
+                .addArgs("config", "gc.auto", "0")
+                .build());
+        exec(Command.builder()
+                .workDir(store)
+                .timeout(cfg.defaultOperationTimeout())
+                .addArgs("config", "maintenance.auto", "false")
+                .build());
+    }
+
     private boolean isShallowRepo(Path workDir) {
         String result = exec(Command.builder()
                 .workDir(workDir)
@@ -21,41 +21,63 @@ package com.walmartlabs.concord.repository;
  */
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import org.immutables.value.Value;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
-import java.nio.file.FileVisitOption;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * Keeps track of the last access time of the cached repositories.
+ * <p/>
+ * The records are kept in memory and persisted in batches into an append-only
+ * log. The log is compacted (rewritten with the current records only) once it
+ * grows substantially larger than the number of the records.
+ */
 public class RepositoryAccessJournal {
 
     private static final Logger log = LoggerFactory.getLogger(RepositoryAccessJournal.class);
 
+    private static final String LOG_FILE_NAME = "access.log";
+    private static final String LEGACY_FILE_SUFFIX = ".info.json";
+
+    private static final int MAX_PENDING_RECORDS = 100;
+    private static final long FLUSH_INTERVAL = 30_000;
+    private static final int MIN_COMPACTION_SIZE = 1000;
+
     private final Path repoJournalPath;
+    private final Path logFile;
     private final ObjectMapper objectMapper;
+    private final ObjectWriter objectWriter;
     private final Map<String, RepositoryJournalItem> journal;
 
+    private final Object flushMutex = new Object();
+    private final Map<String, RepositoryJournalItem> pending = new LinkedHashMap<>();
+    private long lastFlush = System.currentTimeMillis();
+    private int logSize;
+
     public RepositoryAccessJournal(ObjectMapper objectMapper, Path repoJournalPath) throws IOException {
         this.objectMapper = objectMapper;
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
 
         if (Files.notExists(repoJournalPath)) {
             Files.createDirectories(repoJournalPath);
         }
         this.repoJournalPath = repoJournalPath;
-        this.journal = load(repoJournalPath);
+        this.logFile = repoJournalPath.resolve(LOG_FILE_NAME);
+        this.journal = load();
     }
 
     public void recordAccess(String repoUrl, Path repoLocalPath) throws IOException {
@@ -66,12 +88,22 @@ public class RepositoryAccessJournal {
                 .build();
         journal.put(repoUrl, item);
 
-        objectMapper.writeValue(repoJournalPath(repoUrl).toFile(), item);
+        append(item);
     }
 
     public void removeRecord(String repoUrl) throws IOException {
-        Files.deleteIfExists(repoJournalPath(repoUrl));
-        journal.remove(repoUrl);
+        RepositoryJournalItem item = journal.remove(repoUrl);
+        if (item == null) {
+            return;
+        }
+
+        append(RepositoryJournalItem.builder().from(item)
+                .removed(true)
+                .build());
+    }
+
+    public List<RepositoryJournalItem> list() {
+        return new ArrayList<>(journal.values());
     }
 
     public List<RepositoryJournalItem> listOld(long age) {
@@ -81,41 +113,135 @@ public class RepositoryAccessJournal {
                 .collect(Collectors.toList());
     }
 
-    private RepositoryJournalItem loadItem(Path p) {
-        try {
-            return objectMapper.readValue(p.toFile(), RepositoryJournalItem.class);
-        } catch (Exception e) {
-            log.warn("loadItem ['{}'] -> error", p, e);
-            return null;
+    /**
+     * Writes the pending records into the log. Compacts the log if necessary.
+     */
+    public void flush() throws IOException {
+        synchronized (flushMutex) {
+            if (!pending.isEmpty()) {
+                List<RepositoryJournalItem> items = new ArrayList<>(pending.values());
+                pending.clear();
+
+                write(items, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                logSize += items.size();
+            }
+
+            lastFlush = System.currentTimeMillis();
+
+            if (logSize > Math.max(MIN_COMPACTION_SIZE, journal.size() * 2)) {
+                compact();
+            }
+        }
+    }
+
+    private void append(RepositoryJournalItem item) throws IOException {
+        synchronized (flushMutex) {
+            // only the latest record of each repository is kept
+            pending.remove(item.repoUrl());
+            pending.put(item.repoUrl(), item);
+
+            if (pending.size() >= MAX_PENDING_RECORDS || lastFlush + FLUSH_INTERVAL < System.currentTimeMillis()) {
+                flush();
+            }
         }
     }
 
-    private Map<String, RepositoryJournalItem> load(Path repoJournalPath) throws IOException {
+    private void compact() throws IOException {
+        Path tmp = repoJournalPath.resolve(LOG_FILE_NAME + ".tmp");
+
+        List<RepositoryJournalItem> items = list();
+        write(tmp, items, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        Files.move(tmp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        log.info("compact -> done, {} records (was {})", items.size(), logSize);
+        logSize = items.size();
+    }
+
+    private void write(List<RepositoryJournalItem> items, OpenOption... options) throws IOException {
+        write(logFile, items, options);
+    }
+
+    private void write(Path file, List<RepositoryJournalItem> items, OpenOption... options) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, options)) {
+            for (RepositoryJournalItem i : items) {
+                writer.write(objectWriter.writeValueAsString(i));
+                writer.newLine();
+            }
+        }
+    }
+
+    private Map<String, RepositoryJournalItem> load() throws IOException {
         Map<String, RepositoryJournalItem> result = new ConcurrentHashMap<>();
+
+        // records in the old format, one file per repository
+        List<Path> legacyFiles;
         try (Stream<Path> paths = Files.walk(repoJournalPath, 1, FileVisitOption.FOLLOW_LINKS)) {
-            paths
+            legacyFiles = paths
                     .filter(Files::isRegularFile)
-                    .filter(p -> p.getFileName().toString().endsWith(".info.json"))
-                    .map(this::loadItem)
-                    .filter(Objects::nonNull)
-                    .forEach(i -> result.put(i.repoUrl(), i));
+                    .filter(p -> p.getFileName().toString().endsWith(LEGACY_FILE_SUFFIX))
+                    .collect(Collectors.toList());
+        }
+
+        legacyFiles.stream()
+                .map(this::loadItem)
+                .filter(Objects::nonNull)
+                .forEach(i -> result.put(i.repoUrl(), i));
+
+        if (Files.exists(logFile)) {
+            try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    logSize++;
+
+                    RepositoryJournalItem i = parseItem(line);
+                    if (i == null) {
+                        continue;
+                    }
+
+                    if (i.removed()) {
+                        result.remove(i.repoUrl());
+                    } else {
+                        result.put(i.repoUrl(), i);
+                    }
+                }
+            }
+        }
+
+        if (!legacyFiles.isEmpty()) {
+            // migrate the old records into the log
+            List<RepositoryJournalItem> items = new ArrayList<>(result.values());
+            write(items, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            logSize = items.size();
+
+            for (Path p : legacyFiles) {
+                Files.deleteIfExists(p);
+            }
         }
+
         return result;
     }
 
-    private Path repoJournalPath(String repoUrl) {
-        return repoJournalPath.resolve(encodeUrl(repoUrl) + ".info.json");
+    private RepositoryJournalItem loadItem(Path p) {
+        try {
+            return objectMapper.readValue(p.toFile(), RepositoryJournalItem.class);
+        } catch (Exception e) {
+            log.warn("loadItem ['{}'] -> error", p, e);
+            return null;
+        }
     }
 
-    private static String encodeUrl(String url) {
-        String encodedUrl;
-        try {
-            encodedUrl = URLEncoder.encode(url, "UTF-8");
-        } catch (UnsupportedEncodingException e) {
-            throw new RepositoryException("Url encoding error", e);
+    private RepositoryJournalItem parseItem(String line) {
+        if (line.trim().isEmpty()) {
+            return null;
         }
 
-        return encodedUrl;
+        try {
+            return objectMapper.readValue(line, RepositoryJournalItem.class);
+        } catch (Exception e) {
+            // e.g. a partially written record
+            log.warn("parseItem ['{}'] -> error", line, e);
+            return null;
+        }
     }
 
     @Value.Immutable
@@ -130,6 +256,11 @@ public class RepositoryAccessJournal {
 
         long lastAccess();
 
+        @Value.Default
+        default boolean removed() {
+            return false;
+        }
+
         static ImmutableRepositoryJournalItem.Builder builder() {
             return ImmutableRepositoryJournalItem.builder();
         }
@@ -21,51 +21,139 @@ package com.walmartlabs.concord.repository;
  */
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
 import com.google.common.util.concurrent.Striped;
 import com.walmartlabs.concord.common.IOUtils;
+import com.walmartlabs.concord.common.secret.BinaryDataSecret;
+import com.walmartlabs.concord.common.secret.KeyPair;
+import com.walmartlabs.concord.common.secret.UsernamePassword;
+import com.walmartlabs.concord.sdk.Secret;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
 import java.net.URLEncoder;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.SecureRandom;
 import java.time.Duration;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class RepositoryCache {
 
     private static final Logger log = LoggerFactory.getLogger(RepositoryCache.class);
 
+    private static final String SHARED_OBJECTS_DIR_NAME = ".shared-objects";
+    private static final String SHARED_OBJECTS_SALT_FILE_NAME = ".salt";
+    private static final char SHARED_OBJECTS_CREDENTIALS_SEPARATOR = '#';
+    private static final String ANONYMOUS_CREDENTIALS = "anonymous";
+
+    /**
+     * Precision of the file modification times, used to detect shared object stores
+     * modified during the cleanup.
+     */
+    private static final long MTIME_PRECISION = TimeUnit.SECONDS.toMillis(1);
+
+    private static final long MIN_CLEANUP_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    private static final long MAX_LIMITS_CHECK_INTERVAL = TimeUnit.MINUTES.toMillis(5);
+
     private final Path cacheDir;
+    private final Path sharedObjectsDir;
     private final RepositoryAccessJournal accessJournal;
     private final long lockTimeout;
     private final long maxCacheAge;
+    private final long maxCacheSize;
+    private final int maxCacheEntries;
 
     private final Striped<Lock> locks;
+    private final Striped<ReadWriteLock> sharedObjectsLocks;
+
+    private volatile byte[] sharedObjectsSalt;
+
+    private final Lock cleanupLock = new ReentrantLock();
+    private volatile long lastCleanup;
+
+    private final Map<String, CachedSize> sizes = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private volatile long totalSize;
+
+    public RepositoryCache(Path cacheDir,
+                           Path repoJournalPath,
+                           Duration lockTimeout,
+                           Duration maxCacheAge,
+                           int lockCount,
+                           ObjectMapper objectMapper) throws IOException {
 
+        this(cacheDir, repoJournalPath, lockTimeout, maxCacheAge, lockCount, false, objectMapper);
+    }
+
+    public RepositoryCache(Path cacheDir,
+                           Path repoJournalPath,
+                           Duration lockTimeout,
+                           Duration maxCacheAge,
+                           int lockCount,
+                           boolean sharedObjectStore,
+                           ObjectMapper objectMapper) throws IOException {
+
+        this(cacheDir, repoJournalPath, lockTimeout, maxCacheAge, 0, 0, lockCount, sharedObjectStore, objectMapper);
+    }
+
+    /**
+     * @param maxCacheSize      max total size of the cached repositories in bytes,
+     *                          {@code 0} for unlimited. The least recently used
+     *                          repositories are removed first.
+     * @param maxCacheEntries   max number of the cached repositories, {@code 0} for unlimited.
+     * @param sharedObjectStore if {@code true} the cached repositories with the same
+     *                          host and repository path (e.g. the same repository accessed
+     *                          using different protocols) fetched using the same credentials
+     *                          share a single git object store.
+     */
     public RepositoryCache(Path cacheDir,
                            Path repoJournalPath,
                            Duration lockTimeout,
                            Duration maxCacheAge,
+                           long maxCacheSize,
+                           int maxCacheEntries,
                            int lockCount,
+                           boolean sharedObjectStore,
                            ObjectMapper objectMapper) throws IOException {
 
         this.cacheDir = cacheDir;
+        this.sharedObjectsDir = sharedObjectStore ? cacheDir.resolve(SHARED_OBJECTS_DIR_NAME) : null;
         this.lockTimeout = lockTimeout.toMillis();
-        this.accessJournal = maxCacheAge.toMillis() > 0 ? new RepositoryAccessJournal(objectMapper, repoJournalPath) : null;
         this.maxCacheAge = maxCacheAge.toMillis();
+        this.maxCacheSize = maxCacheSize;
+        this.maxCacheEntries = maxCacheEntries;
+        this.accessJournal = isCleanupEnabled() ? new RepositoryAccessJournal(objectMapper, repoJournalPath) : null;
         this.locks = Striped.lock(lockCount);
+        this.sharedObjectsLocks = Striped.readWriteLock(lockCount);
     }
 
     public Path getPath(String repositoryUrl) {
         String encodedUrl = encodeUrl(repositoryUrl);
         Path repoPath = cacheDir.resolve(encodedUrl);
 
+        if (Files.exists(repoPath)) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+
         if (accessJournal != null) {
             try {
                 accessJournal.recordAccess(repositoryUrl, repoPath);
@@ -73,18 +161,117 @@ public class RepositoryCache {
                 throw new RepositoryException("Error while writing repository cache info", e);
             }
         }
-        
+
         return repoPath;
     }
 
+    /**
+     * Returns the path to the shared object store (a bare git repository) for
+     * the specified repository URL and credentials or {@code null} if the shared
+     * store is disabled or can't be used with the specified type of credentials.
+     * <p/>
+     * Each set of credentials gets its own store, so the objects fetched using
+     * one set of credentials are not available to the others.
+     */
+    public Path getSharedObjectStorePath(String repositoryUrl, Secret secret) {
+        if (sharedObjectsDir == null) {
+            return null;
+        }
+
+        String credentials = credentialsKey(secret);
+        if (credentials == null) {
+            return null;
+        }
+
+        return sharedObjectsDir.resolve(encodeUrl(sharedObjectStoreKey(repositoryUrl) + SHARED_OBJECTS_CREDENTIALS_SEPARATOR + credentials));
+    }
+
+    /**
+     * Returns a salted hash of the specified credentials or {@code null}
+     * for unsupported types of secrets.
+     */
+    private String credentialsKey(Secret secret) {
+        if (secret == null) {
+            return ANONYMOUS_CREDENTIALS;
+        }
+
+        byte[] data;
+        if (secret instanceof KeyPair) {
+            data = KeyPair.serialize((KeyPair) secret);
+        } else if (secret instanceof UsernamePassword) {
+            data = UsernamePassword.serialize((UsernamePassword) secret);
+        } else if (secret instanceof BinaryDataSecret) {
+            data = ((BinaryDataSecret) secret).getData();
+        } else {
+            return null;
+        }
+
+        return Hashing.sha256().newHasher()
+                .putBytes(sharedObjectsSalt())
+                .putString(secret.getClass().getName(), StandardCharsets.UTF_8)
+                .putBytes(data)
+                .hash()
+                .toString();
+    }
+
+    /**
+     * Returns the salt for the credentials hashes. The salt is generated once
+     * and stored next to the shared object stores.
+     */
+    private byte[] sharedObjectsSalt() {
+        byte[] result = sharedObjectsSalt;
+        if (result != null) {
+            return result;
+        }
+
+        synchronized (this) {
+            if (sharedObjectsSalt != null) {
+                return sharedObjectsSalt;
+            }
+
+            Path p = sharedObjectsDir.resolve(SHARED_OBJECTS_SALT_FILE_NAME);
+            try {
+                if (Files.notExists(p)) {
+                    byte[] salt = new byte[32];
+                    new SecureRandom().nextBytes(salt);
+
+                    Files.createDirectories(sharedObjectsDir);
+                    Files.write(p, salt, StandardOpenOption.CREATE_NEW);
+                }
+
+                sharedObjectsSalt = Files.readAllBytes(p);
+                return sharedObjectsSalt;
+            } catch (IOException e) {
+                throw new RepositoryException("Error while reading the shared object store salt: " + p, e);
+            }
+        }
+    }
+
     public <T> T withLock(String repoUrl, Callable<T> f) {
-        return withLock(lockTimeout, repoUrl, f);
+        Lock sharedObjectsLock = null;
+        if (sharedObjectsDir != null) {
+            // the shared store can be used concurrently, but must not be removed while in use
+            sharedObjectsLock = sharedObjectsLocks.get(sharedObjectStoreKey(repoUrl)).readLock();
+        }
+
+        return withLock(lockTimeout, repoUrl, locks.get(repoUrl), sharedObjectsLock, f);
     }
 
     private <T> T withLock(long lockTimeout, String repoUrl, Callable<T> f) {
-        Lock l = locks.get(repoUrl);
+        return withLock(lockTimeout, repoUrl, locks.get(repoUrl), null, f);
+    }
+
+    private static <T> T withLock(long lockTimeout, String repoUrl, Lock l, Lock nested, Callable<T> f) {
         try {
-            if (l.tryLock(lockTimeout, TimeUnit.MILLISECONDS)) {
+            if (!l.tryLock(lockTimeout, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Timeout waiting for the repository lock. Repository url: " + repoUrl);
+            }
+
+            try {
+                if (nested != null && !nested.tryLock(lockTimeout, TimeUnit.MILLISECONDS)) {
+                    throw new IllegalStateException("Timeout waiting for the shared object store lock. Repository url: " + repoUrl);
+                }
+
                 try {
                     return f.call();
                 } catch (IllegalArgumentException e) {
@@ -92,56 +279,444 @@ public class RepositoryCache {
                 } catch (Exception e) {
                     throw new RuntimeException(e.getMessage(), e);
                 } finally {
-                    l.unlock();
+                    if (nested != null) {
+                        nested.unlock();
+                    }
                 }
+            } finally {
+                l.unlock();
             }
-            throw new IllegalStateException("Timeout waiting for the repository lock. Repository url: " + repoUrl);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Removes the repositories not accessed for longer than the max cache age,
+     * then removes the least recently used repositories until the cache fits
+     * the max number of entries and the max size limits.
+     * <p/>
+     * Does nothing if the previous cleanup happened less than a minute ago or
+     * if the cleanup is already running.
+     */
     public void cleanup() {
-        if (maxCacheAge == 0) {
+        if (!isCleanupEnabled()) {
             return;
         }
 
-        List<RepositoryAccessJournal.RepositoryJournalItem> oldItems = accessJournal.listOld(maxCacheAge);
-        for (RepositoryAccessJournal.RepositoryJournalItem i : oldItems) {
-            Path repoPath = withLock(lockTimeout, i.repoUrl(), () -> {
-                try {
-                    Path tmpDir = null;
+        if (lastCleanup + MIN_CLEANUP_INTERVAL > System.currentTimeMillis()) {
+            return;
+        }
 
-                    if (Files.exists(i.repoPath())) {
-                        tmpDir = i.repoPath().getParent().resolve(i.repoPath().getFileName() + ".tmp");
-                        Files.move(i.repoPath(), tmpDir);
-                    }
-                    
-                    accessJournal.removeRecord(i.repoUrl());
-                    return tmpDir;
-                } catch (IOException e) {
-                    log.warn("cleanup ['{}'] -> move error", i.repoPath(), e);
+        if (!cleanupLock.tryLock()) {
+            return;
+        }
+
+        try {
+            doCleanup();
+            lastCleanup = System.currentTimeMillis();
+        } finally {
+            cleanupLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the pending access records to the journal. Should be called
+     * on shutdown, otherwise the records made since the last cleanup are lost.
+     */
+    public void close() {
+        if (accessJournal == null) {
+            return;
+        }
+
+        try {
+            accessJournal.flush();
+        } catch (IOException e) {
+            log.warn("close -> journal flush error", e);
+        }
+    }
+
+    private void doCleanup() {
+        int removed = 0;
+
+        if (maxCacheAge > 0) {
+            for (RepositoryAccessJournal.RepositoryJournalItem i : accessJournal.listOld(maxCacheAge)) {
+                evict(i);
+                removed++;
+            }
+        }
+
+        if (maxCacheEntries > 0 || maxCacheSize > 0) {
+            List<RepositoryAccessJournal.RepositoryJournalItem> items = accessJournal.list();
+            items.sort(Comparator.comparingLong(RepositoryAccessJournal.RepositoryJournalItem::lastAccess));
+
+            long size = 0;
+            if (maxCacheSize > 0) {
+                sizes.keySet().retainAll(items.stream().map(RepositoryAccessJournal.RepositoryJournalItem::repoUrl).collect(Collectors.toSet()));
+                for (RepositoryAccessJournal.RepositoryJournalItem i : items) {
+                    size += getSize(i);
+                }
+            }
+
+            int count = items.size();
+            for (RepositoryAccessJournal.RepositoryJournalItem i : items) {
+                boolean overCount = maxCacheEntries > 0 && count > maxCacheEntries;
+                boolean overSize = maxCacheSize > 0 && size > maxCacheSize;
+                if (!overCount && !overSize) {
+                    break;
+                }
+
+                long s = maxCacheSize > 0 ? getSize(i) : 0;
+                evict(i);
+
+                count--;
+                size -= s;
+                removed++;
+            }
+
+            totalSize = size;
+        }
+
+        try {
+            accessJournal.flush();
+        } catch (IOException e) {
+            log.warn("cleanup -> journal flush error", e);
+        }
+
+        log.info("cleanup -> {} repositories removed", removed);
+
+        if (sharedObjectsDir != null) {
+            cleanupSharedObjectStores();
+        }
+    }
+
+    private void evict(RepositoryAccessJournal.RepositoryJournalItem i) {
+        Path repoPath = withLock(lockTimeout, i.repoUrl(), () -> {
+            try {
+                Path tmpDir = null;
+
+                if (Files.exists(i.repoPath())) {
+                    tmpDir = i.repoPath().getParent().resolve(i.repoPath().getFileName() + ".tmp");
+                    Files.move(i.repoPath(), tmpDir);
+                }
+
+                accessJournal.removeRecord(i.repoUrl());
+                return tmpDir;
+            } catch (IOException e) {
+                log.warn("cleanup ['{}'] -> move error", i.repoPath(), e);
+            }
+            return null;
+        });
+
+        sizes.remove(i.repoUrl());
+        evictions.incrementAndGet();
+
+        if (repoPath != null) {
+            try {
+                IOUtils.deleteRecursively(repoPath);
+            } catch (IOException e) {
+                log.warn("cleanup ['{}'] -> delete error", i.repoPath(), e);
+            }
+        }
+    }
+
+    /**
+     * Returns the size of the cached repository. The value is recalculated
+     * only if the repository was accessed since the last calculation.
+     */
+    private long getSize(RepositoryAccessJournal.RepositoryJournalItem i) {
+        CachedSize s = sizes.get(i.repoUrl());
+        if (s != null && s.lastAccess == i.lastAccess()) {
+            return s.size;
+        }
+
+        long size = sizeOf(i.repoPath());
+        sizes.put(i.repoUrl(), new CachedSize(i.lastAccess(), size));
+        return size;
+    }
+
+    private static long sizeOf(Path p) {
+        if (Files.notExists(p)) {
+            return 0;
+        }
+
+        AtomicLong result = new AtomicLong();
+        try {
+            Files.walkFileTree(p, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    result.addAndGet(attrs.size());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
                 }
-                return null;
             });
+        } catch (IOException e) {
+            log.warn("sizeOf ['{}'] -> error", p, e);
+        }
+        return result.get();
+    }
+
+    /**
+     * Removes the shared object stores which are no longer used by any of the cached repositories.
+     */
+    private void cleanupSharedObjectStores() {
+        if (Files.notExists(sharedObjectsDir)) {
+            return;
+        }
+
+        List<Path> stores;
+        try (Stream<Path> s = Files.list(sharedObjectsDir)) {
+            stores = s.filter(Files::isDirectory).collect(Collectors.toList());
+        } catch (IOException e) {
+            log.warn("cleanupSharedObjectStores -> list error", e);
+            return;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        Set<Path> used;
+        try {
+            used = listUsedSharedObjectStores();
+        } catch (IOException e) {
+            // can't tell which stores are in use, removing any of them could break the repositories
+            log.warn("cleanupSharedObjectStores -> error while looking for used stores, skipping", e);
+            return;
+        }
+
+        int removed = 0;
+        for (Path store : stores) {
+            if (used.contains(store.toAbsolutePath().normalize())) {
+                continue;
+            }
+
+            String key = decodeUrl(store.getFileName().toString());
+            int i = key.lastIndexOf(SHARED_OBJECTS_CREDENTIALS_SEPARATOR);
+            if (i >= 0) {
+                key = key.substring(0, i);
+            }
+
+            Lock l = sharedObjectsLocks.get(key).writeLock();
+            try {
+                boolean result = withLock(lockTimeout, key, l, null, () -> {
+                    if (lastModified(store) + MTIME_PRECISION >= startedAt) {
+                        // fetched into after the list of used stores was collected, might be in use now
+                        return false;
+                    }
+
+                    IOUtils.deleteRecursively(store);
+                    return true;
+                });
+
+                if (result) {
+                    removed++;
+                }
+            } catch (Exception e) {
+                log.warn("cleanupSharedObjectStores ['{}'] -> delete error", store, e);
+            }
+        }
+
+        log.info("cleanupSharedObjectStores -> {} shared object stores removed", removed);
+    }
+
+    /**
+     * Returns the shared object stores referenced by the repositories in the cache directory.
+     * All repositories on disk are checked, not only the ones in the access journal:
+     * the journal can lag behind (e.g. after a crash) and removing a store that
+     * is still referenced corrupts the repository.
+     */
+    private Set<Path> listUsedSharedObjectStores() throws IOException {
+        Set<Path> result = new HashSet<>();
 
-            if (repoPath != null) {
+        Files.walkFileTree(cacheDir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (dir.equals(sharedObjectsDir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+
+                // the cache directory itself and the repositories' directories
+                Path p = cacheDir.relativize(dir);
+                if (p.getNameCount() <= 1) {
+                    return FileVisitResult.CONTINUE;
+                }
+
+                // skip the working trees, the alternates are in .git (including .git/modules/* of submodules)
+                if (!".git".equals(p.getName(1).toString())) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+
+                // skip loose objects and packs, only "objects/info" is of interest
+                Path parent = dir.getParent();
+                if (parent != null && "objects".equals(fileName(parent)) && !"info".equals(fileName(dir))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!isAlternatesFile(file)) {
+                    return FileVisitResult.CONTINUE;
+                }
+
+                List<String> lines;
                 try {
-                    IOUtils.deleteRecursively(repoPath);
-                } catch (IOException e) {
-                    log.warn("cleanup ['{}'] -> delete error", i.repoPath(), e);
+                    lines = Files.readAllLines(file);
+                } catch (NoSuchFileException e) {
+                    // the repository was removed while walking
+                    return FileVisitResult.CONTINUE;
                 }
+
+                for (String line : lines) {
+                    if (!line.trim().isEmpty()) {
+                        // the file contains paths to the "objects" directories of the stores
+                        result.add(Paths.get(line.trim()).toAbsolutePath().normalize().getParent());
+                    }
+                }
+
+                return FileVisitResult.CONTINUE;
             }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+                // the repository was removed while walking
+                if (e instanceof NoSuchFileException) {
+                    return FileVisitResult.CONTINUE;
+                }
+                throw e;
+            }
+        });
+
+        return result;
+    }
+
+    private static boolean isAlternatesFile(Path p) {
+        Path info = p.getParent();
+        Path objects = info != null ? info.getParent() : null;
+        return "alternates".equals(fileName(p)) && "info".equals(fileName(info)) && "objects".equals(fileName(objects));
+    }
+
+    private static String fileName(Path p) {
+        if (p == null || p.getFileName() == null) {
+            return null;
+        }
+        return p.getFileName().toString();
+    }
+
+    private static long lastModified(Path store) throws IOException {
+        long result = Files.getLastModifiedTime(store).toMillis();
+
+        // updated on each fetch
+        Path fetchHead = store.resolve("FETCH_HEAD");
+        if (Files.exists(fetchHead)) {
+            result = Math.max(result, Files.getLastModifiedTime(fetchHead).toMillis());
         }
 
-        log.info("cleanup -> {} repositories removed", oldItems.size());
+        return result;
+    }
+
+    /**
+     * Returns the key of the shared object store for the specified repository URL.
+     * The key consists of the host name and the repository path, so the same repository
+     * accessed via SSH or HTTPS shares the store. E.g. {@code git@github.com:org/repo.git}
+     * and {@code https://github.com/org/repo} both use {@code github.com/org/repo}.
+     */
+    static String sharedObjectStoreKey(String url) {
+        String s = url.trim();
+
+        int i = s.indexOf("://");
+        if (i >= 0) {
+            s = s.substring(i + 3);
+        }
+
+        // user info
+        i = s.indexOf('@');
+        int slash = s.indexOf('/');
+        if (i >= 0 && (slash < 0 || i < slash)) {
+            s = s.substring(i + 1);
+        }
+
+        // scp-like syntax, e.g. "github.com:org/repo.git"
+        s = s.replaceFirst(":(?!\\d+/)", "/");
+
+        while (s.endsWith("/")) {
+            s = s.substring(0, s.length() - 1);
+        }
+
+        if (s.toLowerCase(Locale.ROOT).endsWith(".git")) {
+            s = s.substring(0, s.length() - ".git".length());
+        }
+
+        String host = s;
+        String path = "";
+
+        i = s.indexOf('/');
+        if (i >= 0) {
+            host = s.substring(0, i);
+            path = s.substring(i);
+        }
+
+        // strip the port
+        i = host.indexOf(':');
+        if (i >= 0) {
+            host = host.substring(0, i);
+        }
+
+        // host names are case-insensitive, paths might be not
+        return host.toLowerCase(Locale.ROOT) + path;
     }
 
     public long cleanupInterval() {
+        if (maxCacheEntries > 0 || maxCacheSize > 0) {
+            if (maxCacheAge > 0) {
+                return Math.min(maxCacheAge, MAX_LIMITS_CHECK_INTERVAL);
+            }
+            return MAX_LIMITS_CHECK_INTERVAL;
+        }
         return maxCacheAge;
     }
 
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * @return the total size of the cached repositories as of the last cleanup
+     * or {@code 0} if the size limit is not set.
+     */
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    public int getEntryCount() {
+        return accessJournal != null ? accessJournal.list().size() : 0;
+    }
+
+    private boolean isCleanupEnabled() {
+        return maxCacheAge > 0 || maxCacheSize > 0 || maxCacheEntries > 0;
+    }
+
+    private static String decodeUrl(String s) {
+        try {
+            return URLDecoder.decode(s, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new RepositoryException("Url decoding error", e);
+        }
+    }
+
     private static String encodeUrl(String url) {
         String encodedUrl;
         try {
@@ -152,4 +727,15 @@ public class RepositoryCache {
 
         return encodedUrl;
     }
+
+    private static final class CachedSize {
+
+        private final long lastAccess;
+        private final long size;
+
+        private CachedSize(long lastAccess, long size) {
+            this.lastAccess = lastAccess;
+            this.size = size;
+        }
+    }
 }
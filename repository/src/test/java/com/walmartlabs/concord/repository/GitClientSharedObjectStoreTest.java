@@ -0,0 +1,103 @@
+package com.walmartlabs.concord.repository;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.common.IOUtils;
+import com.walmartlabs.concord.common.TemporaryPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GitClientSharedObjectStoreTest {
+
+    private GitClient client;
+
+    @BeforeEach
+    public void init() {
+        client = new GitClient(GitClientConfiguration.builder()
+                .sshTimeout(Duration.ofMinutes(10))
+                .sshTimeoutRetryCount(1)
+                .httpLowSpeedLimit(1)
+                .httpLowSpeedTime(Duration.ofMinutes(10))
+                .build());
+    }
+
+    @Test
+    public void testSharedObjects() throws Exception {
+        Path repo = GitUtils.createBareRepository(resourceToPath("/master"));
+        GitUtils.createNewTag(repo, "tag-1", resourceToPath("/tag-1"));
+
+        try (TemporaryPath store = IOUtils.tempDir("git-client-test");
+             TemporaryPath a = IOUtils.tempDir("git-client-test");
+             TemporaryPath b = IOUtils.tempDir("git-client-test")) {
+
+            // the same repository using different URLs
+            fetch(repo.toString(), "master", a.path(), store.path());
+            fetch("file://" + repo, "master", b.path(), store.path());
+
+            assertContent(a.path(), "master.txt", "master");
+            assertContent(b.path(), "master.txt", "master");
+
+            assertTrue(Files.exists(b.path().resolve(".git/objects/info/alternates")));
+            assertEquals(0, countObjects(a.path().resolve(".git/objects")));
+            assertEquals(0, countObjects(b.path().resolve(".git/objects")));
+            assertNotEquals(0, countObjects(store.path().resolve("objects")));
+
+            // tags can be used as versions
+            fetch(repo.toString(), "tag-1", a.path(), store.path());
+            assertContent(a.path(), "tag-1.txt", "tag-1");
+        }
+    }
+
+    private void fetch(String repoUri, String branchOrTag, Path dest, Path store) {
+        client.fetch(FetchRequest.builder()
+                .url(repoUri)
+                .version(FetchRequest.Version.from(branchOrTag))
+                .destination(dest)
+                .shallow(false)
+                .sharedObjectStore(store)
+                .build());
+    }
+
+    private static long countObjects(Path objectsDir) throws IOException {
+        try (Stream<Path> s = Files.walk(objectsDir)) {
+            return s.filter(Files::isRegularFile)
+                    .filter(p -> !p.startsWith(objectsDir.resolve("info")))
+                    .count();
+        }
+    }
+
+    private static void assertContent(Path repoPath, String path, String expectedContent) throws IOException {
+        assertEquals(expectedContent, new String(Files.readAllBytes(repoPath.resolve(path))).trim());
+    }
+
+    private static Path resourceToPath(String resource) throws Exception {
+        return Paths.get(GitClientSharedObjectStoreTest.class.getResource(resource).toURI());
+    }
+}
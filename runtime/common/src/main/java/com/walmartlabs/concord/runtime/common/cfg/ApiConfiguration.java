@@ -92,6 +92,15 @@ public interface ApiConfiguration {
         return TimeUnit.MINUTES.toMillis(5);
     }
 
+    /**
+     * If {@code true} the process' heartbeat is sent by the agent
+     * and the runner doesn't need to send its own heartbeat requests.
+     */
+    @Value.Default
+    default boolean agentHeartbeat() {
+        return false;
+    }
+
     static ImmutableApiConfiguration.Builder builder() {
         return ImmutableApiConfiguration.builder();
     }
@@ -43,6 +43,31 @@ public final class InjectorUtils {
         return new SubClassesOf(baseClass);
     }
 
+    /**
+     * Returns the task name of the specified class or {@code null}
+     * if the class can't be used as a task.
+     */
+    public static String getTaskName(Class<?> klass) {
+        Named n = klass.getAnnotation(Named.class);
+        if (n == null) {
+            log.warn("Ignoring task class without @Named: {}", klass);
+            return null;
+        }
+
+        if (ReflectionUtils.findAnnotation(klass, Singleton.class) != null) {
+            log.warn("Ignoring task class with @Singleton: {}", klass);
+            return null;
+        }
+
+        String key = n.value();
+        if ("".equals(key)) {
+            log.warn("Task class with an empty @Named value: {}", klass);
+            return null;
+        }
+
+        return key;
+    }
+
     private static class TaskClassesListener<T> implements TypeListener {
 
         private final TaskHolder<T> holder;
@@ -56,20 +81,8 @@ public final class InjectorUtils {
         public <I> void hear(TypeLiteral<I> typeLiteral, TypeEncounter<I> typeEncounter) {
             Class<T> klass = (Class<T>) typeLiteral.getRawType();
 
-            Named n = klass.getAnnotation(Named.class);
-            if (n == null) {
-                log.warn("Ignoring task class without @Named: {}", klass);
-                return;
-            }
-
-            if (ReflectionUtils.findAnnotation(klass, Singleton.class) != null) {
-                log.warn("Ignoring task class with @Singleton: {}", klass);
-                return;
-            }
-
-            String key = n.value();
-            if ("".equals(key)) {
-                log.warn("Task class with an empty @Named value: {}", klass);
+            String key = getTaskName(klass);
+            if (key == null) {
                 return;
             }
 
@@ -23,31 +23,104 @@ package com.walmartlabs.concord.runtime.common.injector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 public class TaskHolder<T> {
 
     private static final Logger log = LoggerFactory.getLogger(TaskHolder.class);
 
-    private final Map<String, Class<T>> classes = new HashMap<>();
+    private final Map<String, Class<T>> classes = new ConcurrentHashMap<>();
+    private final Map<String, LazyClass<T>> lazyClasses = new ConcurrentHashMap<>();
 
     public void add(String key, Class<T> value) {
         log.debug("Registering {} as '{}'...", value, key);
-        Class<T> old = classes.put(key, value);
-        if (old != null) {
-            throw new IllegalStateException("Non-unique task name: " + key + ". " +
-                    "Another task with the same name: old: " + old.getName() + ", new: " + value.getName());
+
+        LazyClass<T> lazy = lazyClasses.get(key);
+        if (lazy != null && !lazy.className.equals(value.getName())) {
+            throw nonUnique(key, lazy.className, value.getName());
+        }
+
+        Class<T> old = classes.putIfAbsent(key, value);
+        if (old != null && old != value) {
+            throw nonUnique(key, old.getName(), value.getName());
+        }
+    }
+
+    /**
+     * Registers a task class that is loaded on first use.
+     *
+     * @param loader returns the task class or {@code null} if the class is not a valid task
+     */
+    public void addLazy(String key, String className, Supplier<Class<T>> loader) {
+        log.debug("Registering {} as '{}' (lazy)...", className, key);
+
+        Class<T> existing = classes.get(key);
+        if (existing != null && !existing.getName().equals(className)) {
+            throw nonUnique(key, existing.getName(), className);
+        }
+
+        LazyClass<T> old = lazyClasses.putIfAbsent(key, new LazyClass<>(className, loader));
+        if (old != null && !old.className.equals(className)) {
+            throw nonUnique(key, old.className, className);
         }
     }
 
     public Class<T> get(String key) {
-        return classes.get(key);
+        Class<T> result = classes.get(key);
+        if (result != null) {
+            return result;
+        }
+
+        LazyClass<T> lazy = lazyClasses.get(key);
+        if (lazy == null) {
+            return null;
+        }
+
+        result = lazy.get();
+        if (result == null) {
+            return null;
+        }
+
+        Class<T> old = classes.putIfAbsent(key, result);
+        return old != null ? old : result;
     }
 
     public Set<String> keys() {
-        return Collections.unmodifiableSet(classes.keySet());
+        Set<String> result = new HashSet<>(classes.keySet());
+        result.addAll(lazyClasses.keySet());
+        return Collections.unmodifiableSet(result);
+    }
+
+    private static IllegalStateException nonUnique(String key, String oldClassName, String newClassName) {
+        return new IllegalStateException("Non-unique task name: " + key + ". " +
+                "Another task with the same name: old: " + oldClassName + ", new: " + newClassName);
+    }
+
+    private static final class LazyClass<T> {
+
+        private final String className;
+        private final Supplier<Class<T>> loader;
+
+        private volatile boolean loaded;
+        private volatile Class<T> value;
+
+        private LazyClass(String className, Supplier<Class<T>> loader) {
+            this.className = className;
+            this.loader = loader;
+        }
+
+        private Class<T> get() {
+            if (!loaded) {
+                synchronized (this) {
+                    if (!loaded) {
+                        value = loader.get();
+                        loaded = true;
+                    }
+                }
+            }
+            return value;
+        }
     }
 }
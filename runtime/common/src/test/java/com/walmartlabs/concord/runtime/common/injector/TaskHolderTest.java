@@ -0,0 +1,94 @@
+package com.walmartlabs.concord.runtime.common.injector;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskHolderTest {
+
+    @Test
+    public void testLazy() {
+        TaskHolder<Object> holder = new TaskHolder<>();
+        holder.add("a", cast(String.class));
+
+        AtomicInteger calls = new AtomicInteger();
+        holder.addLazy("b", Integer.class.getName(), () -> {
+            calls.incrementAndGet();
+            return cast(Integer.class);
+        });
+
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), holder.keys());
+
+        // the class is loaded on first use only
+        assertEquals(0, calls.get());
+        assertEquals(Integer.class, holder.get("b"));
+        assertEquals(Integer.class, holder.get("b"));
+        assertEquals(1, calls.get());
+
+        assertNull(holder.get("c"));
+    }
+
+    @Test
+    public void testLazyInvalidClass() {
+        TaskHolder<Object> holder = new TaskHolder<>();
+
+        AtomicInteger calls = new AtomicInteger();
+        holder.addLazy("a", "com.example.Missing", () -> {
+            calls.incrementAndGet();
+            return null;
+        });
+
+        assertNull(holder.get("a"));
+        assertNull(holder.get("a"));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testDuplicateNames() {
+        TaskHolder<Object> holder = new TaskHolder<>();
+        holder.add("a", cast(String.class));
+        holder.addLazy("b", Integer.class.getName(), () -> cast(Integer.class));
+
+        // the same task found by scanning and in the index
+        holder.add("a", cast(String.class));
+        holder.addLazy("a", String.class.getName(), () -> cast(String.class));
+        holder.add("b", cast(Integer.class));
+        holder.addLazy("b", Integer.class.getName(), () -> cast(Integer.class));
+        assertEquals(Integer.class, holder.get("b"));
+
+        // different tasks with the same name
+        assertThrows(IllegalStateException.class, () -> holder.add("a", cast(Long.class)));
+        assertThrows(IllegalStateException.class, () -> holder.add("b", cast(Long.class)));
+        assertThrows(IllegalStateException.class, () -> holder.addLazy("a", Long.class.getName(), () -> cast(Long.class)));
+        assertThrows(IllegalStateException.class, () -> holder.addLazy("b", Long.class.getName(), () -> cast(Long.class)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<Object> cast(Class<?> klass) {
+        return (Class<Object>) klass;
+    }
+}
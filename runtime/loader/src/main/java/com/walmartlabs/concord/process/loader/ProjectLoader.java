@@ -29,12 +29,14 @@ import com.walmartlabs.concord.process.loader.model.ProcessDefinition;
 import com.walmartlabs.concord.process.loader.v1.ProcessDefinitionV1;
 import com.walmartlabs.concord.process.loader.v2.ProcessDefinitionV2;
 import com.walmartlabs.concord.repository.Snapshot;
+import com.walmartlabs.concord.runtime.v2.ParsedDefinitionCache;
 import com.walmartlabs.concord.sdk.Constants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.inject.Singleton;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
@@ -45,26 +47,37 @@ import java.util.List;
  * Handles loading of v1 and (future) v2 project definitions.
  */
 @Named
+@Singleton
 public class ProjectLoader {
 
     private static final Logger log = LoggerFactory.getLogger(ProjectLoader.class);
 
+    public static final String RUNTIME_V1 = "concord-v1";
+    public static final String RUNTIME_V2 = "concord-v2";
+
+    /**
+     * Max number of parsed v2 files kept in memory. Unchanged files are
+     * re-used between loads of the same or different repositories.
+     */
+    private static final int PARSED_DEFINITION_CACHE_MAX_ENTRIES = 1000;
+
     private final com.walmartlabs.concord.project.ProjectLoader v1;
     private final com.walmartlabs.concord.runtime.v2.ProjectLoaderV2 v2;
 
     @Inject
     public ProjectLoader(ImportManager importManager) {
         this.v1 = new com.walmartlabs.concord.project.ProjectLoader(importManager);
-        this.v2 = new com.walmartlabs.concord.runtime.v2.ProjectLoaderV2(importManager);
+        this.v2 = new com.walmartlabs.concord.runtime.v2.ProjectLoaderV2(importManager,
+                new ParsedDefinitionCache(PARSED_DEFINITION_CACHE_MAX_ENTRIES));
     }
 
     public Result loadProject(Path workDir, ImportsNormalizer importsNormalizer, ImportsListener listener) throws Exception {
-        String runtime = getRuntimeType(workDir, "concord-v1"); // TODO constants
+        String runtime = getRuntimeType(workDir, RUNTIME_V1);
         return loadProject(workDir, runtime, importsNormalizer, listener);
     }
 
     public Result loadProject(Path workDir, String runtime, ImportsNormalizer importsNormalizer, ImportsListener listener) throws Exception {
-        if ("concord-v2".equals(runtime)) { // TODO constants
+        if (RUNTIME_V2.equals(runtime)) {
             return toResult(v2.load(workDir, importsNormalizer::normalize, listener));
         }
 
@@ -21,6 +21,7 @@ package com.walmartlabs.concord.process.loader.v1;
  */
 
 import com.walmartlabs.concord.imports.Imports;
+import com.walmartlabs.concord.process.loader.ProjectLoader;
 import com.walmartlabs.concord.process.loader.model.*;
 import io.takari.bpm.model.form.FormDefinition;
 
@@ -79,7 +80,7 @@ public class ProcessDefinitionV1 extends EffectiveProcessDefinitionProviderV1 im
 
     @Override
     public String runtime() {
-        return "concord-v1"; // TODO constants
+        return ProjectLoader.RUNTIME_V1;
     }
 
     @Override
@@ -21,6 +21,7 @@ package com.walmartlabs.concord.process.loader.v2;
  */
 
 import com.walmartlabs.concord.imports.Imports;
+import com.walmartlabs.concord.process.loader.ProjectLoader;
 import com.walmartlabs.concord.process.loader.model.*;
 
 import java.io.Serializable;
@@ -76,7 +77,7 @@ public class ProcessDefinitionV2 extends EffectiveProcessDefinitionProviderV2 im
 
     @Override
     public String runtime() {
-        return "concord-v2";
+        return ProjectLoader.RUNTIME_V2;
     }
 
     @Override
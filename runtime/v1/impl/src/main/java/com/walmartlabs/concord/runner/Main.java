@@ -128,8 +128,10 @@ public class Main {
                 .txId(instanceId)
                 .build());
 
-        ProcessHeartbeat heartbeat = new ProcessHeartbeat(apiClient, instanceId, runnerCfg.api().maxNoHeartbeatInterval());
-        heartbeat.start();
+        if (!runnerCfg.api().agentHeartbeat()) {
+            ProcessHeartbeat heartbeat = new ProcessHeartbeat(apiClient, instanceId, runnerCfg.api().maxNoHeartbeatInterval());
+            heartbeat.start();
+        }
 
         ProcessApiClient processApiClient = new ProcessApiClient(runnerCfg, apiClient);
 
@@ -0,0 +1,82 @@
+package com.walmartlabs.concord.runtime.v2;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.runtime.v2.model.ProcessDefinition;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of parsed {@link ProcessDefinition} fragments.
+ * The entries are keyed by the file's relative path and the hash of its content,
+ * so the cache can be shared between multiple working directories.
+ */
+public class ParsedDefinitionCache {
+
+    private final Map<String, ProcessDefinition> entries;
+
+    public ParsedDefinitionCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be greater than zero");
+        }
+
+        this.entries = new LinkedHashMap<String, ProcessDefinition>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ProcessDefinition> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized ProcessDefinition get(String key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(String key, ProcessDefinition pd) {
+        entries.put(key, pd);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public static String key(String fileName, byte[] content) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+
+        md.update(fileName.getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+        md.update(content);
+        return Base64.getEncoder().encodeToString(md.digest());
+    }
+}
@@ -32,24 +32,53 @@ import com.walmartlabs.concord.runtime.v2.parser.YamlParserV2;
 import com.walmartlabs.concord.sdk.Constants;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 public class ProjectLoaderV2 {
 
+    /**
+     * The parser is thread-safe and relatively expensive to create,
+     * so it is shared between all loader instances.
+     */
+    private static final YamlParserV2 parser = new YamlParserV2();
+
+    /**
+     * Fewer files are parsed sequentially, it's not worth the overhead.
+     */
+    private static final int PARALLEL_PARSE_THRESHOLD = 4;
+    private static final int PARSER_THREADS = 4;
+    private static final int PARSER_QUEUE_SIZE = 256;
+
+    // parsing involves blocking file reads, so it doesn't use the common ForkJoinPool
+    private static final ExecutorService PARSER_EXECUTOR = createParserExecutor();
+
     private final ImportManager importManager;
+    private final ParsedDefinitionCache cache;
 
     public ProjectLoaderV2(ImportManager importManager) {
+        this(importManager, null);
+    }
+
+    /**
+     * @param cache optional cache of parsed files, can be {@code null}
+     */
+    public ProjectLoaderV2(ImportManager importManager, ParsedDefinitionCache cache) {
         this.importManager = importManager;
+        this.cache = cache;
     }
 
     public Result load(Path baseDir, ImportsNormalizer importsNormalizer, ImportsListener listener) throws Exception {
-        YamlParserV2 parser = new YamlParserV2();
-
         // load the initial ProcessDefinition from the root concord.yml file
         // it will be used to determine whether we need to load other resources (e.g. imports)
-        ProcessDefinition root = loadRoot(parser, baseDir);
+        ProcessDefinition root = loadRoot(baseDir);
 
         List<Snapshot> snapshots = Collections.emptyList();
         if (root != null) {
@@ -60,10 +89,7 @@ public class ProjectLoaderV2 {
         List<Path> files = loadResources(baseDir, root != null ? root.resources() : Resources.builder().build());
         Collections.sort(files);
 
-        List<ProcessDefinition> definitions = new ArrayList<>();
-        for (Path p : files) {
-            definitions.add(parser.parse(baseDir, p));
-        }
+        List<ProcessDefinition> definitions = parseAll(baseDir, files);
 
         if (root != null) {
             definitions.add(root);
@@ -77,9 +103,7 @@ public class ProjectLoaderV2 {
     }
 
     public void export(Path baseDir, Path destDir, ImportsNormalizer importsNormalizer, ImportsListener listener, CopyOption... options) throws Exception {
-        YamlParserV2 parser = new YamlParserV2();
-
-        ProcessDefinition root = loadRoot(parser, baseDir);
+        ProcessDefinition root = loadRoot(baseDir);
 
         Resources resources = root != null ? root.resources() : Resources.builder().build();
         boolean hasImports = root != null && root.imports() != null && !root.imports().isEmpty();
@@ -104,19 +128,17 @@ public class ProjectLoaderV2 {
         }
     }
 
-    private ProcessDefinition loadRoot(YamlParserV2 parser, Path baseDir) throws IOException {
+    private ProcessDefinition loadRoot(Path baseDir) throws IOException {
         for (String fileName : Constants.Files.PROJECT_ROOT_FILE_NAMES) {
             Path p = baseDir.resolve(fileName);
             if (Files.exists(p)) {
-                return parser.parse(baseDir, p);
+                return parse(baseDir, p);
             }
         }
         return null;
     }
 
     public Result loadFromFile(Path path) throws IOException {
-        YamlParserV2 parser = new YamlParserV2();
-
         if (Files.notExists(path)) {
             throw new IllegalStateException("Can't find Concord process definition file: " + path);
         }
@@ -124,14 +146,127 @@ public class ProjectLoaderV2 {
         return new Result(Collections.emptyList(), parser.parse(path.getParent(), path));
     }
 
+    /**
+     * Calculates the hash of the process definition files in the specified
+     * directory: the root files and the files matching the specified resources.
+     * Can be used to check whether a previously loaded definition is still
+     * up-to-date without parsing the files again.
+     */
+    public static String hash(Path baseDir, Resources resources) throws IOException {
+        List<Path> files = loadResources(baseDir, resources);
+        for (String fileName : Constants.Files.PROJECT_ROOT_FILE_NAMES) {
+            Path p = baseDir.resolve(fileName);
+            if (Files.exists(p) && !files.contains(p)) {
+                files.add(p);
+            }
+        }
+        Collections.sort(files);
+
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+
+        for (Path p : files) {
+            if (!Files.isRegularFile(p)) {
+                continue;
+            }
+
+            md.update(baseDir.relativize(p).toString().getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+            md.update(Files.readAllBytes(p));
+            md.update((byte) 0);
+        }
+
+        return Base64.getEncoder().encodeToString(md.digest());
+    }
+
+    /**
+     * Parses the files, in parallel if there are enough of them. The result
+     * (and the reported error, if any) follows the order of the specified files.
+     */
+    private List<ProcessDefinition> parseAll(Path baseDir, List<Path> files) throws IOException {
+        List<ProcessDefinition> result = new ArrayList<>(files.size());
+
+        if (files.size() < PARALLEL_PARSE_THRESHOLD) {
+            for (Path f : files) {
+                result.add(parse(baseDir, f));
+            }
+            return result;
+        }
+
+        List<Future<ProcessDefinition>> futures = new ArrayList<>(files.size());
+        for (Path f : files) {
+            futures.add(PARSER_EXECUTOR.submit(() -> parse(baseDir, f)));
+        }
+
+        try {
+            for (Future<ProcessDefinition> f : futures) {
+                result.add(f.get());
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while parsing the process definition files");
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+        }
+
+        return result;
+    }
+
+    private static ExecutorService createParserExecutor() {
+        int threads = Math.min(PARSER_THREADS, Runtime.getRuntime().availableProcessors());
+        AtomicInteger counter = new AtomicInteger();
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(PARSER_QUEUE_SIZE),
+                r -> {
+                    Thread t = new Thread(r, "concord-yaml-parser-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                // parse in the caller's thread when the queue is full
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private ProcessDefinition parse(Path baseDir, Path file) throws IOException {
+        if (cache == null) {
+            return parser.parse(baseDir, file);
+        }
+
+        byte[] content = Files.readAllBytes(file);
+        String key = ParsedDefinitionCache.key(baseDir.relativize(file).toString(), content);
+
+        ProcessDefinition pd = cache.get(key);
+        if (pd == null) {
+            pd = parser.parse(baseDir, file, content);
+            cache.put(key, pd);
+        }
+        return pd;
+    }
+
     private static List<Path> loadResources(Path baseDir, Resources resources) throws IOException {
-        List<Path> result = new ArrayList<>();
+        Set<Path> result = new LinkedHashSet<>();
+
+        List<PathMatcher> matchers = new ArrayList<>();
         for (String pattern : resources.concord()) {
             PathMatcher pathMatcher = parsePattern(baseDir, pattern);
             if (pathMatcher != null) {
-                try (Stream<Path> w = Files.walk(baseDir)) {
-                    w.filter(pathMatcher::matches).forEach(result::add);
-                }
+                matchers.add(pathMatcher);
             } else {
                 Path path = Paths.get(concat(baseDir, pattern.trim()));
                 if (Files.exists(path)) {
@@ -139,7 +274,24 @@ public class ProjectLoaderV2 {
                 }
             }
         }
-        return result;
+
+        // walk the directory only once for all patterns
+        if (!matchers.isEmpty()) {
+            try (Stream<Path> w = Files.walk(baseDir)) {
+                w.filter(p -> matches(matchers, p)).forEach(result::add);
+            }
+        }
+
+        return new ArrayList<>(result);
+    }
+
+    private static boolean matches(List<PathMatcher> matchers, Path p) {
+        for (PathMatcher m : matchers) {
+            if (m.matches(p)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private static PathMatcher parsePattern(Path baseDir, String pattern) {
@@ -40,6 +40,7 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
 public class YamlParserV2 {
@@ -61,11 +62,25 @@ public class YamlParserV2 {
         this.objectMapper = om;
     }
 
+    /**
+     * Parses the specified file. The parser is thread-safe and can be shared
+     * between multiple threads.
+     */
     public ProcessDefinition parse(Path baseDir, Path file) throws IOException {
+        return parse(baseDir, file, () -> objectMapper.readValue(file.toFile(), ProcessDefinition.class));
+    }
+
+    /**
+     * Parses the specified file using already loaded content.
+     */
+    public ProcessDefinition parse(Path baseDir, Path file, byte[] content) throws IOException {
+        return parse(baseDir, file, () -> objectMapper.readValue(content, ProcessDefinition.class));
+    }
+
+    private static ProcessDefinition parse(Path baseDir, Path file, Callable<ProcessDefinition> reader) throws IOException {
         String fileName = baseDir.relativize(file).toString();
         try {
-            return ThreadLocalFileName.withFileName(fileName,
-                    () -> objectMapper.readValue(file.toFile(), ProcessDefinition.class));
+            return ThreadLocalFileName.withFileName(fileName, reader);
         } catch (YamlProcessingException e) {
             throw new YamlParserException(buildErrorMessage(fileName, e));
         } catch (Exception e) {
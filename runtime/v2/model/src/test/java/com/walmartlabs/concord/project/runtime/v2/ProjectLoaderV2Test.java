@@ -24,20 +24,27 @@ import com.walmartlabs.concord.imports.Import;
 import com.walmartlabs.concord.imports.ImportManager;
 import com.walmartlabs.concord.imports.ImportsListener;
 import com.walmartlabs.concord.runtime.v2.NoopImportsNormalizer;
+import com.walmartlabs.concord.runtime.v2.ParsedDefinitionCache;
 import com.walmartlabs.concord.runtime.v2.ProjectLoaderV2;
 import com.walmartlabs.concord.runtime.v2.model.Checkpoint;
 import com.walmartlabs.concord.runtime.v2.model.EventConfiguration;
 import com.walmartlabs.concord.runtime.v2.model.ProcessDefinition;
 import com.walmartlabs.concord.runtime.v2.model.ProcessDefinitionConfiguration;
+import com.walmartlabs.concord.runtime.v2.model.Resources;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
@@ -141,4 +148,79 @@ public class ProjectLoaderV2Test {
         // resources: should be collected from ALL *.concord.yml
         assertEquals(Arrays.asList("glob:concord/{**/,}{*.,}concord.{yml,yaml}", "glob:tmp/1.yml"), pd.resources().concord());
     }
+
+    @Test
+    public void testParsedDefinitionCache() throws Exception {
+        ParsedDefinitionCache cache = new ParsedDefinitionCache(10);
+        ProjectLoaderV2 loader = new ProjectLoaderV2(mock(ImportManager.class), cache);
+
+        URI uri = ClassLoader.getSystemResource("multiProjectFile").toURI();
+        ProcessDefinition first = loader.load(Paths.get(uri), new NoopImportsNormalizer(), ImportsListener.NOP_LISTENER).getProjectDefinition();
+
+        // the root concord.yml and all concord/*.concord.yml files
+        assertEquals(4, cache.size());
+
+        ProcessDefinition second = loader.load(Paths.get(uri), new NoopImportsNormalizer(), ImportsListener.NOP_LISTENER).getProjectDefinition();
+        assertEquals(4, cache.size());
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void testMergeOrder(@TempDir Path tmpDir) throws Exception {
+        Files.write(tmpDir.resolve("concord.yml"), "flows:\n  default:\n    - log: \"root\"\n".getBytes());
+        Files.createDirectories(tmpDir.resolve("concord"));
+        for (int i = 0; i < 20; i++) {
+            String name = String.format("%02d.concord.yml", i);
+            Files.write(tmpDir.resolve("concord").resolve(name), ("configuration:\n" +
+                    "  arguments:\n" +
+                    "    last: \"" + name + "\"\n" +
+                    "imports:\n" +
+                    "  - git:\n" +
+                    "      url: \"" + name + "\"\n").getBytes());
+        }
+
+        ProjectLoaderV2 loader = new ProjectLoaderV2(mock(ImportManager.class));
+        for (int attempt = 0; attempt < 10; attempt++) {
+            ProcessDefinition pd = loader.load(tmpDir, new NoopImportsNormalizer(), ImportsListener.NOP_LISTENER).getProjectDefinition();
+
+            // the files are merged in the sorted order regardless of how they were parsed
+            assertEquals("19.concord.yml", pd.configuration().arguments().get("last"));
+            assertEquals(IntStream.range(0, 20).mapToObj(i -> String.format("%02d.concord.yml", i)).collect(Collectors.toList()),
+                    pd.imports().items().stream().map(i -> ((Import.GitDefinition) i).url()).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testFirstError(@TempDir Path tmpDir) throws Exception {
+        Files.write(tmpDir.resolve("concord.yml"), "flows:\n  default:\n    - log: \"root\"\n".getBytes());
+        Files.createDirectories(tmpDir.resolve("concord"));
+        for (int i = 0; i < 20; i++) {
+            String name = String.format("%02d.concord.yml", i);
+            String content = i == 5 || i == 12 ? "flows: [\n" : "flows:\n  f" + i + ":\n    - log: \"" + name + "\"\n";
+            Files.write(tmpDir.resolve("concord").resolve(name), content.getBytes());
+        }
+
+        ProjectLoaderV2 loader = new ProjectLoaderV2(mock(ImportManager.class));
+        for (int attempt = 0; attempt < 10; attempt++) {
+            Exception e = assertThrows(Exception.class, () -> loader.load(tmpDir, new NoopImportsNormalizer(), ImportsListener.NOP_LISTENER));
+
+            // the error of the first invalid file (in the sorted order) is reported
+            assertTrue(e.getMessage().contains("05.concord.yml"), e.getMessage());
+            assertFalse(e.getMessage().contains("12.concord.yml"), e.getMessage());
+        }
+    }
+
+    @Test
+    public void testHash(@TempDir Path tmpDir) throws Exception {
+        Files.write(tmpDir.resolve("concord.yml"), "flows:\n  default:\n    - log: \"a\"\n".getBytes());
+        Files.createDirectories(tmpDir.resolve("concord"));
+        Files.write(tmpDir.resolve("concord/my.concord.yml"), "flows:\n  myFlow:\n    - log: \"b\"\n".getBytes());
+
+        Resources resources = Resources.builder().build();
+        String hash = ProjectLoaderV2.hash(tmpDir, resources);
+        assertEquals(hash, ProjectLoaderV2.hash(tmpDir, resources));
+
+        Files.write(tmpDir.resolve("concord/my.concord.yml"), "\n".getBytes(), StandardOpenOption.APPEND);
+        assertNotEquals(hash, ProjectLoaderV2.hash(tmpDir, resources));
+    }
 }
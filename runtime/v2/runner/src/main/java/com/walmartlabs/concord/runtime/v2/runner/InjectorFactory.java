@@ -21,10 +21,13 @@ package com.walmartlabs.concord.runtime.v2.runner;
  */
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Binding;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
+import com.google.inject.Key;
 import com.google.inject.Module;
 import com.google.inject.TypeLiteral;
+import com.google.inject.name.Names;
 import com.walmartlabs.concord.runtime.common.cfg.RunnerConfiguration;
 import com.walmartlabs.concord.runtime.common.injector.InjectorUtils;
 import com.walmartlabs.concord.runtime.common.injector.InstanceId;
@@ -32,6 +35,7 @@ import com.walmartlabs.concord.runtime.common.injector.TaskHolder;
 import com.walmartlabs.concord.runtime.v2.runner.guice.CurrentClasspathModule;
 import com.walmartlabs.concord.runtime.v2.runner.guice.DefaultRunnerModule;
 import com.walmartlabs.concord.runtime.v2.runner.guice.ProcessDependenciesModule;
+import com.walmartlabs.concord.runtime.v2.runner.tasks.TaskIndex;
 import com.walmartlabs.concord.runtime.v2.runner.tasks.V2;
 import com.walmartlabs.concord.runtime.v2.sdk.ProcessConfiguration;
 import com.walmartlabs.concord.runtime.v2.sdk.Task;
@@ -85,10 +89,10 @@ public class InjectorFactory {
         l.add(new ConfigurationModule(workDir, runnerCfg, processConfigurationProvider));
         l.add(new CurrentClasspathModule());
 
+        TaskHolder<Task> holder = new TaskHolder<>();
         com.google.inject.Module tasks = new AbstractModule() {
             @Override
             protected void configure() {
-                TaskHolder<Task> holder = new TaskHolder<>();
                 bindListener(InjectorUtils.subClassesOf(Task.class), InjectorUtils.taskClassesListener(holder));
 
                 bind(new TypeLiteral<TaskHolder<Task>>() {
@@ -102,7 +106,22 @@ public class InjectorFactory {
         }
 
         com.google.inject.Module m = new WireModule(l);
-        return Guice.createInjector(m);
+        Injector injector = Guice.createInjector(m);
+
+        // tasks found in the build-time indexes are excluded from scanning (see TaskIndex),
+        // register them here, the classes are loaded and bound on first use
+        ClassLoader cl = getRuntimeClassLoader(injector);
+        TaskIndex.load(cl).register(holder, cl);
+
+        return injector;
+    }
+
+    private static ClassLoader getRuntimeClassLoader(Injector injector) {
+        Binding<ClassLoader> b = injector.getExistingBinding(Key.get(ClassLoader.class, Names.named("runtime")));
+        if (b != null) {
+            return b.getProvider().get();
+        }
+        return InjectorFactory.class.getClassLoader();
     }
 
     private static class ConfigurationModule extends AbstractModule {
@@ -50,6 +50,7 @@ import javax.inject.Named;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.lang.management.ManagementFactory;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -89,13 +90,21 @@ public class Main {
         // create the inject with all dependencies and services available before
         // the actual process' working directory is ready. It allows us to load
         // all dependencies and have them available in "pre-fork" situations
+        long t1 = System.currentTimeMillis();
         Injector injector = InjectorFactory.createDefault(runnerCfg);
+        long injectorTime = System.currentTimeMillis() - t1;
 
         try {
             ProcessConfiguration processCfg = injector.getInstance(ProcessConfiguration.class);
+            if (processCfg.debug()) {
+                log.info("Runner startup time: {}ms (injector: {}ms)", ManagementFactory.getRuntimeMXBean().getUptime(), injectorTime);
+            }
+
             ApiClient apiClient = injector.getInstance(ApiClient.class);
-            ProcessHeartbeat heartbeat = new ProcessHeartbeat(apiClient, processCfg.instanceId(), runnerCfg.api().maxNoHeartbeatInterval());
-            heartbeat.start();
+            if (!runnerCfg.api().agentHeartbeat()) {
+                ProcessHeartbeat heartbeat = new ProcessHeartbeat(apiClient, processCfg.instanceId(), runnerCfg.api().maxNoHeartbeatInterval());
+                heartbeat.start();
+            }
 
             Main main = injector.getInstance(Main.class);
             main.execute();
@@ -153,7 +162,8 @@ public class Main {
                 }
                 processArgs.putAll(prepareProcessArgs(processCfg));
 
-                snapshot = start(runner, processCfg, workDir, processArgs);
+                ProcessDefinition processDefinition = loadProcessDefinition(workDir, snapshot);
+                snapshot = start(runner, processCfg, processDefinition, processArgs);
                 break;
             }
             case RESUME: {
@@ -168,6 +178,13 @@ public class Main {
         }
 
         if (isSuspended(snapshot)) {
+            // save the definition's hash, so the next process started with this state (e.g. onCancel)
+            // can re-use the definition instead of loading it again
+            snapshot = ProcessSnapshot.builder().from(snapshot)
+                    .runtimeVersion(Version.getCurrent().getVersion())
+                    .definitionHash(ProjectLoaderV2.hash(workDir, snapshot.processDefinition().resources()))
+                    .build();
+
             StateManager.finalizeSuspendedState(workDir, snapshot, getEvents(snapshot)); // TODO make it an interface?
         } else {
             StateManager.cleanupState(workDir); // TODO make it an interface
@@ -204,11 +221,29 @@ public class Main {
         }
     }
 
-    private static ProcessSnapshot start(Runner runner, ProcessConfiguration cfg, Path workDir, Map<String, Object> args) throws Exception {
+    /**
+     * Returns the process definition saved in the snapshot if it was created by the same
+     * version of the runtime and the definition files are unchanged. Otherwise loads
+     * the definition from the working directory.
+     */
+    private ProcessDefinition loadProcessDefinition(Path workDir, ProcessSnapshot snapshot) throws Exception {
+        if (snapshot != null && snapshot.definitionHash() != null
+                && Version.getCurrent().getVersion().equals(snapshot.runtimeVersion())
+                && snapshot.definitionHash().equals(ProjectLoaderV2.hash(workDir, snapshot.processDefinition().resources()))) {
+
+            if (processCfg.debug()) {
+                log.info("Using the process definition from the saved state");
+            }
+
+            return snapshot.processDefinition();
+        }
+
         // assume all imports were processed by the agent
         ProjectLoaderV2 loader = new ProjectLoaderV2(new NoopImportManager());
-        ProcessDefinition processDefinition = loader.load(workDir, new NoopImportsNormalizer(), ImportsListener.NOP_LISTENER).getProjectDefinition();
+        return loader.load(workDir, new NoopImportsNormalizer(), ImportsListener.NOP_LISTENER).getProjectDefinition();
+    }
 
+    private static ProcessSnapshot start(Runner runner, ProcessConfiguration cfg, ProcessDefinition processDefinition, Map<String, Object> args) throws Exception {
         Map<String, Object> initiator = cfg.initiator();
         if (initiator != null) {
             // when the process starts the process' initiator and the current user are the same
@@ -20,11 +20,15 @@ package com.walmartlabs.concord.runtime.v2.runner;
  * =====
  */
 
+import com.walmartlabs.concord.runtime.v2.ProjectLoaderV2;
 import com.walmartlabs.concord.runtime.v2.model.ProcessDefinition;
+import com.walmartlabs.concord.runtime.v2.model.Resources;
 import com.walmartlabs.concord.svm.State;
 import org.immutables.value.Value;
 
+import javax.annotation.Nullable;
 import java.io.Serializable;
+import java.nio.file.Path;
 
 @Value.Immutable
 @Value.Style(jdkOnly = true)
@@ -36,6 +40,19 @@ public interface ProcessSnapshot extends Serializable {
 
     ProcessDefinition processDefinition();
 
+    /**
+     * Version of the runtime that created the snapshot.
+     */
+    @Nullable
+    String runtimeVersion();
+
+    /**
+     * Hash of the process definition files the {@link #processDefinition()}
+     * was loaded from. See {@link ProjectLoaderV2#hash(Path, Resources)}.
+     */
+    @Nullable
+    String definitionHash();
+
     static ImmutableProcessSnapshot.Builder builder() {
         return ImmutableProcessSnapshot.builder();
     }
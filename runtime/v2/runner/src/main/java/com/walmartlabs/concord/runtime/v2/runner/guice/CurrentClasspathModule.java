@@ -21,6 +21,7 @@ package com.walmartlabs.concord.runtime.v2.runner.guice;
  */
 
 import com.google.inject.AbstractModule;
+import com.walmartlabs.concord.runtime.v2.runner.tasks.TaskIndex;
 import org.eclipse.sisu.space.BeanScanning;
 import org.eclipse.sisu.space.SpaceModule;
 import org.eclipse.sisu.space.URLClassSpace;
@@ -30,6 +31,8 @@ public class CurrentClasspathModule extends AbstractModule {
     @Override
     protected void configure() {
         ClassLoader cl = this.getClass().getClassLoader();
-        install(new SpaceModule(new URLClassSpace(cl), BeanScanning.GLOBAL_INDEX));
+        // indexed tasks are registered by the InjectorFactory and bound on first use
+        TaskIndex taskIndex = TaskIndex.load(cl);
+        install(new SpaceModule(new URLClassSpace(cl), BeanScanning.GLOBAL_INDEX).with(taskIndex.skipIndexedTasks()));
     }
 }
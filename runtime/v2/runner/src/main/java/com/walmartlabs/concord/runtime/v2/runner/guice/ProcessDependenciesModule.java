@@ -22,6 +22,7 @@ package com.walmartlabs.concord.runtime.v2.runner.guice;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.name.Names;
+import com.walmartlabs.concord.runtime.v2.runner.tasks.TaskIndex;
 import com.walmartlabs.concord.sdk.Constants;
 import org.eclipse.sisu.space.BeanScanning;
 import org.eclipse.sisu.space.SpaceModule;
@@ -65,7 +66,9 @@ public class ProcessDependenciesModule extends AbstractModule {
             // required to support ScriptEngines from external dependencies
             Thread.currentThread().setContextClassLoader(cl);
 
-            install(new SpaceModule(new URLClassSpace(cl), BeanScanning.GLOBAL_INDEX));
+            // indexed tasks are registered by the InjectorFactory and bound on first use
+            TaskIndex taskIndex = TaskIndex.load(cl);
+            install(new SpaceModule(new URLClassSpace(cl), BeanScanning.GLOBAL_INDEX).with(taskIndex.skipIndexedTasks()));
             bind(ClassLoader.class).annotatedWith(Names.named("runtime")).toInstance(cl);
         } catch (IOException e) {
             addError(e);
@@ -0,0 +1,163 @@
+package com.walmartlabs.concord.runtime.v2.runner.tasks;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.runtime.common.injector.InjectorUtils;
+import com.walmartlabs.concord.runtime.common.injector.TaskHolder;
+import com.walmartlabs.concord.runtime.v2.sdk.Task;
+import com.walmartlabs.concord.runtime.v2.sdk.TaskIndexProcessor;
+import org.eclipse.sisu.space.ClassSpace;
+import org.eclipse.sisu.space.ClassVisitor;
+import org.eclipse.sisu.space.QualifiedTypeBinder;
+import org.eclipse.sisu.space.QualifiedTypeVisitor;
+import org.eclipse.sisu.space.SpaceModule;
+import org.eclipse.sisu.space.SpaceVisitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.*;
+
+/**
+ * Tasks listed in the build-time indexes generated by {@link TaskIndexProcessor}.
+ * Indexed tasks are excluded from the classpath scanning and bound on first use.
+ * Tasks from JARs without an index are still discovered by scanning.
+ */
+public final class TaskIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskIndex.class);
+
+    /**
+     * Loads all task indexes available in the specified class loader.
+     */
+    public static TaskIndex load(ClassLoader cl) {
+        Map<String, String> tasks = new LinkedHashMap<>();
+        Set<String> classUrls = new HashSet<>();
+
+        try {
+            Enumeration<URL> indexes = cl.getResources(TaskIndexProcessor.INDEX_PATH);
+            while (indexes.hasMoreElements()) {
+                URL index = indexes.nextElement();
+
+                Properties props = new Properties();
+                try (InputStream in = index.openStream()) {
+                    props.load(in);
+                }
+
+                // the index and the classes are in the same JAR (or directory)
+                String s = index.toString();
+                String root = s.substring(0, s.length() - TaskIndexProcessor.INDEX_PATH.length());
+
+                for (String name : props.stringPropertyNames()) {
+                    String className = props.getProperty(name);
+                    String old = tasks.putIfAbsent(name, className);
+                    if (old != null && !old.equals(className)) {
+                        throw new IllegalStateException("Non-unique task name: " + name + ". " +
+                                "Another task with the same name: old: " + old + ", new: " + className);
+                    }
+                    classUrls.add(root + className.replace('.', '/') + ".class");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error while loading the task index: " + e.getMessage(), e);
+        }
+
+        return new TaskIndex(tasks, classUrls);
+    }
+
+    private final Map<String, String> tasks;
+    private final Set<String> classUrls;
+
+    private TaskIndex(Map<String, String> tasks, Set<String> classUrls) {
+        this.tasks = tasks;
+        this.classUrls = classUrls;
+    }
+
+    public int size() {
+        return tasks.size();
+    }
+
+    /**
+     * Sisu strategy that binds all qualified types except the indexed tasks.
+     */
+    public SpaceModule.Strategy skipIndexedTasks() {
+        if (classUrls.isEmpty()) {
+            return SpaceModule.Strategy.DEFAULT;
+        }
+
+        return binder -> new SpaceVisitor() {
+
+            private final SpaceVisitor delegate = new QualifiedTypeVisitor(new QualifiedTypeBinder(binder));
+
+            @Override
+            public void enterSpace(ClassSpace space) {
+                delegate.enterSpace(space);
+            }
+
+            @Override
+            public ClassVisitor visitClass(URL url) {
+                if (classUrls.contains(url.toString())) {
+                    return null;
+                }
+                return delegate.visitClass(url);
+            }
+
+            @Override
+            public void leaveSpace() {
+                delegate.leaveSpace();
+            }
+        };
+    }
+
+    /**
+     * Registers the indexed tasks. The classes are loaded and bound on first use.
+     */
+    public void register(TaskHolder<Task> holder, ClassLoader cl) {
+        tasks.forEach((name, className) -> holder.addLazy(name, className, () -> loadTaskClass(cl, name, className)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<Task> loadTaskClass(ClassLoader cl, String name, String className) {
+        Class<?> klass;
+        try {
+            klass = Class.forName(className, true, cl);
+        } catch (ClassNotFoundException | LinkageError e) {
+            log.warn("Can't load the task '{}' ({}): {}", name, className, e.getMessage());
+            return null;
+        }
+
+        if (!Task.class.isAssignableFrom(klass)) {
+            log.warn("Ignoring the indexed task '{}', {} doesn't implement {}", name, className, Task.class.getName());
+            return null;
+        }
+
+        String actualName = InjectorUtils.getTaskName(klass);
+        if (!name.equals(actualName)) {
+            log.warn("Ignoring the indexed task '{}', {} has a different name: {}", name, className, actualName);
+            return null;
+        }
+
+        return (Class<Task>) klass;
+    }
+}
@@ -20,7 +20,10 @@ package com.walmartlabs.concord.runtime.v2.runner.tasks;
  * =====
  */
 
+import com.google.inject.AbstractModule;
+import com.google.inject.ConfigurationException;
 import com.google.inject.Injector;
+import com.google.inject.Key;
 import com.walmartlabs.concord.runtime.common.injector.TaskHolder;
 import com.walmartlabs.concord.runtime.v2.runner.DefaultTaskVariablesService;
 import com.walmartlabs.concord.runtime.v2.runner.context.TaskContext;
@@ -28,16 +31,19 @@ import com.walmartlabs.concord.runtime.v2.sdk.Context;
 import com.walmartlabs.concord.runtime.v2.sdk.MapBackedVariables;
 import com.walmartlabs.concord.runtime.v2.sdk.Task;
 import com.walmartlabs.concord.runtime.v2.sdk.TaskProvider;
+import org.eclipse.sisu.wire.ChildWireModule;
 
 import javax.inject.Inject;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TaskV2Provider implements TaskProvider {
 
     private final Injector injector;
     private final TaskHolder<Task> holder;
     private final DefaultTaskVariablesService defaultTaskVariables;
+    private final Map<Class<?>, Injector> taskInjectors = new ConcurrentHashMap<>();
 
     @Inject
     public TaskV2Provider(Injector injector,
@@ -58,7 +64,35 @@ public class TaskV2Provider implements TaskProvider {
 
         Map<String, Object> defaultVariables = defaultTaskVariables.get(key);
         TaskContext taskContext = new TaskContext(ctx, new MapBackedVariables(defaultVariables));
-        return ContextProvider.withContext(taskContext, () -> injector.getInstance(klass));
+        return ContextProvider.withContext(taskContext, () -> getInjector(klass).getInstance(klass));
+    }
+
+    /**
+     * Tasks found by scanning are bound when the injector is created.
+     * Indexed tasks (see {@link TaskIndex}) are bound on first use. If possible,
+     * the binding is created in the main injector, so other beans can inject
+     * the task too (Guice doesn't allow a just-in-time binding in the parent
+     * injector for a key bound in a child). Tasks which depend on the Sisu
+     * wiring (e.g. {@code Map<String, Bean>}) are bound in a child injector.
+     */
+    private Injector getInjector(Class<? extends Task> klass) {
+        if (injector.getExistingBinding(Key.get(klass)) != null) {
+            return injector;
+        }
+
+        return taskInjectors.computeIfAbsent(klass, k -> {
+            try {
+                injector.getBinding(k);
+                return injector;
+            } catch (ConfigurationException e) {
+                return injector.createChildInjector(new ChildWireModule(injector, new AbstractModule() {
+                    @Override
+                    protected void configure() {
+                        bind(k);
+                    }
+                }));
+            }
+        });
     }
 
     @Override
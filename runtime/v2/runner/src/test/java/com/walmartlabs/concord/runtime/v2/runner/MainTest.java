@@ -67,6 +67,7 @@ import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -191,6 +192,27 @@ public class MainTest {
         assertLog(log, ".*After.*John Smith.*");
     }
 
+    @Test
+    public void testStartWithSavedState() throws Exception {
+        deploy("form");
+
+        save(ProcessConfiguration.builder().debug(true).build());
+
+        byte[] log = run();
+        assertLog(log, ".*Before.*");
+        assertNoLog(log, ".*Using the process definition from the saved state.*");
+
+        // start the process again using the saved state, e.g. as an onCancel handler
+        log = run();
+        assertLog(log, ".*Using the process definition from the saved state.*");
+
+        // modified definition files must be loaded again
+        Files.write(workDir.resolve("concord.yml"), "\n".getBytes(), StandardOpenOption.APPEND);
+
+        log = run();
+        assertNoLog(log, ".*Using the process definition from the saved state.*");
+    }
+
     @Test
     public void testUnknownTask() throws Exception {
         deploy("unknownTask");
@@ -0,0 +1,166 @@
+package com.walmartlabs.concord.runtime.v2.runner.tasks;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.walmartlabs.concord.runtime.common.injector.InjectorUtils;
+import com.walmartlabs.concord.runtime.common.injector.TaskHolder;
+import com.walmartlabs.concord.runtime.v2.sdk.Task;
+import com.walmartlabs.concord.runtime.v2.sdk.TaskIndexProcessor;
+import org.eclipse.sisu.space.BeanScanning;
+import org.eclipse.sisu.space.SpaceModule;
+import org.eclipse.sisu.space.URLClassSpace;
+import org.eclipse.sisu.wire.WireModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.inject.Named;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskIndexTest {
+
+    @Test
+    public void testRegister(@TempDir Path tempDir) throws Exception {
+        Path jar = index(tempDir.resolve("a"),
+                "indexed=" + IndexedTask.class.getName(),
+                "wrongName=" + IndexedTask.class.getName(),
+                "missing=com.example.MissingTask");
+
+        try (URLClassLoader cl = classLoader(jar)) {
+            TaskIndex index = TaskIndex.load(cl);
+            assertEquals(3, index.size());
+
+            TaskHolder<Task> holder = new TaskHolder<>();
+            index.register(holder, cl);
+
+            assertEquals(new HashSet<>(Arrays.asList("indexed", "wrongName", "missing")), holder.keys());
+            assertEquals(IndexedTask.class, holder.get("indexed"));
+
+            // the name in the index doesn't match the class' @Named
+            assertNull(holder.get("wrongName"));
+            // the class is not available
+            assertNull(holder.get("missing"));
+        }
+    }
+
+    @Test
+    public void testNonUniqueNames(@TempDir Path tempDir) throws Exception {
+        Path a = index(tempDir.resolve("a"), "indexed=" + IndexedTask.class.getName());
+        Path b = index(tempDir.resolve("b"), "indexed=" + ScannedTask.class.getName());
+
+        try (URLClassLoader cl = classLoader(a, b)) {
+            assertThrows(IllegalStateException.class, () -> TaskIndex.load(cl));
+        }
+    }
+
+    @Test
+    public void testScan(@TempDir Path tempDir) throws Exception {
+        // a JAR with an index and a JAR without
+        Path indexed = index(tempDir.resolve("indexed"), "indexed=" + IndexedTask.class.getName());
+        copyClass(IndexedTask.class, indexed);
+
+        Path plain = Files.createDirectories(tempDir.resolve("plain"));
+        copyClass(ScannedTask.class, plain);
+
+        try (URLClassLoader cl = classLoader(indexed, plain)) {
+            TaskIndex index = TaskIndex.load(cl);
+            assertEquals(1, index.size());
+
+            TaskHolder<Task> holder = new TaskHolder<>();
+            URL[] urls = {indexed.toUri().toURL(), plain.toUri().toURL()};
+            Injector injector = Guice.createInjector(new WireModule(
+                    new SpaceModule(new URLClassSpace(cl, urls), BeanScanning.ON).with(index.skipIndexedTasks()),
+                    binder -> binder.bindListener(InjectorUtils.subClassesOf(Task.class), InjectorUtils.taskClassesListener(holder))));
+
+            // only the task without an index is found by scanning
+            assertNotNull(injector.getExistingBinding(com.google.inject.Key.get(ScannedTask.class)));
+            assertNull(injector.getExistingBinding(com.google.inject.Key.get(IndexedTask.class)));
+            assertEquals(Collections.singleton("scanned"), holder.keys());
+
+            index.register(holder, cl);
+            assertEquals(new HashSet<>(Arrays.asList("indexed", "scanned")), holder.keys());
+            assertEquals(IndexedTask.class, holder.get("indexed"));
+        }
+    }
+
+    @Test
+    public void testNoIndex() {
+        // without indexes all classes are scanned
+        TaskIndex index = TaskIndex.load(classLoader());
+        assertEquals(0, index.size());
+        assertSame(SpaceModule.Strategy.DEFAULT, index.skipIndexedTasks());
+    }
+
+    private static Path index(Path dir, String... entries) throws Exception {
+        Path p = dir.resolve(TaskIndexProcessor.INDEX_PATH);
+        Files.createDirectories(p.getParent());
+        Files.write(p, Arrays.asList(entries), StandardCharsets.UTF_8);
+        return dir;
+    }
+
+    private static void copyClass(Class<?> klass, Path dir) throws Exception {
+        String name = klass.getName().replace('.', '/') + ".class";
+        Path dst = dir.resolve(name);
+        Files.createDirectories(dst.getParent());
+        try (InputStream in = klass.getClassLoader().getResourceAsStream(name)) {
+            Files.copy(in, dst);
+        }
+    }
+
+    private static URLClassLoader classLoader(Path... dirs) {
+        URL[] urls = Arrays.stream(dirs).map(TaskIndexTest::toUrl).toArray(URL[]::new);
+
+        // hide the indexes of the test classpath
+        ClassLoader parent = new ClassLoader(TaskIndexTest.class.getClassLoader()) {
+            @Override
+            public Enumeration<URL> getResources(String name) {
+                return Collections.emptyEnumeration();
+            }
+        };
+
+        return new URLClassLoader(urls, parent);
+    }
+
+    private static URL toUrl(Path p) {
+        try {
+            return p.toUri().toURL();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Named("indexed")
+    public static class IndexedTask implements Task {
+    }
+
+    @Named("scanned")
+    public static class ScannedTask implements Task {
+    }
+}
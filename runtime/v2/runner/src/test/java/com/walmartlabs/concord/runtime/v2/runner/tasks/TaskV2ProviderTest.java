@@ -0,0 +1,140 @@
+package com.walmartlabs.concord.runtime.v2.runner.tasks;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.TypeLiteral;
+import com.google.inject.name.Names;
+import com.walmartlabs.concord.runtime.common.injector.TaskHolder;
+import com.walmartlabs.concord.runtime.v2.runner.DefaultTaskVariablesService;
+import com.walmartlabs.concord.runtime.v2.sdk.Context;
+import com.walmartlabs.concord.runtime.v2.sdk.Task;
+import org.eclipse.sisu.wire.WireModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class TaskV2ProviderTest {
+
+    private Injector injector;
+    private TaskV2Provider provider;
+    private Context ctx;
+
+    @BeforeEach
+    public void setUp() {
+        TaskHolder<Task> holder = new TaskHolder<>();
+
+        injector = Guice.createInjector(new WireModule(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(new TypeLiteral<TaskHolder<Task>>() {
+                }).toInstance(holder);
+                bind(DefaultTaskVariablesService.class).toInstance(new DefaultTaskVariablesService() {
+                });
+                bind(Greeter.class).annotatedWith(Names.named("hello")).to(HelloGreeter.class);
+            }
+        }));
+
+        // registered the same way as the indexed tasks
+        holder.addLazy("simple", SimpleTask.class.getName(), () -> cast(SimpleTask.class));
+        holder.addLazy("wired", WiredTask.class.getName(), () -> cast(WiredTask.class));
+
+        provider = injector.getInstance(TaskV2Provider.class);
+        ctx = mock(Context.class);
+    }
+
+    @Test
+    public void testSisuWiring() {
+        Task t = provider.createTask(ctx, "wired");
+        assertTrue(t instanceof WiredTask);
+
+        // Map<String, Bean> requires the Sisu wiring of the task's dependencies
+        Map<String, Greeter> greeters = ((WiredTask) t).greeters;
+        assertEquals(1, greeters.size());
+        assertTrue(greeters.get("hello") instanceof HelloGreeter);
+
+        // a new instance every time
+        assertNotSame(t, provider.createTask(ctx, "wired"));
+    }
+
+    @Test
+    public void testTaskInjectedByAnotherBean() {
+        Task t = provider.createTask(ctx, "simple");
+        assertTrue(t instanceof SimpleTask);
+
+        // the task is bound first, then another bean needs it
+        TaskUser user = injector.getInstance(TaskUser.class);
+        assertNotNull(user.task);
+
+        assertTrue(provider.createTask(ctx, "simple") instanceof SimpleTask);
+    }
+
+    @Test
+    public void testUnknownTask() {
+        assertNull(provider.createTask(ctx, "unknown"));
+        assertFalse(provider.hasTask("unknown"));
+        assertTrue(provider.hasTask("simple"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<Task> cast(Class<?> klass) {
+        return (Class<Task>) klass;
+    }
+
+    public interface Greeter {
+    }
+
+    public static class HelloGreeter implements Greeter {
+    }
+
+    @Named("simple")
+    public static class SimpleTask implements Task {
+    }
+
+    @Named("wired")
+    public static class WiredTask implements Task {
+
+        private final Map<String, Greeter> greeters;
+
+        @Inject
+        public WiredTask(Map<String, Greeter> greeters) {
+            this.greeters = greeters;
+        }
+    }
+
+    public static class TaskUser {
+
+        private final SimpleTask task;
+
+        @Inject
+        public TaskUser(SimpleTask task) {
+            this.task = task;
+        }
+    }
+}
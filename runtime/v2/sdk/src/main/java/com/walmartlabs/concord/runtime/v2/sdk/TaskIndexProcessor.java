@@ -0,0 +1,117 @@
+package com.walmartlabs.concord.runtime.v2.sdk;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.inject.Named;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Generates a build-time index of {@link Task} implementations and their
+ * {@code @Named} values. The runner uses the index to register tasks without
+ * scanning and binding them at startup. The index is a properties file
+ * located at {@link #INDEX_PATH}: {@code taskName=className}.
+ * <p>
+ * Enabled automatically for modules compiled with annotation processing
+ * and {@code concord-runtime-sdk-v2} on the classpath.
+ */
+@SupportedAnnotationTypes("javax.inject.Named")
+public class TaskIndexProcessor extends AbstractProcessor {
+
+    public static final String INDEX_PATH = "META-INF/concord/tasks-v2.properties";
+
+    private final Map<String, String> tasks = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            if (!tasks.isEmpty()) {
+                write();
+            }
+            return false;
+        }
+
+        TypeElement taskElement = processingEnv.getElementUtils().getTypeElement(Task.class.getName());
+        if (taskElement == null) {
+            return false;
+        }
+
+        Types types = processingEnv.getTypeUtils();
+        TypeMirror taskType = types.erasure(taskElement.asType());
+
+        for (Element e : roundEnv.getElementsAnnotatedWith(Named.class)) {
+            if (e.getKind() != ElementKind.CLASS || e.getModifiers().contains(Modifier.ABSTRACT)) {
+                continue;
+            }
+
+            TypeElement t = (TypeElement) e;
+            if (!types.isAssignable(types.erasure(t.asType()), taskType)) {
+                continue;
+            }
+
+            String name = t.getAnnotation(Named.class).value();
+            if (name.isEmpty()) {
+                continue;
+            }
+
+            String className = processingEnv.getElementUtils().getBinaryName(t).toString();
+            String old = tasks.put(name, className);
+            if (old != null && !old.equals(className)) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                        "Non-unique task name: " + name + " (" + old + ", " + className + ")", e);
+            }
+        }
+
+        // other processors (e.g. the Sisu index) also need @Named
+        return false;
+    }
+
+    private void write() {
+        try {
+            FileObject f = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_PATH);
+            try (Writer w = f.openWriter()) {
+                for (Map.Entry<String, String> e : tasks.entrySet()) {
+                    w.write(e.getKey() + "=" + e.getValue() + "\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Error while writing the task index: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.walmartlabs.concord.runtime.v2.sdk;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.*;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskIndexProcessorTest {
+
+    @Test
+    public void test(@TempDir Path tempDir) throws Exception {
+        Path src = tempDir.resolve("src");
+        write(src, "a/MyTask.java", "package a;\n" +
+                "@javax.inject.Named(\"myTask\")\n" +
+                "public class MyTask implements com.walmartlabs.concord.runtime.v2.sdk.Task {\n" +
+                "    @javax.inject.Named(\"inner\")\n" +
+                "    public static class Inner implements com.walmartlabs.concord.runtime.v2.sdk.Task {\n" +
+                "    }\n" +
+                "}\n");
+        write(src, "a/AbstractTask.java", "package a;\n" +
+                "@javax.inject.Named(\"abstractTask\")\n" +
+                "public abstract class AbstractTask implements com.walmartlabs.concord.runtime.v2.sdk.Task {\n" +
+                "}\n");
+        write(src, "a/SubTask.java", "package a;\n" +
+                "@javax.inject.Named(\"subTask\")\n" +
+                "public class SubTask extends AbstractTask {\n" +
+                "}\n");
+        write(src, "a/NotATask.java", "package a;\n" +
+                "@javax.inject.Named(\"notATask\")\n" +
+                "public class NotATask {\n" +
+                "}\n");
+        write(src, "a/Unnamed.java", "package a;\n" +
+                "@javax.inject.Named\n" +
+                "public class Unnamed implements com.walmartlabs.concord.runtime.v2.sdk.Task {\n" +
+                "}\n");
+
+        Path out = Files.createDirectories(tempDir.resolve("out"));
+        compile(src, out);
+
+        Path index = out.resolve(TaskIndexProcessor.INDEX_PATH);
+        assertEquals(Arrays.asList(
+                "inner=a.MyTask$Inner",
+                "myTask=a.MyTask",
+                "subTask=a.SubTask"), Files.readAllLines(index));
+    }
+
+    @Test
+    public void testNoTasks(@TempDir Path tempDir) throws Exception {
+        Path src = tempDir.resolve("src");
+        write(src, "a/NotATask.java", "package a;\n" +
+                "@javax.inject.Named(\"notATask\")\n" +
+                "public class NotATask {\n" +
+                "}\n");
+
+        Path out = Files.createDirectories(tempDir.resolve("out"));
+        compile(src, out);
+
+        assertFalse(Files.exists(out.resolve(TaskIndexProcessor.INDEX_PATH)));
+    }
+
+    private static void compile(Path src, Path out) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        try (StandardJavaFileManager fm = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            List<File> files = new ArrayList<>();
+            try (Stream<Path> s = Files.walk(src)) {
+                s.filter(p -> p.toString().endsWith(".java")).forEach(p -> files.add(p.toFile()));
+            }
+
+            // surefire might run the tests using a manifest-only JAR
+            String cp = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+            List<String> options = Arrays.asList("-classpath", cp, "-d", out.toString());
+
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fm, diagnostics, options, null, fm.getJavaFileObjectsFromFiles(files));
+            task.setProcessors(Collections.singletonList(new TaskIndexProcessor()));
+            assertTrue(task.call(), () -> diagnostics.getDiagnostics().toString());
+        }
+    }
+
+    private static void write(Path root, String path, String content) throws Exception {
+        Path p = root.resolve(path);
+        Files.createDirectories(p.getParent());
+        Files.write(p, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -38,9 +38,18 @@ public class Main {
 
         long t1 = System.currentTimeMillis();
 
-        ConcordServer.withAutoWiring()
+        ConcordServer server = ConcordServer.withAutoWiring()
                 .start();
 
+        // let the background tasks write their pending data
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.stop();
+            } catch (Exception e) {
+                log.warn("main -> error while stopping the server: {}", e.getMessage());
+            }
+        }, "concord-server-shutdown"));
+
         long t2 = System.currentTimeMillis();
         log.info("main -> started in {}ms", (t2 - t1));
     }
@@ -28,16 +28,17 @@ import com.walmartlabs.concord.server.jooq.tables.AuditLog;
 import com.walmartlabs.concord.server.jooq.tables.Users;
 import com.walmartlabs.concord.server.jooq.tables.records.AuditLogRecord;
 import com.walmartlabs.concord.server.org.EntityOwner;
+import com.walmartlabs.concord.server.sdk.AllowNulls;
 import com.walmartlabs.concord.server.sdk.audit.AuditEvent;
 import com.walmartlabs.concord.server.user.UserType;
-import org.jooq.Configuration;
-import org.jooq.JSONB;
-import org.jooq.Record9;
-import org.jooq.SelectOnConditionStep;
+import org.immutables.value.Value;
+import org.jooq.*;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.annotation.Nullable;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -86,6 +87,50 @@ public class AuditDao extends AbstractDao {
                 .build();
     }
 
+    /**
+     * Inserts multiple audit log entries using a single multi-row INSERT.
+     *
+     * @return the inserted events in the same order as the supplied entries.
+     */
+    public List<AuditEvent> insert(List<NewEntry> entries) {
+        if (entries.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Result<AuditLogRecord> records = txResult(tx -> {
+            InsertValuesStep4<AuditLogRecord, UUID, String, String, JSONB> q = tx.insertInto(AUDIT_LOG)
+                    .columns(AUDIT_LOG.USER_ID,
+                            AUDIT_LOG.ENTRY_OBJECT,
+                            AUDIT_LOG.ENTRY_ACTION,
+                            AUDIT_LOG.ENTRY_DETAILS);
+
+            for (NewEntry e : entries) {
+                q.values(e.userId(),
+                        e.object().toString(),
+                        e.action().toString(),
+                        objectMapper.toJSONB(e.details()));
+            }
+
+            return q.returning(AUDIT_LOG.ENTRY_DATE, AUDIT_LOG.ENTRY_SEQ)
+                    .fetch();
+        });
+
+        List<AuditEvent> result = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            NewEntry e = entries.get(i);
+            AuditLogRecord r = records.get(i);
+            result.add(AuditEvent.builder()
+                    .entrySeq(r.getEntrySeq())
+                    .entryDate(r.getEntryDate())
+                    .userId(e.userId())
+                    .object(e.object().toString())
+                    .action(e.action().toString())
+                    .details(e.details())
+                    .build());
+        }
+        return result;
+    }
+
     public List<AuditLogEntry> list(AuditLogFilter filter) {
         return txResult(tx -> {
             AuditLog l = AUDIT_LOG.as("l");
@@ -168,4 +213,28 @@ public class AuditDao extends AbstractDao {
 
         return b.build();
     }
+
+    @Value.Immutable
+    @Value.Style(jdkOnly = true)
+    interface NewEntry {
+
+        @Nullable
+        UUID userId();
+
+        AuditObject object();
+
+        AuditAction action();
+
+        @AllowNulls
+        Map<String, Object> details();
+
+        static NewEntry of(UUID userId, AuditObject object, AuditAction action, Map<String, Object> details) {
+            return ImmutableNewEntry.builder()
+                    .userId(userId)
+                    .object(object)
+                    .action(action)
+                    .details(details)
+                    .build();
+        }
+    }
 }
@@ -20,12 +20,11 @@ package com.walmartlabs.concord.server.audit;
  * =====
  */
 
-import com.walmartlabs.concord.server.Listeners;
 import com.walmartlabs.concord.server.RequestUtils;
+import com.walmartlabs.concord.server.audit.AuditDao.NewEntry;
 import com.walmartlabs.concord.server.cfg.AuditConfiguration;
 import com.walmartlabs.concord.server.org.project.DiffUtils;
 import com.walmartlabs.concord.server.sdk.PartialProcessKey;
-import com.walmartlabs.concord.server.sdk.audit.AuditEvent;
 import com.walmartlabs.concord.server.security.UserPrincipal;
 import com.walmartlabs.concord.server.security.sessionkey.SessionKeyPrincipal;
 import org.slf4j.Logger;
@@ -59,14 +58,12 @@ public class AuditLog {
     }
 
     private final AuditConfiguration cfg;
-    private final AuditDao auditDao;
-    private final Listeners listeners;
+    private final AuditLogWriter writer;
 
     @Inject
-    public AuditLog(AuditConfiguration cfg, AuditDao auditDao, Listeners listeners) {
+    public AuditLog(AuditConfiguration cfg, AuditLogWriter writer) {
         this.cfg = cfg;
-        this.auditDao = auditDao;
-        this.listeners = listeners;
+        this.writer = writer;
     }
 
     public EntryBuilder add(AuditObject object, AuditAction action) {
@@ -81,6 +78,7 @@ public class AuditLog {
         private Map<String, Object> changes;
 
         private UUID userId;
+        private boolean sync;
 
         private EntryBuilder(AuditObject object, AuditAction action) {
             this.object = object;
@@ -94,6 +92,14 @@ public class AuditLog {
             return this;
         }
 
+        /**
+         * Write the entry immediately, even if the asynchronous writer is enabled.
+         */
+        public EntryBuilder sync() {
+            this.sync = true;
+            return this;
+        }
+
         public EntryBuilder field(String k, Object v) {
             if (v == null) {
                 return this;
@@ -171,8 +177,7 @@ public class AuditLog {
                 details.put("changes", changes);
             }
 
-            AuditEvent ev = auditDao.insert(userId, object, action, details);
-            listeners.onAuditEvent(ev);
+            writer.write(NewEntry.of(userId, object, action, details), sync);
         }
     }
 
@@ -0,0 +1,281 @@
+package com.walmartlabs.concord.server.audit;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.Counter;
+import com.walmartlabs.concord.server.Listeners;
+import com.walmartlabs.concord.server.audit.AuditDao.NewEntry;
+import com.walmartlabs.concord.server.cfg.AuditConfiguration;
+import com.walmartlabs.concord.server.sdk.BackgroundTask;
+import com.walmartlabs.concord.server.sdk.audit.AuditEvent;
+import com.walmartlabs.concord.server.sdk.metrics.InjectCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Writes audit log entries. Depending on the configuration, the entries are
+ * either inserted immediately or queued and inserted in batches by a background thread.
+ * The listeners are notified only after the entries are committed.
+ * <p>
+ * Queued entries that fail to insert are retried by the background thread.
+ * Once {@link #stop()} is called, new entries are inserted immediately.
+ */
+@Named
+@Singleton
+public class AuditLogWriter implements BackgroundTask {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private final AuditConfiguration cfg;
+    private final AuditDao auditDao;
+    private final Listeners listeners;
+    private final Set<String> syncActions;
+    private final BlockingQueue<NewEntry> queue;
+
+    @InjectCounter
+    private final Counter auditEntriesQueued;
+
+    @InjectCounter
+    private final Counter auditEntriesOverflow;
+
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private boolean accepting; // guarded by stateLock
+
+    private Thread worker; // guarded by stateLock
+
+    /**
+     * Entries that failed to insert. Accessed by the worker thread or,
+     * after the worker is stopped, by {@link #stop()}.
+     */
+    private List<NewEntry> failed = Collections.emptyList();
+
+    @Inject
+    public AuditLogWriter(AuditConfiguration cfg,
+                          AuditDao auditDao,
+                          Listeners listeners,
+                          Counter auditEntriesQueued,
+                          Counter auditEntriesOverflow) {
+
+        this.cfg = cfg;
+        this.auditDao = auditDao;
+        this.listeners = listeners;
+        this.syncActions = new HashSet<>(cfg.getSyncActions());
+        this.queue = new LinkedBlockingQueue<>(Math.max(1, cfg.getAsyncMaxQueueSize()));
+        this.auditEntriesQueued = auditEntriesQueued;
+        this.auditEntriesOverflow = auditEntriesOverflow;
+    }
+
+    @Override
+    public void start() {
+        if (!cfg.isEnabled() || !cfg.isAsyncEnabled()) {
+            return;
+        }
+
+        Lock l = stateLock.writeLock();
+        l.lock();
+        try {
+            this.accepting = true;
+            this.worker = new Thread(this::run, "audit-log-writer");
+            this.worker.start();
+        } finally {
+            l.unlock();
+        }
+    }
+
+    @Override
+    public void stop() {
+        Thread w;
+
+        // stop accepting new entries, the queue is flushed only once
+        Lock l = stateLock.writeLock();
+        l.lock();
+        try {
+            w = this.worker;
+            if (w == null) {
+                return;
+            }
+
+            this.worker = null;
+            this.accepting = false;
+        } finally {
+            l.unlock();
+        }
+
+        w.interrupt();
+        try {
+            w.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // flush whatever is left in the queue
+        flush();
+
+        log.info("stop -> done");
+    }
+
+    public void write(NewEntry entry, boolean forceSync) {
+        if (forceSync || isSyncAction(entry) || !enqueue(entry)) {
+            writeSync(entry);
+        }
+    }
+
+    private boolean enqueue(NewEntry entry) {
+        Lock l = stateLock.readLock();
+        l.lock();
+        try {
+            if (!accepting) {
+                return false;
+            }
+
+            if (!queue.offer(entry)) {
+                // apply back-pressure instead of dropping the entry
+                auditEntriesOverflow.inc();
+                return false;
+            }
+
+            auditEntriesQueued.inc();
+            return true;
+        } finally {
+            l.unlock();
+        }
+    }
+
+    private void writeSync(NewEntry entry) {
+        AuditEvent ev = auditDao.insert(entry.userId(), entry.object(), entry.action(), entry.details());
+        listeners.onAuditEvent(ev);
+    }
+
+    private boolean isSyncAction(NewEntry entry) {
+        if (syncActions.isEmpty()) {
+            return false;
+        }
+
+        return syncActions.contains(entry.action().name())
+                || syncActions.contains(entry.object().name() + ":" + entry.action().name());
+    }
+
+    private void run() {
+        long flushInterval = cfg.getAsyncFlushInterval().toMillis();
+        int batchSize = Math.max(1, cfg.getAsyncBatchSize());
+
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (!failed.isEmpty()) {
+                    // retry the failed entries before taking new ones
+                    // if the queue fills up, the new entries are inserted by the callers
+                    Thread.sleep(flushInterval);
+                    failed = insert(failed);
+                    continue;
+                }
+
+                NewEntry first = queue.poll(flushInterval, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                List<NewEntry> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                failed = insert(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("run -> error while writing audit log entries: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void flush() {
+        int batchSize = Math.max(1, cfg.getAsyncBatchSize());
+
+        List<NewEntry> lost = new ArrayList<>(insert(failed));
+        failed = Collections.emptyList();
+
+        while (true) {
+            List<NewEntry> batch = new ArrayList<>(batchSize);
+            queue.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            lost.addAll(insert(batch));
+        }
+
+        for (NewEntry e : lost) {
+            log.error("flush -> audit log entry can't be saved: {}", e);
+        }
+    }
+
+    /**
+     * @return the entries that failed to insert
+     */
+    private List<NewEntry> insert(List<NewEntry> batch) {
+        if (batch.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<AuditEvent> events;
+        List<NewEntry> failedEntries = Collections.emptyList();
+        try {
+            events = auditDao.insert(batch);
+        } catch (Exception e) {
+            log.warn("insert -> batch insert of {} entries failed, retrying one by one: {}", batch.size(), e.getMessage());
+            events = new ArrayList<>(batch.size());
+            failedEntries = insertOneByOne(batch, events);
+        }
+
+        for (AuditEvent ev : events) {
+            try {
+                listeners.onAuditEvent(ev);
+            } catch (Exception e) {
+                log.error("insert -> error while notifying audit log listeners: {}", e.getMessage(), e);
+            }
+        }
+
+        return failedEntries;
+    }
+
+    private List<NewEntry> insertOneByOne(List<NewEntry> batch, List<AuditEvent> events) {
+        List<NewEntry> result = new ArrayList<>();
+        for (NewEntry e : batch) {
+            try {
+                events.add(auditDao.insert(e.userId(), e.object(), e.action(), e.details()));
+            } catch (Exception ex) {
+                log.warn("insertOneByOne -> error while inserting an audit log entry, will retry: {}", ex.getMessage());
+                result.add(e);
+            }
+        }
+        return result;
+    }
+}
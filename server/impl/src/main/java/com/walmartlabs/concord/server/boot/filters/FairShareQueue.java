@@ -0,0 +1,342 @@
+package com.walmartlabs.concord.server.boot.filters;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.immutables.value.Value;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Weighted fair queue of requests grouped by tenant (e.g. by organization).
+ * <p/>
+ * A request is admitted immediately if the global and the tenant's concurrency
+ * and rate limits allow it, otherwise it is queued. When an admitted request
+ * completes the next queued request is picked from the eligible tenant with
+ * the lowest virtual time, i.e. the tenant which received the smallest share
+ * of the capacity relative to its weight.
+ * <p/>
+ * Queued requests of rate limited tenants become eligible when the tenant's
+ * rate limit bucket is refilled, the caller is expected to {@link #poll()}
+ * the queue at {@link #nextRefillAt()} if there are no other releases.
+ *
+ * @param <T> type of the queued items
+ */
+public class FairShareQueue<T> {
+
+    private final int maxConcurrent;
+    private final Map<String, Tenant<T>> tenants = new HashMap<>();
+
+    private int inflight;
+    private double virtualTime;
+
+    /**
+     * @param maxConcurrent max number of concurrently admitted requests across all tenants
+     */
+    public FairShareQueue(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    /**
+     * Tries to admit a request, waits up to {@code waitMs} for a free pass.
+     *
+     * @param skipQueue if {@code true} the request can be admitted even if
+     *                  there are queued requests of the same tenant (e.g. for
+     *                  requests which were already queued before)
+     */
+    public synchronized boolean tryAcquire(String tenantKey, Limits limits, boolean skipQueue, long waitMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + waitMs;
+        while (true) {
+            Tenant<T> t = tenant(tenantKey, limits);
+            long now = System.currentTimeMillis();
+            if ((skipQueue || t.queue.isEmpty()) && canAdmit(t, now)) {
+                admit(t, now);
+                return true;
+            }
+
+            long remaining = deadline - now;
+            if (remaining <= 0) {
+                removeIfIdle(tenantKey, t, now);
+                return false;
+            }
+
+            wait(remaining);
+        }
+    }
+
+    public synchronized void enqueue(String tenantKey, Limits limits, T item) {
+        Tenant<T> t = tenant(tenantKey, limits);
+        t.queue.add(new Waiter<>(tenantKey, item, System.currentTimeMillis()));
+    }
+
+    /**
+     * Removes the item from the queue.
+     *
+     * @return the removed item or {@code null} if the item is not in the queue
+     * (e.g. it was already admitted)
+     */
+    public synchronized Waiter<T> remove(String tenantKey, T item) {
+        Tenant<T> t = tenants.get(tenantKey);
+        if (t == null) {
+            return null;
+        }
+
+        Waiter<T> result = null;
+        for (Iterator<Waiter<T>> i = t.queue.iterator(); i.hasNext(); ) {
+            Waiter<T> w = i.next();
+            if (w.item() == item) {
+                i.remove();
+                result = w;
+                break;
+            }
+        }
+
+        removeIfIdle(tenantKey, t, System.currentTimeMillis());
+        return result;
+    }
+
+    /**
+     * Releases the pass of a previously admitted request.
+     *
+     * @return the next queued request, already admitted, or {@code null}
+     * if there are no eligible requests in the queue
+     */
+    public synchronized Waiter<T> release(String tenantKey) {
+        long now = System.currentTimeMillis();
+
+        Tenant<T> released = tenants.get(tenantKey);
+        if (released != null) {
+            released.inflight--;
+        }
+        inflight--;
+
+        Waiter<T> result = next(now);
+
+        if (released != null) {
+            removeIfIdle(tenantKey, released, now);
+        }
+
+        return result;
+    }
+
+    /**
+     * Admits the next eligible queued request, if any. Used to resume the requests
+     * of rate limited tenants when there are no releases to do that.
+     *
+     * @return the next queued request, already admitted, or {@code null}
+     * if there are no eligible requests in the queue
+     */
+    public synchronized Waiter<T> poll() {
+        return next(System.currentTimeMillis());
+    }
+
+    /**
+     * @return the earliest time (in ms) when one of the queued requests, which
+     * are currently held back only by their tenant's rate limit, becomes eligible
+     * or {@code -1} if there are no such requests
+     */
+    public synchronized long nextRefillAt() {
+        if (maxConcurrent > 0 && inflight >= maxConcurrent) {
+            // the next release will pick up the queued requests
+            return -1;
+        }
+
+        long now = System.currentTimeMillis();
+
+        long result = -1;
+        for (Tenant<T> t : tenants.values()) {
+            Limits l = t.limits;
+            if (t.queue.isEmpty() || l.maxPerSecond() <= 0) {
+                continue;
+            }
+
+            if (l.maxConcurrent() > 0 && t.inflight >= l.maxConcurrent()) {
+                continue;
+            }
+
+            refill(t, now);
+            long at = now + (long) Math.ceil(Math.max(0, 1 - t.tokens) * 1000 / l.maxPerSecond());
+            if (result < 0 || at < result) {
+                result = at;
+            }
+        }
+
+        return result;
+    }
+
+    public synchronized int getQueueDepth(Predicate<String> tenantFilter) {
+        int result = 0;
+        for (Map.Entry<String, Tenant<T>> e : tenants.entrySet()) {
+            if (tenantFilter.test(e.getKey())) {
+                result += e.getValue().queue.size();
+            }
+        }
+        return result;
+    }
+
+    private Waiter<T> next(long now) {
+        Tenant<T> next = null;
+        for (Tenant<T> t : tenants.values()) {
+            if (t.queue.isEmpty() || !canAdmit(t, now)) {
+                continue;
+            }
+
+            if (next == null || t.virtualTime < next.virtualTime) {
+                next = t;
+            }
+        }
+
+        if (next == null) {
+            notifyAll();
+            return null;
+        }
+
+        admit(next, now);
+        return next.queue.poll();
+    }
+
+    private Tenant<T> tenant(String tenantKey, Limits limits) {
+        Tenant<T> t = tenants.computeIfAbsent(tenantKey, k -> new Tenant<>());
+        t.limits = limits;
+        if (t.inflight == 0 && t.queue.isEmpty()) {
+            // idle tenants don't accumulate credit
+            t.virtualTime = Math.max(t.virtualTime, virtualTime);
+        }
+        return t;
+    }
+
+    private boolean canAdmit(Tenant<T> t, long now) {
+        if (maxConcurrent > 0 && inflight >= maxConcurrent) {
+            return false;
+        }
+
+        Limits l = t.limits;
+        if (l.maxConcurrent() > 0 && t.inflight >= l.maxConcurrent()) {
+            return false;
+        }
+
+        if (l.maxPerSecond() > 0) {
+            refill(t, now);
+            return t.tokens >= 1;
+        }
+
+        return true;
+    }
+
+    private void admit(Tenant<T> t, long now) {
+        inflight++;
+        t.inflight++;
+
+        if (t.limits.maxPerSecond() > 0) {
+            t.tokens -= 1;
+        }
+
+        virtualTime = t.virtualTime;
+        t.virtualTime += 1.0 / Math.max(1, t.limits.weight());
+        t.lastActivity = now;
+    }
+
+    private static void refill(Tenant<?> t, long now) {
+        double rate = t.limits.maxPerSecond();
+        double burst = Math.max(1, rate);
+
+        if (t.lastRefill == 0) {
+            t.tokens = burst;
+        } else {
+            t.tokens = Math.min(burst, t.tokens + (now - t.lastRefill) * rate / 1000.0);
+        }
+        t.lastRefill = now;
+    }
+
+    private void removeIfIdle(String tenantKey, Tenant<T> t, long now) {
+        if (t.inflight > 0 || !t.queue.isEmpty()) {
+            return;
+        }
+
+        // keep the tenant until its rate limit bucket is refilled
+        double rate = t.limits.maxPerSecond();
+        if (rate > 0 && now - t.lastActivity < Math.max(1000, 1000 / rate)) {
+            return;
+        }
+
+        tenants.remove(tenantKey);
+    }
+
+    private static final class Tenant<T> {
+
+        private final Queue<Waiter<T>> queue = new ArrayDeque<>();
+
+        private Limits limits;
+        private int inflight;
+        private double virtualTime;
+        private double tokens;
+        private long lastRefill;
+        private long lastActivity;
+    }
+
+    @Value.Immutable
+    public interface Limits {
+
+        /**
+         * Max number of concurrently admitted requests of the tenant, {@code <= 0} for unlimited.
+         */
+        @Value.Parameter
+        int maxConcurrent();
+
+        /**
+         * Max number of admitted requests of the tenant per second, {@code <= 0} for unlimited.
+         */
+        @Value.Parameter
+        double maxPerSecond();
+
+        @Value.Parameter
+        int weight();
+
+        static Limits of(int maxConcurrent, double maxPerSecond, int weight) {
+            return ImmutableLimits.of(maxConcurrent, maxPerSecond, weight);
+        }
+    }
+
+    public static final class Waiter<T> {
+
+        private final String tenantKey;
+        private final T item;
+        private final long enqueuedAt;
+
+        private Waiter(String tenantKey, T item, long enqueuedAt) {
+            this.tenantKey = tenantKey;
+            this.item = item;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        public String tenantKey() {
+            return tenantKey;
+        }
+
+        public T item() {
+            return item;
+        }
+
+        public long enqueuedAt() {
+            return enqueuedAt;
+        }
+    }
+}
@@ -20,10 +20,32 @@ package com.walmartlabs.concord.server.boot.filters;
  * =====
  */
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.net.HttpHeaders;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.hash.Hashing;
+import com.walmartlabs.concord.policyengine.PolicyEngine;
+import com.walmartlabs.concord.policyengine.QueueRule;
+import com.walmartlabs.concord.policyengine.StartRequestRule;
+import com.walmartlabs.concord.server.boot.filters.FairShareQueue.Limits;
+import com.walmartlabs.concord.server.boot.filters.FairShareQueue.Waiter;
 import com.walmartlabs.concord.server.cfg.QosConfiguration;
+import com.walmartlabs.concord.server.org.OrganizationDao;
+import com.walmartlabs.concord.server.policy.PolicyManager;
+import com.walmartlabs.concord.server.security.apikey.ApiKeyDao;
+import com.walmartlabs.concord.server.security.apikey.ApiKeyEntry;
+import com.walmartlabs.concord.server.user.UserDao;
 import org.apache.shiro.web.util.WebUtils;
 import org.immutables.value.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -32,66 +54,155 @@ import javax.servlet.*;
 import javax.servlet.annotation.WebFilter;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import javax.servlet.http.HttpSession;
 import java.io.IOException;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Semaphore;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * copy from {@link org.eclipse.jetty.servlets.QoSFilter} but with custom error code
+ * Based on {@link org.eclipse.jetty.servlets.QoSFilter} but with custom error code
+ * and with fair sharing of the capacity between tenants.
+ * <p/>
+ * Requests are grouped into tenants by the organization name (taken from
+ * the request path or from the {@code org} query parameter), by the user or by
+ * the client's IP address. The filter runs before the authentication, so only
+ * API keys are checked: the organization is trusted if the key belongs to
+ * a member of that organization, otherwise the key's owner is the tenant.
+ * Requests without credentials, with other types of credentials or with
+ * unknown keys share one tenant per client IP address. The results of
+ * the key and membership lookups are cached (including the negative results)
+ * and the rate of the lookups is limited, so random credentials can't create
+ * new tenants or load the DB.
+ * <p/>
+ * Per-tenant limits are configured in {@code qos.tenant} and can be overridden
+ * for organizations using the {@code queue.startRequests} policy rule.
  */
 @Named
 @Singleton
 @WebFilter(value = {"/api/v1/process/*", "/api/v1/org/*"})
 public class QoSFilter implements Filter {
 
+    private static final Logger log = LoggerFactory.getLogger(QoSFilter.class);
+
     private static final int TOO_MANY_REQUESTS_CODE = 429;
 
-    private static final int DEFAULT_MAX_PRIORITY = 2;
+    private static final String ORG_TENANT_PREFIX = "org:";
+    private static final String USER_TENANT_PREFIX = "user:";
+    private static final String IP_TENANT_PREFIX = "ip:";
+
+    /**
+     * Max number of API key and membership DB lookups per second. Requests
+     * that can't be checked because of the limit are treated as unknown.
+     */
+    private static final double MAX_LOOKUPS_PER_SECOND = 100;
+
+    private static final String BASIC_AUTH_PREFIX = "Basic ";
+    private static final String BEARER_AUTH_PREFIX = "Bearer ";
 
     // currently we only care about `POST /api/v1/process`
     // and `GET /api/v1/org/{orgName}/project/{projectName}/repo/{repoName}/start/{entryPoint}`
     // requests (i.e. process start requests)
     private static UrlPattern[] PATTERNS = {
             UrlPattern.prefix("/api/v1/process", "POST"),
-            UrlPattern.regexp("^/api/v1/org/[^/]*/project/[^/]*/repo/[^/]*/start/[^/]+$", "GET")
+            UrlPattern.regexp("^/api/v1/org/([^/]*)/project/[^/]*/repo/[^/]*/start/[^/]+$", "GET")
     };
 
     private final String _suspended = "QoSFilter@" + Integer.toHexString(hashCode()) + ".SUSPENDED";
     private final String _resumed = "QoSFilter@" + Integer.toHexString(hashCode()) + ".RESUMED";
+    private final String _tenant = "QoSFilter@" + Integer.toHexString(hashCode()) + ".TENANT";
+
+    private final QosConfiguration cfg;
+    private final ApiKeyDao apiKeyDao;
+    private final UserDao userDao;
+    private final PolicyManager policyManager;
+    private final MetricRegistry metricRegistry;
 
     private final long waitMs;
     private final long suspendMs;
     private final int maxRequests;
 
-    private final Queue<AsyncContext>[] queues;
-    private final AsyncListener[] listeners;
-    private final Semaphore passes;
+    private final FairShareQueue<AsyncContext> queue;
+    private final AsyncListener listener;
+    private final ScheduledExecutorService recheckExecutor;
+    private final LoadingCache<String, Optional<UUID>> orgIds;
+    private final Cache<String, Optional<UUID>> apiKeyUsers;
+    private final Cache<String, Boolean> orgMembers;
+    private final RateLimiter lookupLimiter;
+
+    private final Timer waitTimer;
+    private final ConcurrentHashMap<String, Timer> orgWaitTimers = new ConcurrentHashMap<>();
+
+    private final Object recheckMutex = new Object();
+    private ScheduledFuture<?> recheck; // guarded by recheckMutex
+    private long recheckAt; // guarded by recheckMutex
 
     @Inject
-    public QoSFilter(QosConfiguration qosConfiguration) {
+    public QoSFilter(QosConfiguration qosConfiguration,
+                     OrganizationDao orgDao,
+                     ApiKeyDao apiKeyDao,
+                     UserDao userDao,
+                     PolicyManager policyManager,
+                     MetricRegistry metricRegistry) {
+
+        this.cfg = qosConfiguration;
+        this.apiKeyDao = apiKeyDao;
+        this.userDao = userDao;
+        this.policyManager = policyManager;
+        this.metricRegistry = metricRegistry;
+
         this.maxRequests = qosConfiguration.getMaxRequests();
         this.waitMs = qosConfiguration.getMaxWait().toMillis();
         this.suspendMs = qosConfiguration.getSuspend().toMillis();
 
-        this.queues = new AsyncContextQueue[DEFAULT_MAX_PRIORITY + 1];
-        this.listeners = new AsyncListener[this.queues.length];
-        this.passes = new Semaphore(this.maxRequests, true);
+        this.queue = new FairShareQueue<>(this.maxRequests);
+        this.listener = new QoSAsyncListener();
+        this.recheckExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "qos-recheck");
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.orgIds = CacheBuilder.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(1, TimeUnit.MINUTES)
+                .build(new CacheLoader<String, Optional<UUID>>() {
+                    @Override
+                    public Optional<UUID> load(@Nonnull String orgName) {
+                        return Optional.ofNullable(orgDao.getId(orgName));
+                    }
+                });
+
+        // credentials hash -> the key's owner (empty for unknown keys)
+        this.apiKeyUsers = CacheBuilder.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(1, TimeUnit.MINUTES)
+                .build();
+
+        // (userId, orgName) -> is a member
+        this.orgMembers = CacheBuilder.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(1, TimeUnit.MINUTES)
+                .build();
+
+        this.lookupLimiter = RateLimiter.create(MAX_LOOKUPS_PER_SECOND);
+
+        metricRegistry.gauge("qos-queue-depth", () -> () -> queue.getQueueDepth(k -> true));
+        this.waitTimer = metricRegistry.timer("qos-wait-time");
     }
 
     @Override
     public void init(FilterConfig filterConfig) {
-        if (isDisabled()) {
-            return;
-        }
-
-        for (int p = 0; p < this.queues.length; ++p) {
-            this.queues[p] = new AsyncContextQueue();
-            this.listeners[p] = new QoSAsyncListener(p);
-        }
+        // do nothing
     }
 
     @Override
@@ -101,8 +212,9 @@ public class QoSFilter implements Filter {
             return;
         }
 
-        if (needProcessRequest(request)) {
-            filter(request, response, chain);
+        String tenantKey = getTenantKey(request);
+        if (tenantKey != null) {
+            filter(request, response, chain, tenantKey);
         } else {
             chain.doFilter(request, response);
         }
@@ -110,53 +222,149 @@ public class QoSFilter implements Filter {
 
     @Override
     public void destroy() {
-        // do nothing
+        recheckExecutor.shutdownNow();
     }
 
-    private boolean needProcessRequest(ServletRequest request) {
+    /**
+     * Returns the tenant of the request or {@code null} if the request is not
+     * subject to QoS.
+     */
+    private String getTenantKey(ServletRequest request) {
         HttpServletRequest req = WebUtils.toHttp(request);
 
+        // resumed requests
+        String tenantKey = (String) req.getAttribute(_tenant);
+        if (tenantKey != null) {
+            return tenantKey;
+        }
+
         String uri = req.getRequestURI();
         if (uri == null) {
-            return false;
+            return null;
         }
 
         String method = req.getMethod();
         for (UrlPattern p : PATTERNS) {
-            if (p.method().equalsIgnoreCase(method)) {
-                if (p.prefix() != null && uri.startsWith(p.prefix())) {
-                    return true;
-                }
-                if (p.regexp() != null && p.regexp().matcher(uri).matches()) {
-                    return true;
+            if (!p.method().equalsIgnoreCase(method)) {
+                continue;
+            }
+
+            if (p.prefix() != null && uri.startsWith(p.prefix())) {
+                return getTenantKey(req, getQueryParameter(req, "org"));
+            }
+
+            if (p.regexp() != null) {
+                Matcher m = p.regexp().matcher(uri);
+                if (m.matches()) {
+                    return getTenantKey(req, decode(m.group(1)));
                 }
             }
         }
 
-        return false;
+        return null;
+    }
+
+    private String getTenantKey(HttpServletRequest req, String orgName) {
+        UUID userId = getApiKeyOwner(req.getHeader(HttpHeaders.AUTHORIZATION));
+        if (userId == null) {
+            return IP_TENANT_PREFIX + req.getRemoteAddr();
+        }
+
+        if (orgName != null && !orgName.trim().isEmpty() && isOrgMember(userId, orgName)) {
+            return ORG_TENANT_PREFIX + orgName;
+        }
+
+        return USER_TENANT_PREFIX + userId;
+    }
+
+    /**
+     * Returns the owner of the API key in the specified {@code Authorization} header
+     * or {@code null} if there is no key, the key is unknown or can't be checked now.
+     * Other types of credentials are not checked, the filter can't afford
+     * the external authentication calls.
+     */
+    private UUID getApiKeyOwner(String auth) {
+        if (auth == null || auth.startsWith(BASIC_AUTH_PREFIX)) {
+            return null;
+        }
+
+        String authHash = Hashing.sha256().hashString(auth, StandardCharsets.UTF_8).toString();
+        Optional<UUID> cached = apiKeyUsers.getIfPresent(authHash);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+
+        if (!lookupLimiter.tryAcquire()) {
+            return null;
+        }
+
+        String key = auth.startsWith(BEARER_AUTH_PREFIX) ? auth.substring(BEARER_AUTH_PREFIX.length()) : auth;
+
+        Optional<UUID> result;
+        try {
+            ApiKeyEntry apiKey = apiKeyDao.find(key);
+            result = Optional.ofNullable(apiKey).map(ApiKeyEntry::getUserId);
+        } catch (IllegalArgumentException e) {
+            // not a valid API key
+            result = Optional.empty();
+        } catch (RuntimeException e) {
+            log.warn("getApiKeyOwner -> error while looking up the key: {}", e.getMessage());
+            return null;
+        }
+
+        apiKeyUsers.put(authHash, result);
+        return result.orElse(null);
+    }
+
+    private boolean isOrgMember(UUID userId, String orgName) {
+        String cacheKey = userId + "/" + orgName;
+
+        Boolean cached = orgMembers.getIfPresent(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (!lookupLimiter.tryAcquire()) {
+            return false;
+        }
+
+        boolean result;
+        try {
+            UUID orgId = orgIds.getUnchecked(orgName).orElse(null);
+            result = orgId != null && userDao.isInOrganization(userId, orgId);
+        } catch (RuntimeException e) {
+            log.warn("isOrgMember ['{}'] -> error while checking the membership: {}", orgName, e.getMessage());
+            return false;
+        }
+
+        orgMembers.put(cacheKey, result);
+        return result;
     }
 
     private boolean isDisabled() {
         return maxRequests < 0;
     }
 
-    private void filter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+    private void filter(ServletRequest request, ServletResponse response, FilterChain chain, String tenantKey) throws IOException, ServletException {
         boolean accepted = false;
         try {
+            Limits limits = getLimits(tenantKey);
+
             Boolean suspended = (Boolean) request.getAttribute(_suspended);
             if (suspended == null) {
-                accepted = passes.tryAcquire(waitMs, TimeUnit.MILLISECONDS);
+                accepted = queue.tryAcquire(tenantKey, limits, false, waitMs);
                 if (accepted) {
                     request.setAttribute(_suspended, Boolean.FALSE);
                 } else {
                     request.setAttribute(_suspended, Boolean.TRUE);
-                    int priority = getPriority(request);
+                    request.setAttribute(_tenant, tenantKey);
                     AsyncContext asyncContext = request.startAsync();
                     if (suspendMs > 0) {
                         asyncContext.setTimeout(suspendMs);
                     }
-                    asyncContext.addListener(listeners[priority]);
-                    queues[priority].add(asyncContext);
+                    asyncContext.addListener(listener);
+                    queue.enqueue(tenantKey, limits, asyncContext);
+                    scheduleRecheck();
                     return;
                 }
             } else {
@@ -164,16 +372,15 @@ public class QoSFilter implements Filter {
                     request.setAttribute(_suspended, Boolean.FALSE);
                     Boolean resumed = (Boolean) request.getAttribute(_resumed);
                     if (Boolean.TRUE.equals(resumed)) {
-                        passes.acquire();
+                        // the pass was acquired on our behalf by the request that resumed us
                         accepted = true;
                     } else {
                         // Timeout! try 1 more time.
-                        accepted = passes.tryAcquire(waitMs, TimeUnit.MILLISECONDS);
+                        accepted = queue.tryAcquire(tenantKey, limits, true, waitMs);
                     }
                 } else {
                     // Pass through resume of previously accepted request.
-                    passes.acquire();
-                    accepted = true;
+                    accepted = queue.tryAcquire(tenantKey, limits, true, waitMs);
                 }
             }
 
@@ -187,48 +394,173 @@ public class QoSFilter implements Filter {
             Thread.currentThread().interrupt();
         } finally {
             if (accepted) {
-                for (int p = queues.length - 1; p >= 0; --p) {
-                    AsyncContext asyncContext = queues[p].poll();
-                    if (asyncContext != null) {
-                        ServletRequest candidate = asyncContext.getRequest();
-                        Boolean suspended = (Boolean) candidate.getAttribute(_suspended);
-                        if (Boolean.TRUE.equals(suspended)) {
-                            candidate.setAttribute(_resumed, Boolean.TRUE);
-                            asyncContext.dispatch();
-                            break;
-                        }
-                    }
-                }
-                passes.release();
+                releaseAndResumeNext(tenantKey);
             }
         }
     }
 
-    private int getPriority(ServletRequest request) {
-        HttpServletRequest baseRequest = (HttpServletRequest) request;
-        if (baseRequest.getUserPrincipal() != null) {
-            return 2;
-        } else {
-            HttpSession session = baseRequest.getSession(false);
-            if (session != null && !session.isNew())
-                return 1;
-            else
-                return 0;
+    private void releaseAndResumeNext(String tenantKey) {
+        resume(queue.release(tenantKey));
+        scheduleRecheck();
+    }
+
+    private void resume(Waiter<AsyncContext> next) {
+        while (next != null) {
+            AsyncContext asyncContext = next.item();
+            try {
+                asyncContext.getRequest().setAttribute(_resumed, Boolean.TRUE);
+                asyncContext.dispatch();
+                recordWaitTime(next);
+                return;
+            } catch (IllegalStateException e) {
+                // the request is already completed (e.g. timed out), pass the acquired pass on
+                next = queue.release(next.tenantKey());
+            }
         }
     }
 
-    private static class AsyncContextQueue extends ConcurrentLinkedQueue<AsyncContext> {
-        private static final long serialVersionUID = 1L;
+    /**
+     * Schedules a check of the queue at the time when the next rate limited
+     * tenant's bucket is refilled. Without it the queued requests of such
+     * tenants would wait for a release or for the suspend timeout.
+     */
+    private void scheduleRecheck() {
+        long at = queue.nextRefillAt();
+        if (at < 0) {
+            return;
+        }
+
+        synchronized (recheckMutex) {
+            if (recheck != null && !recheck.isDone() && recheckAt <= at) {
+                return;
+            }
+
+            if (recheck != null) {
+                recheck.cancel(false);
+            }
+
+            recheckAt = at;
+            try {
+                recheck = recheckExecutor.schedule(this::recheck, Math.max(0, at - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // the filter is destroyed
+                recheck = null;
+            }
+        }
     }
 
-    private class QoSAsyncListener implements AsyncListener {
+    private void recheck() {
+        synchronized (recheckMutex) {
+            recheck = null;
+        }
+
+        Waiter<AsyncContext> next;
+        while ((next = queue.poll()) != null) {
+            resume(next);
+        }
+
+        scheduleRecheck();
+    }
+
+    private Limits getLimits(String tenantKey) {
+        StartRequestRule rule = null;
+        if (tenantKey.startsWith(ORG_TENANT_PREFIX)) {
+            rule = getRule(tenantKey.substring(ORG_TENANT_PREFIX.length()));
+        }
+
+        int maxConcurrent = cfg.getTenantMaxConcurrent();
+        double maxPerSecond = cfg.getTenantMaxPerSecond();
+        int weight = 1;
+
+        if (rule != null) {
+            if (rule.maxConcurrent() != null) {
+                maxConcurrent = rule.maxConcurrent();
+            }
+            if (rule.maxPerSecond() != null) {
+                maxPerSecond = rule.maxPerSecond();
+            }
+            if (rule.weight() != null) {
+                weight = rule.weight();
+            }
+        }
+
+        return Limits.of(maxConcurrent, maxPerSecond, weight);
+    }
+
+    private StartRequestRule getRule(String orgName) {
+        UUID orgId;
+        try {
+            orgId = orgIds.getUnchecked(orgName).orElse(null);
+        } catch (Exception e) {
+            log.warn("getRule ['{}'] -> error while resolving the organization: {}", orgName, e.getMessage());
+            return null;
+        }
+
+        if (orgId == null) {
+            return null;
+        }
+
+        PolicyEngine policy = policyManager.get(orgId, null, null);
+        if (policy == null) {
+            return null;
+        }
+
+        QueueRule qr = policy.getRules().queueRules();
+        if (qr == null) {
+            return null;
+        }
+
+        return qr.startRequestRule();
+    }
+
+    private void recordWaitTime(Waiter<AsyncContext> w) {
+        long t = System.currentTimeMillis() - w.enqueuedAt();
+        waitTimer.update(t, TimeUnit.MILLISECONDS);
+
+        String tenantKey = w.tenantKey();
+        if (!tenantKey.startsWith(ORG_TENANT_PREFIX)) {
+            return;
+        }
+
+        String orgName = tenantKey.substring(ORG_TENANT_PREFIX.length());
+        if (!orgIds.getUnchecked(orgName).isPresent()) {
+            // per-tenant metrics only for the existing organizations
+            return;
+        }
+
+        orgWaitTimers.computeIfAbsent(orgName, n -> {
+            metricRegistry.gauge("qos-queue-depth-org-" + n, () -> () -> queue.getQueueDepth(tenantKey::equals));
+            return metricRegistry.timer("qos-wait-time-org-" + n);
+        }).update(t, TimeUnit.MILLISECONDS);
+    }
 
-        private final int priority;
+    private static String getQueryParameter(HttpServletRequest req, String name) {
+        // parse the query string manually, HttpServletRequest#getParameter might consume the request body
+        String qs = req.getQueryString();
+        if (qs == null) {
+            return null;
+        }
 
-        QoSAsyncListener(int priority) {
-            this.priority = priority;
+        for (String kv : qs.split("&")) {
+            int i = kv.indexOf('=');
+            if (i > 0 && name.equals(decode(kv.substring(0, i)))) {
+                return decode(kv.substring(i + 1));
+            }
         }
 
+        return null;
+    }
+
+    private static String decode(String s) {
+        try {
+            return URLDecoder.decode(s, "UTF-8");
+        } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+            return s;
+        }
+    }
+
+    private class QoSAsyncListener implements AsyncListener {
+
         @Override
         public void onStartAsync(AsyncEvent event) {
         }
@@ -242,8 +574,12 @@ public class QoSFilter implements Filter {
             // Remove before it's redispatched, so it won't be
             // redispatched again at the end of the filtering.
             AsyncContext asyncContext = event.getAsyncContext();
-            queues[priority].remove(asyncContext);
-            asyncContext.dispatch();
+            String tenantKey = (String) asyncContext.getRequest().getAttribute(_tenant);
+            Waiter<AsyncContext> w = queue.remove(tenantKey, asyncContext);
+            if (w != null) {
+                recordWaitTime(w);
+                asyncContext.dispatch();
+            }
         }
 
         @Override
@@ -254,6 +590,9 @@ public class QoSFilter implements Filter {
     @Value.Immutable
     interface UrlPattern {
 
+        /**
+         * The first group, if present, must match the organization name.
+         */
         @Nullable
         Pattern regexp();
 
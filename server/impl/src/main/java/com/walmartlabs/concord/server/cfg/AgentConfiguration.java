@@ -38,6 +38,10 @@ public class AgentConfiguration implements Serializable {
     @Config("agent.commandPollDelay")
     private Duration commandPollDelay;
 
+    @Inject
+    @Config("agent.heartbeatPollDelay")
+    private Duration heartbeatPollDelay;
+
     @Inject
     @Config("agent.watchdogPeriod")
     private Duration watchdogPeriod;
@@ -54,6 +58,10 @@ public class AgentConfiguration implements Serializable {
         return commandPollDelay;
     }
 
+    public Duration getHeartbeatPollDelay() {
+        return heartbeatPollDelay;
+    }
+
     public Duration getWatchdogPeriod() {
         return watchdogPeriod;
     }
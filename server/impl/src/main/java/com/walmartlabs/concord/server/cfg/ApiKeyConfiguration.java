@@ -50,6 +50,10 @@ public class ApiKeyConfiguration implements Serializable {
     @Config("apiKey.notifyBeforeDays")
     private List<Integer> notifyBeforeDays;
 
+    @Inject
+    @Config("apiKey.accessAuditWindow")
+    private Duration accessAuditWindow;
+
     private final Path loadFrom;
 
     @Inject
@@ -69,6 +73,10 @@ public class ApiKeyConfiguration implements Serializable {
         return notifyBeforeDays;
     }
 
+    public Duration getAccessAuditWindow() {
+        return accessAuditWindow;
+    }
+
     public Path getLoadFrom() {
         return loadFrom;
     }
@@ -28,6 +28,7 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.Serializable;
 import java.time.Duration;
+import java.util.List;
 
 @Named
 @Singleton
@@ -52,6 +53,26 @@ public class AuditConfiguration implements Serializable {
     @Config("audit.maxSearchInterval")
     private Duration maxSearchInterval;
 
+    @Inject
+    @Config("audit.async.enabled")
+    private boolean asyncEnabled;
+
+    @Inject
+    @Config("audit.async.batchSize")
+    private int asyncBatchSize;
+
+    @Inject
+    @Config("audit.async.flushInterval")
+    private Duration asyncFlushInterval;
+
+    @Inject
+    @Config("audit.async.maxQueueSize")
+    private int asyncMaxQueueSize;
+
+    @Inject
+    @Config("audit.async.syncActions")
+    private List<String> syncActions;
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -67,4 +88,24 @@ public class AuditConfiguration implements Serializable {
     public Duration getMaxSearchInterval() {
         return maxSearchInterval;
     }
+
+    public boolean isAsyncEnabled() {
+        return asyncEnabled;
+    }
+
+    public int getAsyncBatchSize() {
+        return asyncBatchSize;
+    }
+
+    public Duration getAsyncFlushInterval() {
+        return asyncFlushInterval;
+    }
+
+    public int getAsyncMaxQueueSize() {
+        return asyncMaxQueueSize;
+    }
+
+    public List<String> getSyncActions() {
+        return syncActions;
+    }
 }
@@ -66,6 +66,14 @@ public class ProcessConfiguration implements Serializable {
     @Config("process.maxStateAge")
     private Duration maxStateAge;
 
+    @Inject
+    @Config("process.cleanupBatchSize")
+    private int cleanupBatchSize;
+
+    @Inject
+    @Config("process.dropExpiredPartitions")
+    private boolean dropExpiredPartitions;
+
     @Inject
     @Config("process.secureFiles")
     private List<String> secureFiles;
@@ -90,6 +98,18 @@ public class ProcessConfiguration implements Serializable {
     @Config("process.checkLogPermissions")
     private boolean checkLogPermissions;
 
+    @Inject
+    @Config("process.sessionKeyCacheTtl")
+    private Duration sessionKeyCacheTtl;
+
+    @Inject
+    @Config("process.definitionCache.maxEntries")
+    private int definitionCacheMaxEntries;
+
+    @Inject
+    @Config("process.definitionCache.expireAfterAccess")
+    private Duration definitionCacheExpireAfterAccess;
+
     @Inject
     public ProcessConfiguration(@Config("process.signingKeyPath") @Nullable String signingKeyPath) {
         this.signingKeyPath = signingKeyPath != null ? Paths.get(signingKeyPath) : null;
@@ -128,6 +148,14 @@ public class ProcessConfiguration implements Serializable {
         return maxStateAge;
     }
 
+    public int getCleanupBatchSize() {
+        return cleanupBatchSize;
+    }
+
+    public boolean isDropExpiredPartitions() {
+        return dropExpiredPartitions;
+    }
+
     public List<String> getSecureFiles() {
         return secureFiles;
     }
@@ -151,4 +179,16 @@ public class ProcessConfiguration implements Serializable {
     public boolean isCheckLogPermissions() {
         return checkLogPermissions;
     }
+
+    public Duration getSessionKeyCacheTtl() {
+        return sessionKeyCacheTtl;
+    }
+
+    public int getDefinitionCacheMaxEntries() {
+        return definitionCacheMaxEntries;
+    }
+
+    public Duration getDefinitionCacheExpireAfterAccess() {
+        return definitionCacheExpireAfterAccess;
+    }
 }
@@ -42,6 +42,10 @@ public class ProcessQueueConfiguration implements Serializable {
     @Config("queue.dispatcher.batchSize")
     private int dispatcherBatchSize;
 
+    @Inject
+    @Config("queue.depthCacheTtl")
+    private Duration depthCacheTtl;
+
     public Duration getDispatcherPollDelay() {
         return dispatcherPollDelay;
     }
@@ -49,4 +53,8 @@ public class ProcessQueueConfiguration implements Serializable {
     public int getDispatcherBatchSize() {
         return dispatcherBatchSize;
     }
+
+    public Duration getDepthCacheTtl() {
+        return depthCacheTtl;
+    }
 }
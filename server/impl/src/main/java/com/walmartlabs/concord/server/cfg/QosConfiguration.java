@@ -42,6 +42,14 @@ public class QosConfiguration implements Serializable {
     @Config("qos.suspend")
     public Duration suspend;
 
+    @Inject
+    @Config("qos.tenant.maxConcurrent")
+    public int tenantMaxConcurrent;
+
+    @Inject
+    @Config("qos.tenant.maxPerSecond")
+    public int tenantMaxPerSecond;
+
     public int getMaxRequests() {
         return maxRequests;
     }
@@ -53,4 +61,12 @@ public class QosConfiguration implements Serializable {
     public Duration getSuspend() {
         return suspend;
     }
+
+    public int getTenantMaxConcurrent() {
+        return tenantMaxConcurrent;
+    }
+
+    public int getTenantMaxPerSecond() {
+        return tenantMaxPerSecond;
+    }
 }
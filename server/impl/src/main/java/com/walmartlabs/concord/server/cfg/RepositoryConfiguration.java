@@ -20,6 +20,7 @@ package com.walmartlabs.concord.server.cfg;
  * =====
  */
 
+import com.typesafe.config.ConfigMemorySize;
 import com.walmartlabs.ollie.config.Config;
 import org.eclipse.sisu.Nullable;
 import org.slf4j.Logger;
@@ -56,10 +57,26 @@ public class RepositoryConfiguration {
     @Config("repositoryCache.maxAge")
     private Duration maxAge;
 
+    @Inject
+    @Config("repositoryCache.maxSize")
+    private ConfigMemorySize maxSize;
+
+    @Inject
+    @Config("repositoryCache.maxEntries")
+    private int maxEntries;
+
     @Inject
     @Config("repositoryCache.lockCount")
     private int lockCount;
 
+    @Inject
+    @Config("repositoryCache.exportUsingHardLinks")
+    private boolean exportUsingHardLinks;
+
+    @Inject
+    @Config("repositoryCache.sharedObjectStore")
+    private boolean sharedObjectStore;
+
     @Inject
     public RepositoryConfiguration(@Config("repositoryCache.cacheDir") @Nullable String cacheDir,
                                    @Config("repositoryCache.cacheInfoDir") @Nullable String cacheInfoDir) throws IOException {
@@ -90,6 +107,22 @@ public class RepositoryConfiguration {
         return maxAge;
     }
 
+    public long getMaxSize() {
+        return maxSize.toBytes();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public boolean isExportUsingHardLinks() {
+        return exportUsingHardLinks;
+    }
+
+    public boolean isSharedObjectStore() {
+        return sharedObjectStore;
+    }
+
     public Path getCacheInfoDir() {
         return cacheInfoDir;
     }
@@ -26,6 +26,7 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.Serializable;
+import java.time.Duration;
 
 @Named
 @Singleton
@@ -53,6 +54,18 @@ public class SecretStoreConfiguration implements Serializable {
     @Config("secretStore.keySize")
     private int keySize;
 
+    @Inject
+    @Config("secretStore.cache.enabled")
+    private boolean cacheEnabled;
+
+    @Inject
+    @Config("secretStore.cache.ttl")
+    private Duration cacheTtl;
+
+    @Inject
+    @Config("secretStore.cache.maxEntries")
+    private int cacheMaxEntries;
+
     public byte[] getServerPwd() {
         return serverPwd;
     }
@@ -72,4 +85,16 @@ public class SecretStoreConfiguration implements Serializable {
     public int getKeySize() {
         return keySize;
     }
+
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
 }
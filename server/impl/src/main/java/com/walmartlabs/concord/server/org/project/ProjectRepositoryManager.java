@@ -23,6 +23,7 @@ package com.walmartlabs.concord.server.org.project;
 import com.walmartlabs.concord.imports.ImportsListener;
 import com.walmartlabs.concord.process.loader.ProjectLoader;
 import com.walmartlabs.concord.process.loader.model.ProcessDefinition;
+import com.walmartlabs.concord.repository.FetchResult;
 import com.walmartlabs.concord.repository.Repository;
 import com.walmartlabs.concord.server.audit.AuditAction;
 import com.walmartlabs.concord.server.audit.AuditLog;
@@ -38,6 +39,7 @@ import com.walmartlabs.concord.server.policy.EntityType;
 import com.walmartlabs.concord.server.policy.PolicyManager;
 import com.walmartlabs.concord.server.policy.PolicyUtils;
 import com.walmartlabs.concord.server.process.ImportsNormalizerFactory;
+import com.walmartlabs.concord.server.process.ProcessDefinitionCache;
 import com.walmartlabs.concord.server.repository.RepositoryManager;
 import org.jooq.DSLContext;
 import org.sonatype.siesta.ValidationErrorsException;
@@ -58,7 +60,7 @@ public class ProjectRepositoryManager {
     private final RepositoryDao repositoryDao;
     private final ExternalEventResource externalEventResource;
     private final AuditLog auditLog;
-    private final ProjectLoader projectLoader;
+    private final ProcessDefinitionCache processDefinitionCache;
     private final ImportsNormalizerFactory importsNormalizerFactory;
     private final PolicyManager policyManager;
 
@@ -69,7 +71,7 @@ public class ProjectRepositoryManager {
                                     RepositoryDao repositoryDao,
                                     ExternalEventResource externalEventResource,
                                     AuditLog auditLog,
-                                    ProjectLoader projectLoader,
+                                    ProcessDefinitionCache processDefinitionCache,
                                     ImportsNormalizerFactory importsNormalizerFactory,
                                     PolicyManager policyManager) {
 
@@ -79,7 +81,7 @@ public class ProjectRepositoryManager {
         this.repositoryDao = repositoryDao;
         this.externalEventResource = externalEventResource;
         this.auditLog = auditLog;
-        this.projectLoader = projectLoader;
+        this.processDefinitionCache = processDefinitionCache;
         this.importsNormalizerFactory = importsNormalizerFactory;
         this.policyManager = policyManager;
     }
@@ -213,7 +215,13 @@ public class ProjectRepositoryManager {
         try {
             ProcessDefinition pd = repositoryManager.withLock(repo.getUrl(), () -> {
                 Repository repository = repositoryManager.fetch(projectId, repo);
-                ProjectLoader.Result result = projectLoader.loadProject(repository.path(), importsNormalizerFactory.forProject(repo.getProjectId()), ImportsListener.NOP_LISTENER);
+                String runtime = ProjectLoader.getRuntimeType(repository.path(), ProjectLoader.RUNTIME_V1);
+                FetchResult fetchResult = repository.fetchResult();
+                ProcessDefinitionCache.Key cacheKey = ProcessDefinitionCache.Key.of(repo.getUrl(), fetchResult != null ? fetchResult.head() : null, repo.getPath(), runtime);
+
+                // the imports are not needed for the validation
+                ProjectLoader.Result result = processDefinitionCache.load(cacheKey, repository.path(), runtime,
+                        importsNormalizerFactory.forProject(repo.getProjectId()), ImportsListener.NOP_LISTENER, false);
                 return result.projectDefinition();
             });
 
@@ -0,0 +1,127 @@
+package com.walmartlabs.concord.server.org.secret;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.Counter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.walmartlabs.concord.server.cfg.SecretStoreConfiguration;
+import com.walmartlabs.concord.server.sdk.metrics.InjectCounter;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of decrypted secret data. Only secrets encrypted with
+ * the server's key should be cached. Cached arrays are zeroed on eviction,
+ * callers always receive a copy.
+ */
+@Named
+@Singleton
+public class SecretCache {
+
+    private final Cache<UUID, Entry> cache;
+
+    @InjectCounter
+    private final Counter secretCacheHits;
+
+    @InjectCounter
+    private final Counter secretCacheMisses;
+
+    @Inject
+    public SecretCache(SecretStoreConfiguration cfg, Counter secretCacheHits, Counter secretCacheMisses) {
+        this.secretCacheHits = secretCacheHits;
+        this.secretCacheMisses = secretCacheMisses;
+
+        if (cfg.isCacheEnabled()) {
+            this.cache = CacheBuilder.newBuilder()
+                    .expireAfterWrite(cfg.getCacheTtl().toMillis(), TimeUnit.MILLISECONDS)
+                    .maximumSize(cfg.getCacheMaxEntries())
+                    .concurrencyLevel(8)
+                    .removalListener((RemovalListener<UUID, Entry>) n -> n.getValue().wipe())
+                    .build();
+        } else {
+            this.cache = null;
+        }
+    }
+
+    /**
+     * Returns a copy of the cached data or loads (and caches) it using
+     * the provided {@code loader}.
+     */
+    public byte[] get(UUID secretId, Supplier<byte[]> loader) {
+        if (cache == null) {
+            return loader.get();
+        }
+
+        Entry e = cache.getIfPresent(secretId);
+        byte[] result = e != null ? e.copy() : null;
+        if (result != null) {
+            secretCacheHits.inc();
+            return result;
+        }
+
+        secretCacheMisses.inc();
+
+        result = loader.get();
+        cache.put(secretId, new Entry(Arrays.copyOf(result, result.length)));
+        return result;
+    }
+
+    public void invalidate(UUID secretId) {
+        if (cache == null) {
+            return;
+        }
+
+        cache.invalidate(secretId);
+    }
+
+    private static final class Entry {
+
+        private final byte[] data;
+        private boolean wiped;
+
+        private Entry(byte[] data) {
+            this.data = data;
+        }
+
+        /**
+         * @return a copy of the data or {@code null} if the entry was already wiped.
+         */
+        synchronized byte[] copy() {
+            if (wiped) {
+                return null;
+            }
+            return Arrays.copyOf(data, data.length);
+        }
+
+        synchronized void wipe() {
+            Arrays.fill(data, (byte) 0);
+            wiped = true;
+        }
+    }
+}
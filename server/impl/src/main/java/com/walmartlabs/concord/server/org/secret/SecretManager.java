@@ -87,6 +87,7 @@ public class SecretManager {
     private final RepositoryDao repositoryDao;
     private final UserManager userManager;
     private final ApiKeyDao apiKeyDao;
+    private final SecretCache secretCache;
 
     private static final int SALT_LENGTH = 16;
 
@@ -102,7 +103,8 @@ public class SecretManager {
                          ProjectAccessManager projectAccessManager,
                          RepositoryDao repositoryDao,
                          UserManager userManager,
-                         ApiKeyDao apiKeyDao) {
+                         ApiKeyDao apiKeyDao,
+                         SecretCache secretCache) {
 
         this.policyManager = policyManager;
         this.processQueueManager = processQueueManager;
@@ -116,6 +118,7 @@ public class SecretManager {
         this.repositoryDao = repositoryDao;
         this.userManager = userManager;
         this.apiKeyDao = apiKeyDao;
+        this.secretCache = secretCache;
     }
 
     @WithTimer
@@ -387,6 +390,8 @@ public class SecretManager {
                     finalNewType, newEncryptedData, params.newVisibility(), newProjectId, newOrgId, hashAlgorithm);
         });
 
+        secretCache.invalidate(e.getId());
+
         Map<String, Object> changes = DiffUtils.compare(e, secretDao.get(e.getId()));
         changes.put("updated", updated);
 
@@ -422,6 +427,8 @@ public class SecretManager {
         // now delete secret information from secret table
         secretDao.delete(tx, e.getId());
 
+        secretCache.invalidate(e.getId());
+
         auditLog.add(AuditObject.SECRET, AuditAction.DELETE)
                 .field("orgId", e.getOrgId())
                 .field("secretId", e.getId())
@@ -451,6 +458,15 @@ public class SecretManager {
     }
 
     private byte[] decryptData(SecretEntry e, String password) {
+        if (password == null) {
+            // only the secrets encrypted with the server's key are cached
+            return secretCache.get(e.getId(), () -> doDecryptData(e, null));
+        }
+
+        return doDecryptData(e, password);
+    }
+
+    private byte[] doDecryptData(SecretEntry e, String password) {
         byte[] data = getSecretStore(e.getStoreType()).get(e.getId());
         if (data == null) {
             throw new IllegalStateException("Can't find the secret's data in the store " + e.getStoreType() + " : " + e.getId());
@@ -527,6 +543,7 @@ public class SecretManager {
     public void updateAccessLevel(UUID secretId, UUID teamId, ResourceAccessLevel level) {
         assertAccess(null, secretId, null, ResourceAccessLevel.OWNER, true);
         secretDao.upsertAccessLevel(secretId, teamId, level);
+        secretCache.invalidate(secretId);
     }
 
     private UUID create(String name,
@@ -608,6 +625,8 @@ public class SecretManager {
             }
         });
 
+        secretCache.invalidate(secretId);
+
         addAuditLog(secretId, entries, isReplace);
     }
 
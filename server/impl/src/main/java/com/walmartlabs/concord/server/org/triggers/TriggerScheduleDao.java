@@ -32,10 +32,12 @@ import org.jooq.*;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.util.*;
 
+import static com.walmartlabs.concord.db.PgUtils.interval;
 import static com.walmartlabs.concord.server.jooq.Tables.*;
 import static com.walmartlabs.concord.server.jooq.tables.TriggerSchedule.TRIGGER_SCHEDULE;
 import static com.walmartlabs.concord.server.jooq.tables.Triggers.TRIGGERS;
@@ -147,6 +149,16 @@ public class TriggerScheduleDao extends AbstractDao {
                 .fetchOne(field("now", OffsetDateTime.class)));
     }
 
+    /**
+     * Returns the number of triggers scheduled to fire within the specified period of time.
+     */
+    public int countScheduled(Duration horizon) {
+        return dsl().selectCount()
+                .from(TRIGGER_SCHEDULE)
+                .where(TRIGGER_SCHEDULE.FIRE_AT.lessOrEqual(currentOffsetDateTime().plus(interval(horizon.getSeconds() + " seconds"))))
+                .fetchOne(Record1::value1);
+    }
+
     public void insert(DSLContext tx, UUID triggerId, OffsetDateTime fireAt) {
         tx.insertInto(TRIGGER_SCHEDULE)
                 .columns(TRIGGER_SCHEDULE.TRIGGER_ID, TRIGGER_SCHEDULE.FIRE_AT)
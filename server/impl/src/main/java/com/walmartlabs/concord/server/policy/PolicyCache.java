@@ -40,9 +40,6 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.util.*;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 import static com.walmartlabs.concord.server.jooq.Tables.POLICIES;
@@ -56,17 +53,15 @@ public class PolicyCache implements BackgroundTask {
     private static final long ERROR_DELAY = 10000;
 
     private final ObjectMapper objectMapper;
-    private final ReadWriteLock rwLock = new ReentrantReadWriteLock();
     private final Object refreshMutex = new Object();
 
     private final PolicyCacheConfiguration cacheCfg;
     private final Dao dao;
 
-    private PolicyEngine defaultPolicy;
-    private Map<UUID, PolicyEngine> byOrg = Collections.emptyMap();
-    private Map<UUID, PolicyEngine> byProject = Collections.emptyMap();
-    private Map<UUID, PolicyEngine> byUser = Collections.emptyMap();
-    private List<PolicyItem> otherUserPolicies = Collections.emptyList();
+    /**
+     * Immutable, replaced as a whole on each reload. Readers don't need any locks.
+     */
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
 
     private volatile long lastRefreshRequestAt = -1;
     private Thread loader;
@@ -105,64 +100,44 @@ public class PolicyCache implements BackgroundTask {
     }
 
     public PolicyEngine get(UUID orgId, UUID projectId, UUID userId) {
-        Lock l = rwLock.readLock();
-        l.lock();
-        try {
-            return getUnsafe(orgId, projectId, userId);
-        } finally {
-            l.unlock();
-        }
-    }
+        Snapshot s = snapshot;
 
-    private PolicyEngine getUnsafe(UUID orgId, UUID projectId, UUID userId) {
         if (userId != null) {
             if (projectId != null) {
-                PolicyEngine result = otherUserPolicies.stream()
-                        .filter(p -> userId.equals(p.link().userId()))
-                        .filter(p -> projectId.equals(p.link().projectId()))
-                        .findAny()
-                        .map(PolicyItem::engine)
-                        .orElse(null);
-
+                PolicyEngine result = s.byUserAndProject.get(new ScopedUserKey(userId, projectId));
                 if (result != null) {
                     return result;
                 }
             }
 
             if (orgId != null) {
-                PolicyEngine result = otherUserPolicies.stream()
-                        .filter(p -> userId.equals(p.link().userId()))
-                        .filter(p -> orgId.equals(p.link().orgId()))
-                        .findAny()
-                        .map(PolicyItem::engine)
-                        .orElse(null);
-
+                PolicyEngine result = s.byUserAndOrg.get(new ScopedUserKey(userId, orgId));
                 if (result != null) {
                     return result;
                 }
             }
 
-            PolicyEngine result = byUser.get(userId);
+            PolicyEngine result = s.byUser.get(userId);
             if (result != null) {
                 return result;
             }
         }
 
         if (projectId != null) {
-            PolicyEngine result = byProject.get(projectId);
+            PolicyEngine result = s.byProject.get(projectId);
             if (result != null) {
                 return result;
             }
         }
 
         if (orgId != null) {
-            PolicyEngine result = byOrg.get(orgId);
+            PolicyEngine result = s.byOrg.get(orgId);
             if (result != null) {
                 return result;
             }
         }
 
-        return defaultPolicy;
+        return s.defaultPolicy;
     }
 
     private void run() {
@@ -197,21 +172,26 @@ public class PolicyCache implements BackgroundTask {
         Map<UUID, PolicyEngine> byOrg = new HashMap<>();
         Map<UUID, PolicyEngine> byProject = new HashMap<>();
         Map<UUID, PolicyEngine> byUser = new HashMap<>();
-        List<PolicyItem> otherUserPolicies = new ArrayList<>();
+        Map<ScopedUserKey, PolicyEngine> byUserAndProject = new HashMap<>();
+        Map<ScopedUserKey, PolicyEngine> byUserAndOrg = new HashMap<>();
 
         List<PolicyLink> links = dao.listLinks();
         if (links.isEmpty()) {
-            setPolicies(defaultPolicy, byOrg, byProject, byUser, otherUserPolicies);
+            this.snapshot = Snapshot.EMPTY;
             return;
         }
 
         Map<UUID, Policy> policies = mergePolicies(dao.listPolicies());
+
+        // links often share the same policy, create one engine per policy
+        Map<UUID, PolicyEngine> engines = new HashMap<>();
+
         for (PolicyLink l : links) {
             Policy policy = policies.get(l.policyId());
             if (policy == null) {
                 continue;
             }
-            PolicyEngine pe = new PolicyEngine(policy.policyNames(), policy.rules());
+            PolicyEngine pe = engines.computeIfAbsent(policy.id(), id -> new PolicyEngine(policy.policyNames(), policy.rules()));
             if (l.orgId() == null && l.projectId() == null && l.userId() == null) {
                 defaultPolicy = pe;
             } else if (l.orgId() != null && l.projectId() == null && l.userId() == null) {
@@ -221,32 +201,18 @@ public class PolicyCache implements BackgroundTask {
             } else if (l.orgId() == null && l.projectId() == null && l.userId() != null) {
                 byUser.put(l.userId(), pe);
             } else if (l.userId() != null) {
-                otherUserPolicies.add(PolicyItem.of(l, pe));
+                if (l.projectId() != null) {
+                    byUserAndProject.putIfAbsent(new ScopedUserKey(l.userId(), l.projectId()), pe);
+                }
+                if (l.orgId() != null) {
+                    byUserAndOrg.putIfAbsent(new ScopedUserKey(l.userId(), l.orgId()), pe);
+                }
             } else {
                 log.warn("Unexpected policy link: {}", l);
             }
         }
 
-        setPolicies(defaultPolicy, byOrg, byProject, byUser, otherUserPolicies);
-    }
-
-    private void setPolicies(PolicyEngine defaultPolicy,
-                             Map<UUID, PolicyEngine> byOrg,
-                             Map<UUID, PolicyEngine> byProject,
-                             Map<UUID, PolicyEngine> byUser,
-                             List<PolicyItem> otherUserPolicies) {
-
-        Lock l = rwLock.writeLock();
-        l.lock();
-        try {
-            this.defaultPolicy = defaultPolicy;
-            this.byOrg = byOrg;
-            this.byProject = byProject;
-            this.byUser = byUser;
-            this.otherUserPolicies = otherUserPolicies;
-        } finally {
-            l.unlock();
-        }
+        this.snapshot = new Snapshot(defaultPolicy, byOrg, byProject, byUser, byUserAndProject, byUserAndOrg);
     }
 
     Map<UUID, Policy> mergePolicies(List<PolicyRules> policies) {
@@ -360,26 +326,71 @@ public class PolicyCache implements BackgroundTask {
     }
 
     @Value.Immutable
-    interface PolicyItem {
+    interface Policy {
 
-        @Value.Parameter
-        PolicyLink link();
+        UUID id();
 
-        @Value.Parameter
-        PolicyEngine engine();
+        List<String> policyNames();
 
-        static PolicyItem of(PolicyLink link, PolicyEngine engine) {
-            return ImmutablePolicyItem.of(link, engine);
+        PolicyEngineRules rules();
+    }
+
+    private static final class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot(null, Collections.emptyMap(), Collections.emptyMap(),
+                Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+
+        private final PolicyEngine defaultPolicy;
+        private final Map<UUID, PolicyEngine> byOrg;
+        private final Map<UUID, PolicyEngine> byProject;
+        private final Map<UUID, PolicyEngine> byUser;
+        private final Map<ScopedUserKey, PolicyEngine> byUserAndProject;
+        private final Map<ScopedUserKey, PolicyEngine> byUserAndOrg;
+
+        private Snapshot(PolicyEngine defaultPolicy,
+                         Map<UUID, PolicyEngine> byOrg,
+                         Map<UUID, PolicyEngine> byProject,
+                         Map<UUID, PolicyEngine> byUser,
+                         Map<ScopedUserKey, PolicyEngine> byUserAndProject,
+                         Map<ScopedUserKey, PolicyEngine> byUserAndOrg) {
+
+            this.defaultPolicy = defaultPolicy;
+            this.byOrg = byOrg;
+            this.byProject = byProject;
+            this.byUser = byUser;
+            this.byUserAndProject = byUserAndProject;
+            this.byUserAndOrg = byUserAndOrg;
         }
     }
 
-    @Value.Immutable
-    interface Policy {
+    /**
+     * A user ID combined with a project or an organization ID.
+     */
+    private static final class ScopedUserKey {
 
-        UUID id();
+        private final UUID userId;
+        private final UUID scopeId;
 
-        List<String> policyNames();
+        private ScopedUserKey(UUID userId, UUID scopeId) {
+            this.userId = userId;
+            this.scopeId = scopeId;
+        }
 
-        PolicyEngineRules rules();
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ScopedUserKey)) {
+                return false;
+            }
+            ScopedUserKey that = (ScopedUserKey) o;
+            return userId.equals(that.userId) && scopeId.equals(that.scopeId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * userId.hashCode() + scopeId.hashCode();
+        }
     }
 }
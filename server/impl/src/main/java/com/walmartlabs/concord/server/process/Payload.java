@@ -22,6 +22,7 @@ package com.walmartlabs.concord.server.process;
 
 import com.walmartlabs.concord.imports.Imports;
 import com.walmartlabs.concord.policyengine.PolicyEngine;
+import com.walmartlabs.concord.policyengine.WorkspaceScanner;
 import com.walmartlabs.concord.process.loader.model.ProcessDefinition;
 import com.walmartlabs.concord.repository.Repository;
 import com.walmartlabs.concord.repository.Snapshot;
@@ -35,6 +36,7 @@ import java.util.*;
 
 public class Payload {
 
+    public static final HeaderKey<Boolean> HAS_USER_FILES = HeaderKey.register("_hasUserFiles", Boolean.class);
     public static final HeaderKey<HttpServletRequest> SERVLET_REQUEST = HeaderKey.register("_servletRequest", HttpServletRequest.class);
     public static final HeaderKey<Imports> IMPORTS = HeaderKey.register("_imports", Imports.class);
     public static final HeaderKey<List<Snapshot>> REPOSITORY_SNAPSHOT = HeaderKey.registerList("_repositorySnapshot");
@@ -44,6 +46,7 @@ public class Payload {
     public static final HeaderKey<Path> BASE_DIR = HeaderKey.register("_baseDir", Path.class);
     public static final HeaderKey<Path> WORKSPACE_DIR = HeaderKey.register("_workspace", Path.class);
     public static final HeaderKey<PolicyEngine> POLICY = HeaderKey.register("_policy", PolicyEngine.class);
+    public static final HeaderKey<WorkspaceScanner.Result> POLICY_SCAN_RESULT = HeaderKey.register("_policyScanResult", WorkspaceScanner.Result.class);
     public static final HeaderKey<ProcessDefinition> PROJECT_DEFINITION = HeaderKey.register("_projectDef", ProcessDefinition.class);
     public static final HeaderKey<ProcessKind> PROCESS_KIND = HeaderKey.register("_processKind", ProcessKind.class);
     public static final HeaderKey<Repository> REPOSITORY = HeaderKey.register("_repository", Repository.class);
@@ -20,13 +20,16 @@ package com.walmartlabs.concord.server.process;
  * =====
  */
 
+import com.codahale.metrics.Counter;
 import com.walmartlabs.concord.db.AbstractDao;
 import com.walmartlabs.concord.db.MainDB;
 import com.walmartlabs.concord.db.PgUtils;
 import com.walmartlabs.concord.server.cfg.ProcessConfiguration;
 import com.walmartlabs.concord.server.sdk.ProcessStatus;
 import com.walmartlabs.concord.server.sdk.ScheduledTask;
+import com.walmartlabs.concord.server.sdk.metrics.InjectCounter;
 import org.jooq.*;
+import org.jooq.impl.DSL;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,7 +37,9 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.time.OffsetDateTime;
-import java.util.UUID;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static com.walmartlabs.concord.server.jooq.Tables.*;
 import static com.walmartlabs.concord.server.jooq.tables.ProcessCheckpoints.PROCESS_CHECKPOINTS;
@@ -82,74 +87,237 @@ public class ProcessCleaner implements ScheduledTask {
     @Named
     private static class CleanerDao extends AbstractDao {
 
+        /**
+         * Matches the upper bound of a range partition, e.g.
+         * {@code FOR VALUES FROM ('2020-01-01 00:00:00+00') TO ('2020-02-01 00:00:00+00')}
+         */
+        private static final Pattern PARTITION_UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+
+        @InjectCounter
+        private final Counter cleanupDeletedProcesses;
+
+        @InjectCounter
+        private final Counter cleanupDeletedRows;
+
+        @InjectCounter
+        private final Counter cleanupDroppedPartitions;
+
         @Inject
-        protected CleanerDao(@MainDB Configuration cfg) {
+        protected CleanerDao(@MainDB Configuration cfg,
+                             Counter cleanupDeletedProcesses,
+                             Counter cleanupDeletedRows,
+                             Counter cleanupDroppedPartitions) {
+
             super(cfg);
+
+            this.cleanupDeletedProcesses = cleanupDeletedProcesses;
+            this.cleanupDeletedRows = cleanupDeletedRows;
+            this.cleanupDroppedPartitions = cleanupDroppedPartitions;
         }
 
         void deleteOldState(ProcessConfiguration jobCfg) {
             long t1 = System.currentTimeMillis();
 
-            Field<OffsetDateTime> cutoff = PgUtils.nowMinus(jobCfg.getMaxStateAge());
+            // use the same cutoff value for all batches
+            OffsetDateTime cutoff = txResult(tx -> tx.select(PgUtils.nowMinus(jobCfg.getMaxStateAge())).fetchOne(Record1::value1));
 
-            tx(tx -> {
-                SelectConditionStep<Record1<UUID>> ids = tx.select(PROCESS_QUEUE.INSTANCE_ID)
-                        .from(PROCESS_QUEUE)
-                        .where(PROCESS_QUEUE.LAST_UPDATED_AT.lessThan(cutoff)
-                                .and(PROCESS_QUEUE.CURRENT_STATUS.notIn(EXCLUDE_STATUSES)));
-
-                int queueEntries = 0;
-                if (jobCfg.isQueueCleanup()) {
-                    queueEntries = tx.deleteFrom(PROCESS_QUEUE)
-                            .where(PROCESS_QUEUE.INSTANCE_ID.in(ids))
-                            .execute();
+            int droppedPartitions = 0;
+            if (jobCfg.isDropExpiredPartitions()) {
+                droppedPartitions = dropExpiredPartitions(jobCfg, cutoff);
+            }
 
-                    tx.deleteFrom(PROCESS_WAIT_CONDITIONS)
-                            .where(PROCESS_WAIT_CONDITIONS.INSTANCE_ID.in(ids))
-                            .execute();
-                }
+            int batchSize = Math.max(1, jobCfg.getCleanupBatchSize());
 
-                int stateRecords = 0;
-                if (jobCfg.isStateCleanup()) {
-                    stateRecords = tx.deleteFrom(PROCESS_STATE)
-                            .where(PROCESS_STATE.INSTANCE_ID.in(ids))
-                            .execute();
-                }
+            Map<String, Integer> stats = new LinkedHashMap<>();
+            int processes = 0;
+            int batches = 0;
 
-                int events = 0;
-                if (jobCfg.isEventsCleanup()) {
-                    events = tx.deleteFrom(PROCESS_EVENTS)
-                            .where(PROCESS_EVENTS.INSTANCE_ID.in(ids))
-                            .execute();
+            UUID lastId = null;
+            while (!Thread.currentThread().isInterrupted()) {
+                UUID after = lastId;
+                List<ExpiredProcess> batch = txResult(tx -> nextExpiredBatch(tx, cutoff, after, batchSize));
+                if (batch.isEmpty()) {
+                    break;
                 }
 
-                int logDataEntries = 0;
-                int logSegmentEntries = 0;
-                if (jobCfg.isLogsCleanup()) {
-                    logDataEntries = tx.deleteFrom(PROCESS_LOG_DATA)
-                            .where(PROCESS_LOG_DATA.INSTANCE_ID.in(ids))
-                            .execute();
+                tx(tx -> deleteBatch(tx, jobCfg, batch, stats));
 
-                    logSegmentEntries = tx.deleteFrom(PROCESS_LOG_SEGMENTS)
-                            .where(PROCESS_LOG_SEGMENTS.INSTANCE_ID.in(ids))
-                            .execute();
-                }
+                processes += batch.size();
+                batches++;
+                cleanupDeletedProcesses.inc(batch.size());
+                log.debug("deleteOldState -> batch #{} done, {} process(es) so far", batches, processes);
 
-                int checkpoints = 0;
-                if (jobCfg.isCheckpointCleanup()) {
-                    checkpoints = tx.deleteFrom(PROCESS_CHECKPOINTS)
-                            .where(PROCESS_CHECKPOINTS.INSTANCE_ID.in(ids))
-                            .execute();
+                if (batch.size() < batchSize) {
+                    break;
                 }
 
-                log.info("deleteOldState -> removed older than {}: {} queue entries, {} log data entries, {} log segments, {} state item(s), {} event(s), {} checkpoint(s)",
-                        jobCfg.getMaxStateAge(), queueEntries, logDataEntries, logSegmentEntries, stateRecords, events, checkpoints);
-            });
+                lastId = batch.get(batch.size() - 1).instanceId;
+            }
+
+            log.info("deleteOldState -> removed older than {}: {} process(es) in {} batch(es), {} partition(s) dropped, {}",
+                    jobCfg.getMaxStateAge(), processes, batches, droppedPartitions, stats);
 
             long t2 = System.currentTimeMillis();
             log.info("deleteOldState -> took {}ms", (t2 - t1));
         }
 
+        private static List<ExpiredProcess> nextExpiredBatch(DSLContext tx, OffsetDateTime cutoff, UUID after, int batchSize) {
+            SelectConditionStep<Record2<UUID, OffsetDateTime>> q = tx.select(PROCESS_QUEUE.INSTANCE_ID, PROCESS_QUEUE.CREATED_AT)
+                    .from(PROCESS_QUEUE)
+                    .where(PROCESS_QUEUE.LAST_UPDATED_AT.lessThan(cutoff)
+                            .and(PROCESS_QUEUE.CURRENT_STATUS.notIn(EXCLUDE_STATUSES)));
+
+            if (after != null) {
+                // the queue entries are not removed when the queue cleanup is disabled
+                // use keyset pagination to avoid selecting the same entries over and over again
+                q = q.and(PROCESS_QUEUE.INSTANCE_ID.greaterThan(after));
+            }
+
+            return q.orderBy(PROCESS_QUEUE.INSTANCE_ID)
+                    .limit(batchSize)
+                    .fetch(r -> new ExpiredProcess(r.value1(), r.value2()));
+        }
+
+        private void deleteBatch(DSLContext tx, ProcessConfiguration jobCfg, List<ExpiredProcess> batch, Map<String, Integer> stats) {
+            List<UUID> ids = new ArrayList<>(batch.size());
+            OffsetDateTime minCreatedAt = null;
+            OffsetDateTime maxCreatedAt = null;
+            for (ExpiredProcess p : batch) {
+                ids.add(p.instanceId);
+                if (minCreatedAt == null || p.createdAt.isBefore(minCreatedAt)) {
+                    minCreatedAt = p.createdAt;
+                }
+                if (maxCreatedAt == null || p.createdAt.isAfter(maxCreatedAt)) {
+                    maxCreatedAt = p.createdAt;
+                }
+            }
+
+            // the INSTANCE_CREATED_AT range allows the DB to skip unrelated partitions
+            Range range = new Range(minCreatedAt, maxCreatedAt);
+
+            if (jobCfg.isStateCleanup()) {
+                delete(tx, PROCESS_STATE, PROCESS_STATE.INSTANCE_ID, PROCESS_STATE.INSTANCE_CREATED_AT, ids, range, stats);
+            }
+
+            if (jobCfg.isEventsCleanup()) {
+                delete(tx, PROCESS_EVENTS, PROCESS_EVENTS.INSTANCE_ID, PROCESS_EVENTS.INSTANCE_CREATED_AT, ids, range, stats);
+            }
+
+            if (jobCfg.isLogsCleanup()) {
+                delete(tx, PROCESS_LOG_DATA, PROCESS_LOG_DATA.INSTANCE_ID, PROCESS_LOG_DATA.INSTANCE_CREATED_AT, ids, range, stats);
+                delete(tx, PROCESS_LOG_SEGMENTS, PROCESS_LOG_SEGMENTS.INSTANCE_ID, PROCESS_LOG_SEGMENTS.INSTANCE_CREATED_AT, ids, range, stats);
+            }
+
+            if (jobCfg.isCheckpointCleanup()) {
+                delete(tx, PROCESS_CHECKPOINTS, PROCESS_CHECKPOINTS.INSTANCE_ID, PROCESS_CHECKPOINTS.INSTANCE_CREATED_AT, ids, range, stats);
+            }
+
+            if (jobCfg.isQueueCleanup()) {
+                delete(tx, PROCESS_WAIT_CONDITIONS, PROCESS_WAIT_CONDITIONS.INSTANCE_ID, PROCESS_WAIT_CONDITIONS.INSTANCE_CREATED_AT, ids, range, stats);
+                delete(tx, PROCESS_QUEUE, PROCESS_QUEUE.INSTANCE_ID, PROCESS_QUEUE.CREATED_AT, ids, range, stats);
+            }
+        }
+
+        private void delete(DSLContext tx, Table<?> table, Field<UUID> instanceId, Field<OffsetDateTime> createdAt,
+                            List<UUID> ids, Range range, Map<String, Integer> stats) {
+
+            int rows = tx.deleteFrom(table)
+                    .where(instanceId.in(ids)
+                            .and(createdAt.between(range.from, range.to)))
+                    .execute();
+
+            cleanupDeletedRows.inc(rows);
+            stats.merge(table.getName(), rows, Integer::sum);
+        }
+
+        /**
+         * Drops the (declarative, range) partitions of the process data tables which contain
+         * only expired data. Partitions are expected to use INSTANCE_CREATED_AT as the key.
+         */
+        private int dropExpiredPartitions(ProcessConfiguration jobCfg, OffsetDateTime cutoff) {
+            List<Table<?>> tables = new ArrayList<>();
+            if (jobCfg.isStateCleanup()) {
+                tables.add(PROCESS_STATE);
+            }
+            if (jobCfg.isEventsCleanup()) {
+                tables.add(PROCESS_EVENTS);
+            }
+            if (jobCfg.isLogsCleanup()) {
+                tables.add(PROCESS_LOG_DATA);
+                tables.add(PROCESS_LOG_SEGMENTS);
+            }
+            if (jobCfg.isCheckpointCleanup()) {
+                tables.add(PROCESS_CHECKPOINTS);
+            }
+
+            if (tables.isEmpty()) {
+                return 0;
+            }
+
+            // a partition can be dropped only if all processes created before its upper bound are expired
+            OffsetDateTime oldestAlive = txResult(tx -> tx.select(DSL.min(PROCESS_QUEUE.CREATED_AT))
+                    .from(PROCESS_QUEUE)
+                    .where(PROCESS_QUEUE.LAST_UPDATED_AT.greaterOrEqual(cutoff)
+                            .or(PROCESS_QUEUE.CURRENT_STATUS.in(EXCLUDE_STATUSES)))
+                    .fetchOne(Record1::value1));
+
+            OffsetDateTime safeBound = oldestAlive != null && oldestAlive.isBefore(cutoff) ? oldestAlive : cutoff;
+
+            int result = 0;
+            for (Table<?> t : tables) {
+                String parent = t.getName().toLowerCase();
+                for (Partition p : listPartitions(parent)) {
+                    if (p.upperBound == null || p.upperBound.isAfter(safeBound)) {
+                        continue;
+                    }
+
+                    tx(tx -> {
+                        tx.execute("alter table {0} detach partition {1}", DSL.name(parent), DSL.name(p.name));
+                        tx.execute("drop table {0}", DSL.name(p.name));
+                    });
+
+                    result++;
+                    cleanupDroppedPartitions.inc();
+                    log.info("dropExpiredPartitions -> dropped {} (partition of {}, upper bound {})", p.name, parent, p.upperBound);
+                }
+            }
+
+            return result;
+        }
+
+        private List<Partition> listPartitions(String parent) {
+            return txResult(tx -> {
+                Result<Record2<String, String>> rows = tx.resultQuery("select c.relname::text, pg_get_expr(c.relpartbound, c.oid)" +
+                                " from pg_inherits i" +
+                                " join pg_class c on c.oid = i.inhrelid" +
+                                " join pg_class p on p.oid = i.inhparent" +
+                                " where p.relname = {0} and p.relnamespace = current_schema()::regnamespace", parent)
+                        .coerce(DSL.field("relname", String.class), DSL.field("bound", String.class))
+                        .fetch();
+
+                List<Partition> result = new ArrayList<>(rows.size());
+                for (Record2<String, String> r : rows) {
+                    String bound = r.value2();
+                    if (bound == null) {
+                        // not a declarative partition, e.g. a table that uses inheritance
+                        continue;
+                    }
+
+                    Matcher m = PARTITION_UPPER_BOUND.matcher(bound);
+                    if (!m.find()) {
+                        // MAXVALUE, DEFAULT, etc
+                        continue;
+                    }
+
+                    OffsetDateTime upperBound = tx.select(DSL.field("{0}::timestamptz", OffsetDateTime.class, m.group(1)))
+                            .fetchOne(Record1::value1);
+
+                    result.add(new Partition(r.value1(), upperBound));
+                }
+                return result;
+            });
+        }
+
         void deleteOrphans(ProcessConfiguration jobCfg) {
             long t1 = System.currentTimeMillis();
 
@@ -184,5 +352,38 @@ public class ProcessCleaner implements ScheduledTask {
             long t2 = System.currentTimeMillis();
             log.info("deleteOrphans -> took {}ms", (t2 - t1));
         }
+
+        private static final class ExpiredProcess {
+
+            private final UUID instanceId;
+            private final OffsetDateTime createdAt;
+
+            private ExpiredProcess(UUID instanceId, OffsetDateTime createdAt) {
+                this.instanceId = instanceId;
+                this.createdAt = createdAt;
+            }
+        }
+
+        private static final class Range {
+
+            private final OffsetDateTime from;
+            private final OffsetDateTime to;
+
+            private Range(OffsetDateTime from, OffsetDateTime to) {
+                this.from = from;
+                this.to = to;
+            }
+        }
+
+        private static final class Partition {
+
+            private final String name;
+            private final OffsetDateTime upperBound;
+
+            private Partition(String name, OffsetDateTime upperBound) {
+                this.name = name;
+                this.upperBound = upperBound;
+            }
+        }
     }
 }
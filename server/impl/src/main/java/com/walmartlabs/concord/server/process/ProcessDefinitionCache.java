@@ -0,0 +1,276 @@
+package com.walmartlabs.concord.server.process;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.Counter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.walmartlabs.concord.imports.Import;
+import com.walmartlabs.concord.imports.ImportManager;
+import com.walmartlabs.concord.imports.Imports;
+import com.walmartlabs.concord.imports.ImportsListener;
+import com.walmartlabs.concord.process.loader.ImportsNormalizer;
+import com.walmartlabs.concord.process.loader.ProjectLoader;
+import com.walmartlabs.concord.process.loader.model.ProcessDefinition;
+import com.walmartlabs.concord.repository.Snapshot;
+import com.walmartlabs.concord.server.cfg.ProcessConfiguration;
+import com.walmartlabs.concord.server.sdk.metrics.InjectCounter;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Caches loaded process definitions of repository commits.
+ * <p/>
+ * The definition depends on the repository files and on the imported files.
+ * The cached entries are re-used only if the normalized imports are
+ * the same as the ones used to load the definition. Definitions with mutable
+ * imports (branches, snapshot versions, local directories) are not cached.
+ * <p/>
+ * The imports are still processed on cache hits if the caller needs the imported
+ * files in the working directory.
+ */
+@Named
+@Singleton
+public class ProcessDefinitionCache {
+
+    private static final Pattern COMMIT_ID_PATTERN = Pattern.compile("^[0-9a-fA-F]{40}$");
+
+    private final ProjectLoader projectLoader;
+    private final ImportManager importManager;
+    private final Cache<Key, Entry> cache;
+
+    @InjectCounter
+    private final Counter processDefinitionCacheHits;
+
+    @InjectCounter
+    private final Counter processDefinitionCacheMisses;
+
+    @Inject
+    public ProcessDefinitionCache(ProcessConfiguration cfg,
+                                  ProjectLoader projectLoader,
+                                  ImportManager importManager,
+                                  Counter processDefinitionCacheHits,
+                                  Counter processDefinitionCacheMisses) {
+
+        this.projectLoader = projectLoader;
+        this.importManager = importManager;
+        this.processDefinitionCacheHits = processDefinitionCacheHits;
+        this.processDefinitionCacheMisses = processDefinitionCacheMisses;
+
+        if (cfg.getDefinitionCacheMaxEntries() > 0) {
+            this.cache = CacheBuilder.newBuilder()
+                    .maximumSize(cfg.getDefinitionCacheMaxEntries())
+                    .expireAfterAccess(cfg.getDefinitionCacheExpireAfterAccess().toMillis(), TimeUnit.MILLISECONDS)
+                    // let the GC reclaim the definitions under memory pressure
+                    .softValues()
+                    .build();
+        } else {
+            this.cache = null;
+        }
+    }
+
+    /**
+     * Loads the project definition from the specified directory or returns
+     * a previously loaded definition.
+     *
+     * @param key           the cache key or {@code null} if the directory's content
+     *                      doesn't match any repository commit
+     * @param processImports if {@code true} the imports are processed even if
+     *                      the definition is already cached
+     */
+    public ProjectLoader.Result load(Key key, Path workDir, String runtime,
+                                     ImportsNormalizer importsNormalizer,
+                                     ImportsListener listener,
+                                     boolean processImports) throws Exception {
+
+        if (cache == null || key == null) {
+            return projectLoader.loadProject(workDir, runtime, importsNormalizer, listener);
+        }
+
+        Entry e = cache.getIfPresent(key);
+        if (e != null) {
+            Imports imports = importsNormalizer.normalize(e.rawImports);
+            if (imports.equals(e.imports)) {
+                processDefinitionCacheHits.inc();
+
+                List<Snapshot> snapshots = Collections.emptyList();
+                if (processImports && !imports.isEmpty()) {
+                    snapshots = importManager.process(imports, workDir, listener);
+                }
+
+                return new CachedResult(snapshots, e.processDefinition);
+            }
+
+            // the imports were normalized differently (e.g. the project was moved)
+            cache.invalidate(key);
+        }
+
+        processDefinitionCacheMisses.inc();
+
+        CapturingNormalizer normalizer = new CapturingNormalizer(importsNormalizer);
+        ProjectLoader.Result result = projectLoader.loadProject(workDir, runtime, normalizer, listener);
+
+        // the root definition might be missing, normalize "no imports" the same way as on cache hits
+        Imports imports = normalizer.imports != null ? normalizer.imports : importsNormalizer.normalize(null);
+        if (isPinned(imports)) {
+            cache.put(key, new Entry(normalizer.rawImports, imports, result.projectDefinition()));
+        }
+
+        return result;
+    }
+
+    private static boolean isPinned(Imports imports) {
+        if (imports.isEmpty()) {
+            return true;
+        }
+
+        for (Import i : imports.items()) {
+            if (i instanceof Import.GitDefinition) {
+                String version = ((Import.GitDefinition) i).version();
+                if (version == null || !COMMIT_ID_PATTERN.matcher(version).matches()) {
+                    return false;
+                }
+            } else if (i instanceof Import.MvnDefinition) {
+                String url = ((Import.MvnDefinition) i).url();
+                if (url.contains("SNAPSHOT") || url.endsWith(":LATEST") || url.endsWith(":RELEASE")) {
+                    return false;
+                }
+            } else {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public static final class Key {
+
+        public static Key of(String repoUrl, String commitId, String repoPath, String runtime) {
+            if (repoUrl == null || commitId == null) {
+                return null;
+            }
+
+            return new Key(repoUrl, commitId, repoPath, runtime);
+        }
+
+        private final String repoUrl;
+        private final String commitId;
+        private final String repoPath;
+        private final String runtime;
+
+        private Key(String repoUrl, String commitId, String repoPath, String runtime) {
+            this.repoUrl = repoUrl;
+            this.commitId = commitId;
+            this.repoPath = repoPath;
+            this.runtime = runtime;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return repoUrl.equals(key.repoUrl)
+                    && commitId.equals(key.commitId)
+                    && Objects.equals(repoPath, key.repoPath)
+                    && Objects.equals(runtime, key.runtime);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(repoUrl, commitId, repoPath, runtime);
+        }
+
+        @Override
+        public String toString() {
+            return repoUrl + "@" + commitId + ":" + repoPath + " (" + runtime + ")";
+        }
+    }
+
+    private static final class Entry {
+
+        private final Imports rawImports;
+        private final Imports imports;
+        private final ProcessDefinition processDefinition;
+
+        private Entry(Imports rawImports, Imports imports, ProcessDefinition processDefinition) {
+            this.rawImports = rawImports;
+            this.imports = imports;
+            this.processDefinition = processDefinition;
+        }
+    }
+
+    /**
+     * Remembers the root definition's imports, before and after the normalization.
+     */
+    private static final class CapturingNormalizer implements ImportsNormalizer {
+
+        private final ImportsNormalizer delegate;
+
+        private Imports rawImports;
+        private Imports imports;
+
+        private CapturingNormalizer(ImportsNormalizer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Imports normalize(Imports imports) {
+            Imports result = delegate.normalize(imports);
+            this.rawImports = imports;
+            this.imports = result;
+            return result;
+        }
+    }
+
+    private static final class CachedResult implements ProjectLoader.Result {
+
+        private final List<Snapshot> snapshots;
+        private final ProcessDefinition processDefinition;
+
+        private CachedResult(List<Snapshot> snapshots, ProcessDefinition processDefinition) {
+            this.snapshots = snapshots;
+            this.processDefinition = processDefinition;
+        }
+
+        @Override
+        public List<Snapshot> snapshots() {
+            return snapshots;
+        }
+
+        @Override
+        public ProcessDefinition projectDefinition() {
+            return processDefinition;
+        }
+    }
+}
@@ -27,6 +27,7 @@ import com.walmartlabs.concord.server.org.ResourceAccessLevel;
 import com.walmartlabs.concord.server.org.project.ProjectAccessManager;
 import com.walmartlabs.concord.server.org.project.ProjectDao;
 import com.walmartlabs.concord.server.org.project.RepositoryDao;
+import com.walmartlabs.concord.server.org.triggers.TriggerScheduleDao;
 import com.walmartlabs.concord.server.process.queue.*;
 import com.walmartlabs.concord.server.process.queue.ProcessFilter.MetadataFilter;
 import com.walmartlabs.concord.server.sdk.ConcordApplicationException;
@@ -50,15 +51,18 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.CompletionCallback;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
-import java.util.Collections;
-import java.util.List;
-import java.util.Set;
-import java.util.UUID;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static com.walmartlabs.concord.server.Utils.unwrap;
 
@@ -70,6 +74,12 @@ public class ProcessResourceV2 implements Resource {
 
     private static final Logger log = LoggerFactory.getLogger(ProcessResourceV2.class);
 
+    private static final int MAX_STATS_WINDOW = 24 * 60 * 60;
+    private static final int MAX_WAIT_INSTANCES = 1000;
+    private static final int DEFAULT_WAIT_TIMEOUT = 30;
+    private static final int MAX_WAIT_TIMEOUT = 60;
+    private static final int WAIT_RESPONSE_GRACE_PERIOD = 10;
+
     private final ProcessQueueDao queueDao;
     private final ProcessQueueManager processQueueManager;
     private final ProjectDao projectDao;
@@ -77,6 +87,9 @@ public class ProcessResourceV2 implements Resource {
     private final UserDao userDao;
     private final OrganizationManager orgManager;
     private final ProjectAccessManager projectAccessManager;
+    private final ProcessQueueDepthCache queueDepthCache;
+    private final TriggerScheduleDao triggerScheduleDao;
+    private final ProcessCompletionWatcher completionWatcher;
 
     @Inject
     public ProcessResourceV2(ProcessQueueDao queueDao,
@@ -85,7 +98,10 @@ public class ProcessResourceV2 implements Resource {
                              RepositoryDao repositoryDao,
                              UserDao userDao,
                              OrganizationManager orgManager,
-                             ProjectAccessManager projectAccessManager) {
+                             ProjectAccessManager projectAccessManager,
+                             ProcessQueueDepthCache queueDepthCache,
+                             TriggerScheduleDao triggerScheduleDao,
+                             ProcessCompletionWatcher completionWatcher) {
 
         this.queueDao = queueDao;
         this.processQueueManager = processQueueManager;
@@ -94,6 +110,9 @@ public class ProcessResourceV2 implements Resource {
         this.userDao = userDao;
         this.orgManager = orgManager;
         this.projectAccessManager = projectAccessManager;
+        this.queueDepthCache = queueDepthCache;
+        this.triggerScheduleDao = triggerScheduleDao;
+        this.completionWatcher = completionWatcher;
     }
 
     /**
@@ -122,6 +141,55 @@ public class ProcessResourceV2 implements Resource {
         return e;
     }
 
+    /**
+     * Waits until any or all of the specified processes reach a final status
+     * or until the timeout expires. Returns the current status of each known process.
+     * The request is suspended while waiting, it doesn't hold a server thread.
+     */
+    @POST
+    @ApiOperation(value = "Wait for processes to finish", responseContainer = "list", response = ProcessStatusEntry.class)
+    @Path("/wait")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @WithTimer
+    public void waitFor(@ApiParam WaitForProcessesRequest req,
+                        @Suspended AsyncResponse asyncResponse) {
+
+        if (req == null || req.instanceIds().isEmpty()) {
+            throw new ValidationErrorsException("'instanceIds' is required");
+        }
+
+        Set<UUID> instanceIds = new HashSet<>(req.instanceIds());
+        if (instanceIds.size() > MAX_WAIT_INSTANCES) {
+            throw new ValidationErrorsException("'instanceIds' must contain no more than " + MAX_WAIT_INSTANCES + " IDs");
+        }
+
+        int timeout = req.timeout() != null ? req.timeout() : DEFAULT_WAIT_TIMEOUT;
+        if (timeout < 0 || timeout > MAX_WAIT_TIMEOUT) {
+            throw new ValidationErrorsException("'timeout' must be between 0 and " + MAX_WAIT_TIMEOUT + " seconds");
+        }
+
+        for (UUID projectId : queueDao.getProjectIds(instanceIds)) {
+            projectAccessManager.assertAccess(projectId, ResourceAccessLevel.READER, false);
+        }
+
+        WaitForProcessesRequest.Mode mode = req.mode() != null ? req.mode() : WaitForProcessesRequest.Mode.ALL;
+
+        // the watcher completes the wait on its own, the response timeout is just a safety net
+        asyncResponse.setTimeout(timeout + WAIT_RESPONSE_GRACE_PERIOD, TimeUnit.SECONDS);
+
+        CompletableFuture<List<ProcessStatusEntry>> result = completionWatcher.waitFor(instanceIds, mode, TimeUnit.SECONDS.toMillis(timeout));
+        asyncResponse.register((CompletionCallback) t -> result.cancel(false));
+        result.whenComplete((entries, e) -> {
+            if (e != null) {
+                log.warn("waitFor ['{}'] -> error: {}", instanceIds, e.getMessage());
+                asyncResponse.resume(new ConcordApplicationException("Error while waiting for processes", Status.SERVICE_UNAVAILABLE));
+            } else {
+                asyncResponse.resume(entries);
+            }
+        });
+    }
+
     /**
      * Returns a list of processes applying the specified filters.
      */
@@ -186,6 +254,55 @@ public class ProcessResourceV2 implements Resource {
                 FilterUtils.parseJson("requirements", uriInfo));
     }
 
+    /**
+     * Returns the number of processes grouped by status and requirements.
+     * The values are cached for a short period of time (see {@code queue.depthCacheTtl}).
+     */
+    @GET
+    @ApiOperation(value = "Count processes grouped by status and requirements", responseContainer = "list", response = ProcessQueueDepthEntry.class)
+    @Path("/requirements/depth")
+    @Produces(MediaType.APPLICATION_JSON)
+    @WithTimer
+    public List<ProcessQueueDepthEntry> queueDepth(@ApiParam @QueryParam("status") Set<ProcessStatus> processStatuses) {
+        if (processStatuses == null || processStatuses.isEmpty()) {
+            return queueDepthCache.get(ProcessStatus.ENQUEUED);
+        }
+
+        List<ProcessQueueDepthEntry> result = new ArrayList<>();
+        for (ProcessStatus s : processStatuses) {
+            result.addAll(queueDepthCache.get(s));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the process queue rates grouped by requirements and the number
+     * of upcoming cron triggers. Used by autoscalers to predict the agent demand.
+     */
+    @GET
+    @ApiOperation(value = "Process queue rates grouped by requirements", response = ProcessQueueStats.class)
+    @Path("/requirements/stats")
+    @Produces(MediaType.APPLICATION_JSON)
+    @WithTimer
+    public ProcessQueueStats queueStats(@ApiParam @QueryParam("window") @DefaultValue("900") int window,
+                                        @ApiParam @QueryParam("horizon") @DefaultValue("120") int horizon) {
+
+        if (window <= 0 || window > MAX_STATS_WINDOW) {
+            throw new ValidationErrorsException("'window' must be between 1 and " + MAX_STATS_WINDOW + " seconds");
+        }
+
+        if (horizon < 0 || horizon > MAX_STATS_WINDOW) {
+            throw new ValidationErrorsException("'horizon' must be between 0 and " + MAX_STATS_WINDOW + " seconds");
+        }
+
+        return ProcessQueueStats.builder()
+                .window(window)
+                .horizon(horizon)
+                .scheduledTriggers(triggerScheduleDao.countScheduled(Duration.ofSeconds(horizon)))
+                .rates(queueDao.rateByRequirements(Duration.ofSeconds(window)))
+                .build();
+    }
+
     /**
      * Counts processes applying the specified filters.
      */
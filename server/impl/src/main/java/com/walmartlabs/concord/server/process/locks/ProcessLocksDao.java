@@ -25,6 +25,7 @@ import com.walmartlabs.concord.db.MainDB;
 import com.walmartlabs.concord.server.jooq.enums.ProcessLockScope;
 import com.walmartlabs.concord.server.jooq.tables.ProcessLocks;
 import com.walmartlabs.concord.server.jooq.tables.records.ProcessLocksRecord;
+import com.walmartlabs.concord.server.process.waits.ProcessWaitNotifier;
 import com.walmartlabs.concord.server.sdk.ProcessKey;
 import org.jooq.Configuration;
 import org.jooq.DSLContext;
@@ -39,9 +40,12 @@ import static com.walmartlabs.concord.server.jooq.Tables.PROCESS_LOCKS;
 @Named
 public class ProcessLocksDao extends AbstractDao {
 
+    private final ProcessWaitNotifier waitNotifier;
+
     @Inject
-    protected ProcessLocksDao(@MainDB Configuration cfg) {
+    protected ProcessLocksDao(@MainDB Configuration cfg, ProcessWaitNotifier waitNotifier) {
         super(cfg);
+        this.waitNotifier = waitNotifier;
     }
 
     public LockEntry tryLock(ProcessKey processKey, UUID orgId, UUID projectId, ProcessLockScope scope, String lockName) {
@@ -73,7 +77,11 @@ public class ProcessLocksDao extends AbstractDao {
     }
 
     public void delete(UUID instanceId, UUID orgId, UUID projectId, ProcessLockScope scope, String lockName) {
-        tx(tx -> delete(tx, instanceId, orgId, projectId, scope, lockName));
+        boolean deleted = txResult(tx -> delete(tx, instanceId, orgId, projectId, scope, lockName));
+        if (deleted) {
+            // hand the lock over to the next waiting process
+            waitNotifier.lockReleased(orgId, projectId, scope, lockName);
+        }
     }
 
     private boolean insert(DSLContext tx, ProcessKey processKey, UUID orgId, UUID projectId, ProcessLockScope scope, String lockName) {
@@ -110,14 +118,14 @@ public class ProcessLocksDao extends AbstractDao {
                 .build());
     }
 
-    private void delete(DSLContext tx, UUID instanceId, UUID orgId, UUID projectId, ProcessLockScope scope, String lockName) {
+    private boolean delete(DSLContext tx, UUID instanceId, UUID orgId, UUID projectId, ProcessLockScope scope, String lockName) {
         ProcessLocks l = PROCESS_LOCKS.as("l");
-        tx.deleteFrom(l)
+        return tx.deleteFrom(l)
                 .where(l.INSTANCE_ID.eq(instanceId)
                         .and(l.ORG_ID.eq(orgId))
                         .and(l.PROJECT_ID.eq(projectId))
                         .and(l.LOCK_SCOPE.eq(scope))
                         .and(l.LOCK_NAME.eq(lockName)))
-                .execute();
+                .execute() > 0;
     }
 }
@@ -25,6 +25,8 @@ import com.walmartlabs.concord.db.MainDB;
 import com.walmartlabs.concord.server.Utils;
 import com.walmartlabs.concord.server.jooq.tables.ProcessLocks;
 import com.walmartlabs.concord.server.jooq.tables.ProcessQueue;
+import com.walmartlabs.concord.server.jooq.tables.records.ProcessLocksRecord;
+import com.walmartlabs.concord.server.process.waits.ProcessWaitNotifier;
 import com.walmartlabs.concord.server.sdk.ProcessStatus;
 import com.walmartlabs.concord.server.sdk.ScheduledTask;
 import org.jooq.Configuration;
@@ -36,6 +38,7 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import java.util.List;
 import java.util.UUID;
 
 import static com.walmartlabs.concord.server.jooq.Tables.PROCESS_LOCKS;
@@ -51,10 +54,12 @@ public class ProcessLocksWatchdog implements ScheduledTask {
     private static final Logger log = LoggerFactory.getLogger(ProcessLocksWatchdog.class);
 
     private final WatchdogDao dao;
+    private final ProcessWaitNotifier waitNotifier;
 
     @Inject
-    public ProcessLocksWatchdog(WatchdogDao dao) {
+    public ProcessLocksWatchdog(WatchdogDao dao, ProcessWaitNotifier waitNotifier) {
         this.dao = dao;
+        this.waitNotifier = waitNotifier;
     }
 
     @Override
@@ -70,8 +75,9 @@ public class ProcessLocksWatchdog implements ScheduledTask {
 
     @Override
     public void performTask() {
-        int count = dao.deleteStalledLocks();
-        log.debug("performTask -> {} locks deleted", count);
+        List<ProcessLocksRecord> locks = dao.deleteStalledLocks();
+        locks.forEach(l -> waitNotifier.lockReleased(l.getOrgId(), l.getProjectId(), l.getLockScope(), l.getLockName()));
+        log.debug("performTask -> {} locks deleted", locks.size());
     }
 
     @Named
@@ -89,7 +95,7 @@ public class ProcessLocksWatchdog implements ScheduledTask {
             super(cfg);
         }
 
-        public int deleteStalledLocks() {
+        public List<ProcessLocksRecord> deleteStalledLocks() {
             return txResult(tx -> {
                 ProcessQueue q = PROCESS_QUEUE.as("q");
                 ProcessLocks l = PROCESS_LOCKS.as("l");
@@ -101,7 +107,8 @@ public class ProcessLocksWatchdog implements ScheduledTask {
 
                 return tx.deleteFrom(l)
                         .where(l.INSTANCE_ID.in(finishedProcesses))
-                        .execute();
+                        .returning()
+                        .fetch();
             });
         }
     }
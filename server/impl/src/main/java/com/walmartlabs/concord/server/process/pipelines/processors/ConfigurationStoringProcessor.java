@@ -58,9 +58,14 @@ public class ConfigurationStoringProcessor implements PayloadProcessor {
         Path workspace = payload.getHeader(Payload.WORKSPACE_DIR);
         Path dst = workspace.resolve(Constants.Files.CONFIGURATION_FILE_NAME);
 
-        try (OutputStream out = Files.newOutputStream(dst)) {
-            ObjectMapper om = new ObjectMapper();
-            om.writeValue(out, cfg);
+        try {
+            // the file might be hard-linked to the repository cache, replace it instead of overwriting
+            Files.deleteIfExists(dst);
+
+            try (OutputStream out = Files.newOutputStream(dst)) {
+                ObjectMapper om = new ObjectMapper();
+                om.writeValue(out, cfg);
+            }
         } catch (IOException e) {
             logManager.error(processKey, "Error while saving a metadata file: " + dst, e);
             throw new ProcessException(processKey, "Error while saving a metadata file: " + dst, e);
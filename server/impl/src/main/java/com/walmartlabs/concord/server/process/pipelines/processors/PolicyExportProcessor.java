@@ -72,7 +72,12 @@ public class PolicyExportProcessor implements PayloadProcessor {
 
         try {
             Path dst = Files.createDirectories(ws.resolve(Constants.Files.CONCORD_SYSTEM_DIR_NAME));
-            objectMapper.writeValue(dst.resolve(Constants.Files.POLICY_FILE_NAME).toFile(), policy.getRules());
+            Path policyFile = dst.resolve(Constants.Files.POLICY_FILE_NAME);
+
+            // the file might be hard-linked to the repository cache, replace it instead of overwriting
+            Files.deleteIfExists(policyFile);
+
+            objectMapper.writeValue(policyFile.toFile(), policy.getRules());
         } catch (IOException e) {
             logManager.error(processKey, "Error while storing process policy: {}", e);
             throw new ProcessException(processKey, "Storing process policy error", e);
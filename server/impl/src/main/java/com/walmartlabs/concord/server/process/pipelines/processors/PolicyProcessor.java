@@ -21,6 +21,7 @@ package com.walmartlabs.concord.server.process.pipelines.processors;
  */
 
 import com.walmartlabs.concord.policyengine.PolicyEngine;
+import com.walmartlabs.concord.policyengine.WorkspaceScanner;
 import com.walmartlabs.concord.server.process.Payload;
 import com.walmartlabs.concord.server.process.ProcessException;
 import com.walmartlabs.concord.server.process.logs.ProcessLogManager;
@@ -29,6 +30,7 @@ import com.walmartlabs.concord.server.sdk.ProcessKey;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.nio.file.Path;
 import java.util.Set;
 
 /**
@@ -58,6 +60,14 @@ public class PolicyProcessor implements PayloadProcessor {
         logManager.info(processKey, "Applying policies...");
 
         try {
+            // walk the workspace once for all file-based policies
+            Path workDir = payload.getHeader(Payload.WORKSPACE_DIR);
+            WorkspaceScanner.Result scanResult = new WorkspaceScanner()
+                    .withFilePolicy(policy.getFilePolicy())
+                    .withWorkspacePolicy(policy.getWorkspacePolicy())
+                    .scan(workDir);
+            payload = payload.putHeader(Payload.POLICY_SCAN_RESULT, scanResult);
+
             // TODO merge check results
             for (PolicyApplier a : appliers) {
                 a.apply(payload, policy);
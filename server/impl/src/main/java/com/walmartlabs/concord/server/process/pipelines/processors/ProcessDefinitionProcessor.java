@@ -31,8 +31,11 @@ import com.walmartlabs.concord.sdk.MapUtils;
 import com.walmartlabs.concord.server.process.ImportsNormalizerFactory;
 import com.walmartlabs.concord.server.process.Payload;
 import com.walmartlabs.concord.server.process.PayloadUtils;
+import com.walmartlabs.concord.server.process.ProcessDefinitionCache;
 import com.walmartlabs.concord.server.process.ProcessException;
 import com.walmartlabs.concord.server.process.logs.ProcessLogManager;
+import com.walmartlabs.concord.server.process.pipelines.processors.RepositoryProcessor.CommitInfo;
+import com.walmartlabs.concord.server.process.pipelines.processors.RepositoryProcessor.RepositoryInfo;
 import com.walmartlabs.concord.server.sdk.ConcordApplicationException;
 import com.walmartlabs.concord.server.sdk.ProcessKey;
 import org.slf4j.Logger;
@@ -57,16 +60,16 @@ public class ProcessDefinitionProcessor implements PayloadProcessor {
 
     private static final int MAX_DEPENDENCIES_COUNT = 100;
 
-    private final ProjectLoader projectLoader;
+    private final ProcessDefinitionCache processDefinitionCache;
     private final ImportsNormalizerFactory importsNormalizer;
     private final ProcessLogManager logManager;
 
     @Inject
-    public ProcessDefinitionProcessor(ProjectLoader projectLoader,
+    public ProcessDefinitionProcessor(ProcessDefinitionCache processDefinitionCache,
                                       ImportsNormalizerFactory importsNormalizer,
                                       ProcessLogManager logManager) {
 
-        this.projectLoader = projectLoader;
+        this.processDefinitionCache = processDefinitionCache;
         this.importsNormalizer = importsNormalizer;
         this.logManager = logManager;
     }
@@ -84,8 +87,8 @@ public class ProcessDefinitionProcessor implements PayloadProcessor {
 
         try {
             String runtime = getRuntimeType(payload);
-            ProjectLoader.Result result = projectLoader.loadProject(workDir, runtime, importsNormalizer.forProject(projectId),
-                    new ProcessImportsListener(processKey));
+            ProjectLoader.Result result = processDefinitionCache.load(getCacheKey(payload, runtime), workDir, runtime,
+                    importsNormalizer.forProject(projectId), new ProcessImportsListener(processKey), true);
 
             List<Snapshot> snapshots = result.snapshots();
             payload = PayloadUtils.addSnapshots(payload, snapshots);
@@ -132,7 +135,29 @@ public class ProcessDefinitionProcessor implements PayloadProcessor {
         }
 
         Path workDir = payload.getHeader(Payload.WORKSPACE_DIR);
-        return ProjectLoader.getRuntimeType(workDir, "concord-v1"); // TODO constants or configuration
+        return ProjectLoader.getRuntimeType(workDir, ProjectLoader.RUNTIME_V1);
+    }
+
+    /**
+     * Returns the definition cache key if the working directory contains only
+     * the repository's files.
+     */
+    private static ProcessDefinitionCache.Key getCacheKey(Payload payload, String runtime) {
+        if (payload.getHeader(Payload.HAS_USER_FILES, false)) {
+            return null;
+        }
+
+        RepositoryInfo repoInfo = payload.getHeader(RepositoryProcessor.REPOSITORY_INFO_KEY);
+        if (repoInfo == null) {
+            return null;
+        }
+
+        CommitInfo commitInfo = repoInfo.getCommitInfo();
+        if (commitInfo == null) {
+            return null;
+        }
+
+        return ProcessDefinitionCache.Key.of(repoInfo.getUrl(), commitInfo.getId(), repoInfo.getPath(), runtime);
     }
 
     class ProcessImportsListener implements ImportsListener {
@@ -69,7 +69,8 @@ public class WorkspaceArchiveProcessor implements PayloadProcessor {
             throw new ProcessException(processKey, "Error while unpacking an archive: " + archive, e);
         }
 
-        payload = payload.removeAttachment(Payload.WORKSPACE_ARCHIVE);
+        payload = payload.removeAttachment(Payload.WORKSPACE_ARCHIVE)
+                .putHeader(Payload.HAS_USER_FILES, true);
         return chain.process(payload);
     }
 }
@@ -57,7 +57,7 @@ public class FilePolicyApplier implements PolicyApplier {
         ProcessKey processKey = payload.getProcessKey();
         Path workDir = payload.getHeader(Payload.WORKSPACE_DIR);
 
-        CheckResult<FileRule, Path> result = policy.getFilePolicy().check(workDir);
+        CheckResult<FileRule, Path> result = payload.getHeader(Payload.POLICY_SCAN_RESULT).getFileResult();
 
         result.getWarn().forEach(i -> {
             policyWarn.inc();
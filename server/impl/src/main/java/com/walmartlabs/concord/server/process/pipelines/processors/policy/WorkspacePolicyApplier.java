@@ -57,9 +57,8 @@ public class WorkspacePolicyApplier implements PolicyApplier {
     @Override
     public void apply(Payload payload, PolicyEngine policy) throws Exception {
         ProcessKey processKey = payload.getProcessKey();
-        Path workDir = payload.getHeader(Payload.WORKSPACE_DIR);
 
-        CheckResult<WorkspaceRule, Path> result = policy.getWorkspacePolicy().check(workDir);
+        CheckResult<WorkspaceRule, Path> result = payload.getHeader(Payload.POLICY_SCAN_RESULT).getWorkspaceResult();
 
         result.getWarn().forEach(i -> {
             policyWarn.inc();
@@ -0,0 +1,248 @@
+package com.walmartlabs.concord.server.process.queue;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.google.common.collect.ImmutableSet;
+import com.walmartlabs.concord.server.process.queue.WaitForProcessesRequest.Mode;
+import com.walmartlabs.concord.server.sdk.ProcessKey;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import org.jooq.DSLContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Completes the callers' futures when the specified processes reach a final status.
+ * Waiters are woken up by the status changes instead of polling the DB
+ * for each process separately. No threads are held while waiting, the checks
+ * run on a small shared scheduler.
+ */
+@Named
+@Singleton
+public class ProcessCompletionWatcher implements ProcessStatusListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessCompletionWatcher.class);
+
+    public static final Set<ProcessStatus> FINAL_STATUSES = ImmutableSet.of(
+            ProcessStatus.FINISHED,
+            ProcessStatus.FAILED,
+            ProcessStatus.CANCELLED,
+            ProcessStatus.TIMED_OUT);
+
+    /**
+     * Max delay between re-checks when no status changes were signalled.
+     */
+    private static final long RECHECK_INTERVAL = 5000;
+
+    /**
+     * Status listeners are called before the transaction is committed,
+     * a signalled change might not be visible yet. Re-check sooner
+     * for a few times after each signal.
+     */
+    private static final long SIGNALLED_RECHECK_INTERVAL = 250;
+    private static final int SIGNALLED_RECHECKS = 8;
+
+    private static final int CHECK_THREADS = 2;
+
+    private final ProcessQueueDao queueDao;
+    private final ConcurrentMap<UUID, Set<Waiter>> waiters = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor executor;
+
+    @Inject
+    public ProcessCompletionWatcher(ProcessQueueDao queueDao) {
+        this.queueDao = queueDao;
+
+        this.executor = new ScheduledThreadPoolExecutor(CHECK_THREADS, r -> {
+            Thread t = new Thread(r, "process-completion-watcher");
+            t.setDaemon(true);
+            return t;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public void onStatusChange(DSLContext tx, ProcessKey processKey, ProcessStatus status) {
+        if (!FINAL_STATUSES.contains(status)) {
+            return;
+        }
+
+        Set<Waiter> s = waiters.get(processKey.getInstanceId());
+        if (s != null) {
+            s.forEach(this::signal);
+        }
+    }
+
+    /**
+     * Waits until {@link Mode#ANY any} or {@link Mode#ALL all} of the specified
+     * processes reach a final status or until the timeout expires.
+     * <p>
+     * The returned future is completed with the current statuses of the processes,
+     * unknown IDs are omitted. Cancelling the future stops the waiting.
+     */
+    public CompletableFuture<List<ProcessStatusEntry>> waitFor(Collection<UUID> instanceIds, Mode mode, long timeoutMs) {
+        Waiter w = new Waiter(instanceIds, mode, System.currentTimeMillis() + timeoutMs);
+        register(w);
+        w.result.whenComplete((r, e) -> unregister(w));
+
+        synchronized (w) {
+            schedule(w, 0);
+        }
+
+        return w.result;
+    }
+
+    private void signal(Waiter w) {
+        synchronized (w) {
+            if (w.result.isDone()) {
+                return;
+            }
+
+            w.fastRechecks = SIGNALLED_RECHECKS;
+            schedule(w, 0);
+        }
+    }
+
+    /**
+     * Replaces the waiter's pending check (if any) with a new one.
+     * Must be called while holding the waiter's lock.
+     */
+    private void schedule(Waiter w, long delayMs) {
+        if (w.next != null) {
+            w.next.cancel(false);
+        }
+
+        long seq = ++w.seq;
+        try {
+            w.next = executor.schedule(() -> check(w, seq), delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            w.result.completeExceptionally(e);
+        }
+    }
+
+    private void check(Waiter w, long seq) {
+        synchronized (w) {
+            // superseded by a newer check or already completed
+            if (seq != w.seq || w.result.isDone()) {
+                return;
+            }
+        }
+
+        // the status listeners wait on the waiter's lock, don't hold it while querying the DB
+        List<ProcessStatusEntry> entries;
+        try {
+            entries = queueDao.getStatuses(w.instanceIds);
+        } catch (Exception e) {
+            log.warn("check -> error while fetching the statuses of {}: {}", w.instanceIds, e.getMessage());
+            w.result.completeExceptionally(e);
+            return;
+        }
+
+        long remaining = w.deadline - System.currentTimeMillis();
+        if (isDone(entries, w.mode) || remaining <= 0) {
+            w.result.complete(entries);
+            return;
+        }
+
+        synchronized (w) {
+            // a status change was signalled while querying, the newer check is already scheduled
+            if (seq != w.seq) {
+                return;
+            }
+
+            long interval = RECHECK_INTERVAL;
+            if (w.fastRechecks > 0) {
+                interval = SIGNALLED_RECHECK_INTERVAL;
+                w.fastRechecks--;
+            }
+
+            schedule(w, Math.min(remaining, interval));
+        }
+    }
+
+    private void register(Waiter w) {
+        for (UUID id : w.instanceIds) {
+            waiters.compute(id, (k, s) -> {
+                if (s == null) {
+                    s = ConcurrentHashMap.newKeySet();
+                }
+                s.add(w);
+                return s;
+            });
+        }
+    }
+
+    private void unregister(Waiter w) {
+        for (UUID id : w.instanceIds) {
+            waiters.computeIfPresent(id, (k, s) -> {
+                s.remove(w);
+                return s.isEmpty() ? null : s;
+            });
+        }
+
+        synchronized (w) {
+            if (w.next != null) {
+                w.next.cancel(false);
+            }
+        }
+    }
+
+    private static boolean isDone(List<ProcessStatusEntry> entries, Mode mode) {
+        if (entries.isEmpty()) {
+            // nothing to wait for
+            return true;
+        }
+
+        for (ProcessStatusEntry e : entries) {
+            boolean isFinal = FINAL_STATUSES.contains(e.status());
+            if (mode == Mode.ANY && isFinal) {
+                return true;
+            } else if (mode == Mode.ALL && !isFinal) {
+                return false;
+            }
+        }
+
+        return mode == Mode.ALL;
+    }
+
+    private static final class Waiter {
+
+        private final Set<UUID> instanceIds;
+        private final Mode mode;
+        private final long deadline;
+        private final CompletableFuture<List<ProcessStatusEntry>> result = new CompletableFuture<>();
+
+        // guarded by "this"
+        private ScheduledFuture<?> next;
+        private long seq;
+        private int fastRechecks;
+
+        private Waiter(Collection<UUID> instanceIds, Mode mode, long deadline) {
+            this.instanceIds = new HashSet<>(instanceIds);
+            this.mode = mode;
+            this.deadline = deadline;
+        }
+    }
+}
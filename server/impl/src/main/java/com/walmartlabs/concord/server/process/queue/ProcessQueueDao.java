@@ -49,6 +49,8 @@ import org.jooq.util.postgres.PostgresDSL;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -397,6 +399,26 @@ public class ProcessQueueDao extends AbstractDao {
         });
     }
 
+    /**
+     * Updates the "last updated" timestamp of the specified processes in a single statement.
+     *
+     * @return IDs of the updated processes
+     */
+    public Set<UUID> touch(Collection<UUID> instanceIds) {
+        if (instanceIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        return txResult(tx -> tx.update(PROCESS_QUEUE)
+                .set(PROCESS_QUEUE.LAST_UPDATED_AT, currentOffsetDateTime())
+                .where(PROCESS_QUEUE.INSTANCE_ID.eq(any(instanceIds.toArray(new UUID[0]))))
+                .returning(PROCESS_QUEUE.INSTANCE_ID)
+                .fetch()
+                .stream()
+                .map(ProcessQueueRecord::getInstanceId)
+                .collect(Collectors.toSet()));
+    }
+
     public ProcessEntry get(ProcessKey processKey) {
         return get(processKey, DEFAULT_INCLUDES);
     }
@@ -434,6 +456,37 @@ public class ProcessQueueDao extends AbstractDao {
         return ProcessStatus.valueOf(status);
     }
 
+    /**
+     * Returns the current status of the specified processes in a single query.
+     * Unknown IDs are omitted from the result.
+     */
+    public List<ProcessStatusEntry> getStatuses(Collection<UUID> instanceIds) {
+        if (instanceIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return dsl().select(PROCESS_QUEUE.INSTANCE_ID, PROCESS_QUEUE.CURRENT_STATUS)
+                .from(PROCESS_QUEUE)
+                .where(PROCESS_QUEUE.INSTANCE_ID.eq(any(instanceIds.toArray(new UUID[0]))))
+                .fetch(r -> ProcessStatusEntry.of(r.value1(), ProcessStatus.valueOf(r.value2())));
+    }
+
+    /**
+     * Returns the distinct project IDs of the specified processes.
+     * Processes without projects are ignored.
+     */
+    public Set<UUID> getProjectIds(Collection<UUID> instanceIds) {
+        if (instanceIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        return dsl().selectDistinct(PROCESS_QUEUE.PROJECT_ID)
+                .from(PROCESS_QUEUE)
+                .where(PROCESS_QUEUE.INSTANCE_ID.eq(any(instanceIds.toArray(new UUID[0])))
+                        .and(PROCESS_QUEUE.PROJECT_ID.isNotNull()))
+                .fetchSet(PROCESS_QUEUE.PROJECT_ID);
+    }
+
     public List<ProcessEntry> get(List<PartialProcessKey> processKeys) {
         if (processKeys.isEmpty()) {
             return Collections.emptyList();
@@ -539,6 +592,61 @@ public class ProcessQueueDao extends AbstractDao {
                 .build());
     }
 
+    /**
+     * Counts the processes in the specified status grouped by their requirements.
+     * Processes with a {@code START_AT} in the future are not included.
+     */
+    public List<ProcessQueueDepthEntry> countByRequirements(ProcessStatus processStatus) {
+        Field<Integer> count = DSL.count(asterisk());
+        return dsl().select(PROCESS_QUEUE.REQUIREMENTS, count)
+                .from(PROCESS_QUEUE)
+                .where(PROCESS_QUEUE.CURRENT_STATUS.eq(processStatus.name())
+                        .and(PROCESS_QUEUE.START_AT.isNull().or(PROCESS_QUEUE.START_AT.lessOrEqual(currentOffsetDateTime()))))
+                .groupBy(PROCESS_QUEUE.REQUIREMENTS)
+                .fetch(r -> ProcessQueueDepthEntry.builder()
+                        .status(processStatus)
+                        .requirements(objectMapper.fromJSONB(r.value1()))
+                        .count(r.value2())
+                        .build());
+    }
+
+    /**
+     * Calculates enqueue/dispatch rates and the average run duration of processes
+     * grouped by requirements. Each value uses its own timestamp: the creation time,
+     * the start time or the end time of a process. So processes that waited in the queue
+     * longer than the window are still counted.
+     */
+    public List<ProcessQueueRateEntry> rateByRequirements(Duration window) {
+        Field<OffsetDateTime> since = currentOffsetDateTime().minus(interval(window.getSeconds() + " seconds"));
+
+        List<String> finalStatuses = Arrays.asList(ProcessStatus.FINISHED.name(),
+                ProcessStatus.FAILED.name(),
+                ProcessStatus.CANCELLED.name(),
+                ProcessStatus.TIMED_OUT.name());
+
+        Condition isEnqueued = PROCESS_QUEUE.CREATED_AT.greaterOrEqual(since);
+        Condition isStarted = PROCESS_QUEUE.LAST_RUN_AT.greaterOrEqual(since);
+        // uses the partial index on LAST_UPDATED_AT of finished processes
+        Condition isFinished = PROCESS_QUEUE.CURRENT_STATUS.in(finalStatuses)
+                .and(PROCESS_QUEUE.LAST_UPDATED_AT.greaterOrEqual(since));
+
+        Field<Integer> enqueued = DSL.count(asterisk()).filterWhere(isEnqueued);
+        Field<Integer> started = DSL.count(asterisk()).filterWhere(isStarted);
+        Field<BigDecimal> avgDuration = avg(field("extract(epoch from {0} - {1}) * 1000", Double.class, PROCESS_QUEUE.LAST_UPDATED_AT, PROCESS_QUEUE.LAST_RUN_AT))
+                .filterWhere(isFinished.and(PROCESS_QUEUE.LAST_RUN_AT.isNotNull()));
+
+        return dsl().select(PROCESS_QUEUE.REQUIREMENTS, enqueued, started, avgDuration)
+                .from(PROCESS_QUEUE)
+                .where(isEnqueued.or(isStarted).or(isFinished))
+                .groupBy(PROCESS_QUEUE.REQUIREMENTS)
+                .fetch(r -> ProcessQueueRateEntry.builder()
+                        .requirements(objectMapper.fromJSONB(r.value1()))
+                        .enqueued(r.value2())
+                        .started(r.value3())
+                        .avgDurationMs(r.value4() != null ? r.value4().longValue() : null)
+                        .build());
+    }
+
     public int count(ProcessFilter filter) {
         DSLContext tx = dsl();
         SelectQuery<Record> query = buildSelect(tx, filter);
@@ -0,0 +1,62 @@
+package com.walmartlabs.concord.server.process.queue;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.walmartlabs.concord.server.cfg.ProcessQueueConfiguration;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the number of processes grouped by status and requirements.
+ * Autoscalers poll the queue depth frequently, the cache makes sure
+ * the DB is queried at most once per TTL per status.
+ */
+@Named
+@Singleton
+public class ProcessQueueDepthCache {
+
+    private final LoadingCache<ProcessStatus, List<ProcessQueueDepthEntry>> cache;
+
+    @Inject
+    public ProcessQueueDepthCache(ProcessQueueConfiguration cfg, ProcessQueueDao queueDao) {
+        this.cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(cfg.getDepthCacheTtl().toMillis(), TimeUnit.MILLISECONDS)
+                .build(new CacheLoader<ProcessStatus, List<ProcessQueueDepthEntry>>() {
+                    @Override
+                    public List<ProcessQueueDepthEntry> load(@Nonnull ProcessStatus key) {
+                        return queueDao.countByRequirements(key);
+                    }
+                });
+    }
+
+    public List<ProcessQueueDepthEntry> get(ProcessStatus status) {
+        return cache.getUnchecked(status);
+    }
+}
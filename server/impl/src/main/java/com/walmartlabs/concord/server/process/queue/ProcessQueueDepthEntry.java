@@ -0,0 +1,54 @@
+package com.walmartlabs.concord.server.process.queue;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import org.immutables.value.Value;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Number of processes with the same status and requirements.
+ */
+@Value.Immutable
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonSerialize(as = ImmutableProcessQueueDepthEntry.class)
+@JsonDeserialize(as = ImmutableProcessQueueDepthEntry.class)
+public interface ProcessQueueDepthEntry extends Serializable {
+
+    long serialVersionUID = 1L;
+
+    ProcessStatus status();
+
+    @Nullable
+    Map<String, Object> requirements();
+
+    int count();
+
+    static ImmutableProcessQueueDepthEntry.Builder builder() {
+        return ImmutableProcessQueueDepthEntry.builder();
+    }
+}
@@ -0,0 +1,67 @@
+package com.walmartlabs.concord.server.process.queue;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Enqueue and dispatch rates of processes with the same requirements
+ * within a time window.
+ */
+@Value.Immutable
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonSerialize(as = ImmutableProcessQueueRateEntry.class)
+@JsonDeserialize(as = ImmutableProcessQueueRateEntry.class)
+public interface ProcessQueueRateEntry extends Serializable {
+
+    long serialVersionUID = 1L;
+
+    @Nullable
+    Map<String, Object> requirements();
+
+    /**
+     * Number of processes created within the window.
+     */
+    int enqueued();
+
+    /**
+     * Number of processes started (dispatched to an agent) within the window.
+     */
+    int started();
+
+    /**
+     * Average run duration of the recently finished processes.
+     * {@code null} if none of the processes finished recently.
+     */
+    @Nullable
+    Long avgDurationMs();
+
+    static ImmutableProcessQueueRateEntry.Builder builder() {
+        return ImmutableProcessQueueRateEntry.builder();
+    }
+}
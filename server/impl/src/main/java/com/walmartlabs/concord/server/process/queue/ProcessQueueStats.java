@@ -0,0 +1,62 @@
+package com.walmartlabs.concord.server.process.queue;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Process queue rates used by autoscalers to predict the agent demand.
+ */
+@Value.Immutable
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonSerialize(as = ImmutableProcessQueueStats.class)
+@JsonDeserialize(as = ImmutableProcessQueueStats.class)
+public interface ProcessQueueStats extends Serializable {
+
+    long serialVersionUID = 1L;
+
+    /**
+     * Size of the window used to calculate the rates, in seconds.
+     */
+    int window();
+
+    /**
+     * Size of the look-ahead window for {@link #scheduledTriggers()}, in seconds.
+     */
+    int horizon();
+
+    /**
+     * Number of cron triggers scheduled to fire within the horizon.
+     */
+    int scheduledTriggers();
+
+    List<ProcessQueueRateEntry> rates();
+
+    static ImmutableProcessQueueStats.Builder builder() {
+        return ImmutableProcessQueueStats.builder();
+    }
+}
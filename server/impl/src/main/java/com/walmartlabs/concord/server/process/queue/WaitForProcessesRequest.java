@@ -0,0 +1,60 @@
+package com.walmartlabs.concord.server.process.queue;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.List;
+import java.util.UUID;
+
+@Value.Immutable
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonSerialize(as = ImmutableWaitForProcessesRequest.class)
+@JsonDeserialize(as = ImmutableWaitForProcessesRequest.class)
+public interface WaitForProcessesRequest extends Serializable {
+
+    long serialVersionUID = 1L;
+
+    List<UUID> instanceIds();
+
+    /**
+     * Return when {@link Mode#ANY any} or {@link Mode#ALL all} of the processes
+     * reach a final status. Defaults to {@link Mode#ALL}.
+     */
+    @Nullable
+    Mode mode();
+
+    /**
+     * Maximum time to wait, in seconds.
+     */
+    @Nullable
+    Integer timeout();
+
+    enum Mode {
+        ANY,
+        ALL
+    }
+}
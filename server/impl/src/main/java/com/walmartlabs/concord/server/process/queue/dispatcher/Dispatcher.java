@@ -38,7 +38,9 @@ import com.walmartlabs.concord.server.process.SessionTokenCreator;
 import com.walmartlabs.concord.server.process.logs.ProcessLogManager;
 import com.walmartlabs.concord.server.process.queue.ProcessQueueEntry;
 import com.walmartlabs.concord.server.process.queue.ProcessQueueManager;
+import com.walmartlabs.concord.server.queueclient.message.Message;
 import com.walmartlabs.concord.server.queueclient.message.MessageType;
+import com.walmartlabs.concord.server.queueclient.message.ProcessBatchResponse;
 import com.walmartlabs.concord.server.queueclient.message.ProcessRequest;
 import com.walmartlabs.concord.server.queueclient.message.ProcessResponse;
 import com.walmartlabs.concord.server.sdk.ProcessKey;
@@ -155,10 +157,16 @@ public class Dispatcher extends PeriodicTask {
             return false;
         }
 
+        // group the matches by request, a request can have multiple slots
+        Map<Request, List<ProcessQueueEntry>> responses = new LinkedHashMap<>();
+        for (Match m : matches) {
+            responses.computeIfAbsent(m.request, k -> new ArrayList<>()).add(m.response);
+        }
+
         // send all responses in parallel
-        withTimer(responseTimer, () -> matches.stream()
+        withTimer(responseTimer, () -> responses.entrySet().stream()
                 .parallel()
-                .forEach(this::sendResponse));
+                .forEach(e -> sendResponse(e.getKey(), e.getValue())));
 
         return true;
     }
@@ -190,7 +198,11 @@ public class Dispatcher extends PeriodicTask {
 
                 if (pass(tx, e, startingProcesses)) {
                     matches.add(new Match(req, e));
-                    inbox.remove(req);
+
+                    req.remainingSlots--;
+                    if (req.remainingSlots <= 0) {
+                        inbox.remove(req);
+                    }
 
                     if (inbox.isEmpty()) {
                         break;
@@ -215,16 +227,26 @@ public class Dispatcher extends PeriodicTask {
         return matches;
     }
 
+    /**
+     * Returns the matching request with the most remaining slots, i.e.
+     * the least loaded agent.
+     */
     private static Request findRequest(ProcessQueueEntry candidate, List<Request> requests) {
+        Map<String, Object> m = getAgentRequirements(candidate);
+
+        Request result = null;
         for (Request req : requests) {
+            if (result != null && result.remainingSlots >= req.remainingSlots) {
+                continue;
+            }
+
             Map<String, Object> capabilities = req.request.getCapabilities();
-            Map<String, Object> m = getAgentRequirements(candidate);
             if (m.isEmpty() || Matcher.matches(capabilities, m)) {
-                return req;
+                result = req;
             }
         }
 
-        return null;
+        return result;
     }
 
     @SuppressWarnings("unchecked")
@@ -252,42 +274,65 @@ public class Dispatcher extends PeriodicTask {
         return true;
     }
 
-    private void sendResponse(Match match) {
-        WebSocketChannel channel = match.request.channel;
-        long correlationId = match.request.request.getCorrelationId();
-        ProcessQueueEntry item = match.response;
+    private void sendResponse(Request request, List<ProcessQueueEntry> items) {
+        WebSocketChannel channel = request.channel;
+        long correlationId = request.request.getCorrelationId();
 
-        try {
-            SecretReference secret = null;
-            if (item.repoId() != null) {
-                secret = dao.getSecretReference(item.repoId());
+        List<ProcessQueueEntry> acquired = new ArrayList<>(items.size());
+        List<ProcessResponse> processes = new ArrayList<>(items.size());
+        for (ProcessQueueEntry item : items) {
+            try {
+                processes.add(createResponse(correlationId, item));
+                acquired.add(item);
+            } catch (Exception e) {
+                log.error("sendResponse ['{}'] -> failed (instanceId: {})", correlationId, item.key().getInstanceId());
             }
+        }
 
-            // backward compatibility with old process queue entries that are not normalized
-            Imports imports = importsNormalizerFactory.forProject(item.projectId())
-                    .normalize(item.imports());
-
-            ProcessResponse resp = new ProcessResponse(correlationId,
-                    sessionTokenCreator.create(item.key()),
-                    item.key().getInstanceId(),
-                    secret != null ? secret.orgName : null,
-                    item.repoUrl(),
-                    item.repoPath(),
-                    item.commitId(),
-                    item.commitBranch(),
-                    secret != null ? secret.secretName : null,
-                    imports);
-
-            if (!channelManager.sendResponse(channel.getChannelId(), resp)) {
-                log.warn("sendResponse ['{}'] -> failed", correlationId);
-            }
+        if (processes.isEmpty()) {
+            return;
+        }
+
+        Message resp;
+        if (request.request.getSlots() > 1) {
+            resp = new ProcessBatchResponse(correlationId, processes);
+        } else {
+            // older agents expect a single process per request
+            resp = processes.get(0);
+        }
+
+        if (!channelManager.sendResponse(channel.getChannelId(), resp)) {
+            log.warn("sendResponse ['{}'] -> failed", correlationId);
+            return;
+        }
 
+        for (ProcessQueueEntry item : acquired) {
             logManager.info(item.key(), "Acquired by: " + channel.getUserAgent());
-        } catch (Exception e) {
-            log.error("sendResponse ['{}'] -> failed (instanceId: {})", correlationId, item.key().getInstanceId());
         }
     }
 
+    private ProcessResponse createResponse(long correlationId, ProcessQueueEntry item) {
+        SecretReference secret = null;
+        if (item.repoId() != null) {
+            secret = dao.getSecretReference(item.repoId());
+        }
+
+        // backward compatibility with old process queue entries that are not normalized
+        Imports imports = importsNormalizerFactory.forProject(item.projectId())
+                .normalize(item.imports());
+
+        return new ProcessResponse(correlationId,
+                sessionTokenCreator.create(item.key()),
+                item.key().getInstanceId(),
+                secret != null ? secret.orgName : null,
+                item.repoUrl(),
+                item.repoPath(),
+                item.commitId(),
+                item.commitBranch(),
+                secret != null ? secret.secretName : null,
+                imports);
+    }
+
     @Named
     public static class DispatcherDao extends AbstractDao {
 
@@ -377,9 +422,12 @@ public class Dispatcher extends PeriodicTask {
         private final WebSocketChannel channel;
         private final ProcessRequest request;
 
+        private int remainingSlots;
+
         private Request(WebSocketChannel channel, ProcessRequest request) {
             this.channel = channel;
             this.request = request;
+            this.remainingSlots = request.getSlots();
         }
     }
 
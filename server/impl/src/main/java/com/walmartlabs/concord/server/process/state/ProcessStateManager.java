@@ -29,6 +29,7 @@ import com.walmartlabs.concord.policyengine.CheckResult;
 import com.walmartlabs.concord.policyengine.PolicyEngine;
 import com.walmartlabs.concord.policyengine.StatePolicy;
 import com.walmartlabs.concord.policyengine.StateRule;
+import com.walmartlabs.concord.policyengine.WorkspaceScanner;
 import com.walmartlabs.concord.server.cfg.ProcessConfiguration;
 import com.walmartlabs.concord.server.cfg.SecretStoreConfiguration;
 import com.walmartlabs.concord.common.secret.SecretUtils;
@@ -56,6 +57,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributes;
 import java.nio.file.attribute.PosixFilePermission;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -310,60 +312,74 @@ public class ProcessStateManager extends AbstractDao {
 
     @WithTimer
     public void importPath(DSLContext tx, ProcessKey processKey, String path, Path src, BiFunction<Path, BasicFileAttributes, Boolean> filter) {
-        PolicyEngine policyEngine = assertPolicy(tx, processKey, src, filter);
+        PolicyEngine policyEngine = getPolicyEngine(tx, processKey);
 
         String prefix = fixPath(path);
 
+        // check the files against the state policy and insert them in the same walk,
+        // only the current batch is kept in memory. The transaction is rolled back if
+        // the policy denies any of the files
         List<BatchItem> batch = new ArrayList<>();
+        WorkspaceScanner.Result scanResult;
         try {
-            Files.walkFileTree(src, new SimpleFileVisitor<Path>() {
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                    if (!filter.apply(file, attrs)) {
-                        return FileVisitResult.CONTINUE;
-                    }
+            scanResult = new WorkspaceScanner()
+                    .withStatePolicy(policyEngine != null ? policyEngine.getStatePolicy() : null, filter)
+                    .withVisitor((file, attrs) -> {
+                        if (!filter.apply(file, attrs)) {
+                            return;
+                        }
 
-                    Path p = src.relativize(file);
+                        batch.add(toBatchItem(tx, processKey, prefix, src, file, attrs));
+                        if (batch.size() >= INSERT_BATCH_SIZE) {
+                            insert(tx, processKey.getInstanceId(), processKey.getCreatedAt(), batch);
+                            batch.clear();
+                        }
+                    })
+                    .scan(src);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
 
-                    // can't import directories or symlinks
-                    // the caller shouldn't attempt to import anything but regular files
-                    if (!Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
-                        throw new IllegalStateException("Can't import non-regular files into the process state: " + p +
-                                " This is most likely a bug.");
-                    }
+        assertPolicy(processKey, src, scanResult.getStateResult());
 
-                    String n = p.toString();
-                    if (prefix != null) {
-                        n = prefix + n;
-                    }
+        if (!batch.isEmpty()) {
+            insert(tx, processKey.getInstanceId(), processKey.getCreatedAt(), batch);
+        }
 
-                    Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(file);
-                    int unixMode = Posix.unixMode(permissions);
-                    boolean needsEncryption = secureFiles.contains(n);
+        assertPolicy(tx, processKey, policyEngine);
+    }
 
-                    tx.deleteFrom(PROCESS_STATE).where(PROCESS_STATE.INSTANCE_ID.eq(processKey.getInstanceId())
-                            .and(PROCESS_STATE.INSTANCE_CREATED_AT.eq(processKey.getCreatedAt()))
-                            .and(PROCESS_STATE.ITEM_PATH.eq(n)))
-                            .execute();
+    private BatchItem toBatchItem(DSLContext tx, ProcessKey processKey, String prefix, Path src, Path file, BasicFileAttributes attrs) {
+        Path p = src.relativize(file);
 
-                    batch.add(new BatchItem(n, file, unixMode, needsEncryption));
-                    if (batch.size() >= INSERT_BATCH_SIZE) {
-                        insert(tx, processKey.getInstanceId(), processKey.getCreatedAt(), batch);
-                        batch.clear();
-                    }
+        // can't import directories or symlinks
+        // the caller shouldn't attempt to import anything but regular files
+        // (the walk doesn't follow links, the attributes are of the file itself)
+        if (!attrs.isRegularFile()) {
+            throw new IllegalStateException("Can't import non-regular files into the process state: " + p +
+                    " This is most likely a bug.");
+        }
 
-                    return FileVisitResult.CONTINUE;
-                }
-            });
+        String n = p.toString();
+        if (prefix != null) {
+            n = prefix + n;
+        }
 
-            if (!batch.isEmpty()) {
-                insert(tx, processKey.getInstanceId(), processKey.getCreatedAt(), batch);
-            }
+        Set<PosixFilePermission> permissions;
+        try {
+            permissions = attrs instanceof PosixFileAttributes
+                    ? ((PosixFileAttributes) attrs).permissions()
+                    : Files.getPosixFilePermissions(file);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
 
-        assertPolicy(tx, processKey, policyEngine);
+        tx.deleteFrom(PROCESS_STATE).where(PROCESS_STATE.INSTANCE_ID.eq(processKey.getInstanceId())
+                .and(PROCESS_STATE.INSTANCE_CREATED_AT.eq(processKey.getCreatedAt()))
+                .and(PROCESS_STATE.ITEM_PATH.eq(n)))
+                .execute();
+
+        return new BatchItem(n, file, Posix.unixMode(permissions), secureFiles.contains(n));
     }
 
     /**
@@ -574,27 +590,13 @@ public class ProcessStateManager extends AbstractDao {
         return child.substring(parent.length());
     }
 
-    private PolicyEngine assertPolicy(DSLContext tx, ProcessKey processKey, Path src, BiFunction<Path, BasicFileAttributes, Boolean> filter) {
-        PolicyEngine pe = getPolicyEngine(tx, processKey);
-        if (pe == null) {
-            return null;
-        }
-
-        CheckResult<StateRule, Path> result;
-        try {
-            result = pe.getStatePolicy().check(src, filter);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-
+    private void assertPolicy(ProcessKey processKey, Path src, CheckResult<StateRule, Path> result) {
         result.getWarn().forEach(w -> logManager.warn(processKey, "Potentially restricted state file '{}' (state policy: {})", src.relativize(w.getEntity()), w.getRule().msg()));
         result.getDeny().forEach(e -> logManager.error(processKey, "State file '{}' is forbidden by the state policy {}", src.relativize(e.getEntity()), e.getRule().msg()));
 
         if (!result.getDeny().isEmpty()) {
             throw new PolicyException("Found forbidden state files");
         }
-
-        return pe;
     }
 
     private void assertPolicy(DSLContext tx, ProcessKey processKey, PolicyEngine policyEngine) {
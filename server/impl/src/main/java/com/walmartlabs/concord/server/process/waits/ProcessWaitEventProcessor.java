@@ -0,0 +1,94 @@
+package com.walmartlabs.concord.server.process.waits;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.process.waits.ProcessWaitNotifier.WaitEvent;
+import com.walmartlabs.concord.server.sdk.BackgroundTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+/**
+ * Handles {@link ProcessWaitNotifier} events: wakes up the processes waiting
+ * for a released lock or for a finished process without waiting for
+ * the next {@link ProcessWaitWatchdog} run.
+ */
+@Named
+@Singleton
+public class ProcessWaitEventProcessor implements BackgroundTask {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessWaitEventProcessor.class);
+
+    private final ProcessWaitNotifier notifier;
+    private final ProcessWaitWatchdog watchdog;
+
+    private Thread worker;
+
+    @Inject
+    public ProcessWaitEventProcessor(ProcessWaitNotifier notifier, ProcessWaitWatchdog watchdog) {
+        this.notifier = notifier;
+        this.watchdog = watchdog;
+    }
+
+    @Override
+    public void start() {
+        this.worker = new Thread(this::run, "process-wait-event-processor");
+        this.worker.start();
+    }
+
+    @Override
+    public void stop() {
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            WaitEvent e;
+            try {
+                e = notifier.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            try {
+                boolean resolved;
+                if (e.isLockReleased()) {
+                    resolved = watchdog.wakeUpLockWaiters(e.orgId, e.projectId, e.scope, e.lockName);
+                } else {
+                    resolved = watchdog.wakeUpCompletionWaiters(e.instanceId);
+                }
+
+                if (!resolved && !notifier.retry(e)) {
+                    log.debug("run ['{}'] -> no waiters resumed, leaving it to the watchdog", e);
+                }
+            } catch (Exception ex) {
+                log.warn("run ['{}'] -> error", e, ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.walmartlabs.concord.server.process.waits;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.jooq.enums.ProcessLockScope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.UUID;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receives events that can resolve wait conditions of other processes:
+ * released locks and finished processes. The events are handled
+ * asynchronously by {@link ProcessWaitEventProcessor}.
+ * <p/>
+ * Delivery is best effort, {@link ProcessWaitWatchdog} still periodically checks
+ * all waiting processes.
+ */
+@Named
+@Singleton
+public class ProcessWaitNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessWaitNotifier.class);
+
+    private static final int MAX_QUEUE_SIZE = 10_000;
+
+    /**
+     * Delays between attempts to handle an event. Status changes are reported
+     * before the transaction is committed, so the first attempt may not see them.
+     */
+    private static final long[] RETRY_DELAYS_MS = {500, 2000, 5000};
+
+    private final DelayQueue<WaitEvent> queue = new DelayQueue<>();
+
+    public void lockReleased(UUID orgId, UUID projectId, ProcessLockScope scope, String lockName) {
+        offer(new WaitEvent(null, orgId, projectId, scope, lockName, 0, 0));
+    }
+
+    public void processFinished(UUID instanceId) {
+        offer(new WaitEvent(instanceId, null, null, null, null, 0, 0));
+    }
+
+    WaitEvent take() throws InterruptedException {
+        return queue.take();
+    }
+
+    /**
+     * Schedules another attempt to handle the event.
+     * @return {@code false} if there are no attempts left.
+     */
+    boolean retry(WaitEvent e) {
+        if (e.attempt >= RETRY_DELAYS_MS.length) {
+            return false;
+        }
+
+        long notBefore = System.currentTimeMillis() + RETRY_DELAYS_MS[e.attempt];
+        offer(new WaitEvent(e.instanceId, e.orgId, e.projectId, e.scope, e.lockName, e.attempt + 1, notBefore));
+        return true;
+    }
+
+    private void offer(WaitEvent e) {
+        if (queue.size() >= MAX_QUEUE_SIZE) {
+            log.warn("offer ['{}'] -> the queue is full, the event will be handled by the watchdog", e);
+            return;
+        }
+        queue.offer(e);
+    }
+
+    static final class WaitEvent implements Delayed {
+
+        // set for "process finished" events
+        final UUID instanceId;
+
+        // set for "lock released" events
+        final UUID orgId;
+        final UUID projectId;
+        final ProcessLockScope scope;
+        final String lockName;
+
+        final int attempt;
+        final long notBefore;
+
+        private WaitEvent(UUID instanceId, UUID orgId, UUID projectId, ProcessLockScope scope, String lockName, int attempt, long notBefore) {
+            this.instanceId = instanceId;
+            this.orgId = orgId;
+            this.projectId = projectId;
+            this.scope = scope;
+            this.lockName = lockName;
+            this.attempt = attempt;
+            this.notBefore = notBefore;
+        }
+
+        boolean isLockReleased() {
+            return lockName != null;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(notBefore - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            return Long.compare(notBefore, ((WaitEvent) o).notBefore);
+        }
+
+        @Override
+        public String toString() {
+            if (isLockReleased()) {
+                return "lockReleased{scope=" + scope + ", orgId=" + orgId + ", projectId=" + projectId + ", name=" + lockName + ", attempt=" + attempt + "}";
+            }
+            return "processFinished{instanceId=" + instanceId + ", attempt=" + attempt + "}";
+        }
+    }
+}
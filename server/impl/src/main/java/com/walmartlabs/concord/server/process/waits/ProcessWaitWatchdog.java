@@ -25,8 +25,10 @@ import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.walmartlabs.concord.db.AbstractDao;
 import com.walmartlabs.concord.db.MainDB;
+import com.walmartlabs.concord.db.PgUtils;
 import com.walmartlabs.concord.server.ConcordObjectMapper;
 import com.walmartlabs.concord.server.cfg.ProcessWaitWatchdogConfiguration;
+import com.walmartlabs.concord.server.jooq.enums.ProcessLockScope;
 import com.walmartlabs.concord.server.jooq.tables.ProcessWaitConditions;
 import com.walmartlabs.concord.server.process.Payload;
 import com.walmartlabs.concord.server.process.PayloadManager;
@@ -36,6 +38,7 @@ import com.walmartlabs.concord.server.sdk.ScheduledTask;
 import com.walmartlabs.concord.server.sdk.metrics.WithTimer;
 import org.immutables.value.Value;
 import org.jooq.Configuration;
+import org.jooq.DSLContext;
 import org.jooq.JSONB;
 import org.jooq.Record5;
 import org.jooq.SelectConditionStep;
@@ -123,8 +126,45 @@ public class ProcessWaitWatchdog implements ScheduledTask {
         }
     }
 
+    /**
+     * Checks the processes waiting for the specified lock, in the same order as
+     * {@link #performTask()} does. Stops at the first process with updated wait
+     * conditions: either it acquired the lock or the lock is held by someone else.
+     *
+     * @return {@code false} if there are waiting processes but none of them were updated.
+     */
     @WithTimer
-    void processWaits(WaitingProcess p) {
+    boolean wakeUpLockWaiters(UUID orgId, UUID projectId, ProcessLockScope scope, String lockName) {
+        List<WaitingProcess> processes = dao.findLockWaiters(orgId, projectId, scope, lockName, cfg.getPollLimit());
+        for (WaitingProcess p : processes) {
+            if (processWaits(p)) {
+                return true;
+            }
+        }
+        return processes.isEmpty();
+    }
+
+    /**
+     * Checks the processes waiting for the specified process to finish.
+     *
+     * @return {@code false} if there are waiting processes but none of them were updated.
+     */
+    @WithTimer
+    boolean wakeUpCompletionWaiters(UUID instanceId) {
+        List<WaitingProcess> processes = dao.findCompletionWaiters(instanceId, cfg.getPollLimit());
+
+        boolean updated = false;
+        for (WaitingProcess p : processes) {
+            updated |= processWaits(p);
+        }
+        return updated || processes.isEmpty();
+    }
+
+    /**
+     * @return {@code true} if the process' wait conditions were updated.
+     */
+    @WithTimer
+    boolean processWaits(WaitingProcess p) {
         Set<String> resumeEvents = new HashSet<>();
         List<AbstractWaitCondition> resultWaits = new ArrayList<>();
         List<ProcessWaitHandler.Action> resultActions = new ArrayList<>();
@@ -153,7 +193,7 @@ public class ProcessWaitWatchdog implements ScheduledTask {
         }
 
         if (p.waits().equals(resultWaits)) {
-            return;
+            return false;
         }
 
         try {
@@ -169,8 +209,11 @@ public class ProcessWaitWatchdog implements ScheduledTask {
             if (updated && !resumeEvents.isEmpty()) {
                 resumeProcess(p.processKey(), resumeEvents);
             }
+
+            return updated;
         } catch (Exception e) {
             log.info("processWaits ['{}'] -> error", p, e);
+            return false;
         }
     }
 
@@ -239,14 +282,7 @@ public class ProcessWaitWatchdog implements ScheduledTask {
             return txResult(tx -> {
                 ProcessWaitConditions w = PROCESS_WAIT_CONDITIONS.as("w");
 
-                SelectConditionStep<Record5<UUID, OffsetDateTime, Long, JSONB, Long>> s = tx.select(
-                        w.INSTANCE_ID,
-                        w.INSTANCE_CREATED_AT,
-                        w.ID_SEQ,
-                        w.WAIT_CONDITIONS,
-                        w.VERSION)
-                        .from(w)
-                        .where(w.IS_WAITING.eq(true));
+                SelectConditionStep<Record5<UUID, OffsetDateTime, Long, JSONB, Long>> s = selectWaiting(tx, w);
 
                 if (lastId != null) {
                     s.and(w.ID_SEQ.greaterThan(lastId));
@@ -254,13 +290,65 @@ public class ProcessWaitWatchdog implements ScheduledTask {
 
                 return s.orderBy(w.ID_SEQ)
                         .limit(pollLimit)
-                        .fetch(r -> WaitingProcess.builder()
-                                .processKey(new ProcessKey(r.value1(), r.value2()))
-                                .id(r.value3())
-                                .waits(objectMapper.fromJSONB(r.value4(), WAIT_LIST))
-                                .version(r.value5())
-                                .build());
+                        .fetch(this::toWaitingProcess);
             });
         }
+
+        @WithTimer
+        public List<WaitingProcess> findLockWaiters(UUID orgId, UUID projectId, ProcessLockScope scope, String lockName, int limit) {
+            Map<String, Object> condition = new HashMap<>();
+            condition.put("type", WaitType.PROCESS_LOCK.name());
+            condition.put("scope", scope.name());
+            condition.put("name", lockName);
+            if (scope == ProcessLockScope.ORG) {
+                condition.put("orgId", orgId.toString());
+            } else {
+                condition.put("projectId", projectId.toString());
+            }
+
+            return findWaiters(condition, limit);
+        }
+
+        @WithTimer
+        public List<WaitingProcess> findCompletionWaiters(UUID instanceId, int limit) {
+            Map<String, Object> condition = new HashMap<>();
+            condition.put("type", WaitType.PROCESS_COMPLETION.name());
+            condition.put("processes", Collections.singletonList(instanceId.toString()));
+
+            return findWaiters(condition, limit);
+        }
+
+        private List<WaitingProcess> findWaiters(Map<String, Object> condition, int limit) {
+            JSONB filter = objectMapper.toJSONB(Collections.singletonList(condition));
+
+            return txResult(tx -> {
+                ProcessWaitConditions w = PROCESS_WAIT_CONDITIONS.as("w");
+                return selectWaiting(tx, w)
+                        .and(PgUtils.jsonbContains(w.WAIT_CONDITIONS, filter))
+                        .orderBy(w.ID_SEQ)
+                        .limit(limit)
+                        .fetch(this::toWaitingProcess);
+            });
+        }
+
+        private static SelectConditionStep<Record5<UUID, OffsetDateTime, Long, JSONB, Long>> selectWaiting(DSLContext tx, ProcessWaitConditions w) {
+            return tx.select(
+                    w.INSTANCE_ID,
+                    w.INSTANCE_CREATED_AT,
+                    w.ID_SEQ,
+                    w.WAIT_CONDITIONS,
+                    w.VERSION)
+                    .from(w)
+                    .where(w.IS_WAITING.eq(true));
+        }
+
+        private WaitingProcess toWaitingProcess(Record5<UUID, OffsetDateTime, Long, JSONB, Long> r) {
+            return WaitingProcess.builder()
+                    .processKey(new ProcessKey(r.value1(), r.value2()))
+                    .id(r.value3())
+                    .waits(objectMapper.fromJSONB(r.value4(), WAIT_LIST))
+                    .version(r.value5())
+                    .build();
+        }
     }
 }
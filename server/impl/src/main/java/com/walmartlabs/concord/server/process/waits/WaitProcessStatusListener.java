@@ -25,6 +25,7 @@ import com.walmartlabs.concord.server.sdk.ProcessKey;
 import com.walmartlabs.concord.server.sdk.ProcessStatus;
 import org.jooq.DSLContext;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 
 import static com.walmartlabs.concord.server.jooq.Tables.PROCESS_WAIT_CONDITIONS;
@@ -32,6 +33,13 @@ import static com.walmartlabs.concord.server.jooq.Tables.PROCESS_WAIT_CONDITIONS
 @Named
 public class WaitProcessStatusListener implements ProcessStatusListener {
 
+    private final ProcessWaitNotifier waitNotifier;
+
+    @Inject
+    public WaitProcessStatusListener(ProcessWaitNotifier waitNotifier) {
+        this.waitNotifier = waitNotifier;
+    }
+
     @Override
     public void onStatusChange(DSLContext tx, ProcessKey processKey, ProcessStatus status) {
         switch (status) {
@@ -48,6 +56,8 @@ public class WaitProcessStatusListener implements ProcessStatusListener {
             case CANCELLED:
             case TIMED_OUT:
                 clear(tx, processKey);
+                // wake up the processes waiting for this one
+                waitNotifier.processFinished(processKey.getInstanceId());
                 break;
             default:
                 // do nothing
@@ -41,6 +41,15 @@ public class RepositoryCacheCleanupTask extends PeriodicTask {
         this.repositoryManager = repositoryManager;
     }
 
+    @Override
+    public void stop() {
+        super.stop();
+
+        // write the pending access records, otherwise the cache "forgets"
+        // the recently used repositories after a restart
+        repositoryManager.close();
+    }
+
     @Override
     protected boolean performTask() throws Exception {
         repositoryManager.cleanup();
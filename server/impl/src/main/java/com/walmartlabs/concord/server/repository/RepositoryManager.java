@@ -20,6 +20,7 @@ package com.walmartlabs.concord.server.repository;
  * =====
  */
 
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.walmartlabs.concord.common.IOUtils;
 import com.walmartlabs.concord.process.loader.ProjectLoader;
@@ -64,7 +65,8 @@ public class RepositoryManager {
                              GitConfiguration gitCfg,
                              RepositoryConfiguration repoCfg,
                              ProjectDao projectDao,
-                             SecretManager secretManager) throws IOException {
+                             SecretManager secretManager,
+                             MetricRegistry metricRegistry) throws IOException {
 
         GitClientConfiguration gitCliCfg = GitClientConfiguration.builder()
                 .oauthToken(gitCfg.getOauthToken())
@@ -76,7 +78,7 @@ public class RepositoryManager {
                 .sshTimeoutRetryCount(gitCfg.getSshTimeoutRetryCount())
                 .build();
 
-        List<RepositoryProvider> providers = Arrays.asList(new ClasspathRepositoryProvider(), new GitCliRepositoryProvider(gitCliCfg));
+        List<RepositoryProvider> providers = Arrays.asList(new ClasspathRepositoryProvider(), new GitCliRepositoryProvider(gitCliCfg, repoCfg.isExportUsingHardLinks()));
 
         this.gitCfg = gitCfg;
         this.providers = new RepositoryProviders(providers);
@@ -88,8 +90,17 @@ public class RepositoryManager {
                 repoCfg.getCacheInfoDir(),
                 repoCfg.getLockTimeout(),
                 repoCfg.getMaxAge(),
+                repoCfg.getMaxSize(),
+                repoCfg.getMaxEntries(),
                 repoCfg.getLockCount(),
+                repoCfg.isSharedObjectStore(),
                 objectMapper);
+
+        metricRegistry.gauge("repository-cache-hits", () -> repositoryCache::getHits);
+        metricRegistry.gauge("repository-cache-misses", () -> repositoryCache::getMisses);
+        metricRegistry.gauge("repository-cache-evictions", () -> repositoryCache::getEvictions);
+        metricRegistry.gauge("repository-cache-size", () -> repositoryCache::getTotalSize);
+        metricRegistry.gauge("repository-cache-entries", () -> repositoryCache::getEntryCount);
     }
 
     public void testConnection(UUID orgId, UUID projectId, String uri, String branch, String commitId, String path, String secretName) {
@@ -141,6 +152,7 @@ public class RepositoryManager {
                             .version(FetchRequest.Version.commitWithBranch(commitId, branch))
                             .secret(secret)
                             .destination(dest)
+                            .sharedObjectStore(repositoryCache.getSharedObjectStorePath(url, secret))
                             .withCommitInfo(withCommitInfo)
                     .build(), path);
             fetchedCommitId = result.fetchResult() != null ? Objects.requireNonNull(result.fetchResult()).head() : null;
@@ -178,6 +190,10 @@ public class RepositoryManager {
         return repositoryCache.cleanupInterval();
     }
 
+    public void close() {
+        repositoryCache.close();
+    }
+
     private UUID getOrgId(UUID projectId) {
         UUID orgId = projectDao.getOrgId(projectId);
 
@@ -0,0 +1,195 @@
+package com.walmartlabs.concord.server.security.apikey;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.PeriodicTask;
+import com.walmartlabs.concord.server.RequestUtils;
+import com.walmartlabs.concord.server.audit.ActionSource;
+import com.walmartlabs.concord.server.audit.AuditAction;
+import com.walmartlabs.concord.server.audit.AuditLog;
+import com.walmartlabs.concord.server.audit.AuditObject;
+import com.walmartlabs.concord.server.cfg.ApiKeyConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records successful API key authentications in the audit log.
+ * <p>
+ * If {@code apiKey.accessAuditWindow} is greater than zero, authentications
+ * with the same user, API key and realm are aggregated and written as a single
+ * entry once per window. The entry contains the number of authentications,
+ * the first and the last time the key was used and the last request's IP.
+ * Otherwise, each authentication is written immediately.
+ */
+@Named
+@Singleton
+public class ApiKeyAccessAuditor extends PeriodicTask {
+
+    private static final Logger log = LoggerFactory.getLogger(ApiKeyAccessAuditor.class);
+
+    private static final long ERROR_DELAY = 10 * 1000L; // 10 sec
+
+    private final AuditLog auditLog;
+    private final boolean coalesce;
+    private final Map<AccessKey, AccessStats> pending = new ConcurrentHashMap<>();
+
+    @Inject
+    public ApiKeyAccessAuditor(ApiKeyConfiguration cfg, AuditLog auditLog) {
+        super(cfg.getAccessAuditWindow().toMillis(), ERROR_DELAY);
+        this.auditLog = auditLog;
+        this.coalesce = cfg.getAccessAuditWindow().toMillis() > 0;
+    }
+
+    public void onAccess(UUID userId, UUID apiKeyId, String realm) {
+        if (!coalesce) {
+            auditLog.add(AuditObject.SYSTEM, AuditAction.ACCESS)
+                    .userId(userId)
+                    .field("realm", realm)
+                    .field("apiKeyId", apiKeyId)
+                    .log();
+            return;
+        }
+
+        Instant now = Instant.now();
+        String requestIp = RequestUtils.getRequestIp();
+        pending.compute(new AccessKey(userId, apiKeyId, realm), (k, v) -> {
+            if (v == null) {
+                v = new AccessStats(now);
+            }
+            v.count++;
+            v.lastSeen = now;
+            v.lastRequestIp = requestIp;
+            return v;
+        });
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("stop -> error while writing the pending entries: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    protected boolean performTask() {
+        flush();
+        return false;
+    }
+
+    private void flush() {
+        for (AccessKey k : pending.keySet()) {
+            AccessStats s = pending.remove(k);
+            if (s == null) {
+                continue;
+            }
+
+            try {
+                auditLog.add(AuditObject.SYSTEM, AuditAction.ACCESS)
+                        .userId(k.userId)
+                        .field("realm", k.realm)
+                        .field("apiKeyId", k.apiKeyId)
+                        .field("count", s.count)
+                        .field("firstSeen", s.firstSeen.toString())
+                        .field("lastSeen", s.lastSeen.toString())
+                        .field("lastRequestIp", s.lastRequestIp)
+                        .actionSource(ActionSource.API_REQUEST)
+                        .log();
+            } catch (RuntimeException e) {
+                // put the entry back (merging it with any new authentications)
+                // so it can be written on the next attempt
+                pending.merge(k, s, AccessStats::merge);
+                throw e;
+            }
+        }
+    }
+
+    private static final class AccessKey {
+
+        private final UUID userId;
+        private final UUID apiKeyId;
+        private final String realm;
+
+        private AccessKey(UUID userId, UUID apiKeyId, String realm) {
+            this.userId = userId;
+            this.apiKeyId = apiKeyId;
+            this.realm = realm;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            AccessKey that = (AccessKey) o;
+            return Objects.equals(userId, that.userId)
+                    && Objects.equals(apiKeyId, that.apiKeyId)
+                    && Objects.equals(realm, that.realm);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, apiKeyId, realm);
+        }
+    }
+
+    /**
+     * Mutated only inside {@link ConcurrentHashMap#compute} and {@link ConcurrentHashMap#merge}.
+     */
+    private static final class AccessStats {
+
+        private final Instant firstSeen;
+        private Instant lastSeen;
+        private long count;
+        private String lastRequestIp;
+
+        private AccessStats(Instant firstSeen) {
+            this.firstSeen = firstSeen;
+            this.lastSeen = firstSeen;
+        }
+
+        private static AccessStats merge(AccessStats a, AccessStats b) {
+            AccessStats older = a.firstSeen.isAfter(b.firstSeen) ? b : a;
+            AccessStats newer = a.lastSeen.isAfter(b.lastSeen) ? a : b;
+
+            AccessStats result = new AccessStats(older.firstSeen);
+            result.lastSeen = newer.lastSeen;
+            result.lastRequestIp = newer.lastRequestIp;
+            result.count = a.count + b.count;
+            return result;
+        }
+    }
+}
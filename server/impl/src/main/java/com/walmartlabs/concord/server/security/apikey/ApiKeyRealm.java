@@ -20,9 +20,6 @@ package com.walmartlabs.concord.server.security.apikey;
  * =====
  */
 
-import com.walmartlabs.concord.server.audit.AuditAction;
-import com.walmartlabs.concord.server.audit.AuditLog;
-import com.walmartlabs.concord.server.audit.AuditObject;
 import com.walmartlabs.concord.server.sdk.metrics.WithTimer;
 import com.walmartlabs.concord.server.security.PrincipalUtils;
 import com.walmartlabs.concord.server.security.UserPrincipal;
@@ -46,12 +43,12 @@ public class ApiKeyRealm extends AuthorizingRealm {
     private static final String REALM_NAME = "apikey";
 
     private final UserManager userManager;
-    private final AuditLog auditLog;
+    private final ApiKeyAccessAuditor accessAuditor;
 
     @Inject
-    public ApiKeyRealm(UserManager userManager, AuditLog auditLog) {
+    public ApiKeyRealm(UserManager userManager, ApiKeyAccessAuditor accessAuditor) {
         this.userManager = userManager;
-        this.auditLog = auditLog;
+        this.accessAuditor = accessAuditor;
     }
 
     @Override
@@ -73,11 +70,7 @@ public class ApiKeyRealm extends AuthorizingRealm {
             throw new AuthenticationException("User account '" + u.getName() + "' is disabled");
         }
 
-        auditLog.add(AuditObject.SYSTEM, AuditAction.ACCESS)
-                .userId(u.getId())
-                .field("realm", REALM_NAME)
-                .field("apiKeyId", t.getKeyId())
-                .log();
+        accessAuditor.onAccess(u.getId(), t.getKeyId(), REALM_NAME);
 
         UserPrincipal p = new UserPrincipal(REALM_NAME, u);
         return new SimpleAccount(Arrays.asList(p, t), t.getKey(), getName());
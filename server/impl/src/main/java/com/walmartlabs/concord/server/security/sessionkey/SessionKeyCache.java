@@ -0,0 +1,131 @@
+package com.walmartlabs.concord.server.security.sessionkey;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.Counter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.walmartlabs.concord.server.cfg.ProcessConfiguration;
+import com.walmartlabs.concord.server.process.queue.ProcessInitiatorEntry;
+import com.walmartlabs.concord.server.process.queue.ProcessStatusListener;
+import com.walmartlabs.concord.server.sdk.ProcessKey;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import com.walmartlabs.concord.server.sdk.metrics.InjectCounter;
+import org.jooq.DSLContext;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived cache of verified process session keys. Allows {@link SessionKeyRealm}
+ * to authenticate requests of running processes without querying the DB every time.
+ * <p/>
+ * Entries are removed when the process changes its status. The status listeners
+ * are called before the transaction is committed, so a concurrent request can
+ * still read the old status from the DB. To avoid caching such entries,
+ * the process is not cached for one TTL after each status change.
+ */
+@Named
+@Singleton
+public class SessionKeyCache implements ProcessStatusListener {
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final Cache<UUID, ProcessInitiatorEntry> cache;
+
+    // processes with recent status changes, possibly not committed yet
+    private final Cache<UUID, Boolean> recentlyChanged;
+
+    @InjectCounter
+    private final Counter sessionKeyCacheHits;
+
+    @InjectCounter
+    private final Counter sessionKeyCacheMisses;
+
+    @Inject
+    public SessionKeyCache(ProcessConfiguration cfg, Counter sessionKeyCacheHits, Counter sessionKeyCacheMisses) {
+        this.sessionKeyCacheHits = sessionKeyCacheHits;
+        this.sessionKeyCacheMisses = sessionKeyCacheMisses;
+
+        Duration ttl = cfg.getSessionKeyCacheTtl();
+        if (ttl != null && !ttl.isZero()) {
+            this.cache = CacheBuilder.newBuilder()
+                    .expireAfterWrite(ttl.toMillis(), TimeUnit.MILLISECONDS)
+                    .maximumSize(MAX_ENTRIES)
+                    .concurrencyLevel(8)
+                    .build();
+
+            this.recentlyChanged = CacheBuilder.newBuilder()
+                    .expireAfterWrite(ttl.toMillis(), TimeUnit.MILLISECONDS)
+                    .maximumSize(MAX_ENTRIES)
+                    .concurrencyLevel(8)
+                    .build();
+        } else {
+            this.cache = null;
+            this.recentlyChanged = null;
+        }
+    }
+
+    /**
+     * Returns the cached (and previously verified) process entry or {@code null}.
+     */
+    public ProcessInitiatorEntry get(UUID instanceId) {
+        if (cache == null) {
+            return null;
+        }
+
+        ProcessInitiatorEntry e = cache.getIfPresent(instanceId);
+        if (e != null) {
+            sessionKeyCacheHits.inc();
+        } else {
+            sessionKeyCacheMisses.inc();
+        }
+        return e;
+    }
+
+    public void put(UUID instanceId, ProcessInitiatorEntry entry) {
+        if (cache == null) {
+            return;
+        }
+
+        cache.put(instanceId, entry);
+
+        // the entry might've been read before a concurrent status change was committed.
+        // Checking after the put covers the changes made between the read and the put
+        if (recentlyChanged.getIfPresent(instanceId) != null) {
+            cache.invalidate(instanceId);
+        }
+    }
+
+    @Override
+    public void onStatusChange(DSLContext tx, ProcessKey processKey, ProcessStatus status) {
+        if (cache == null) {
+            return;
+        }
+
+        recentlyChanged.put(processKey.getInstanceId(), Boolean.TRUE);
+        cache.invalidate(processKey.getInstanceId());
+    }
+}
@@ -52,6 +52,7 @@ public class SessionKeyRealm extends AuthorizingRealm {
 
     private final ProcessSecurityContext processSecurityContext;
     private final ProcessQueueManager processQueueManager;
+    private final SessionKeyCache sessionKeyCache;
 
     private static final Set<ProcessStatus> FINISHED_STATUSES = ImmutableSet.of(
             ProcessStatus.FINISHED,
@@ -61,10 +62,12 @@ public class SessionKeyRealm extends AuthorizingRealm {
 
     @Inject
     public SessionKeyRealm(ProcessSecurityContext processSecurityContext,
-                           ProcessQueueManager processQueueManager) {
+                           ProcessQueueManager processQueueManager,
+                           SessionKeyCache sessionKeyCache) {
 
         this.processSecurityContext = processSecurityContext;
         this.processQueueManager = processQueueManager;
+        this.sessionKeyCache = sessionKeyCache;
     }
 
     @Override
@@ -79,6 +82,12 @@ public class SessionKeyRealm extends AuthorizingRealm {
         PartialProcessKey processKey = PartialProcessKey.from(t.getInstanceId());
 
         try {
+            // the cache contains only verified entries of running processes
+            if (sessionKeyCache.get(t.getInstanceId()) != null) {
+                PrincipalCollection principals = getPrincipals(processKey);
+                return new SimpleAccount(principals, t.getInstanceId(), getName());
+            }
+
             ProcessInitiatorEntry p = processQueueManager.getInitiator(processKey);
             if (p == null) {
                 log.warn("doGetAuthenticationInfo -> process not found: {}", t.getInstanceId());
@@ -96,6 +105,8 @@ public class SessionKeyRealm extends AuthorizingRealm {
             }
 
             PrincipalCollection principals = getPrincipals(processKey);
+            sessionKeyCache.put(t.getInstanceId(), p);
+
             return new SimpleAccount(principals, t.getInstanceId(), getName());
         } catch (Exception e) {
             log.error("doGetAuthenticationInfo ['{}'] -> error", t.getInstanceId(), e);
@@ -0,0 +1,143 @@
+package com.walmartlabs.concord.server.audit;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.Counter;
+import com.walmartlabs.concord.server.Listeners;
+import com.walmartlabs.concord.server.audit.AuditDao.NewEntry;
+import com.walmartlabs.concord.server.cfg.AuditConfiguration;
+import com.walmartlabs.concord.server.sdk.audit.AuditEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class AuditLogWriterTest {
+
+    private AuditConfiguration cfg;
+    private AuditDao auditDao;
+    private Listeners listeners;
+
+    @BeforeEach
+    public void init() {
+        cfg = mock(AuditConfiguration.class);
+        when(cfg.isEnabled()).thenReturn(true);
+        when(cfg.isAsyncEnabled()).thenReturn(true);
+        when(cfg.getAsyncBatchSize()).thenReturn(10);
+        when(cfg.getAsyncFlushInterval()).thenReturn(Duration.ofMinutes(1));
+        when(cfg.getAsyncMaxQueueSize()).thenReturn(100);
+        when(cfg.getSyncActions()).thenReturn(Collections.singletonList("SECRET:DELETE"));
+
+        auditDao = mock(AuditDao.class);
+        when(auditDao.insert(anyList())).thenAnswer(i -> {
+            List<NewEntry> l = i.getArgument(0);
+            return l.stream().map(AuditLogWriterTest::toEvent).collect(Collectors.toList());
+        });
+        when(auditDao.insert(any(), any(), any(), anyMap())).thenAnswer(i ->
+                toEvent(NewEntry.of(i.getArgument(0), i.getArgument(1), i.getArgument(2), i.getArgument(3))));
+
+        listeners = mock(Listeners.class);
+    }
+
+    @Test
+    public void testFlushOnStop() {
+        AuditLogWriter w = new AuditLogWriter(cfg, auditDao, listeners, new Counter(), new Counter());
+        w.start();
+
+        for (int i = 0; i < 25; i++) {
+            w.write(NewEntry.of(null, AuditObject.PROJECT, AuditAction.UPDATE, Collections.singletonMap("n", i)), false);
+        }
+
+        w.stop();
+
+        verify(auditDao, never()).insert(any(), any(), any(), anyMap());
+        verify(auditDao, atLeast(3)).insert(anyList());
+        verify(listeners, times(25)).onAuditEvent(any());
+    }
+
+    @Test
+    public void testSyncActions() {
+        AuditLogWriter w = new AuditLogWriter(cfg, auditDao, listeners, new Counter(), new Counter());
+        w.start();
+
+        w.write(NewEntry.of(null, AuditObject.SECRET, AuditAction.DELETE, Collections.emptyMap()), false);
+        w.write(NewEntry.of(null, AuditObject.PROJECT, AuditAction.DELETE, Collections.emptyMap()), true);
+
+        verify(auditDao, times(2)).insert(any(), any(), any(), anyMap());
+        verify(listeners, times(2)).onAuditEvent(any());
+
+        w.stop();
+
+        assertEquals(0, mockingDetails(auditDao).getInvocations().stream()
+                .filter(i -> i.getArguments().length == 1)
+                .count());
+    }
+
+    @Test
+    public void testWriteAfterStop() {
+        AuditLogWriter w = new AuditLogWriter(cfg, auditDao, listeners, new Counter(), new Counter());
+        w.start();
+        w.stop();
+
+        w.write(NewEntry.of(null, AuditObject.PROJECT, AuditAction.UPDATE, Collections.emptyMap()), false);
+
+        verify(auditDao, times(1)).insert(any(), any(), any(), anyMap());
+        verify(listeners, times(1)).onAuditEvent(any());
+    }
+
+    @Test
+    public void testRetryFailedEntries() {
+        when(cfg.getAsyncFlushInterval()).thenReturn(Duration.ofMillis(10));
+        doThrow(new RuntimeException("batch insert failed")).when(auditDao).insert(anyList());
+        doThrow(new RuntimeException("insert failed"))
+                .doAnswer(i -> toEvent(NewEntry.of(i.getArgument(0), i.getArgument(1), i.getArgument(2), i.getArgument(3))))
+                .when(auditDao).insert(any(), any(), any(), anyMap());
+
+        AuditLogWriter w = new AuditLogWriter(cfg, auditDao, listeners, new Counter(), new Counter());
+        w.start();
+
+        w.write(NewEntry.of(null, AuditObject.PROJECT, AuditAction.UPDATE, Collections.emptyMap()), false);
+
+        verify(listeners, timeout(5000).times(1)).onAuditEvent(any());
+        w.stop();
+
+        verify(listeners, times(1)).onAuditEvent(any());
+    }
+
+    private static AuditEvent toEvent(NewEntry e) {
+        return AuditEvent.builder()
+                .entrySeq(1)
+                .entryDate(OffsetDateTime.now())
+                .userId(e.userId())
+                .object(e.object().name())
+                .action(e.action().name())
+                .details(e.details())
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.walmartlabs.concord.server.boot.filters;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.boot.filters.FairShareQueue.Limits;
+import com.walmartlabs.concord.server.boot.filters.FairShareQueue.Waiter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FairShareQueueTest {
+
+    private static final Limits UNLIMITED = Limits.of(0, 0, 1);
+
+    @Test
+    public void testFairShare() throws Exception {
+        FairShareQueue<String> q = new FairShareQueue<>(1);
+
+        assertTrue(q.tryAcquire("a", UNLIMITED, false, 0));
+        assertFalse(q.tryAcquire("a", UNLIMITED, false, 0));
+
+        // "a" floods the queue, "b" comes later
+        q.enqueue("a", UNLIMITED, "a1");
+        q.enqueue("a", UNLIMITED, "a2");
+        q.enqueue("a", UNLIMITED, "a3");
+        q.enqueue("b", UNLIMITED, "b1");
+
+        Waiter<String> next = q.release("a");
+        assertEquals("b1", next.item());
+
+        next = q.release(next.tenantKey());
+        assertEquals("a1", next.item());
+
+        assertEquals(2, q.getQueueDepth(k -> true));
+    }
+
+    @Test
+    public void testTenantLimits() throws Exception {
+        FairShareQueue<String> q = new FairShareQueue<>(0);
+
+        Limits limits = Limits.of(1, 0, 1);
+        assertTrue(q.tryAcquire("a", limits, false, 0));
+        assertFalse(q.tryAcquire("a", limits, false, 0));
+        assertTrue(q.tryAcquire("b", limits, false, 0));
+
+        q.enqueue("a", limits, "a1");
+        assertNull(q.release("b"));
+        assertEquals("a1", q.release("a").item());
+
+        Limits rate = Limits.of(0, 1, 1);
+        assertTrue(q.tryAcquire("c", rate, false, 0));
+        assertFalse(q.tryAcquire("c", rate, false, 0));
+    }
+
+    @Test
+    public void testRateLimitedRefill() throws Exception {
+        FairShareQueue<String> q = new FairShareQueue<>(0);
+
+        Limits rate = Limits.of(0, 1, 1);
+        assertTrue(q.tryAcquire("a", rate, false, 0));
+        q.enqueue("a", rate, "a1");
+
+        // the release happens before the bucket is refilled
+        assertNull(q.release("a"));
+        assertNull(q.poll());
+
+        long at = q.nextRefillAt();
+        assertTrue(at > 0);
+        assertTrue(at - System.currentTimeMillis() <= 1000);
+
+        Thread.sleep(Math.max(0, at - System.currentTimeMillis()) + 10);
+
+        assertEquals("a1", q.poll().item());
+        assertEquals(-1, q.nextRefillAt());
+    }
+}
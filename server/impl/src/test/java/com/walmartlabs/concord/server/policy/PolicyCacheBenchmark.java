@@ -0,0 +1,95 @@
+package com.walmartlabs.concord.server.policy;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.TestObjectMapper;
+import com.walmartlabs.concord.server.cfg.PolicyCacheConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.walmartlabs.concord.server.policy.PolicyCacheTest.link;
+import static com.walmartlabs.concord.server.policy.PolicyCacheTest.policy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures {@link PolicyCache#get(UUID, UUID, UUID)} with 10k user-scoped policy links.
+ * <p>
+ * Not a part of the regular build, run with
+ * {@code ./mvnw -Pbenchmarks test -pl server/impl -Dtest=PolicyCacheBenchmark}
+ */
+public class PolicyCacheBenchmark {
+
+    private static final int LINKS = 10_000;
+    private static final int LOOKUPS = 1_000_000;
+
+    @Test
+    public void test() {
+        List<PolicyCache.PolicyRules> policies = new ArrayList<>();
+        List<PolicyCache.PolicyLink> links = new ArrayList<>();
+        List<UUID[]> keys = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            policies.add(policy("policy-" + i));
+        }
+
+        for (int i = 0; i < LINKS; i++) {
+            UUID orgId = UUID.randomUUID();
+            UUID projectId = UUID.randomUUID();
+            UUID userId = UUID.randomUUID();
+
+            PolicyCache.PolicyRules p = policies.get(i % policies.size());
+            if (i % 2 == 0) {
+                links.add(link(p, null, projectId, userId));
+            } else {
+                links.add(link(p, orgId, null, userId));
+            }
+            keys.add(new UUID[]{orgId, projectId, userId});
+        }
+
+        PolicyCache.Dao dao = mock(PolicyCache.Dao.class);
+        when(dao.listLinks()).thenReturn(links);
+        when(dao.listPolicies()).thenReturn(policies);
+
+        PolicyCache pc = new PolicyCache(TestObjectMapper.INSTANCE, new PolicyCacheConfiguration(), dao);
+
+        long t1 = System.nanoTime();
+        pc.refresh();
+        long t2 = System.nanoTime();
+        System.out.println("reload: " + (t2 - t1) / 1_000_000 + "ms");
+
+        for (int round = 0; round < 5; round++) {
+            int found = 0;
+            t1 = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                UUID[] k = keys.get(i % keys.size());
+                if (pc.get(k[0], k[1], k[2]) != null) {
+                    found++;
+                }
+            }
+            t2 = System.nanoTime();
+            System.out.println(LOOKUPS + " lookups (" + found + " found): " + (t2 - t1) / 1_000_000 + "ms, " + (t2 - t1) / LOOKUPS + "ns/op");
+        }
+    }
+}
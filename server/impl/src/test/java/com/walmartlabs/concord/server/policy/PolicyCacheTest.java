@@ -31,6 +31,7 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class PolicyCacheTest {
 
@@ -71,4 +72,49 @@ public class PolicyCacheTest {
         EntityRule actualRule = actualRules.entityRules().getDeny().get(0);
         assertEquals(conditions, actualRule.conditions());
     }
+
+    @Test
+    public void testLookup() {
+        UUID orgId = UUID.randomUUID();
+        UUID projectId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+
+        List<PolicyCache.PolicyRules> policies = Arrays.asList(policy("default"), policy("org"), policy("user-org"), policy("user-project"));
+
+        List<PolicyCache.PolicyLink> links = Arrays.asList(
+                link(policies.get(0), null, null, null),
+                link(policies.get(1), orgId, null, null),
+                link(policies.get(2), orgId, null, userId),
+                link(policies.get(3), null, projectId, userId));
+
+        PolicyCache.Dao dao = mock(PolicyCache.Dao.class);
+        when(dao.listLinks()).thenReturn(links);
+        when(dao.listPolicies()).thenReturn(policies);
+
+        PolicyCache pc = new PolicyCache(TestObjectMapper.INSTANCE, new PolicyCacheConfiguration(), dao);
+        pc.refresh();
+
+        // ---
+        assertEquals("user-project", pc.get(orgId, projectId, userId).policyNames().get(0));
+        assertEquals("user-org", pc.get(orgId, UUID.randomUUID(), userId).policyNames().get(0));
+        assertEquals("org", pc.get(orgId, projectId, UUID.randomUUID()).policyNames().get(0));
+        assertEquals("default", pc.get(UUID.randomUUID(), null, userId).policyNames().get(0));
+    }
+
+    static PolicyCache.PolicyRules policy(String name) {
+        return PolicyCache.PolicyRules.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .rules(Collections.emptyMap())
+                .build();
+    }
+
+    static PolicyCache.PolicyLink link(PolicyCache.PolicyRules policy, UUID orgId, UUID projectId, UUID userId) {
+        return ImmutablePolicyLink.builder()
+                .policyId(policy.id())
+                .orgId(orgId)
+                .projectId(projectId)
+                .userId(userId)
+                .build();
+    }
 }
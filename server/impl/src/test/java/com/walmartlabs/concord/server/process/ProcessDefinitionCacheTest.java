@@ -0,0 +1,133 @@
+package com.walmartlabs.concord.server.process;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.Counter;
+import com.walmartlabs.concord.imports.Imports;
+import com.walmartlabs.concord.imports.ImportsListener;
+import com.walmartlabs.concord.imports.NoopImportManager;
+import com.walmartlabs.concord.process.loader.ImportsNormalizer;
+import com.walmartlabs.concord.process.loader.ProjectLoader;
+import com.walmartlabs.concord.process.loader.model.ProcessDefinition;
+import com.walmartlabs.concord.server.cfg.ProcessConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ProcessDefinitionCacheTest {
+
+    private static final String RUNTIME = "concord-v2";
+    private static final String COMMIT_ID = "0123456789abcdef0123456789abcdef01234567";
+    private static final ImportsNormalizer NORMALIZER = i -> i != null ? i : Imports.builder().build();
+
+    @TempDir
+    Path workDir;
+
+    private Counter hits;
+    private Counter misses;
+    private ProcessDefinitionCache cache;
+
+    @BeforeEach
+    public void init() {
+        ProcessConfiguration cfg = mock(ProcessConfiguration.class);
+        when(cfg.getDefinitionCacheMaxEntries()).thenReturn(10);
+        when(cfg.getDefinitionCacheExpireAfterAccess()).thenReturn(Duration.ofMinutes(1));
+
+        hits = new Counter();
+        misses = new Counter();
+        cache = new ProcessDefinitionCache(cfg, new ProjectLoader(new NoopImportManager()), new NoopImportManager(), hits, misses);
+    }
+
+    @Test
+    public void testSameCommit() throws Exception {
+        write("configuration:\n" +
+                "  runtime: concord-v2\n" +
+                "flows:\n" +
+                "  default:\n" +
+                "    - log: \"hello\"\n");
+
+        ProcessDefinitionCache.Key key = ProcessDefinitionCache.Key.of("https://example.com/repo.git", COMMIT_ID, null, RUNTIME);
+
+        ProcessDefinition a = load(key);
+        ProcessDefinition b = load(key);
+
+        assertSame(a, b);
+        assertEquals(1, hits.getCount());
+        assertEquals(1, misses.getCount());
+    }
+
+    @Test
+    public void testMutableImports() throws Exception {
+        write("configuration:\n" +
+                "  runtime: concord-v2\n" +
+                "imports:\n" +
+                "  - git:\n" +
+                "      url: \"https://example.com/imports.git\"\n" +
+                "      version: \"main\"\n" +
+                "flows:\n" +
+                "  default:\n" +
+                "    - log: \"hello\"\n");
+
+        ProcessDefinitionCache.Key key = ProcessDefinitionCache.Key.of("https://example.com/repo.git", COMMIT_ID, null, RUNTIME);
+
+        ProcessDefinition a = load(key);
+        ProcessDefinition b = load(key);
+
+        assertNotSame(a, b);
+        assertEquals(0, hits.getCount());
+        assertEquals(2, misses.getCount());
+    }
+
+    @Test
+    public void testNoKey() throws Exception {
+        write("configuration:\n" +
+                "  runtime: concord-v2\n" +
+                "flows:\n" +
+                "  default:\n" +
+                "    - log: \"hello\"\n");
+
+        assertNull(ProcessDefinitionCache.Key.of("https://example.com/repo.git", null, null, RUNTIME));
+
+        ProcessDefinition a = load(null);
+        ProcessDefinition b = load(null);
+
+        assertNotSame(a, b);
+        assertEquals(0, hits.getCount());
+        assertEquals(0, misses.getCount());
+    }
+
+    private ProcessDefinition load(ProcessDefinitionCache.Key key) throws Exception {
+        return cache.load(key, workDir, RUNTIME, NORMALIZER, ImportsListener.NOP_LISTENER, true).projectDefinition();
+    }
+
+    private void write(String concordYml) throws Exception {
+        Files.write(workDir.resolve("concord.yml"), concordYml.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,135 @@
+package com.walmartlabs.concord.server.process.queue;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.process.queue.WaitForProcessesRequest.Mode;
+import com.walmartlabs.concord.server.sdk.ProcessKey;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ProcessCompletionWatcherTest {
+
+    @Test
+    public void testWakeUp() throws Exception {
+        UUID instanceId = UUID.randomUUID();
+        AtomicReference<ProcessStatus> status = new AtomicReference<>(ProcessStatus.RUNNING);
+
+        ProcessQueueDao queueDao = mock(ProcessQueueDao.class);
+        when(queueDao.getStatuses(any())).thenAnswer(i -> Collections.singletonList(ProcessStatusEntry.of(instanceId, status.get())));
+
+        ProcessCompletionWatcher watcher = new ProcessCompletionWatcher(queueDao);
+
+        CompletableFuture<List<ProcessStatusEntry>> f = watcher.waitFor(Collections.singleton(instanceId), Mode.ALL, 60000);
+
+        // let the first check run
+        Thread.sleep(100);
+        assertFalse(f.isDone());
+
+        status.set(ProcessStatus.FINISHED);
+        watcher.onStatusChange(null, new ProcessKey(instanceId, OffsetDateTime.now()), ProcessStatus.FINISHED);
+
+        // should complete well before the regular re-check interval
+        List<ProcessStatusEntry> result = f.get(1, TimeUnit.SECONDS);
+        assertEquals(1, result.size());
+        assertEquals(ProcessStatus.FINISHED, result.get(0).status());
+    }
+
+    @Test
+    public void testSignalBeforeCommit() throws Exception {
+        UUID instanceId = UUID.randomUUID();
+        AtomicReference<ProcessStatus> status = new AtomicReference<>(ProcessStatus.RUNNING);
+
+        ProcessQueueDao queueDao = mock(ProcessQueueDao.class);
+        when(queueDao.getStatuses(any())).thenAnswer(i -> Collections.singletonList(ProcessStatusEntry.of(instanceId, status.get())));
+
+        ProcessCompletionWatcher watcher = new ProcessCompletionWatcher(queueDao);
+
+        CompletableFuture<List<ProcessStatusEntry>> f = watcher.waitFor(Collections.singleton(instanceId), Mode.ANY, 60000);
+        Thread.sleep(100);
+
+        // the listener is called before the new status is visible
+        watcher.onStatusChange(null, new ProcessKey(instanceId, OffsetDateTime.now()), ProcessStatus.FAILED);
+        Thread.sleep(100);
+        assertFalse(f.isDone());
+
+        // the change becomes visible after the commit, one of the quick re-checks picks it up
+        status.set(ProcessStatus.FAILED);
+        assertEquals(ProcessStatus.FAILED, f.get(1, TimeUnit.SECONDS).get(0).status());
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        UUID instanceId = UUID.randomUUID();
+
+        ProcessQueueDao queueDao = mock(ProcessQueueDao.class);
+        when(queueDao.getStatuses(any())).thenReturn(Collections.singletonList(ProcessStatusEntry.of(instanceId, ProcessStatus.RUNNING)));
+
+        ProcessCompletionWatcher watcher = new ProcessCompletionWatcher(queueDao);
+
+        List<ProcessStatusEntry> result = watcher.waitFor(Collections.singleton(instanceId), Mode.ANY, 100).get(1, TimeUnit.SECONDS);
+        assertEquals(ProcessStatus.RUNNING, result.get(0).status());
+    }
+
+    @Test
+    public void testError() {
+        ProcessQueueDao queueDao = mock(ProcessQueueDao.class);
+        when(queueDao.getStatuses(any())).thenThrow(new RuntimeException("boom"));
+
+        ProcessCompletionWatcher watcher = new ProcessCompletionWatcher(queueDao);
+
+        CompletableFuture<List<ProcessStatusEntry>> f = watcher.waitFor(Collections.singleton(UUID.randomUUID()), Mode.ALL, 60000);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> f.get(1, TimeUnit.SECONDS));
+        assertEquals("boom", e.getCause().getMessage());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        UUID instanceId = UUID.randomUUID();
+
+        ProcessQueueDao queueDao = mock(ProcessQueueDao.class);
+        when(queueDao.getStatuses(any())).thenReturn(Collections.singletonList(ProcessStatusEntry.of(instanceId, ProcessStatus.RUNNING)));
+
+        ProcessCompletionWatcher watcher = new ProcessCompletionWatcher(queueDao);
+
+        CompletableFuture<List<ProcessStatusEntry>> f = watcher.waitFor(Collections.singleton(instanceId), Mode.ALL, 60000);
+        Thread.sleep(100);
+        f.cancel(false);
+
+        // no more checks after the caller is gone
+        verify(queueDao, times(1)).getStatuses(any());
+        watcher.onStatusChange(null, new ProcessKey(instanceId, OffsetDateTime.now()), ProcessStatus.FINISHED);
+        Thread.sleep(100);
+        verify(queueDao, times(1)).getStatuses(any());
+    }
+}
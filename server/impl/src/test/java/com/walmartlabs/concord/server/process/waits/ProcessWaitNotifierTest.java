@@ -0,0 +1,106 @@
+package com.walmartlabs.concord.server.process.waits;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.jooq.enums.ProcessLockScope;
+import com.walmartlabs.concord.server.process.waits.ProcessWaitNotifier.WaitEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ProcessWaitNotifierTest {
+
+    @Test
+    public void testRetry() throws Exception {
+        ProcessWaitNotifier notifier = new ProcessWaitNotifier();
+
+        UUID instanceId = UUID.randomUUID();
+        notifier.processFinished(instanceId);
+
+        WaitEvent e = notifier.take();
+        assertFalse(e.isLockReleased());
+        assertEquals(instanceId, e.instanceId);
+        assertEquals(0, e.attempt);
+
+        // the retry is delayed to give the status change a chance to commit
+        long t = System.currentTimeMillis();
+        assertTrue(notifier.retry(e));
+        e = notifier.take();
+        assertTrue(System.currentTimeMillis() - t >= 400);
+        assertEquals(instanceId, e.instanceId);
+        assertEquals(1, e.attempt);
+    }
+
+    @Test
+    public void testLockReleasedWakeUpWithRetry() throws Exception {
+        ProcessWaitNotifier notifier = new ProcessWaitNotifier();
+        ProcessWaitWatchdog watchdog = mock(ProcessWaitWatchdog.class);
+
+        UUID orgId = UUID.randomUUID();
+
+        // the first attempt doesn't see the released lock yet
+        when(watchdog.wakeUpLockWaiters(orgId, null, ProcessLockScope.ORG, "myLock"))
+                .thenReturn(false)
+                .thenReturn(true);
+
+        ProcessWaitEventProcessor processor = new ProcessWaitEventProcessor(notifier, watchdog);
+        processor.start();
+        try {
+            notifier.lockReleased(orgId, null, ProcessLockScope.ORG, "myLock");
+            verify(watchdog, timeout(3000).times(2)).wakeUpLockWaiters(orgId, null, ProcessLockScope.ORG, "myLock");
+
+            // resolved on the second attempt, no more retries
+            Thread.sleep(1000);
+            verify(watchdog, times(2)).wakeUpLockWaiters(any(), any(), any(), any());
+        } finally {
+            processor.stop();
+        }
+    }
+
+    @Test
+    public void testProcessFinishedWakeUp() throws Exception {
+        ProcessWaitNotifier notifier = new ProcessWaitNotifier();
+        ProcessWaitWatchdog watchdog = mock(ProcessWaitWatchdog.class);
+
+        UUID failing = UUID.randomUUID();
+        UUID instanceId = UUID.randomUUID();
+        when(watchdog.wakeUpCompletionWaiters(failing)).thenThrow(new RuntimeException("boom"));
+        when(watchdog.wakeUpCompletionWaiters(instanceId)).thenReturn(true);
+
+        ProcessWaitEventProcessor processor = new ProcessWaitEventProcessor(notifier, watchdog);
+        processor.start();
+        try {
+            // errors don't stop the processing of the next events
+            notifier.processFinished(failing);
+            notifier.processFinished(instanceId);
+
+            verify(watchdog, timeout(3000)).wakeUpCompletionWaiters(instanceId);
+            verify(watchdog, times(1)).wakeUpCompletionWaiters(failing);
+            verify(watchdog, never()).wakeUpLockWaiters(any(), any(), any(), any());
+        } finally {
+            processor.stop();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.walmartlabs.concord.server.process.waits;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.MetricRegistry;
+import com.walmartlabs.concord.db.AbstractDao;
+import com.walmartlabs.concord.server.cfg.ProcessWaitWatchdogConfiguration;
+import com.walmartlabs.concord.server.jooq.enums.ProcessLockScope;
+import com.walmartlabs.concord.server.process.PayloadManager;
+import com.walmartlabs.concord.server.process.ProcessManager;
+import com.walmartlabs.concord.server.process.waits.ProcessWaitWatchdog.WaitingProcess;
+import com.walmartlabs.concord.server.process.waits.ProcessWaitWatchdog.WatchdogDao;
+import com.walmartlabs.concord.server.sdk.ProcessKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ProcessWaitWatchdogTest {
+
+    private static final UUID ORG_ID = UUID.randomUUID();
+    private static final String LOCK_NAME = "myLock";
+
+    private WatchdogDao dao;
+    private ProcessWaitManager waitManager;
+    private ProcessManager processManager;
+    private PayloadManager payloadManager;
+    private ProcessWaitHandler<AbstractWaitCondition> lockHandler;
+    private ProcessWaitHandler<AbstractWaitCondition> completionHandler;
+    private ProcessWaitWatchdog watchdog;
+
+    @BeforeEach
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void setUp() throws Exception {
+        ProcessWaitWatchdogConfiguration cfg = mock(ProcessWaitWatchdogConfiguration.class);
+        when(cfg.getPollLimit()).thenReturn(2);
+
+        dao = mock(WatchdogDao.class);
+
+        waitManager = mock(ProcessWaitManager.class);
+        when(waitManager.txResult(any())).thenAnswer(i -> ((AbstractDao.TxResult<?>) i.getArgument(0)).run(null));
+        when(waitManager.setWait(any(), any(), any(), anyBoolean(), anyLong())).thenReturn(true);
+
+        processManager = mock(ProcessManager.class);
+        payloadManager = mock(PayloadManager.class);
+
+        lockHandler = mock(ProcessWaitHandler.class);
+        when(lockHandler.getType()).thenReturn(WaitType.PROCESS_LOCK);
+
+        completionHandler = mock(ProcessWaitHandler.class);
+        when(completionHandler.getType()).thenReturn(WaitType.PROCESS_COMPLETION);
+
+        Set<ProcessWaitHandler> handlers = new HashSet<>(Arrays.asList(lockHandler, completionHandler));
+        watchdog = new ProcessWaitWatchdog(cfg, dao, waitManager, processManager, payloadManager, handlers, new MetricRegistry());
+    }
+
+    @Test
+    public void testLockHandOff() {
+        WaitingProcess a = lockWaiter(1);
+        WaitingProcess b = lockWaiter(2);
+        when(dao.findLockWaiters(ORG_ID, null, ProcessLockScope.ORG, LOCK_NAME, 2)).thenReturn(Arrays.asList(a, b));
+
+        // the first waiter acquires the lock
+        when(lockHandler.process(eq(a.processKey()), any())).thenReturn(ProcessWaitHandler.Result.action(tx -> {}));
+
+        assertTrue(watchdog.wakeUpLockWaiters(ORG_ID, null, ProcessLockScope.ORG, LOCK_NAME));
+
+        verify(waitManager).setWait(any(), eq(a.processKey()), eq(Collections.emptyList()), eq(false), eq(a.version()));
+
+        // the lock is taken, no point checking the rest
+        verify(lockHandler, never()).process(eq(b.processKey()), any());
+    }
+
+    @Test
+    public void testLockHandOffConcurrentUpdate() {
+        WaitingProcess a = lockWaiter(1);
+        WaitingProcess b = lockWaiter(2);
+        when(dao.findLockWaiters(ORG_ID, null, ProcessLockScope.ORG, LOCK_NAME, 2)).thenReturn(Arrays.asList(a, b));
+        when(lockHandler.process(any(), any())).thenReturn(ProcessWaitHandler.Result.action(tx -> {}));
+
+        // the first waiter was updated by someone else in the meantime
+        when(waitManager.setWait(any(), eq(a.processKey()), any(), anyBoolean(), anyLong())).thenReturn(false);
+
+        assertTrue(watchdog.wakeUpLockWaiters(ORG_ID, null, ProcessLockScope.ORG, LOCK_NAME));
+        verify(waitManager).setWait(any(), eq(b.processKey()), eq(Collections.emptyList()), eq(false), eq(b.version()));
+    }
+
+    @Test
+    public void testLockStillHeld() {
+        WaitingProcess a = lockWaiter(1);
+        when(dao.findLockWaiters(ORG_ID, null, ProcessLockScope.ORG, LOCK_NAME, 2)).thenReturn(Collections.singletonList(a));
+
+        // the release isn't committed yet, the waiter keeps its condition
+        when(lockHandler.process(any(), any())).thenAnswer(i -> ProcessWaitHandler.Result.of(i.getArgument(1)));
+
+        // not resolved, the caller should retry
+        assertFalse(watchdog.wakeUpLockWaiters(ORG_ID, null, ProcessLockScope.ORG, LOCK_NAME));
+        verify(waitManager, never()).setWait(any(), any(), any(), anyBoolean(), anyLong());
+    }
+
+    @Test
+    public void testNoLockWaiters() {
+        when(dao.findLockWaiters(any(), any(), any(), any(), anyInt())).thenReturn(Collections.emptyList());
+        assertTrue(watchdog.wakeUpLockWaiters(ORG_ID, null, ProcessLockScope.ORG, LOCK_NAME));
+    }
+
+    @Test
+    public void testCompletionWakeUp() throws Exception {
+        UUID finished = UUID.randomUUID();
+        WaitingProcess a = completionWaiter(1, finished);
+        WaitingProcess b = completionWaiter(2, finished, UUID.randomUUID());
+        when(dao.findCompletionWaiters(finished, 2)).thenReturn(Arrays.asList(a, b));
+
+        // "a" waits only for the finished process, "b" waits for another one too
+        when(completionHandler.process(eq(a.processKey()), any())).thenReturn(ProcessWaitHandler.Result.resume("done"));
+        when(completionHandler.process(eq(b.processKey()), any())).thenAnswer(i -> ProcessWaitHandler.Result.of(i.getArgument(1)));
+
+        assertTrue(watchdog.wakeUpCompletionWaiters(finished));
+
+        // all waiters are checked
+        verify(completionHandler).process(eq(b.processKey()), any());
+
+        verify(payloadManager).createResumePayload(a.processKey(), Collections.singleton("done"), null);
+        verify(payloadManager, never()).createResumePayload(eq(b.processKey()), anySet(), any());
+        verify(processManager).resume(any());
+    }
+
+    @Test
+    public void testCompletionNotVisibleYet() {
+        UUID finished = UUID.randomUUID();
+        WaitingProcess a = completionWaiter(1, finished);
+        when(dao.findCompletionWaiters(finished, 2)).thenReturn(Collections.singletonList(a));
+        when(completionHandler.process(any(), any())).thenAnswer(i -> ProcessWaitHandler.Result.of(i.getArgument(1)));
+
+        assertFalse(watchdog.wakeUpCompletionWaiters(finished));
+        verify(processManager, never()).resume(any());
+    }
+
+    @Test
+    public void testFallbackPoll() throws Exception {
+        // the wake-up events were missed, the periodic run still finds all waiters
+        UUID finished = UUID.randomUUID();
+        WaitingProcess a = completionWaiter(1, finished);
+        WaitingProcess b = lockWaiter(2);
+        WaitingProcess c = completionWaiter(3, finished);
+
+        when(dao.nextWaitItems(null, 2)).thenReturn(Arrays.asList(a, b));
+        when(dao.nextWaitItems(2L, 2)).thenReturn(Collections.singletonList(c));
+
+        when(completionHandler.process(any(), any())).thenReturn(ProcessWaitHandler.Result.resume("done"));
+        when(lockHandler.process(any(), any())).thenReturn(ProcessWaitHandler.Result.action(tx -> {}));
+
+        watchdog.performTask();
+
+        verify(payloadManager).createResumePayload(a.processKey(), Collections.singleton("done"), null);
+        verify(payloadManager).createResumePayload(c.processKey(), Collections.singleton("done"), null);
+        verify(waitManager).setWait(any(), eq(b.processKey()), eq(Collections.emptyList()), eq(false), eq(b.version()));
+        verify(processManager, times(2)).resume(any());
+
+        // the last page was shorter than the limit
+        verify(dao, never()).nextWaitItems(eq(3L), anyInt());
+    }
+
+    private static WaitingProcess lockWaiter(long id) {
+        ProcessKey processKey = new ProcessKey(UUID.randomUUID(), OffsetDateTime.now());
+        return WaitingProcess.builder()
+                .processKey(processKey)
+                .id(id)
+                .addWaits(ProcessLockCondition.builder()
+                        .instanceId(processKey.getInstanceId())
+                        .orgId(ORG_ID)
+                        .projectId(UUID.randomUUID())
+                        .scope(ProcessLockScope.ORG)
+                        .name(LOCK_NAME)
+                        .build())
+                .version(id * 10)
+                .build();
+    }
+
+    private static WaitingProcess completionWaiter(long id, UUID... processes) {
+        return WaitingProcess.builder()
+                .processKey(new ProcessKey(UUID.randomUUID(), OffsetDateTime.now()))
+                .id(id)
+                .addWaits(ProcessCompletionCondition.builder()
+                        .processes(Arrays.asList(processes))
+                        .resumeEvent("done")
+                        .build())
+                .version(id * 10)
+                .build();
+    }
+}
@@ -0,0 +1,132 @@
+package com.walmartlabs.concord.server.security.apikey;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.audit.AuditAction;
+import com.walmartlabs.concord.server.audit.AuditLog;
+import com.walmartlabs.concord.server.audit.AuditObject;
+import com.walmartlabs.concord.server.cfg.ApiKeyConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ApiKeyAccessAuditorTest {
+
+    private AuditLog auditLog;
+    private AuditLog.EntryBuilder entry;
+
+    @BeforeEach
+    public void setUp() {
+        auditLog = mock(AuditLog.class);
+        entry = mock(AuditLog.EntryBuilder.class, RETURNS_SELF);
+        when(auditLog.add(AuditObject.SYSTEM, AuditAction.ACCESS)).thenReturn(entry);
+    }
+
+    @Test
+    public void testAggregation() {
+        ApiKeyAccessAuditor auditor = new ApiKeyAccessAuditor(cfg(Duration.ofMinutes(1)), auditLog);
+
+        UUID userId = UUID.randomUUID();
+        UUID keyA = UUID.randomUUID();
+        UUID keyB = UUID.randomUUID();
+
+        auditor.onAccess(userId, keyA, "apikey");
+        auditor.onAccess(userId, keyA, "apikey");
+        auditor.onAccess(userId, keyA, "apikey");
+        auditor.onAccess(userId, keyB, "apikey");
+
+        // nothing is written until the window ends
+        verify(auditLog, never()).add(any(), any());
+
+        auditor.performTask();
+
+        verify(entry, times(2)).log();
+        verify(entry).field("apiKeyId", keyA);
+        verify(entry).field("count", 3L);
+        verify(entry).field("apiKeyId", keyB);
+        verify(entry).field("count", 1L);
+
+        // the pending entries are gone after a successful flush
+        auditor.performTask();
+        verify(entry, times(2)).log();
+    }
+
+    @Test
+    public void testNoAggregation() {
+        ApiKeyAccessAuditor auditor = new ApiKeyAccessAuditor(cfg(Duration.ZERO), auditLog);
+
+        UUID apiKeyId = UUID.randomUUID();
+        auditor.onAccess(UUID.randomUUID(), apiKeyId, "apikey");
+        auditor.onAccess(UUID.randomUUID(), apiKeyId, "apikey");
+
+        verify(entry, times(2)).log();
+        verify(entry, never()).field(eq("count"), any());
+    }
+
+    @Test
+    public void testFlushFailure() {
+        ApiKeyAccessAuditor auditor = new ApiKeyAccessAuditor(cfg(Duration.ofMinutes(1)), auditLog);
+
+        UUID userId = UUID.randomUUID();
+        UUID apiKeyId = UUID.randomUUID();
+
+        auditor.onAccess(userId, apiKeyId, "apikey");
+        auditor.onAccess(userId, apiKeyId, "apikey");
+
+        doThrow(new RuntimeException("db is down")).doNothing().when(entry).log();
+        assertThrows(RuntimeException.class, auditor::performTask);
+
+        // new authentications are merged with the entry that failed to be written
+        auditor.onAccess(userId, apiKeyId, "apikey");
+        auditor.performTask();
+
+        verify(entry, times(2)).log();
+        verify(entry).field("count", 2L);
+        verify(entry).field("count", 3L);
+
+        // written only once
+        auditor.performTask();
+        verify(entry, times(2)).log();
+    }
+
+    @Test
+    public void testFlushOnStop() {
+        ApiKeyAccessAuditor auditor = new ApiKeyAccessAuditor(cfg(Duration.ofMinutes(1)), auditLog);
+
+        auditor.onAccess(UUID.randomUUID(), UUID.randomUUID(), "apikey");
+        auditor.stop();
+
+        verify(entry).log();
+    }
+
+    private static ApiKeyConfiguration cfg(Duration window) {
+        ApiKeyConfiguration cfg = mock(ApiKeyConfiguration.class);
+        when(cfg.getAccessAuditWindow()).thenReturn(window);
+        return cfg;
+    }
+}
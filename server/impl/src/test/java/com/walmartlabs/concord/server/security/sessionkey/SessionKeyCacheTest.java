@@ -0,0 +1,109 @@
+package com.walmartlabs.concord.server.security.sessionkey;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.Counter;
+import com.walmartlabs.concord.server.cfg.ProcessConfiguration;
+import com.walmartlabs.concord.server.process.queue.ProcessInitiatorEntry;
+import com.walmartlabs.concord.server.sdk.ProcessKey;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SessionKeyCacheTest {
+
+    @Test
+    public void testInvalidateOnStatusChange() {
+        SessionKeyCache cache = create(Duration.ofMinutes(1));
+        ProcessInitiatorEntry e = entry(ProcessStatus.RUNNING);
+
+        cache.put(e.instanceId(), e);
+        assertEquals(e, cache.get(e.instanceId()));
+
+        cache.onStatusChange(null, new ProcessKey(e.instanceId(), e.createdAt()), ProcessStatus.FINISHED);
+        assertNull(cache.get(e.instanceId()));
+    }
+
+    @Test
+    public void testStaleReadAfterStatusChange() {
+        SessionKeyCache cache = create(Duration.ofMinutes(1));
+        ProcessInitiatorEntry e = entry(ProcessStatus.RUNNING);
+
+        // the status is changed, but the transaction is not committed yet
+        cache.onStatusChange(null, new ProcessKey(e.instanceId(), e.createdAt()), ProcessStatus.FINISHED);
+
+        // a concurrent request reads the old status and tries to cache it
+        cache.put(e.instanceId(), e);
+        assertNull(cache.get(e.instanceId()));
+
+        // other processes are not affected
+        ProcessInitiatorEntry other = entry(ProcessStatus.RUNNING);
+        cache.put(other.instanceId(), other);
+        assertEquals(other, cache.get(other.instanceId()));
+    }
+
+    @Test
+    public void testCachingResumesAfterTtl() throws Exception {
+        SessionKeyCache cache = create(Duration.ofMillis(100));
+        ProcessInitiatorEntry e = entry(ProcessStatus.RUNNING);
+
+        cache.onStatusChange(null, new ProcessKey(e.instanceId(), e.createdAt()), ProcessStatus.RUNNING);
+        cache.put(e.instanceId(), e);
+        assertNull(cache.get(e.instanceId()));
+
+        Thread.sleep(200);
+
+        cache.put(e.instanceId(), e);
+        assertEquals(e, cache.get(e.instanceId()));
+    }
+
+    @Test
+    public void testDisabled() {
+        SessionKeyCache cache = create(Duration.ZERO);
+        ProcessInitiatorEntry e = entry(ProcessStatus.RUNNING);
+
+        cache.put(e.instanceId(), e);
+        assertNull(cache.get(e.instanceId()));
+        cache.onStatusChange(null, new ProcessKey(e.instanceId(), e.createdAt()), ProcessStatus.FINISHED);
+    }
+
+    private static SessionKeyCache create(Duration ttl) {
+        ProcessConfiguration cfg = mock(ProcessConfiguration.class);
+        when(cfg.getSessionKeyCacheTtl()).thenReturn(ttl);
+        return new SessionKeyCache(cfg, new Counter(), new Counter());
+    }
+
+    private static ProcessInitiatorEntry entry(ProcessStatus status) {
+        return ProcessInitiatorEntry.builder()
+                .instanceId(UUID.randomUUID())
+                .createdAt(OffsetDateTime.now())
+                .status(status)
+                .initiatorId(UUID.randomUUID())
+                .build();
+    }
+}
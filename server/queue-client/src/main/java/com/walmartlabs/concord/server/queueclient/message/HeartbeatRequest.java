@@ -0,0 +1,55 @@
+package com.walmartlabs.concord.server.queueclient.message;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Aggregated heartbeat of all processes currently running on an agent.
+ */
+public class HeartbeatRequest extends Message {
+
+    private final List<UUID> instanceIds;
+
+    @JsonCreator
+    public HeartbeatRequest(
+            @JsonProperty("instanceIds") List<UUID> instanceIds) {
+        super(MessageType.HEARTBEAT_REQUEST);
+        this.instanceIds = instanceIds != null ? instanceIds : Collections.emptyList();
+    }
+
+    public List<UUID> getInstanceIds() {
+        return instanceIds;
+    }
+
+    @Override
+    public String toString() {
+        return "HeartbeatRequest{" +
+                "correlationId='" + getCorrelationId() + "', " +
+                "instanceIds=" + instanceIds.size() +
+                '}';
+    }
+}
@@ -0,0 +1,57 @@
+package com.walmartlabs.concord.server.queueclient.message;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2023 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+public class HeartbeatResponse extends Message {
+
+    private final List<UUID> unknownInstanceIds;
+
+    /**
+     * @param unknownInstanceIds IDs of the processes not found on the server
+     */
+    @JsonCreator
+    public HeartbeatResponse(
+            @JsonProperty("correlationId") long correlationId,
+            @JsonProperty("unknownInstanceIds") List<UUID> unknownInstanceIds) {
+        super(MessageType.HEARTBEAT_RESPONSE);
+        setCorrelationId(correlationId);
+        this.unknownInstanceIds = unknownInstanceIds != null ? unknownInstanceIds : Collections.emptyList();
+    }
+
+    public List<UUID> getUnknownInstanceIds() {
+        return unknownInstanceIds;
+    }
+
+    @Override
+    public String toString() {
+        return "HeartbeatResponse{" +
+                "correlationId='" + getCorrelationId() + "', " +
+                "unknownInstanceIds=" + unknownInstanceIds +
+                '}';
+    }
+}
@@ -26,6 +26,7 @@ import com.walmartlabs.concord.imports.Imports;
 import com.walmartlabs.concord.server.queueclient.message.*;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.UUID;
 
@@ -79,6 +80,34 @@ public class MessageSerializerTest {
         assertEquals(r.getCorrelationId(), rDeserialized.getCorrelationId());
     }
 
+    @Test
+    public void testProcessRequestSlots() {
+        ProcessRequest r = new ProcessRequest(Collections.emptyMap(), 4);
+
+        ProcessRequest rDeserialized = MessageSerializer.deserialize(MessageSerializer.serialize(r));
+        assertEquals(4, rDeserialized.getSlots());
+
+        // requests from older agents
+        String str = "{\"capabilities\":{}, \"correlationId\":123, \"messageType\":\"PROCESS_REQUEST\"}";
+        rDeserialized = MessageSerializer.deserialize(str);
+        assertEquals(1, rDeserialized.getSlots());
+    }
+
+    @Test
+    public void testProcessBatchResponse() {
+        ProcessResponse a = new ProcessResponse(123, "token-a", UUID.randomUUID(), null, null, null, null, null, null, null);
+        ProcessResponse b = new ProcessResponse(123, "token-b", UUID.randomUUID(), null, null, null, null, null, null, null);
+        ProcessBatchResponse r = new ProcessBatchResponse(123, Arrays.asList(a, b));
+
+        // ---
+        ProcessBatchResponse rDeserialized = MessageSerializer.deserialize(MessageSerializer.serialize(r));
+        assertEquals(MessageType.PROCESS_BATCH_RESPONSE, rDeserialized.getMessageType());
+        assertEquals(123, rDeserialized.getCorrelationId());
+        assertEquals(2, rDeserialized.getProcesses().size());
+        assertEquals(b.getProcessId(), rDeserialized.getProcesses().get(1).getProcessId());
+        assertEquals("token-a", rDeserialized.getProcesses().get(0).getSessionToken());
+    }
+
     @Test
     public void testUnknownProperties() {
         String str = "{\"sessionToken\":\"123123\", \"correlationId\":123, \"processId\":\"b26a60c6-b54e-4f4d-bf0a-abafb908bf76\", \"messageType\":\"PROCESS_RESPONSE\"}";